@@ -26,7 +26,13 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.definitions.providers.ModelProvider;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveSnapshotCache;
+import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.item.ItemSpriteAtlas;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -40,11 +46,14 @@ public class Cache
 		Options options = new Options();
 
 		options.addOption("c", "cache", true, "cache base");
+		options.addOption(null, "snapshots", true, "directory to keep decompressed archive snapshots in");
 
 		options.addOption(null, "items", true, "directory to dump items to");
 		options.addOption(null, "npcs", true, "directory to dump npcs to");
 		options.addOption(null, "objects", true, "directory to dump objects to");
 		options.addOption(null, "sprites", true, "directory to dump sprites to");
+		options.addOption(null, "itemsprites", true, "directory to write the item sprite atlas to");
+		options.addOption(null, "threads", true, "number of threads to render item sprites with");
 
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd;
@@ -62,6 +71,10 @@ public class Cache
 		String cache = cmd.getOptionValue("cache");
 
 		Store store = loadStore(cache);
+		if (cmd.hasOption("snapshots"))
+		{
+			store.setSnapshotCache(new ArchiveSnapshotCache(new File(cmd.getOptionValue("snapshots"))));
+		}
 
 		if (cmd.hasOption("items"))
 		{
@@ -115,6 +128,21 @@ public class Cache
 			System.out.println("Dumping sprites to " + spritedir);
 			dumpSprites(store, new File(spritedir));
 		}
+		else if (cmd.hasOption("itemsprites"))
+		{
+			String itemspritedir = cmd.getOptionValue("itemsprites");
+
+			if (itemspritedir == null)
+			{
+				System.err.println("Item sprite directory must be specified");
+				return;
+			}
+
+			int threads = Integer.parseInt(cmd.getOptionValue("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+			System.out.println("Rendering item sprites to " + itemspritedir);
+			dumpItemSprites(store, new File(itemspritedir), threads);
+		}
 		else
 		{
 			System.err.println("Nothing to do");
@@ -158,4 +186,45 @@ public class Cache
 		dumper.load();
 		dumper.export(spritedir);
 	}
+
+	private static void dumpItemSprites(Store store, File itemspritedir, int threads) throws IOException
+	{
+		ItemManager itemManager = new ItemManager(store);
+		itemManager.load();
+		itemManager.link();
+
+		SpriteManager spriteManager = new SpriteManager(store);
+		spriteManager.load();
+
+		TextureManager textureManager = new TextureManager(store);
+		textureManager.load();
+
+		Index models = store.getIndex(IndexType.MODELS);
+		// sprite rendering modifies the model definitions, so each must be loaded fresh
+		ModelProvider modelProvider = modelId ->
+		{
+			Archive archive = models.getArchive(modelId);
+			if (archive == null)
+			{
+				return null;
+			}
+
+			byte[] data = archive.decompress(store.getStorage().loadArchive(archive));
+			return new ModelLoader().load(modelId, data);
+		};
+
+		int[] itemIds = itemManager.getItems().stream()
+			.filter(item -> item.name != null && !item.name.equalsIgnoreCase("null"))
+			.mapToInt(item -> item.id)
+			.sorted()
+			.toArray();
+
+		long start = System.nanoTime();
+		ItemSpriteAtlas atlas = ItemSpriteAtlas.render(itemManager, modelProvider, spriteManager, textureManager,
+			itemIds, 1, 1, 3153952, threads);
+		System.out.println("Rendered " + itemIds.length + " item sprites in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+		itemspritedir.mkdirs();
+		atlas.write(itemspritedir, "items");
+	}
 }
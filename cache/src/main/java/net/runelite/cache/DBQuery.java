@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import net.runelite.cache.definitions.DBTableIndex;
+import net.runelite.cache.definitions.providers.DBTableIndexProvider;
+
+/**
+ * A query for the rows of a database table matching all of a set of column values.
+ * <p>
+ * Filters on indexed columns are answered from the table's {@link DBTableIndex}es, smallest
+ * first, by intersecting their sorted row lists. The remaining filters are then checked against
+ * the {@link DBTableColumns} for just the rows which are left.
+ */
+public class DBQuery
+{
+	private static class Filter
+	{
+		private final int columnId;
+		private final int field;
+		private final Object value;
+		private int[] rows;
+
+		private Filter(int columnId, int field, Object value)
+		{
+			this.columnId = columnId;
+			this.field = field;
+			this.value = value;
+		}
+	}
+
+	private final DBTableIndexProvider indexProvider;
+	private final DBTableColumns columns;
+	private final List<Filter> filters = new ArrayList<>();
+
+	public DBQuery(DBTableIndexProvider indexProvider, DBTableColumns columns)
+	{
+		this.indexProvider = indexProvider;
+		this.columns = columns;
+	}
+
+	/**
+	 * Match rows with a tuple in the column whose first field is the value
+	 */
+	public DBQuery where(int columnId, Object value)
+	{
+		return where(columnId, 0, value);
+	}
+
+	/**
+	 * Match rows with a tuple in the column whose field is the value
+	 *
+	 * @param value an {@link Integer} or {@link String}, matching the field type
+	 */
+	public DBQuery where(int columnId, int field, Object value)
+	{
+		filters.add(new Filter(columnId, field, value));
+		return this;
+	}
+
+	/**
+	 * @return the ascending ids of the matching rows
+	 */
+	public int[] execute()
+	{
+		final List<Filter> indexed = new ArrayList<>();
+		final List<Filter> scanned = new ArrayList<>();
+		for (Filter filter : filters)
+		{
+			final DBTableIndex index = indexProvider.provide(columns.getTableId(), filter.columnId);
+			if (index != null)
+			{
+				filter.rows = index.lookup(filter.field, filter.value);
+				indexed.add(filter);
+			}
+			else
+			{
+				scanned.add(filter);
+			}
+		}
+
+		int[] rows;
+		if (indexed.isEmpty())
+		{
+			if (scanned.isEmpty())
+			{
+				return columns.getRowIds();
+			}
+
+			final Filter first = scanned.remove(0);
+			rows = columns.find(first.columnId, first.field, first.value);
+		}
+		else
+		{
+			indexed.sort(Comparator.comparingInt(f -> f.rows.length));
+			rows = indexed.get(0).rows;
+			for (int i = 1; i < indexed.size() && rows.length > 0; ++i)
+			{
+				rows = intersect(rows, indexed.get(i).rows);
+			}
+		}
+
+		int count = 0;
+		for (int row : rows)
+		{
+			boolean match = true;
+			for (Filter filter : scanned)
+			{
+				if (!columns.contains(row, filter.columnId, filter.field, filter.value))
+				{
+					match = false;
+					break;
+				}
+			}
+			if (match)
+			{
+				rows[count++] = row;
+			}
+		}
+		return count == rows.length ? rows : Arrays.copyOf(rows, count);
+	}
+
+	/**
+	 * Intersect two ascending row lists, a being the shorter
+	 */
+	static int[] intersect(int[] a, int[] b)
+	{
+		final int[] result = new int[a.length];
+		int count = 0;
+		if (a.length * 16 < b.length)
+		{
+			// b is much larger, so search it for each of a instead of walking all of it
+			int from = 0;
+			for (int row : a)
+			{
+				final int idx = Arrays.binarySearch(b, from, b.length, row);
+				if (idx >= 0)
+				{
+					result[count++] = row;
+					from = idx + 1;
+				}
+				else
+				{
+					from = -idx - 1;
+				}
+			}
+		}
+		else
+		{
+			int i = 0, j = 0;
+			while (i < a.length && j < b.length)
+			{
+				if (a[i] < b[j])
+				{
+					++i;
+				}
+				else if (a[i] > b[j])
+				{
+					++j;
+				}
+				else
+				{
+					result[count++] = a[i];
+					++i;
+					++j;
+				}
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+}
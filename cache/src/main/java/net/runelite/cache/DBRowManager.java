@@ -32,16 +32,14 @@ import java.util.Map;
 import net.runelite.cache.definitions.DBRowDefinition;
 import net.runelite.cache.definitions.loaders.DBRowLoader;
 import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 
 public class DBRowManager
 {
 	private final Store store;
 	private final Map<Integer, DBRowDefinition> rows = new HashMap<>();
+	private final Map<Integer, DBTableColumns> tables = new HashMap<>();
 
 	public DBRowManager(Store store)
 	{
@@ -52,7 +50,6 @@ public class DBRowManager
 	{
 		DBRowLoader loader = new DBRowLoader();
 
-		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.CONFIGS);
 		Archive archive = index.getArchive(ConfigType.DBROW.getId());
 
@@ -62,14 +59,8 @@ public class DBRowManager
 			return;
 		}
 
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile f : files.getFiles())
-		{
-			DBRowDefinition row = loader.load(f.getFileId(), f.getContents());
-			rows.put(f.getFileId(), row);
-		}
+		rows.putAll(store.getDefinitions(archive, DBRowDefinition.class, f -> loader.load(f.getFileId(), f.getContents())));
+		tables.clear();
 	}
 
 	public Collection<DBRowDefinition> getRows()
@@ -81,4 +72,15 @@ public class DBRowManager
 	{
 		return rows.get(rowId);
 	}
+
+	/**
+	 * Get the rows of a table, stored by column. The column store is built on first use.
+	 *
+	 * @param tableId The table id
+	 * @return The table's rows, which is empty if the table has none
+	 */
+	public synchronized DBTableColumns getTable(int tableId)
+	{
+		return tables.computeIfAbsent(tableId, id -> DBTableColumns.build(id, rows.values()));
+	}
 }
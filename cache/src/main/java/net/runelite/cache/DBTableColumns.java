@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import net.runelite.cache.definitions.DBRowDefinition;
+import net.runelite.cache.util.ScriptVarType;
+
+/**
+ * The rows of one database table, stored by column.
+ * <p>
+ * Each column of a row holds a list of tuples. For every column the tuples of all rows are stored
+ * back to back in row order, and each tuple field is kept in its own {@code int[]} or
+ * {@code String[]}, so scanning a column doesn't touch boxed values or other columns.
+ */
+public class DBTableColumns
+{
+	private static final int[] NO_ROWS = new int[0];
+
+	private static class Column
+	{
+		/**
+		 * the row's tuples are at [offsets[row], offsets[row + 1])
+		 */
+		private int[] offsets;
+		private boolean[] stringField;
+		private int[][] ints;
+		private String[][] strings;
+	}
+
+	private final int tableId;
+	/**
+	 * ascending row ids
+	 */
+	private final int[] rowIds;
+	private final Column[] columns;
+
+	private DBTableColumns(int tableId, int[] rowIds, Column[] columns)
+	{
+		this.tableId = tableId;
+		this.rowIds = rowIds;
+		this.columns = columns;
+	}
+
+	/**
+	 * Build the column store of a table
+	 *
+	 * @param tableId table id
+	 * @param rows the rows of the table, rows of other tables are ignored
+	 */
+	public static DBTableColumns build(int tableId, Collection<DBRowDefinition> rows)
+	{
+		final DBRowDefinition[] tableRows = rows.stream()
+			.filter(row -> row.getTableId() == tableId)
+			.sorted(Comparator.comparingInt(DBRowDefinition::getId))
+			.toArray(DBRowDefinition[]::new);
+
+		int columnCount = 0;
+		for (DBRowDefinition row : tableRows)
+		{
+			if (row.getColumnTypes() != null)
+			{
+				columnCount = Math.max(columnCount, row.getColumnTypes().length);
+			}
+		}
+
+		final Column[] columns = new Column[columnCount];
+		for (int columnId = 0; columnId < columnCount; ++columnId)
+		{
+			columns[columnId] = buildColumn(tableRows, columnId);
+		}
+
+		return new DBTableColumns(tableId, Arrays.stream(tableRows).mapToInt(DBRowDefinition::getId).toArray(), columns);
+	}
+
+	private static Column buildColumn(DBRowDefinition[] rows, int columnId)
+	{
+		// the column's types are the same for every row which has it
+		ScriptVarType[] types = null;
+		int total = 0;
+		for (DBRowDefinition row : rows)
+		{
+			final ScriptVarType[] rowTypes = columnTypes(row, columnId);
+			if (rowTypes != null && rowTypes.length > 0)
+			{
+				if (types == null)
+				{
+					types = rowTypes;
+				}
+				if (Arrays.equals(types, rowTypes))
+				{
+					total += row.getColumnValues()[columnId].length / rowTypes.length;
+				}
+			}
+		}
+
+		if (types == null)
+		{
+			return null;
+		}
+
+		final Column column = new Column();
+		column.offsets = new int[rows.length + 1];
+		column.stringField = new boolean[types.length];
+		column.ints = new int[types.length][];
+		column.strings = new String[types.length][];
+		for (int field = 0; field < types.length; ++field)
+		{
+			column.stringField[field] = types[field] == ScriptVarType.STRING;
+			if (column.stringField[field])
+			{
+				column.strings[field] = new String[total];
+			}
+			else
+			{
+				column.ints[field] = new int[total];
+			}
+		}
+
+		int tuple = 0;
+		for (int i = 0; i < rows.length; ++i)
+		{
+			final DBRowDefinition row = rows[i];
+			column.offsets[i] = tuple;
+
+			final ScriptVarType[] rowTypes = columnTypes(row, columnId);
+			if (rowTypes == null || !Arrays.equals(types, rowTypes))
+			{
+				continue;
+			}
+
+			final Object[] values = row.getColumnValues()[columnId];
+			for (int v = 0; v < values.length; v += types.length, ++tuple)
+			{
+				for (int field = 0; field < types.length; ++field)
+				{
+					if (column.stringField[field])
+					{
+						column.strings[field][tuple] = (String) values[v + field];
+					}
+					else
+					{
+						column.ints[field][tuple] = (Integer) values[v + field];
+					}
+				}
+			}
+		}
+		column.offsets[rows.length] = tuple;
+		return column;
+	}
+
+	private static ScriptVarType[] columnTypes(DBRowDefinition row, int columnId)
+	{
+		final ScriptVarType[][] types = row.getColumnTypes();
+		if (types == null || columnId >= types.length || row.getColumnValues()[columnId] == null)
+		{
+			return null;
+		}
+		return types[columnId];
+	}
+
+	public int getTableId()
+	{
+		return tableId;
+	}
+
+	public int getRowCount()
+	{
+		return rowIds.length;
+	}
+
+	/**
+	 * @return the ascending ids of the rows in the table
+	 */
+	public int[] getRowIds()
+	{
+		return rowIds.clone();
+	}
+
+	/**
+	 * Get the number of tuples in a row's column
+	 *
+	 * @return the number of tuples, or 0 if the row isn't in the table or doesn't have the column
+	 */
+	public int getTupleCount(int rowId, int columnId)
+	{
+		final Column column = column(columnId);
+		final int row = Arrays.binarySearch(rowIds, rowId);
+		if (column == null || row < 0)
+		{
+			return 0;
+		}
+		return column.offsets[row + 1] - column.offsets[row];
+	}
+
+	/**
+	 * Get an int field of a tuple
+	 *
+	 * @throws IndexOutOfBoundsException if the row doesn't have the tuple
+	 * @throws IllegalArgumentException if the field is a string
+	 */
+	public int getInt(int rowId, int columnId, int tuple, int field)
+	{
+		final Column column = column(columnId);
+		final int idx = tupleIndex(column, rowId, tuple);
+		if (column.ints[field] == null)
+		{
+			throw new IllegalArgumentException("field " + field + " of column " + columnId + " is not an int");
+		}
+		return column.ints[field][idx];
+	}
+
+	/**
+	 * Get a string field of a tuple
+	 *
+	 * @throws IndexOutOfBoundsException if the row doesn't have the tuple
+	 * @throws IllegalArgumentException if the field is not a string
+	 */
+	public String getString(int rowId, int columnId, int tuple, int field)
+	{
+		final Column column = column(columnId);
+		final int idx = tupleIndex(column, rowId, tuple);
+		if (column.strings[field] == null)
+		{
+			throw new IllegalArgumentException("field " + field + " of column " + columnId + " is not a string");
+		}
+		return column.strings[field][idx];
+	}
+
+	private int tupleIndex(Column column, int rowId, int tuple)
+	{
+		final int row = Arrays.binarySearch(rowIds, rowId);
+		if (column == null || row < 0 || tuple < 0 || column.offsets[row] + tuple >= column.offsets[row + 1])
+		{
+			throw new IndexOutOfBoundsException("row " + rowId + " has no tuple " + tuple);
+		}
+		return column.offsets[row] + tuple;
+	}
+
+	/**
+	 * Scan a column for rows with a tuple whose field has the given value
+	 *
+	 * @param value an {@link Integer} or {@link String}, matching the field type
+	 * @return ascending row ids
+	 */
+	public int[] find(int columnId, int field, Object value)
+	{
+		final Column column = column(columnId);
+		if (column == null || field < 0 || field >= column.stringField.length)
+		{
+			return NO_ROWS;
+		}
+
+		int[] result = new int[16];
+		int count = 0;
+		for (int row = 0; row < rowIds.length; ++row)
+		{
+			if (matches(column, row, field, value))
+			{
+				if (count == result.length)
+				{
+					result = Arrays.copyOf(result, count * 2);
+				}
+				result[count++] = rowIds[row];
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Test if a row has a tuple in the column whose field has the given value
+	 */
+	public boolean contains(int rowId, int columnId, int field, Object value)
+	{
+		final Column column = column(columnId);
+		final int row = Arrays.binarySearch(rowIds, rowId);
+		return column != null && row >= 0 && field >= 0 && field < column.stringField.length
+			&& matches(column, row, field, value);
+	}
+
+	private static boolean matches(Column column, int row, int field, Object value)
+	{
+		final int start = column.offsets[row];
+		final int end = column.offsets[row + 1];
+		if (column.stringField[field])
+		{
+			final String[] strings = column.strings[field];
+			for (int i = start; i < end; ++i)
+			{
+				if (strings[i] != null && strings[i].equals(value))
+				{
+					return true;
+				}
+			}
+		}
+		else if (value instanceof Integer)
+		{
+			final int v = (Integer) value;
+			final int[] ints = column.ints[field];
+			for (int i = start; i < end; ++i)
+			{
+				if (ints[i] == v)
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Column column(int columnId)
+	{
+		return columnId >= 0 && columnId < columns.length ? columns[columnId] : null;
+	}
+}
@@ -31,14 +31,12 @@ import java.util.HashMap;
 import java.util.Map;
 import net.runelite.cache.definitions.DBTableIndex;
 import net.runelite.cache.definitions.loaders.DBTableIndexLoader;
+import net.runelite.cache.definitions.providers.DBTableIndexProvider;
 import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 
-public class DBTableIndexManager
+public class DBTableIndexManager implements DBTableIndexProvider
 {
 	private final Store store;
 	private final Map<Integer, DBTableIndex> indexes = new HashMap<>();
@@ -52,7 +50,6 @@ public class DBTableIndexManager
 	{
 		DBTableIndexLoader loader = new DBTableIndexLoader();
 
-		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.DBTABLEINDEX);
 		if (index == null)
 		{
@@ -61,15 +58,10 @@ public class DBTableIndexManager
 
 		for (Archive archive : index.getArchives())
 		{
-			byte[] archiveData = storage.loadArchive(archive);
-			ArchiveFiles files = archive.getFiles(archiveData);
-
-			for (FSFile f : files.getFiles())
-			{
-				// file 0 = master index, all others are fileId - 1 = columnId
-				DBTableIndex row = loader.load(archive.getArchiveId(), f.getFileId() - 1, f.getContents());
-				indexes.put(archive.getArchiveId() << 16 | f.getFileId(), row);
-			}
+			// file 0 = master index, all others are fileId - 1 = columnId
+			Map<Integer, DBTableIndex> rows = store.getDefinitions(archive, DBTableIndex.class,
+				f -> loader.load(archive.getArchiveId(), f.getFileId() - 1, f.getContents()));
+			rows.forEach((fileId, row) -> indexes.put(archive.getArchiveId() << 16 | fileId, row));
 		}
 	}
 
@@ -100,4 +92,10 @@ public class DBTableIndexManager
 	{
 		return indexes.get(tableId << 16 | columnId + 1);
 	}
+
+	@Override
+	public DBTableIndex provide(int tableId, int columnId)
+	{
+		return get(tableId, columnId);
+	}
 }
@@ -32,10 +32,7 @@ import java.util.Map;
 import net.runelite.cache.definitions.DBTableDefinition;
 import net.runelite.cache.definitions.loaders.DBTableLoader;
 import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 
 public class DBTableManager
@@ -52,7 +49,6 @@ public class DBTableManager
 	{
 		DBTableLoader loader = new DBTableLoader();
 
-		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.CONFIGS);
 		Archive archive = index.getArchive(ConfigType.DBTABLE.getId());
 
@@ -62,14 +58,7 @@ public class DBTableManager
 			return;
 		}
 
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile f : files.getFiles())
-		{
-			DBTableDefinition table = loader.load(f.getFileId(), f.getContents());
-			tables.put(f.getFileId(), table);
-		}
+		tables.putAll(store.getDefinitions(archive, DBTableDefinition.class, f -> loader.load(f.getFileId(), f.getContents())));
 	}
 
 	public Collection<DBTableDefinition> getTables()
@@ -26,11 +26,23 @@ package net.runelite.cache;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Set;
+import javax.imageio.ImageIO;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
+import net.runelite.cache.region.RegionDiff;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.KeyProvider;
+import net.runelite.cache.util.XteaKeyManager;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +61,92 @@ public class HeightMapDumper
 		this.store = store;
 	}
 
+	public static void main(String[] args) throws IOException
+	{
+		Options options = new Options();
+		options.addOption(Option.builder().longOpt("cachedir").hasArg().required().build());
+		options.addOption(Option.builder().longOpt("xteapath").hasArg().required().build());
+		options.addOption(Option.builder().longOpt("outputdir").hasArg().required().build());
+		options.addOption(Option.builder().longOpt("previouscachedir").hasArg().desc("only redraw regions changed since this cache onto the existing height maps").build());
+
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd;
+		try
+		{
+			cmd = parser.parse(options, args);
+		}
+		catch (ParseException ex)
+		{
+			System.err.println("Error parsing command line options: " + ex.getMessage());
+			System.exit(-1);
+			return;
+		}
+
+		final String cacheDirectory = cmd.getOptionValue("cachedir");
+		final String xteaJSONPath = cmd.getOptionValue("xteapath");
+		final String outputDirectory = cmd.getOptionValue("outputdir");
+		final String previousCacheDirectory = cmd.getOptionValue("previouscachedir");
+
+		XteaKeyManager xteaKeyManager = new XteaKeyManager();
+		try (FileInputStream fin = new FileInputStream(xteaJSONPath))
+		{
+			xteaKeyManager.loadKeys(fin);
+		}
+
+		File outDir = new File(outputDirectory);
+		outDir.mkdirs();
+
+		try (Store store = new Store(new File(cacheDirectory)))
+		{
+			store.load();
+
+			Set<Integer> changedRegions = null;
+			if (previousCacheDirectory != null)
+			{
+				try (Store previousStore = new Store(new File(previousCacheDirectory)))
+				{
+					previousStore.load();
+
+					// heights only come from the region's own map archive, so neither
+					// the neighboring regions nor the definitions have to be redrawn
+					changedRegions = RegionDiff.diff(previousStore, store).getChangedRegions();
+					logger.info("{} regions changed", changedRegions.size());
+				}
+			}
+
+			HeightMapDumper dumper = new HeightMapDumper(store);
+			dumper.load(xteaKeyManager);
+
+			for (int z = 0; z < Region.Z; ++z)
+			{
+				File imageFile = new File(outDir, "heightmap-" + z + ".png");
+
+				BufferedImage image = null;
+				if (changedRegions != null && imageFile.exists())
+				{
+					image = ImageIO.read(imageFile);
+					try
+					{
+						dumper.drawRegions(image, z, changedRegions);
+					}
+					catch (IllegalArgumentException ex)
+					{
+						logger.info("The map bounds have changed, redrawing plane {}", z);
+						image = null;
+					}
+				}
+
+				if (image == null)
+				{
+					image = dumper.drawHeightMap(z);
+				}
+
+				ImageIO.write(image, "png", imageFile);
+				logger.info("Wrote image {}", imageFile);
+			}
+		}
+	}
+
 	public void load(KeyProvider keyProvider) throws IOException
 	{
 		regionLoader = new RegionLoader(store, keyProvider);
@@ -84,24 +182,10 @@ public class HeightMapDumper
 
 		for (Region region : regionLoader.getRegions())
 		{
-			int baseX = region.getBaseX();
-			int baseY = region.getBaseY();
-
-			// to pixel X
-			int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
-
-			// to pixel Y. top most y is 0, but the top most
-			// region has the greatest y, so invert
-			int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
-
 			for (int x = 0; x < Region.X; ++x)
 			{
-				int drawX = drawBaseX + x;
-
 				for (int y = 0; y < Region.Y; ++y)
 				{
-					int drawY = drawBaseY + (Region.Y - 1 - y);
-
 					int height = region.getTileHeight(z, x, y);
 					if (height > max)
 					{
@@ -111,17 +195,88 @@ public class HeightMapDumper
 					{
 						min = height;
 					}
-
-					int rgb = toColor(height);
-
-					drawMapSquare(image, drawX, drawY, rgb);
 				}
 			}
+
+			drawRegion(image, z, region);
 		}
 		System.out.println("max " + max);
 		System.out.println("min " + min);
 	}
 
+	/**
+	 * Redraw regions onto a height map previously drawn by {@link #drawHeightMap(int)}.
+	 * The bounds of the map must not have changed since it was drawn.
+	 *
+	 * @param image height map
+	 * @param z plane
+	 * @param regionIds regions to redraw
+	 * @see net.runelite.cache.region.RegionDiff#getChangedRegions()
+	 */
+	public void drawRegions(BufferedImage image, int z, Set<Integer> regionIds)
+	{
+		int dimX = (regionLoader.getHighestX().getBaseX() + Region.X - regionLoader.getLowestX().getBaseX()) * MAP_SCALE;
+		int dimY = (regionLoader.getHighestY().getBaseY() + Region.Y - regionLoader.getLowestY().getBaseY()) * MAP_SCALE;
+		if (image.getWidth() != dimX || image.getHeight() != dimY)
+		{
+			throw new IllegalArgumentException("map bounds have changed");
+		}
+
+		for (int regionId : regionIds)
+		{
+			Region region = regionLoader.findRegionForRegionCoordinates(regionId >> 8, regionId & 0xFF);
+			if (region != null)
+			{
+				drawRegion(image, z, region);
+				continue;
+			}
+
+			// the region was removed, clear it
+			int drawBaseX = ((regionId >> 8) << 6) - regionLoader.getLowestX().getBaseX();
+			int drawBaseY = regionLoader.getHighestY().getBaseY() - ((regionId & 0xFF) << 6);
+			for (int x = 0; x < Region.X; ++x)
+			{
+				for (int y = 0; y < Region.Y; ++y)
+				{
+					int drawX = drawBaseX + x;
+					int drawY = drawBaseY + y;
+					if (drawX >= 0 && drawY >= 0 && drawX * MAP_SCALE < dimX && drawY * MAP_SCALE < dimY)
+					{
+						drawMapSquare(image, drawX, drawY, 0);
+					}
+				}
+			}
+		}
+	}
+
+	private void drawRegion(BufferedImage image, int z, Region region)
+	{
+		int baseX = region.getBaseX();
+		int baseY = region.getBaseY();
+
+		// to pixel X
+		int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
+
+		// to pixel Y. top most y is 0, but the top most
+		// region has the greatest y, so invert
+		int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
+
+		for (int x = 0; x < Region.X; ++x)
+		{
+			int drawX = drawBaseX + x;
+
+			for (int y = 0; y < Region.Y; ++y)
+			{
+				int drawY = drawBaseY + (Region.Y - 1 - y);
+
+				int height = region.getTileHeight(z, x, y);
+				int rgb = toColor(height);
+
+				drawMapSquare(image, drawX, drawY, rgb);
+			}
+		}
+	}
+
 	private int toColor(int height)
 	{
 		// height seems to be between -2040 and 0, inclusive
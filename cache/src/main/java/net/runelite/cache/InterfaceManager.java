@@ -27,14 +27,12 @@ package net.runelite.cache;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Map;
 import net.runelite.cache.definitions.InterfaceDefinition;
 import net.runelite.cache.definitions.exporters.InterfaceExporter;
 import net.runelite.cache.definitions.loaders.InterfaceLoader;
 import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.util.Namer;
 
@@ -53,7 +51,6 @@ public class InterfaceManager
 	{
 		InterfaceLoader loader = new InterfaceLoader();
 
-		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.INTERFACES);
 
 		int max = index.getArchives().stream().mapToInt(a -> a.getArchiveId()).max().getAsInt();
@@ -62,8 +59,8 @@ public class InterfaceManager
 		for (Archive archive : index.getArchives())
 		{
 			int archiveId = archive.getArchiveId();
-			byte[] archiveData = storage.loadArchive(archive);
-			ArchiveFiles files = archive.getFiles(archiveData);
+			Map<Integer, InterfaceDefinition> files = store.getDefinitions(archive, InterfaceDefinition.class,
+				file -> loader.load((archiveId << 16) + file.getFileId(), file.getContents()));
 
 			InterfaceDefinition[] ifaces = interfaces[archiveId];
 			if (ifaces == null)
@@ -71,14 +68,9 @@ public class InterfaceManager
 				ifaces = interfaces[archiveId] = new InterfaceDefinition[archive.getFileData().length];
 			}
 
-			for (FSFile file : files.getFiles())
+			for (Map.Entry<Integer, InterfaceDefinition> entry : files.entrySet())
 			{
-				int fileId = file.getFileId();
-
-				int widgetId = (archiveId << 16) + fileId;
-
-				InterfaceDefinition iface = loader.load(widgetId, file.getContents());
-				ifaces[fileId] = iface;
+				ifaces[entry.getKey()] = entry.getValue();
 			}
 		}
 	}
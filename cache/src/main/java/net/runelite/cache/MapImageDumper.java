@@ -26,18 +26,29 @@ package net.runelite.cache;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import javax.imageio.ImageIO;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Value;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.definitions.AreaDefinition;
@@ -61,6 +72,7 @@ import net.runelite.cache.models.JagexColor;
 import net.runelite.cache.region.Location;
 import net.runelite.cache.region.Position;
 import net.runelite.cache.region.Region;
+import net.runelite.cache.region.RegionDiff;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.BigBufferedImage;
 import net.runelite.cache.util.KeyProvider;
@@ -78,9 +90,106 @@ public class MapImageDumper
 {
 	private static final int MAP_SCALE = 4; // this squared is the number of pixels per map square
 	private static final int BLEND = 5; // number of surrounding tiles for ground blending
+	private static final int TILE_SIZE = Region.X * MAP_SCALE; // one region per tile at the deepest zoom level
+	private static final String TILE_GRID_FILE = "grid.properties";
 
 	private static byte[][][] TILE_SHAPE_2D;
 
+	/**
+	 * The placement of regions in a slippy map tile pyramid. At the deepest zoom level each
+	 * region is one tile, with region {@code originX, originY} at tile {@code 0, 0} and tile y
+	 * increasing southwards, so that every region in the grid has a tile index below
+	 * {@code 2^(zoomLevels - 1)}.
+	 */
+	@Value
+	public static class TileGrid
+	{
+		/**
+		 * region x of the western most tile column
+		 */
+		private final int originX;
+		/**
+		 * region y of the northern most tile row
+		 */
+		private final int originY;
+		private final int zoomLevels;
+
+		/**
+		 * Create a grid covering the given regions, placing the north west region at the origin.
+		 *
+		 * @param zoomLevels number of zoom levels, or -1 to use as few as will fit the regions
+		 * @throws IllegalArgumentException if the regions do not fit in the given number of zoom levels
+		 */
+		public static TileGrid of(int minRegionX, int minRegionY, int maxRegionX, int maxRegionY, int zoomLevels)
+		{
+			int span = Math.max(maxRegionX - minRegionX, maxRegionY - minRegionY) + 1;
+			int required = 33 - Integer.numberOfLeadingZeros(span - 1);
+			if (zoomLevels == -1)
+			{
+				zoomLevels = required;
+			}
+			else if (zoomLevels < required)
+			{
+				throw new IllegalArgumentException("a map " + span + " regions across needs at least " + required + " zoom levels");
+			}
+			return new TileGrid(minRegionX, maxRegionY, zoomLevels);
+		}
+
+		public int getMaxZoom()
+		{
+			return zoomLevels - 1;
+		}
+
+		public int tileX(int regionX)
+		{
+			return regionX - originX;
+		}
+
+		public int tileY(int regionY)
+		{
+			return originY - regionY;
+		}
+
+		public boolean contains(int regionX, int regionY)
+		{
+			int size = 1 << getMaxZoom();
+			int x = tileX(regionX), y = tileY(regionY);
+			return x >= 0 && y >= 0 && x < size && y < size;
+		}
+
+		public static TileGrid read(File file) throws IOException
+		{
+			Properties properties = new Properties();
+			try (InputStream in = new FileInputStream(file))
+			{
+				properties.load(in);
+			}
+
+			try
+			{
+				return new TileGrid(Integer.parseInt(properties.getProperty("originX")),
+					Integer.parseInt(properties.getProperty("originY")),
+					Integer.parseInt(properties.getProperty("zoomLevels")));
+			}
+			catch (NumberFormatException ex)
+			{
+				throw new IOException("invalid tile grid " + file, ex);
+			}
+		}
+
+		public void write(File file) throws IOException
+		{
+			Properties properties = new Properties();
+			properties.setProperty("originX", String.valueOf(originX));
+			properties.setProperty("originY", String.valueOf(originY));
+			properties.setProperty("zoomLevels", String.valueOf(zoomLevels));
+			try (OutputStream out = new FileOutputStream(file))
+			{
+				properties.store(out, null);
+			}
+		}
+	}
+
 	private final int wallColor = (238 + (int) (random() * 20.0D) - 10 << 16) + (238 + (int) (random() * 20.0D) - 10 << 8) + (238 + (int) (random() * 20.0D) - 10);
 	private final int doorColor = 238 + (int) (random() * 20.0D) - 10 << 16;
 
@@ -97,6 +206,8 @@ public class MapImageDumper
 	private final WorldMapManager worldMapManager;
 	private RSTextureProvider rsTextureProvider;
 	private final ObjectManager objectManager;
+	// how many map squares away from their own square objects and icons can be drawn
+	private int drawOverlap;
 
 	@Getter
 	@Setter
@@ -160,6 +271,9 @@ public class MapImageDumper
 		options.addOption(Option.builder().longOpt("cachedir").hasArg().required().build());
 		options.addOption(Option.builder().longOpt("xteapath").hasArg().required().build());
 		options.addOption(Option.builder().longOpt("outputdir").hasArg().required().build());
+		options.addOption(Option.builder().longOpt("tiles").desc("write slippy map tiles instead of one image per plane").build());
+		options.addOption(Option.builder().longOpt("zoomlevels").hasArg().desc("number of tile zoom levels, by default as few as fit the map").build());
+		options.addOption(Option.builder().longOpt("previouscachedir").hasArg().desc("only redraw tiles of regions changed since this cache").build());
 
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd;
@@ -177,6 +291,9 @@ public class MapImageDumper
 		final String cacheDirectory = cmd.getOptionValue("cachedir");
 		final String xteaJSONPath = cmd.getOptionValue("xteapath");
 		final String outputDirectory = cmd.getOptionValue("outputdir");
+		final boolean tiles = cmd.hasOption("tiles");
+		final int zoomLevels = Integer.parseInt(cmd.getOptionValue("zoomlevels", "-1"));
+		final String previousCacheDirectory = cmd.getOptionValue("previouscachedir");
 
 		XteaKeyManager xteaKeyManager = new XteaKeyManager();
 		try (FileInputStream fin = new FileInputStream(xteaJSONPath))
@@ -192,11 +309,71 @@ public class MapImageDumper
 		{
 			store.load();
 
+			Set<Integer> changedRegions = null;
+			if (tiles && previousCacheDirectory != null)
+			{
+				try (Store previousStore = new Store(new File(previousCacheDirectory)))
+				{
+					previousStore.load();
+
+					RegionDiff diff = RegionDiff.diff(previousStore, store);
+					if (!diff.isDefinitionsChanged())
+					{
+						changedRegions = diff.getAffectedRegions();
+						log.info("{} regions changed, redrawing {} regions", diff.getChangedRegions().size(), changedRegions.size());
+					}
+				}
+			}
+
 			MapImageDumper dumper = new MapImageDumper(store, xteaKeyManager);
 			dumper.load();
 
+			TileGrid grid = null;
+			File gridFile = new File(outDir, TILE_GRID_FILE);
+			if (changedRegions != null)
+			{
+				// changed regions can only be redrawn onto tiles numbered by the same grid
+				TileGrid previous = gridFile.exists() ? TileGrid.read(gridFile) : null;
+				if (previous != null
+					&& (zoomLevels == -1 || zoomLevels == previous.getZoomLevels())
+					&& changedRegions.stream().allMatch(id -> previous.contains(id >> 8, id & 0xFF)))
+				{
+					grid = previous;
+				}
+				else
+				{
+					log.info("The tile grid has changed, redrawing all regions");
+					changedRegions = null;
+				}
+			}
+
+			if (tiles && grid == null)
+			{
+				grid = dumper.getTileGrid(zoomLevels);
+			}
+
+			if (grid != null)
+			{
+				log.info("Tile grid has origin region {},{} and {} zoom levels", grid.getOriginX(), grid.getOriginY(), grid.getZoomLevels());
+			}
+
 			for (int i = 0; i < Region.Z; ++i)
 			{
+				if (tiles)
+				{
+					File tileDir = new File(outDir, String.valueOf(i));
+					if (changedRegions != null)
+					{
+						dumper.drawTiles(i, tileDir, grid, changedRegions);
+					}
+					else
+					{
+						dumper.drawTiles(i, tileDir, grid);
+					}
+					log.info("Wrote tiles for plane {}", i);
+					continue;
+				}
+
 				BufferedImage image = dumper.drawMap(i);
 
 				File imageFile = new File(outDir, "img-" + i + ".png");
@@ -204,6 +381,11 @@ public class MapImageDumper
 				ImageIO.write(image, "png", imageFile);
 				log.info("Wrote image {}", imageFile);
 			}
+
+			if (grid != null)
+			{
+				grid.write(gridFile);
+			}
 		}
 	}
 
@@ -229,10 +411,40 @@ public class MapImageDumper
 		loadSprites();
 		fonts.load();
 		worldMapManager.load();
+		drawOverlap = calculateDrawOverlap();
 
 		return this;
 	}
 
+	private int calculateDrawOverlap()
+	{
+		int overlap = 1;
+		float scale = MAP_SCALE / (float) 4;
+		for (ObjectDefinition object : objectManager.getObjects())
+		{
+			int mapSceneId = object.getMapSceneID();
+			if (mapSceneId < 0 || mapSceneId >= mapDecorations.length || mapDecorations[mapSceneId] == null)
+			{
+				continue;
+			}
+
+			SpriteDefinition sprite = mapDecorations[mapSceneId];
+			int spritePixels = (int) Math.ceil(Math.max(sprite.getMaxWidth(), sprite.getMaxHeight()) * scale);
+			int objectSquares = Math.max(Math.max(object.getSizeX(), object.getSizeY()), Math.max(2, object.getOffsetY()));
+			overlap = Math.max(overlap, spritePixels / MAP_SCALE + objectSquares + 1);
+		}
+
+		for (AreaDefinition area : areas.getAreas())
+		{
+			SpriteDefinition sprite = sprites.findSprite(area.spriteId, 0);
+			if (sprite != null)
+			{
+				overlap = Math.max(overlap, Math.max(sprite.getMaxWidth(), sprite.getMaxHeight()) / 2 / MAP_SCALE + 1);
+			}
+		}
+		return overlap;
+	}
+
 	public BufferedImage drawMap(int z)
 	{
 		int minX = regionLoader.getLowestX().getBaseX();
@@ -269,6 +481,309 @@ public class MapImageDumper
 		return image;
 	}
 
+	/**
+	 * Get a tile grid covering every loaded region.
+	 *
+	 * @param zoomLevels number of zoom levels, or -1 to use as few as will fit the map
+	 * @return tile grid
+	 */
+	public TileGrid getTileGrid(int zoomLevels)
+	{
+		return TileGrid.of(regionLoader.getLowestX().getRegionX(), regionLoader.getLowestY().getRegionY(),
+			regionLoader.getHighestX().getRegionX(), regionLoader.getHighestY().getRegionY(), zoomLevels);
+	}
+
+	/**
+	 * Render a plane as slippy map tiles, written to {@code outDir/zoom/x/y.png}.
+	 * <p>
+	 * The deepest zoom level has one 256px tile per region, numbered by the tile grid. Each
+	 * shallower level is downscaled from the tiles already written to disk. Tiles are rendered
+	 * in parallel and only a handful are held in memory at once, so memory use does not grow
+	 * with the size of the map. Tiles already in {@code outDir} which are not part of the new
+	 * tile set, such as those of removed regions, are deleted.
+	 *
+	 * @param z plane
+	 * @param outDir directory to write tiles to
+	 * @param grid tile grid, which must contain every loaded region
+	 * @throws IOException
+	 */
+	public void drawTiles(int z, File outDir, TileGrid grid) throws IOException
+	{
+		Set<Integer> regionIds = new HashSet<>();
+		for (Region region : regionLoader.getRegions())
+		{
+			regionIds.add(region.getRegionID());
+		}
+
+		drawTiles(z, outDir, grid, regionIds);
+		pruneTiles(outDir, grid, regionIds);
+	}
+
+	static void pruneTiles(File outDir, TileGrid grid, Set<Integer> regionIds)
+	{
+		// every tile of the tile set, by zoom level
+		List<Set<Long>> levels = new ArrayList<>();
+		Set<Long> tiles = new HashSet<>();
+		for (int regionId : regionIds)
+		{
+			tiles.add(packTile(grid.tileX(regionId >> 8), grid.tileY(regionId & 0xFF)));
+		}
+		for (int zoom = grid.getMaxZoom(); zoom >= 0; --zoom)
+		{
+			levels.add(0, tiles);
+			Set<Long> parents = new HashSet<>();
+			for (long tile : tiles)
+			{
+				parents.add(packTile(tileX(tile) >> 1, tileY(tile) >> 1));
+			}
+			tiles = parents;
+		}
+
+		File[] zoomDirs = outDir.listFiles(File::isDirectory);
+		if (zoomDirs == null)
+		{
+			return;
+		}
+
+		for (File zoomDir : zoomDirs)
+		{
+			Integer zoom = parseTileIndex(zoomDir.getName());
+			if (zoom == null)
+			{
+				continue;
+			}
+
+			Set<Long> level = zoom < levels.size() ? levels.get(zoom) : Collections.emptySet();
+			File[] xDirs = zoomDir.listFiles(File::isDirectory);
+			for (File xDir : xDirs == null ? new File[0] : xDirs)
+			{
+				Integer x = parseTileIndex(xDir.getName());
+				File[] files = xDir.listFiles((dir, name) -> name.endsWith(".png"));
+				if (x == null || files == null)
+				{
+					continue;
+				}
+
+				for (File file : files)
+				{
+					Integer y = parseTileIndex(file.getName().substring(0, file.getName().length() - 4));
+					if (y != null && !level.contains(packTile(x, y)))
+					{
+						log.debug("Deleting stale tile {}", file);
+						file.delete();
+					}
+				}
+				xDir.delete(); // only if empty
+			}
+			zoomDir.delete();
+		}
+	}
+
+	private static Integer parseTileIndex(String name)
+	{
+		try
+		{
+			int index = Integer.parseInt(name);
+			return index >= 0 ? index : null;
+		}
+		catch (NumberFormatException ex)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Redraw the tiles of the given regions into an existing tile set, along with every
+	 * shallower tile containing them. Tiles of regions which no longer exist are deleted.
+	 *
+	 * @param z plane
+	 * @param outDir directory containing the tile set
+	 * @param grid tile grid of the tile set
+	 * @param regionIds regions to redraw
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a region is outside of the tile grid
+	 * @see net.runelite.cache.region.RegionDiff#getAffectedRegions()
+	 */
+	public void drawTiles(int z, File outDir, TileGrid grid, Set<Integer> regionIds) throws IOException
+	{
+		if (TILE_SHAPE_2D == null)
+		{
+			generateTileShapes();
+		}
+
+		int maxZoom = grid.getMaxZoom();
+
+		Set<Long> tiles = new HashSet<>();
+		for (int regionId : regionIds)
+		{
+			int x = regionId >> 8;
+			int y = regionId & 0xFF;
+			if (!grid.contains(x, y))
+			{
+				throw new IllegalArgumentException("region " + regionId + " is outside of the tile grid " + grid);
+			}
+			tiles.add(packTile(grid.tileX(x), grid.tileY(y)));
+		}
+
+		try
+		{
+			regionIds.parallelStream().forEach(regionId ->
+			{
+				int x = regionId >> 8;
+				int y = regionId & 0xFF;
+				Region region = regionLoader.findRegionForRegionCoordinates(x, y);
+				if (region == null)
+				{
+					tileFile(outDir, maxZoom, grid.tileX(x), grid.tileY(y)).delete();
+					return;
+				}
+
+				BufferedImage image = drawRegionTile(region, z);
+				writeTile(image, outDir, maxZoom, grid.tileX(x), grid.tileY(y));
+			});
+
+			for (int zoom = maxZoom; zoom > 0; --zoom)
+			{
+				Set<Long> parents = new HashSet<>();
+				for (long tile : tiles)
+				{
+					parents.add(packTile(tileX(tile) >> 1, tileY(tile) >> 1));
+				}
+
+				final int childZoom = zoom;
+				parents.parallelStream().forEach(tile ->
+				{
+					BufferedImage image = downscaleTile(outDir, childZoom, tileX(tile), tileY(tile));
+					if (image == null)
+					{
+						tileFile(outDir, childZoom - 1, tileX(tile), tileY(tile)).delete();
+						return;
+					}
+
+					writeTile(image, outDir, childZoom - 1, tileX(tile), tileY(tile));
+				});
+				tiles = parents;
+			}
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * Draw a single region tile, including the objects, icons and labels of the
+	 * neighboring regions which spill over into it. Only the edges of the neighboring
+	 * regions which can reach the tile are drawn.
+	 *
+	 * @param region region
+	 * @param z plane
+	 * @return tile image
+	 */
+	public BufferedImage drawRegionTile(Region region, int z)
+	{
+		BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, transparency ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+
+		List<Region> neighbors = new ArrayList<>(9);
+		for (int dx = -1; dx <= 1; ++dx)
+		{
+			for (int dy = -1; dy <= 1; ++dy)
+			{
+				Region neighbor = regionLoader.findRegionForRegionCoordinates(region.getRegionX() + dx, region.getRegionY() + dy);
+				if (neighbor != null)
+				{
+					neighbors.add(neighbor);
+				}
+			}
+		}
+		neighbors.sort(Comparator.comparingInt(Region::getRegionID));
+
+		drawMap(image, 0, 0, z, region);
+
+		for (Region neighbor : neighbors)
+		{
+			drawObjects(image, neighbor.getBaseX() - region.getBaseX(), region.getBaseY() - neighbor.getBaseY(), neighbor, z);
+		}
+
+		for (Region neighbor : neighbors)
+		{
+			drawMapIcons(image, neighbor.getBaseX() - region.getBaseX(), region.getBaseY() - neighbor.getBaseY(), neighbor, z);
+		}
+
+		drawMapLabels(image, z, region.getBaseX(), region.getBaseY(), region);
+
+		return image;
+	}
+
+	static BufferedImage downscaleTile(File outDir, int zoom, int x, int y)
+	{
+		BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		boolean empty = true;
+
+		for (int dx = 0; dx < 2; ++dx)
+		{
+			for (int dy = 0; dy < 2; ++dy)
+			{
+				File file = tileFile(outDir, zoom, x * 2 + dx, y * 2 + dy);
+				if (!file.exists())
+				{
+					continue;
+				}
+
+				try
+				{
+					BufferedImage child = ImageIO.read(file);
+					graphics.drawImage(child, dx * TILE_SIZE / 2, dy * TILE_SIZE / 2, TILE_SIZE / 2, TILE_SIZE / 2, null);
+					empty = false;
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}
+		}
+
+		graphics.dispose();
+		return empty ? null : image;
+	}
+
+	static void writeTile(BufferedImage image, File outDir, int zoom, int x, int y)
+	{
+		File file = tileFile(outDir, zoom, x, y);
+		file.getParentFile().mkdirs();
+
+		try
+		{
+			ImageIO.write(image, "png", file);
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	static File tileFile(File outDir, int zoom, int x, int y)
+	{
+		return new File(outDir, zoom + File.separator + x + File.separator + y + ".png");
+	}
+
+	private static long packTile(int x, int y)
+	{
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	private static int tileX(long tile)
+	{
+		return (int) (tile >>> 32);
+	}
+
+	private static int tileY(long tile)
+	{
+		return (int) tile;
+	}
+
 	private void drawNeighborObjects(BufferedImage image, int rx, int ry, int dx, int dy, int z)
 	{
 		Region neighbor = regionLoader.findRegionForRegionCoordinates(rx + dx, ry + dy);
@@ -1307,13 +1822,20 @@ public class MapImageDumper
 			return;
 		}
 
+		// skip the squares which are too far outside of the image for anything drawn on them to reach it,
+		// squares are drawn at column drawBaseX + localX and row drawBaseY + Region.Y - 1 - localY
+		int minLocalX = Math.max(0, -drawBaseX - drawOverlap);
+		int maxLocalX = Math.min(Region.X, image.getWidth() / MAP_SCALE - drawBaseX + drawOverlap);
+		int minLocalY = Math.max(0, drawBaseY + Region.Y - image.getHeight() / MAP_SCALE - drawOverlap);
+		int maxLocalY = Math.min(Region.Y, drawBaseY + Region.Y + drawOverlap);
+
 		List<Location> planeLocs = new ArrayList<>();
 		List<Location> pushDownLocs = new ArrayList<>();
 		List<List<Location>> layers = Arrays.asList(planeLocs, pushDownLocs);
-		for (int localX = 0; localX < Region.X; localX++)
+		for (int localX = minLocalX; localX < maxLocalX; localX++)
 		{
 			int regionX = localX + region.getBaseX();
-			for (int localY = 0; localY < Region.Y; localY++)
+			for (int localY = minLocalY; localY < maxLocalY; localY++)
 			{
 				int regionY = localY + region.getBaseY();
 
@@ -1582,6 +2104,16 @@ public class MapImageDumper
 	}
 
 	private void drawMapLabels(BufferedImage image, int z)
+	{
+		drawMapLabels(image, z, regionLoader.getLowestX().getBaseX(), regionLoader.getHighestY().getBaseY(), null);
+	}
+
+	/**
+	 * @param originX world x of the left edge of the image
+	 * @param originY world y of the top-most region drawn at the top of the image
+	 * @param tile if not null, only draw the labels in this region and its neighbors
+	 */
+	private void drawMapLabels(BufferedImage image, int z, int originX, int originY, Region tile)
 	{
 		if (!renderLabels)
 		{
@@ -1599,6 +2131,13 @@ public class MapImageDumper
 				continue;
 			}
 
+			if (tile != null
+				&& (Math.abs(worldPosition.getX() / Region.X - tile.getRegionX()) > 1
+				|| Math.abs(worldPosition.getY() / Region.Y - tile.getRegionY()) > 1))
+			{
+				continue;
+			}
+
 			FontName fontSize = fontSizes[area.getTextScale()];
 			FontDefinition font = fonts.findFontByName(fontSize.getName());
 			String areaLabel = area.getName();
@@ -1615,8 +2154,8 @@ public class MapImageDumper
 					SpriteDefinition sprite = sprites.findSpriteByArchiveName(fontSize.getName(), c);
 					if (sprite.getWidth() != 0 && sprite.getHeight() != 0)
 					{
-						int drawX = worldPosition.getX() - regionLoader.getLowestX().getBaseX();
-						int drawY = regionLoader.getHighestY().getBaseY() - worldPosition.getY() + Region.Y - 2;
+						int drawX = worldPosition.getX() - originX;
+						int drawY = originY - worldPosition.getY() + Region.Y - 2;
 						blitGlyph(image,
 							(drawX * MAP_SCALE) + advance - (stringWidth / 2),
 							(drawY * MAP_SCALE) + ascent - (font.getAscent() / 2),
@@ -1717,13 +2256,17 @@ public class MapImageDumper
 				continue;
 			}
 
+			int drawX = drawBaseX + localX;
+			int drawY = drawBaseY + (Region.Y - 1 - localY);
+			if (!isNearImage(img, drawX, drawY))
+			{
+				continue;
+			}
+
 			ObjectDefinition od = findObject(location.getId());
 
 			assert od != null;
 
-			int drawX = drawBaseX + localX;
-			int drawY = drawBaseY + (Region.Y - 1 - localY);
-
 			if (od.getMapAreaId() != -1)
 			{
 				AreaDefinition area = areas.getArea(od.getMapAreaId());
@@ -1765,6 +2308,12 @@ public class MapImageDumper
 		}
 	}
 
+	private boolean isNearImage(BufferedImage image, int drawX, int drawY)
+	{
+		return drawX >= -drawOverlap && drawY >= -drawOverlap
+			&& drawX < image.getWidth() / MAP_SCALE + drawOverlap && drawY < image.getHeight() / MAP_SCALE + drawOverlap;
+	}
+
 	private void loadRegions() throws IOException
 	{
 		regionLoader.loadRegions();
@@ -1842,7 +2391,12 @@ public class MapImageDumper
 
 	private void blitIcon(BufferedImage dst, int x, int y, SpriteDefinition sprite, float scale)
 	{
-		sprite.normalize(); //Sprites are required to be normalized to have small sprites draw correctly
+		// Sprites are required to be normalized to have small sprites draw correctly. They are shared
+		// between tiles rendered concurrently, so normalize under the sprite lock.
+		synchronized (sprite)
+		{
+			sprite.normalize();
+		}
 		x += sprite.getOffsetX();
 		y += sprite.getOffsetY();
 		int displayHeight = (int) (sprite.getHeight() * scale);
@@ -1904,24 +2458,31 @@ public class MapImageDumper
 
 	private void blitGlyph(BufferedImage dst, int x, int y, int color, SpriteDefinition glyph)
 	{
+		// the glyph is shared with other labels, possibly on other threads, so color a copy of it
 		int[] pixels = glyph.getPixels();
+		int[] colorPixels = new int[pixels.length];
 		int[] shadowPixels = new int[pixels.length];
 		for (int i = 0; i < pixels.length; ++i)
 		{
 			if (pixels[i] != 0)
 			{
-				pixels[i] = color;
+				colorPixels[i] = color;
 				shadowPixels[i] = 0xFF000000;
 			}
 		}
-		SpriteDefinition shadow = new SpriteDefinition();
-		shadow.setPixels(shadowPixels);
-		shadow.setOffsetX(glyph.getOffsetX());
-		shadow.setOffsetY(glyph.getOffsetY());
-		shadow.setWidth(glyph.getWidth());
-		shadow.setHeight(glyph.getHeight());
 
-		blitGlyphIcon(dst, x + 1, y + 1, shadow);
-		blitGlyphIcon(dst, x, y, glyph);
+		blitGlyphIcon(dst, x + 1, y + 1, copyGlyph(glyph, shadowPixels));
+		blitGlyphIcon(dst, x, y, copyGlyph(glyph, colorPixels));
+	}
+
+	private static SpriteDefinition copyGlyph(SpriteDefinition glyph, int[] pixels)
+	{
+		SpriteDefinition copy = new SpriteDefinition();
+		copy.setPixels(pixels);
+		copy.setOffsetX(glyph.getOffsetX());
+		copy.setOffsetY(glyph.getOffsetY());
+		copy.setWidth(glyph.getWidth());
+		copy.setHeight(glyph.getHeight());
+		return copy;
 	}
 }
@@ -24,16 +24,89 @@
  */
 package net.runelite.cache.definitions;
 
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import lombok.Data;
 import net.runelite.cache.util.BaseVarType;
 
+/**
+ * An index of the rows of a database table by the values of one of its columns.
+ * <p>
+ * For each field of the column's tuples, the distinct values are kept sorted in a primitive array
+ * ({@code int[]}, {@code long[]} or {@code String[]} depending on the field's type) so they can be
+ * binary searched. The rows of the i-th value are {@code tupleRows[field][tupleRowOffsets[field][i]]}
+ * up to {@code tupleRowOffsets[field][i + 1]}, in ascending order.
+ */
 @Data
 public class DBTableIndex
 {
+	private static final int[] NO_ROWS = new int[0];
+
 	private final int tableId;
 	private final int columnId;
 	private BaseVarType[] tupleTypes;
-	private List<Map<Object, List<Integer>>> tupleIndexes;
+	private Object[] tupleValues;
+	private int[][] tupleRowOffsets;
+	private int[][] tupleRows;
+
+	/**
+	 * Find the rows with a value in the given tuple field
+	 *
+	 * @param tupleField field of the column tuple
+	 * @param value an {@link Integer}, {@link Long} or {@link String}, matching the field type
+	 * @return ascending row ids, which may be empty
+	 */
+	public int[] lookup(int tupleField, Object value)
+	{
+		final int idx = indexOf(tupleField, value);
+		if (idx < 0)
+		{
+			return NO_ROWS;
+		}
+
+		final int[] offsets = tupleRowOffsets[tupleField];
+		return Arrays.copyOfRange(tupleRows[tupleField], offsets[idx], offsets[idx + 1]);
+	}
+
+	/**
+	 * Count the rows with a value in the given tuple field, without copying them
+	 */
+	public int count(int tupleField, Object value)
+	{
+		final int idx = indexOf(tupleField, value);
+		if (idx < 0)
+		{
+			return 0;
+		}
+
+		final int[] offsets = tupleRowOffsets[tupleField];
+		return offsets[idx + 1] - offsets[idx];
+	}
+
+	private int indexOf(int tupleField, Object value)
+	{
+		if (tupleField < 0 || tupleField >= tupleTypes.length || value == null)
+		{
+			return -1;
+		}
+
+		final BaseVarType type = tupleTypes[tupleField];
+		if (type == null)
+		{
+			return -1;
+		}
+
+		final Object values = tupleValues[tupleField];
+		switch (type)
+		{
+			case INTEGER:
+				return value instanceof Integer ? Arrays.binarySearch((int[]) values, (Integer) value) : -1;
+			case LONG:
+				return value instanceof Long || value instanceof Integer
+					? Arrays.binarySearch((long[]) values, ((Number) value).longValue()) : -1;
+			case STRING:
+				return value instanceof String ? Arrays.binarySearch((String[]) values, value) : -1;
+			default:
+				return -1;
+		}
+	}
 }
@@ -24,10 +24,8 @@
  */
 package net.runelite.cache.definitions.loaders;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Comparator;
 import net.runelite.cache.definitions.DBTableIndex;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.util.BaseVarType;
@@ -46,35 +44,116 @@ public class DBTableIndexLoader
 	{
 		int tupleSize = stream.readVarInt2();
 		BaseVarType[] tupleTypes = new BaseVarType[tupleSize];
-		List<Map<Object, List<Integer>>> tupleIndexes = new ArrayList<>(tupleSize);
+		Object[] tupleValues = new Object[tupleSize];
+		int[][] tupleRowOffsets = new int[tupleSize][];
+		int[][] tupleRows = new int[tupleSize][];
 
 		for (int i = 0; i < tupleSize; i++)
 		{
-			tupleTypes[i] = BaseVarType.forId(stream.readUnsignedByte());
+			BaseVarType type = tupleTypes[i] = BaseVarType.forId(stream.readUnsignedByte());
 
 			int valueCount = stream.readVarInt2();
-			Map<Object, List<Integer>> valueToRows = new HashMap<>(valueCount);
+			Object[] values = new Object[valueCount];
+			int[][] valueRows = new int[valueCount][];
+			int totalRows = 0;
 
-			while (valueCount-- > 0)
+			for (int j = 0; j < valueCount; j++)
 			{
-				Object value = decodeValue(tupleTypes[i], stream);
+				values[j] = decodeValue(type, stream);
 
 				int rowCount = stream.readVarInt2();
-				List<Integer> rowIds = new ArrayList<>(rowCount);
-
-				while (rowCount-- > 0)
+				int[] rowIds = new int[rowCount];
+				for (int k = 0; k < rowCount; k++)
 				{
-					rowIds.add(stream.readVarInt2());
+					rowIds[k] = stream.readVarInt2();
 				}
+				Arrays.sort(rowIds);
+
+				valueRows[j] = rowIds;
+				totalRows += rowCount;
+			}
+
+			// sort the values so they can be binary searched, and pack the rows of each value back to back
+			Integer[] order = new Integer[valueCount];
+			for (int j = 0; j < valueCount; j++)
+			{
+				order[j] = j;
+			}
+			if (type != null)
+			{
+				Arrays.sort(order, valueOrder(type, values));
+			}
 
-				valueToRows.put(value, rowIds);
+			int[] offsets = new int[valueCount + 1];
+			int[] rows = new int[totalRows];
+			for (int j = 0; j < valueCount; j++)
+			{
+				int[] rowIds = valueRows[order[j]];
+				System.arraycopy(rowIds, 0, rows, offsets[j], rowIds.length);
+				offsets[j + 1] = offsets[j] + rowIds.length;
 			}
 
-			tupleIndexes.add(i, valueToRows);
+			tupleValues[i] = sortedValues(type, values, order);
+			tupleRowOffsets[i] = offsets;
+			tupleRows[i] = rows;
 		}
 
 		index.setTupleTypes(tupleTypes);
-		index.setTupleIndexes(tupleIndexes);
+		index.setTupleValues(tupleValues);
+		index.setTupleRowOffsets(tupleRowOffsets);
+		index.setTupleRows(tupleRows);
+	}
+
+	private static Comparator<Integer> valueOrder(BaseVarType type, Object[] values)
+	{
+		switch (type)
+		{
+			case INTEGER:
+				return Comparator.comparingInt(j -> (Integer) values[j]);
+			case LONG:
+				return Comparator.comparingLong(j -> (Long) values[j]);
+			default:
+				return Comparator.comparing(j -> (String) values[j]);
+		}
+	}
+
+	private static Object sortedValues(BaseVarType type, Object[] values, Integer[] order)
+	{
+		if (type == null)
+		{
+			return null;
+		}
+
+		switch (type)
+		{
+			case INTEGER:
+			{
+				int[] sorted = new int[order.length];
+				for (int j = 0; j < order.length; j++)
+				{
+					sorted[j] = (Integer) values[order[j]];
+				}
+				return sorted;
+			}
+			case LONG:
+			{
+				long[] sorted = new long[order.length];
+				for (int j = 0; j < order.length; j++)
+				{
+					sorted[j] = (Long) values[order[j]];
+				}
+				return sorted;
+			}
+			default:
+			{
+				String[] sorted = new String[order.length];
+				for (int j = 0; j < order.length; j++)
+				{
+					sorted[j] = (String) values[order[j]];
+				}
+				return sorted;
+			}
+		}
 	}
 
 	private static Object decodeValue(BaseVarType baseType, InputStream stream)
@@ -48,9 +48,13 @@ public class ObjectLoader
 	}
 
 	public ObjectDefinition load(int id, byte[] b)
+	{
+		return load(id, new InputStream(b));
+	}
+
+	public ObjectDefinition load(int id, InputStream is)
 	{
 		ObjectDefinition def = new ObjectDefinition();
-		InputStream is = new InputStream(b);
 
 		def.setId(id);
 
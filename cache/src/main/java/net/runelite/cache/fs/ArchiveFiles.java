@@ -25,6 +25,7 @@
 package net.runelite.cache.fs;
 
 import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -75,6 +76,15 @@ public class ArchiveFiles
 	}
 
 	public void loadContents(byte[] data)
+	{
+		loadContents(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Split the archive data into its files. Where a file is stored in one piece it is
+	 * a view of the data rather than a copy, so the data must not be modified afterwards.
+	 */
+	public void loadContents(ByteBuffer data)
 	{
 		logger.trace("Loading contents of archive ({} files)", files.size());
 
@@ -113,6 +123,21 @@ public class ArchiveFiles
 			}
 		}
 
+		// the file data is at the beginning of the stream
+		stream.setOffset(0);
+
+		if (chunks == 1)
+		{
+			// each file is in one piece, following the previous one
+			Iterator<FSFile> iter = files.values().iterator();
+			for (int i = 0; i < filesCount; ++i)
+			{
+				FSFile f = iter.next();
+				f.setContents(stream.slice(filesSize[i]).getBuffer());
+			}
+			return;
+		}
+
 		byte[][] fileContents = new byte[filesCount][];
 		int[] fileOffsets = new int[filesCount];
 
@@ -121,9 +146,6 @@ public class ArchiveFiles
 			fileContents[i] = new byte[filesSize[i]];
 		}
 
-		// the file data is at the beginning of the stream
-		stream.setOffset(0);
-
 		for (int chunk = 0; chunk < chunks; ++chunk)
 		{
 			for (int id = 0; id < filesCount; ++id)
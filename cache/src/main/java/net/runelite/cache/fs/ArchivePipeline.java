@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import lombok.Value;
+
+/**
+ * Reads, decrypts, decompresses and splits archives into {@link ArchiveFiles}
+ * on a {@link ForkJoinPool}.
+ * <p>
+ * Archives are handed back on the calling thread in the order they were given,
+ * and at most {@code window} archives are in flight at any one time, so a full
+ * store can be processed without holding all of it in memory.
+ */
+public class ArchivePipeline
+{
+	private static final int WINDOW_PER_THREAD = 4;
+
+	@FunctionalInterface
+	public interface ArchiveVisitor
+	{
+		/**
+		 * @param archive archive
+		 * @param files the archive files, or null if the archive has no data
+		 * @throws IOException
+		 */
+		void visit(Archive archive, ArchiveFiles files) throws IOException;
+	}
+
+	@Value
+	private static class Result
+	{
+		private final Archive archive;
+		private final ForkJoinTask<ArchiveFiles> task;
+	}
+
+	private final Storage storage;
+	private final ForkJoinPool pool;
+	private final int window;
+
+	public ArchivePipeline(Storage storage)
+	{
+		this(storage, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * WINDOW_PER_THREAD);
+	}
+
+	public ArchivePipeline(Storage storage, ForkJoinPool pool, int window)
+	{
+		if (window < 1)
+		{
+			throw new IllegalArgumentException("window must be positive");
+		}
+
+		this.storage = storage;
+		this.pool = pool;
+		this.window = window;
+	}
+
+	/**
+	 * Visit every archive of every index in the store, ordered by index and then archive id.
+	 *
+	 * @param store store
+	 * @param visitor visitor
+	 * @throws IOException
+	 */
+	public void load(Store store, ArchiveVisitor visitor) throws IOException
+	{
+		List<Archive> archives = new ArrayList<>();
+		for (Index index : store.getIndexes())
+		{
+			archives.addAll(index.getArchives());
+		}
+
+		load(archives, archive -> null, visitor);
+	}
+
+	public void load(Collection<Archive> archives, ArchiveVisitor visitor) throws IOException
+	{
+		load(archives, archive -> null, visitor);
+	}
+
+	/**
+	 * Visit the given archives in iteration order.
+	 *
+	 * @param archives archives to load
+	 * @param keys xtea keys for each archive, or null for unencrypted archives
+	 * @param visitor visitor
+	 * @throws IOException
+	 */
+	public void load(Collection<Archive> archives, Function<Archive, int[]> keys, ArchiveVisitor visitor) throws IOException
+	{
+		Deque<Result> inFlight = new ArrayDeque<>(window);
+		Iterator<Archive> it = archives.iterator();
+
+		try
+		{
+			while (it.hasNext() || !inFlight.isEmpty())
+			{
+				while (it.hasNext() && inFlight.size() < window)
+				{
+					Archive archive = it.next();
+					int[] key = keys.apply(archive);
+					inFlight.add(new Result(archive, pool.submit(() -> loadFiles(archive, key))));
+				}
+
+				Result result = inFlight.poll();
+				visitor.visit(result.getArchive(), join(result.getTask()));
+			}
+		}
+		finally
+		{
+			for (Result result : inFlight)
+			{
+				result.getTask().cancel(false);
+			}
+		}
+	}
+
+	private ArchiveFiles loadFiles(Archive archive, int[] keys)
+	{
+		try
+		{
+			byte[] data = storage.loadArchive(archive);
+			if (data == null)
+			{
+				return null;
+			}
+
+			return archive.getFiles(data, keys);
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static ArchiveFiles join(ForkJoinTask<ArchiveFiles> task) throws IOException
+	{
+		try
+		{
+			return task.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while loading archives", ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) cause).getCause();
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+}
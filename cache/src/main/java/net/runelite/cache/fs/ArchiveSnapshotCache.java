@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Value;
+import net.runelite.cache.io.InputStream;
+import net.runelite.cache.io.OutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of decompressed archive files. Each snapshot is keyed by
+ * the revision of its index and the crc of the archive, and is rewritten
+ * from storage as soon as either of them changes.
+ * <p>
+ * Decoded definitions are additionally kept in memory under the same key, so
+ * managers loading the same archive more than once only decode it once per
+ * process; they are not written to disk. The definitions are shared between
+ * those managers and must not be modified.
+ */
+public class ArchiveSnapshotCache
+{
+	@FunctionalInterface
+	public interface FileDecoder<T>
+	{
+		/**
+		 * @param file archive file
+		 * @return the decoded definition
+		 */
+		T decode(FSFile file);
+	}
+
+	@Value
+	private static class DefinitionKey
+	{
+		private final int index;
+		private final int archive;
+		private final Class<?> type;
+	}
+
+	@Value
+	private static class Definitions
+	{
+		private final int revision;
+		private final int crc;
+		private final Map<Integer, ?> definitions;
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(ArchiveSnapshotCache.class);
+
+	private static final int MAGIC = 0x534e4150;
+	private static final int VERSION = 1;
+
+	private final File directory;
+	private final Map<DefinitionKey, Definitions> definitions = new ConcurrentHashMap<>();
+
+	public ArchiveSnapshotCache(File directory)
+	{
+		this.directory = directory;
+	}
+
+	/**
+	 * Get the decoded definitions of an archive, decoding them only if the archive
+	 * has changed since they were last decoded as the given type. The definitions
+	 * are shared with other callers and must be treated as read only.
+	 *
+	 * @param storage storage to read the archive from if there is no snapshot
+	 * @param archive archive
+	 * @param type definition type
+	 * @param decoder decoder for each archive file
+	 * @return the definitions keyed by file id, in file order
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Map<Integer, T> getDefinitions(Storage storage, Archive archive, Class<T> type, FileDecoder<T> decoder) throws IOException
+	{
+		DefinitionKey key = new DefinitionKey(archive.getIndex().getId(), archive.getArchiveId(), type);
+		int revision = archive.getIndex().getRevision();
+		Definitions cached = definitions.get(key);
+		if (cached != null && cached.getRevision() == revision && cached.getCrc() == archive.getCrc())
+		{
+			return (Map<Integer, T>) cached.getDefinitions();
+		}
+
+		Map<Integer, T> decoded = decode(getFiles(storage, archive), decoder);
+		definitions.put(key, new Definitions(revision, archive.getCrc(), decoded));
+		return decoded;
+	}
+
+	static <T> Map<Integer, T> decode(ArchiveFiles files, FileDecoder<T> decoder)
+	{
+		Map<Integer, T> decoded = new LinkedHashMap<>();
+		for (FSFile file : files.getFiles())
+		{
+			decoded.put(file.getFileId(), decoder.decode(file));
+		}
+		return Collections.unmodifiableMap(decoded);
+	}
+
+	public ArchiveFiles getFiles(Storage storage, Archive archive) throws IOException
+	{
+		File file = new File(directory, archive.getIndex().getId() + "-" + archive.getArchiveId() + ".snapshot");
+		if (file.exists())
+		{
+			ArchiveFiles files = read(file, archive);
+			if (files != null)
+			{
+				return files;
+			}
+		}
+
+		byte[] archiveData = storage.loadArchive(archive);
+		ArchiveFiles files = archive.getFiles(archiveData);
+
+		try
+		{
+			write(file, archive, files);
+		}
+		catch (IOException ex)
+		{
+			logger.warn("unable to write snapshot {}", file, ex);
+		}
+
+		return files;
+	}
+
+	private static ArchiveFiles read(File file, Archive archive)
+	{
+		try
+		{
+			InputStream stream = new InputStream(Files.readAllBytes(file.toPath()));
+			if (stream.readInt() != MAGIC || stream.readUnsignedByte() != VERSION)
+			{
+				logger.debug("snapshot {} has an unknown format", file);
+				return null;
+			}
+
+			int revision = stream.readInt();
+			int crc = stream.readInt();
+			if (revision != archive.getIndex().getRevision() || crc != archive.getCrc())
+			{
+				logger.debug("snapshot {} is out of date", file);
+				return null;
+			}
+
+			int count = stream.readInt();
+			if (count != archive.getFileData().length)
+			{
+				return null;
+			}
+
+			ArchiveFiles files = new ArchiveFiles();
+			for (int i = 0; i < count; ++i)
+			{
+				FSFile f = new FSFile(stream.readInt());
+				f.setNameHash(stream.readInt());
+
+				f.setContents(stream.slice(stream.readInt()).getBuffer());
+
+				files.addFile(f);
+			}
+			return files;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			logger.debug("unable to read snapshot {}", file, ex);
+			return null;
+		}
+	}
+
+	private void write(File file, Archive archive, ArchiveFiles files) throws IOException
+	{
+		OutputStream stream = new OutputStream();
+		stream.writeInt(MAGIC);
+		stream.writeByte(VERSION);
+		stream.writeInt(archive.getIndex().getRevision());
+		stream.writeInt(archive.getCrc());
+		stream.writeInt(files.getFiles().size());
+		for (FSFile f : files.getFiles())
+		{
+			stream.writeInt(f.getFileId());
+			stream.writeInt(f.getNameHash());
+			stream.writeInt(f.getSize());
+			stream.writeBytes(f.getStream().getBuffer());
+		}
+
+		directory.mkdirs();
+
+		File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+		try
+		{
+			Files.write(tmp.toPath(), stream.flip());
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			tmp.delete();
+		}
+	}
+}
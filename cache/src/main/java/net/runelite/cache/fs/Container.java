@@ -27,6 +27,8 @@ package net.runelite.cache.fs;
 import static com.google.common.primitives.Bytes.concat;
 import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import net.runelite.cache.fs.jagex.CompressionType;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
@@ -37,6 +39,24 @@ import net.runelite.cache.util.Xtea;
 
 public class Container
 {
+	/**
+	 * Default for {@link #setMaxDecompressedLength(int)}, overridable with the
+	 * {@code runelite.cache.maxdecompressedlength} system property
+	 */
+	public static final int DEFAULT_MAX_DECOMPRESSED_LENGTH = 64 << 20;
+	/**
+	 * Largest ratio of decompressed to compressed length deflate can reach
+	 */
+	private static final int MAX_DEFLATE_RATIO = 1032;
+
+	/**
+	 * The decompressed length in a container header is checked against this before anything
+	 * is allocated, so that a corrupt header or a wrong xtea key fails to decompress
+	 */
+	private static volatile int maxDecompressedLength = Integer.getInteger("runelite.cache.maxdecompressedlength", DEFAULT_MAX_DECOMPRESSED_LENGTH);
+
+	private static final ThreadLocal<byte[]> DECRYPT_BUFFER = ThreadLocal.withInitial(() -> new byte[4096]);
+
 	public byte[] data;
 	public int compression; // compression
 	public int revision;
@@ -84,10 +104,18 @@ public class Container
 		}
 
 		this.data = stream.flip();
+		this.crc = Crc32.hash(this.data, 0, this.data.length - (revision != -1 ? 2 : 0));
+	}
 
-		Crc32 crc32 = new Crc32();
-		crc32.update(this.data, 0, this.data.length - (revision != -1 ? 2 : 0));
-		this.crc = crc32.getHash();
+	/**
+	 * Set the largest decompressed length a container may declare. Containers declaring more fail
+	 * to decompress with an {@link IOException}.
+	 *
+	 * @param length maximum decompressed length in bytes
+	 */
+	public static void setMaxDecompressedLength(int length)
+	{
+		maxDecompressedLength = length;
 	}
 
 	public static Container decompress(byte[] b, int[] keys) throws IOException
@@ -101,73 +129,50 @@ public class Container
 			throw new RuntimeException("Invalid data");
 		}
 
-		Crc32 crc32 = new Crc32();
-		crc32.update(b, 0, 5); // compression + length
+		// compressed data is prefixed with its decompressed length
+		int encryptedLength = compression == CompressionType.NONE ? compressedLength : compressedLength + 4;
+		int offset = stream.getOffset();
+		stream.skip(encryptedLength);
+
+		int crc = Crc32.hash(b, 0, offset + encryptedLength); // compression + length + data
 
-		byte[] data;
 		int revision = -1;
+		if (stream.remaining() >= 2)
+		{
+			revision = stream.readUnsignedShort();
+			assert revision != -1;
+		}
+
+		// unencrypted data is decompressed where it is, without copying it out first. encrypted
+		// data is decrypted into a per thread buffer, leaving b as it was
+		byte[] decryptedData = b;
+		if (keys != null)
+		{
+			decryptedData = decryptBuffer(encryptedLength);
+			System.arraycopy(b, offset, decryptedData, 0, encryptedLength);
+			new Xtea(keys).decrypt(decryptedData, 0, encryptedLength);
+			offset = 0;
+		}
+
+		byte[] data;
 		switch (compression)
 		{
 			case CompressionType.NONE:
 			{
-				byte[] encryptedData = new byte[compressedLength];
-				stream.readBytes(encryptedData, 0, compressedLength);
-
-				crc32.update(encryptedData, 0, compressedLength);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				data = decryptedData;
-
+				data = Arrays.copyOfRange(decryptedData, offset, offset + compressedLength);
 				break;
 			}
 			case CompressionType.BZ2:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				stream = new InputStream(decryptedData);
-
-				int decompressedLength = stream.readInt();
-				data = BZip2.decompress(stream.getRemaining(), compressedLength);
-				assert data.length == decompressedLength;
-
+				int decompressedLength = readDecompressedLength(decryptedData, offset, maxDecompressedLength);
+				data = BZip2.decompress(decryptedData, offset + 4, compressedLength, decompressedLength);
 				break;
 			}
 			case CompressionType.GZ:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				stream = new InputStream(decryptedData);
-
-				int decompressedLength = stream.readInt();
-				data = GZip.decompress(stream.getRemaining(), compressedLength);
-				assert data.length == decompressedLength;
-
+				int decompressedLength = readDecompressedLength(decryptedData, offset,
+					Math.min(maxDecompressedLength, (long) compressedLength * MAX_DEFLATE_RATIO));
+				data = GZip.decompress(decryptedData, offset + 4, compressedLength, decompressedLength);
 				break;
 			}
 			default:
@@ -176,19 +181,29 @@ public class Container
 
 		Container container = new Container(compression, revision);
 		container.data = data;
-		container.crc = crc32.getHash();
+		container.crc = crc;
 		return container;
 	}
 
-	private static byte[] decrypt(byte[] data, int length, int[] keys)
+	private static int readDecompressedLength(byte[] data, int offset, long maxLength) throws IOException
 	{
-		if (keys == null)
+		int decompressedLength = ByteBuffer.wrap(data).getInt(offset);
+		if (decompressedLength < 0 || decompressedLength > maxLength)
 		{
-			return data;
+			throw new IOException("Invalid decompressed length " + decompressedLength + ", the maximum is " + maxLength);
 		}
+		return decompressedLength;
+	}
 
-		Xtea xtea = new Xtea(keys);
-		return xtea.decrypt(data, length);
+	private static byte[] decryptBuffer(int length)
+	{
+		byte[] buffer = DECRYPT_BUFFER.get();
+		if (buffer.length < length)
+		{
+			buffer = new byte[Math.max(length, buffer.length * 2)];
+			DECRYPT_BUFFER.set(buffer);
+		}
+		return buffer;
 	}
 
 	private static byte[] encrypt(byte[] data, int length, int[] keys)
@@ -25,9 +25,11 @@
 
 package net.runelite.cache.fs;
 
+import java.nio.ByteBuffer;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import net.runelite.cache.io.InputStream;
 
 @EqualsAndHashCode(of = {"fileId", "nameHash", "contents"})
 public class FSFile
@@ -37,17 +39,65 @@ public class FSFile
 	@Getter
 	@Setter
 	private int nameHash;
-	@Getter
-	@Setter
 	private byte[] contents;
+	/**
+	 * a view of the archive data the file was split from, until its contents are copied out
+	 */
+	private ByteBuffer buffer;
 
 	public FSFile(int fileId)
 	{
 		this.fileId = fileId;
 	}
 
+	/**
+	 * Get the file contents. If the file is a view of its archive data, the contents are
+	 * copied out of it the first time, use {@link #getStream()} to read them without copying.
+	 */
+	public byte[] getContents()
+	{
+		if (contents == null && buffer != null)
+		{
+			if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.remaining() == buffer.array().length)
+			{
+				contents = buffer.array();
+			}
+			else
+			{
+				contents = new byte[buffer.remaining()];
+				buffer.duplicate().get(contents);
+			}
+			buffer = null;
+		}
+		return contents;
+	}
+
+	public void setContents(byte[] contents)
+	{
+		this.contents = contents;
+		this.buffer = null;
+	}
+
+	/**
+	 * Set the file contents to the remaining bytes of a buffer, without copying them. The
+	 * buffer's data must not be modified afterwards.
+	 */
+	public void setContents(ByteBuffer contents)
+	{
+		this.contents = null;
+		this.buffer = contents.slice();
+	}
+
+	/**
+	 * Get a stream over the file contents, which does not copy them
+	 */
+	public InputStream getStream()
+	{
+		return buffer != null ? new InputStream(buffer) : new InputStream(contents);
+	}
+
 	public int getSize()
 	{
-		return contents.length;
+		return buffer != null ? buffer.remaining() : contents.length;
 	}
 }
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import lombok.EqualsAndHashCode;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.fs.jagex.DiskStorage;
@@ -38,6 +39,7 @@ public final class Store implements Closeable
 {
 	private final Storage storage;
 	private final List<Index> indexes = new ArrayList<>();
+	private ArchiveSnapshotCache snapshotCache;
 
 	public Store(File folder) throws IOException
 	{
@@ -57,6 +59,63 @@ public final class Store implements Closeable
 		return storage;
 	}
 
+	public ArchiveSnapshotCache getSnapshotCache()
+	{
+		return snapshotCache;
+	}
+
+	/**
+	 * Set the snapshot cache used by {@link #getFiles(Archive)}, or null to
+	 * always read archives from storage.
+	 *
+	 * @param snapshotCache
+	 */
+	public void setSnapshotCache(ArchiveSnapshotCache snapshotCache)
+	{
+		this.snapshotCache = snapshotCache;
+	}
+
+	/**
+	 * Load and split the files of an archive, from the snapshot cache if one is set.
+	 *
+	 * @param archive archive
+	 * @return archive files
+	 * @throws IOException
+	 */
+	public ArchiveFiles getFiles(Archive archive) throws IOException
+	{
+		if (snapshotCache != null)
+		{
+			return snapshotCache.getFiles(storage, archive);
+		}
+
+		byte[] archiveData = storage.loadArchive(archive);
+		return archive.getFiles(archiveData);
+	}
+
+	/**
+	 * Load and decode the files of an archive. If a snapshot cache is set, the decoded
+	 * definitions are kept in it and reused until the archive changes. They are then shared
+	 * with every other caller loading the same archive as the same type, so callers must
+	 * treat them as read only, and decode the files from {@link #getFiles(Archive)} instead
+	 * if they need to modify them.
+	 *
+	 * @param archive archive
+	 * @param type definition type
+	 * @param decoder decoder for each archive file
+	 * @return the definitions keyed by file id, in file order
+	 * @throws IOException
+	 */
+	public <T> Map<Integer, T> getDefinitions(Archive archive, Class<T> type, ArchiveSnapshotCache.FileDecoder<T> decoder) throws IOException
+	{
+		if (snapshotCache != null)
+		{
+			return snapshotCache.getDefinitions(storage, archive, type, decoder);
+		}
+
+		return ArchiveSnapshotCache.decode(getFiles(archive), decoder);
+	}
+
 	@Override
 	public void close() throws IOException
 	{
@@ -24,6 +24,9 @@
  */
 package net.runelite.cache.fs.flat;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
@@ -33,13 +36,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
@@ -49,22 +56,62 @@ import net.runelite.cache.index.FileData;
 /**
  * A Storage that stores the cache as a series of flat files, designed
  * to be git revisioned.
+ * <p>
+ * Each index is described by a manifest file. In the {@link Format#TEXT} format the archive
+ * contents are inlined in the manifest. In the other formats each archive's contents are stored
+ * once in a blob named by its sha-256, under {@code blobs/}, which the manifest refers to, so
+ * archives that are unchanged between revisions, or repeated within one, share a blob. Blobs
+ * are checked against their hash when loaded. Saving an index removes its manifest in any other
+ * format. Indexes and blobs are read and written in parallel.
  */
 public class FlatStorage implements Storage
 {
 	protected static final String EXTENSION = ".flatcache";
+	protected static final String BINARY_EXTENSION = ".flatbin";
+
+	private static final String BLOB_DIRECTORY = "blobs";
+	private static final int BINARY_MAGIC = 0x464c4154;
+	private static final int BINARY_VERSION = 1;
+
+	public enum Format
+	{
+		/**
+		 * text manifests with the archive contents inlined
+		 */
+		TEXT,
+		/**
+		 * text manifests referring to blobs
+		 */
+		BLOBS,
+		/**
+		 * compact binary manifests referring to blobs
+		 */
+		BINARY,
+	}
 
 	private final File directory;
-	private final Map<Long, byte[]> data = new HashMap<>();
+	private final Format format;
+	private final Map<Long, byte[]> data = new ConcurrentHashMap<>();
+	private final Map<Integer, String> manifests = new ConcurrentHashMap<>();
 
 	public FlatStorage(File directory) throws IOException
+	{
+		this(directory, Format.TEXT);
+	}
+
+	/**
+	 * @param format the format to save in, any format can be loaded
+	 */
+	public FlatStorage(File directory, Format format) throws IOException
 	{
 		this.directory = directory;
+		this.format = format;
 	}
 
 	protected FlatStorage()
 	{
 		this.directory = null;
+		this.format = Format.TEXT;
 	}
 
 	protected InputStream openReader(String filename) throws IOException
@@ -77,9 +124,61 @@ public class FlatStorage implements Storage
 		return new FileOutputStream(new File(directory, filename));
 	}
 
+	protected void deleteFile(String filename) throws IOException
+	{
+		Files.deleteIfExists(new File(directory, filename).toPath());
+	}
+
 	protected String[] listFlatcacheFiles() throws IOException
 	{
-		return directory.list((dir, name) -> name.endsWith(EXTENSION));
+		return directory.list((dir, name) -> name.endsWith(EXTENSION) || name.endsWith(BINARY_EXTENSION));
+	}
+
+	private File blobFile(String hash)
+	{
+		return new File(directory, BLOB_DIRECTORY + File.separator + hash.substring(0, 2) + File.separator + hash.substring(2));
+	}
+
+	protected byte[] readBlob(String hash) throws IOException
+	{
+		return Files.readAllBytes(blobFile(hash).toPath());
+	}
+
+	/**
+	 * Write a blob, unless it already exists
+	 */
+	protected void writeBlob(String hash, byte[] contents) throws IOException
+	{
+		File file = blobFile(hash);
+		if (file.exists())
+		{
+			return;
+		}
+
+		File parent = file.getParentFile();
+		parent.mkdirs();
+
+		// blobs are written whole or not at all, and concurrent writers of one write the same bytes
+		File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+		try
+		{
+			Files.write(tmp.toPath(), contents);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			tmp.delete();
+		}
+	}
+
+	private static String hash(byte[] contents)
+	{
+		return Hashing.sha256().hashBytes(contents).toString();
+	}
+
+	private static long key(int index, int archive)
+	{
+		return (long) index << 32 | archive;
 	}
 
 	@Override
@@ -88,8 +187,18 @@ public class FlatStorage implements Storage
 		String[] idxs = listFlatcacheFiles();
 		for (String idx : idxs)
 		{
-			int id = Integer.parseInt(idx.substring(0, idx.length() - EXTENSION.length()));
-			store.addIndex(id);
+			boolean binary = idx.endsWith(BINARY_EXTENSION);
+			int id = Integer.parseInt(idx.substring(0, idx.length() - (binary ? BINARY_EXTENSION : EXTENSION).length()));
+			String existing = manifests.get(id);
+			if (existing == null)
+			{
+				store.addIndex(id);
+			}
+			// prefer the binary manifest if an index has both
+			if (existing == null || binary)
+			{
+				manifests.put(id, idx);
+			}
 		}
 	}
 
@@ -101,131 +210,303 @@ public class FlatStorage implements Storage
 	@Override
 	public void load(Store store) throws IOException
 	{
-		for (Index idx : store.getIndexes())
+		Map<Long, String> blobs = new ConcurrentHashMap<>();
+		try
 		{
-			String file = idx.getId() + EXTENSION;
-			try (BufferedReader br = new BufferedReader(new InputStreamReader(openReader(file), StandardCharsets.UTF_8)))
+			store.getIndexes().parallelStream().forEach(idx ->
 			{
-				int lineNo = 0;
-				Archive archive = null;
-				List<FileData> fileData = null;
-				for (String line = br.readLine(); line != null; line = br.readLine())
+				String file = manifests.getOrDefault(idx.getId(), idx.getId() + EXTENSION);
+				try
 				{
-					lineNo++;
+					if (file.endsWith(BINARY_EXTENSION))
+					{
+						loadBinary(idx, file, blobs);
+					}
+					else
+					{
+						loadText(idx, file, blobs);
+					}
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			});
 
-					try
+			blobs.entrySet().parallelStream().forEach(e ->
+			{
+				try
+				{
+					byte[] b = readBlob(e.getValue());
+					if (!hash(b).equals(e.getValue()))
 					{
-						int lidx = line.indexOf('=');
-						String key = line.substring(0, lidx);
-						String value = line.substring(lidx + 1);
+						throw new IOException("blob " + e.getValue() + " does not match its hash");
+					}
+					data.put(e.getKey(), b);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException("error reading blob " + e.getValue(), ex);
+				}
+			});
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
 
-						if ("file".equals(key))
-						{
-							if (fileData == null)
-							{
-								fileData = new ArrayList<>();
-							}
-
-							int vidx = value.indexOf('=');
-							FileData fd = new FileData();
-							fd.setId(Integer.parseInt(value.substring(0, vidx)));
-							fd.setNameHash(Integer.parseInt(value.substring(vidx + 1)));
-							fileData.add(fd);
-							continue;
-						}
-						else if (fileData != null)
-						{
-							archive.setFileData(fileData.toArray(new FileData[0]));
-							fileData = null;
-						}
+	private void loadText(Index idx, String file, Map<Long, String> blobs) throws IOException
+	{
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(openReader(file), StandardCharsets.UTF_8)))
+		{
+			int lineNo = 0;
+			Archive archive = null;
+			List<FileData> fileData = null;
+			for (String line = br.readLine(); line != null; line = br.readLine())
+			{
+				lineNo++;
 
-						if ("id".equals(key))
-						{
-							archive = idx.addArchive(Integer.parseInt(value));
-							continue;
-						}
+				try
+				{
+					int lidx = line.indexOf('=');
+					String key = line.substring(0, lidx);
+					String value = line.substring(lidx + 1);
 
-						if (archive == null)
+					if ("file".equals(key))
+					{
+						if (fileData == null)
 						{
-							switch (key)
-							{
-								case "protocol":
-									idx.setProtocol(Integer.parseInt(value));
-									continue;
-								case "revision":
-									idx.setRevision(Integer.parseInt(value));
-									continue;
-								case "compression":
-									idx.setCompression(Integer.parseInt(value));
-									continue;
-								case "crc":
-									idx.setCrc(Integer.parseInt(value));
-									continue;
-								case "named":
-									idx.setNamed(Boolean.parseBoolean(value));
-									continue;
-							}
+							fileData = new ArrayList<>();
 						}
-						else
+
+						int vidx = value.indexOf('=');
+						FileData fd = new FileData();
+						fd.setId(Integer.parseInt(value.substring(0, vidx)));
+						fd.setNameHash(Integer.parseInt(value.substring(vidx + 1)));
+						fileData.add(fd);
+						continue;
+					}
+					else if (fileData != null)
+					{
+						archive.setFileData(fileData.toArray(new FileData[0]));
+						fileData = null;
+					}
+
+					if ("id".equals(key))
+					{
+						archive = idx.addArchive(Integer.parseInt(value));
+						continue;
+					}
+
+					if (archive == null)
+					{
+						switch (key)
 						{
-							switch (key)
-							{
-								case "namehash":
-									archive.setNameHash(Integer.parseInt(value));
-									continue;
-								case "revision":
-									archive.setRevision(Integer.parseInt(value));
-									continue;
-								case "crc":
-									archive.setCrc(Integer.parseInt(value));
-									continue;
-								case "compression":
-									archive.setCompression(Integer.parseInt(value));
-									continue;
-								case "contents":
-									data.put((long) idx.getId() << 32 | archive.getArchiveId(), Base64.getDecoder().decode(value));
-									continue;
-							}
+							case "protocol":
+								idx.setProtocol(Integer.parseInt(value));
+								continue;
+							case "revision":
+								idx.setRevision(Integer.parseInt(value));
+								continue;
+							case "compression":
+								idx.setCompression(Integer.parseInt(value));
+								continue;
+							case "crc":
+								idx.setCrc(Integer.parseInt(value));
+								continue;
+							case "named":
+								idx.setNamed(Boolean.parseBoolean(value));
+								continue;
 						}
-						throw new IOException("unknown key: \"" + key + "\"");
 					}
-					catch (Exception e)
+					else
 					{
-						throw new IOException("error reading flatcache at " + file + ":" + lineNo, e);
+						switch (key)
+						{
+							case "namehash":
+								archive.setNameHash(Integer.parseInt(value));
+								continue;
+							case "revision":
+								archive.setRevision(Integer.parseInt(value));
+								continue;
+							case "crc":
+								archive.setCrc(Integer.parseInt(value));
+								continue;
+							case "compression":
+								archive.setCompression(Integer.parseInt(value));
+								continue;
+							case "contents":
+								data.put(key(idx.getId(), archive.getArchiveId()), Base64.getDecoder().decode(value));
+								continue;
+							case "blob":
+								blobs.put(key(idx.getId(), archive.getArchiveId()), value);
+								continue;
+						}
 					}
+					throw new IOException("unknown key: \"" + key + "\"");
+				}
+				catch (Exception e)
+				{
+					throw new IOException("error reading flatcache at " + file + ":" + lineNo, e);
+				}
+			}
+
+			if (fileData != null)
+			{
+				archive.setFileData(fileData.toArray(new FileData[0]));
+				fileData = null;
+			}
+		}
+	}
+
+	private void loadBinary(Index idx, String file, Map<Long, String> blobs) throws IOException
+	{
+		byte[] b;
+		try (InputStream in = openReader(file))
+		{
+			b = ByteStreams.toByteArray(in);
+		}
+
+		try
+		{
+			net.runelite.cache.io.InputStream is = new net.runelite.cache.io.InputStream(b);
+			if (is.readInt() != BINARY_MAGIC || is.readUnsignedByte() != BINARY_VERSION)
+			{
+				throw new IOException("unknown format");
+			}
+
+			idx.setProtocol(is.readUnsignedByte());
+			idx.setRevision(is.readInt());
+			idx.setCompression(is.readUnsignedByte());
+			idx.setCrc(is.readInt());
+			idx.setNamed(is.readUnsignedByte() != 0);
+
+			int archives = is.readInt();
+			byte[] hash = new byte[32];
+			for (int i = 0; i < archives; ++i)
+			{
+				Archive archive = idx.addArchive(is.readInt());
+				archive.setNameHash(is.readInt());
+				archive.setRevision(is.readInt());
+				archive.setCrc(is.readInt());
+				archive.setCompression(is.readUnsignedByte());
+
+				if (is.readUnsignedByte() != 0)
+				{
+					is.readBytes(hash);
+					blobs.put(key(idx.getId(), archive.getArchiveId()), HashCode.fromBytes(hash).toString());
 				}
 
-				if (fileData != null)
+				FileData[] fileData = new FileData[is.readInt()];
+				for (int j = 0; j < fileData.length; ++j)
 				{
-					archive.setFileData(fileData.toArray(new FileData[0]));
-					fileData = null;
+					fileData[j] = new FileData();
+					fileData[j].setId(is.readInt());
+					fileData[j].setNameHash(is.readInt());
 				}
+				archive.setFileData(fileData);
 			}
 		}
+		catch (IOException | RuntimeException e)
+		{
+			throw new IOException("error reading flatcache " + file, e);
+		}
 	}
 
 	@Override
 	public void save(Store store) throws IOException
 	{
 		store.getIndexes().sort(Comparator.comparingInt(Index::getId));
-		for (Index idx : store.getIndexes())
+		try
 		{
-			String file = idx.getId() + EXTENSION;
-			try (PrintStream br = new PrintStream(openWriter(file), false, StandardCharsets.UTF_8.name()))
+			store.getIndexes().parallelStream().forEach(idx ->
 			{
-				br.printf("protocol=%d\n", idx.getProtocol());
-				br.printf("revision=%d\n", idx.getRevision());
-				br.printf("compression=%d\n", idx.getCompression());
-				br.printf("crc=%d\n", idx.getCrc());
-				br.printf("named=%b\n", idx.isNamed());
+				try
+				{
+					String file;
+					String other;
+					if (format == Format.BINARY)
+					{
+						saveBinary(store, idx);
+						file = idx.getId() + BINARY_EXTENSION;
+						other = idx.getId() + EXTENSION;
+					}
+					else
+					{
+						saveText(store, idx);
+						file = idx.getId() + EXTENSION;
+						other = idx.getId() + BINARY_EXTENSION;
+					}
+					// a manifest left in the other format would be stale, and may be preferred on load
+					deleteFile(other);
+					manifests.put(idx.getId(), file);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
 
-				for (Archive archive : idx.getArchives())
+	/**
+	 * Write the contents of each archive of an index to blobs
+	 *
+	 * @return the blob hash of each archive, or null for archives without contents
+	 */
+	private String[] saveBlobs(Store store, Index idx)
+	{
+		List<Archive> archives = idx.getArchives();
+		String[] hashes = new String[archives.size()];
+		IntStream.range(0, archives.size()).parallel().forEach(i ->
+		{
+			try
+			{
+				byte[] b = store.getStorage().loadArchive(archives.get(i));
+				if (b != null)
 				{
-					br.printf("id=%d\n", archive.getArchiveId());
-					br.printf("namehash=%d\n", archive.getNameHash());
-					br.printf("revision=%d\n", archive.getRevision());
-					br.printf("crc=%d\n", archive.getCrc());
+					String hash = hash(b);
+					writeBlob(hash, b);
+					hashes[i] = hash;
+				}
+			}
+			catch (IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		});
+		return hashes;
+	}
+
+	private void saveText(Store store, Index idx) throws IOException
+	{
+		// inlined contents are streamed one archive at a time, only blob hashes are computed up front
+		String[] blobs = format == Format.TEXT ? null : saveBlobs(store, idx);
+		String file = idx.getId() + EXTENSION;
+		try (PrintStream br = new PrintStream(openWriter(file), false, StandardCharsets.UTF_8.name()))
+		{
+			br.printf("protocol=%d\n", idx.getProtocol());
+			br.printf("revision=%d\n", idx.getRevision());
+			br.printf("compression=%d\n", idx.getCompression());
+			br.printf("crc=%d\n", idx.getCrc());
+			br.printf("named=%b\n", idx.isNamed());
 
+			List<Archive> archives = idx.getArchives();
+			for (int i = 0; i < archives.size(); ++i)
+			{
+				Archive archive = archives.get(i);
+				br.printf("id=%d\n", archive.getArchiveId());
+				br.printf("namehash=%d\n", archive.getNameHash());
+				br.printf("revision=%d\n", archive.getRevision());
+				br.printf("crc=%d\n", archive.getCrc());
+
+				if (blobs == null)
+				{
 					byte[] contents = store.getStorage().loadArchive(archive);
 					if (contents != null)
 					{
@@ -233,26 +514,78 @@ public class FlatStorage implements Storage
 						br.write(Base64.getEncoder().encode(contents));
 						br.append("\n");
 					}
+				}
+				else if (blobs[i] != null)
+				{
+					br.printf("blob=%s\n", blobs[i]);
+				}
 
-					br.printf("compression=%d\n", archive.getCompression());
-					for (FileData fd : archive.getFileData())
-					{
-						br.printf("file=%d=%d\n", fd.getId(), fd.getNameHash());
-					}
+				br.printf("compression=%d\n", archive.getCompression());
+				for (FileData fd : archive.getFileData())
+				{
+					br.printf("file=%d=%d\n", fd.getId(), fd.getNameHash());
 				}
 			}
 		}
 	}
 
+	private void saveBinary(Store store, Index idx) throws IOException
+	{
+		String[] blobs = saveBlobs(store, idx);
+		List<Archive> archives = idx.getArchives();
+
+		net.runelite.cache.io.OutputStream os = new net.runelite.cache.io.OutputStream();
+		os.writeInt(BINARY_MAGIC);
+		os.writeByte(BINARY_VERSION);
+		os.writeByte(idx.getProtocol());
+		os.writeInt(idx.getRevision());
+		os.writeByte(idx.getCompression());
+		os.writeInt(idx.getCrc());
+		os.writeByte(idx.isNamed() ? 1 : 0);
+
+		os.writeInt(archives.size());
+		for (int i = 0; i < archives.size(); ++i)
+		{
+			Archive archive = archives.get(i);
+			os.writeInt(archive.getArchiveId());
+			os.writeInt(archive.getNameHash());
+			os.writeInt(archive.getRevision());
+			os.writeInt(archive.getCrc());
+			os.writeByte(archive.getCompression());
+
+			if (blobs[i] != null)
+			{
+				os.writeByte(1);
+				os.writeBytes(HashCode.fromString(blobs[i]).asBytes());
+			}
+			else
+			{
+				os.writeByte(0);
+			}
+
+			os.writeInt(archive.getFileData().length);
+			for (FileData fd : archive.getFileData())
+			{
+				os.writeInt(fd.getId());
+				os.writeInt(fd.getNameHash());
+			}
+		}
+
+		try (OutputStream out = openWriter(idx.getId() + BINARY_EXTENSION))
+		{
+			out.write(os.flip());
+		}
+	}
+
 	@Override
 	public byte[] load(int index, int archive)
 	{
-		return data.get((long) index << 32 | archive);
+		return data.get(key(index, archive));
 	}
 
 	@Override
 	public void store(int index, int archive, byte[] bytes)
 	{
-		data.put((long) index << 32 | archive, bytes);
+		data.put(key(index, archive), bytes);
 	}
 }
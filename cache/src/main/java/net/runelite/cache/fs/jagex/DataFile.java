@@ -30,6 +30,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,12 +40,56 @@ public class DataFile implements Closeable
 	private static final Logger logger = LoggerFactory.getLogger(DataFile.class);
 
 	private static final int SECTOR_SIZE = 520;
+	// sectors never straddle a mapping, so each chunk holds a whole number of sectors
+	private static final int SECTORS_PER_CHUNK = Integer.MAX_VALUE / SECTOR_SIZE;
+	private static final long CHUNK_SIZE = (long) SECTORS_PER_CHUNK * SECTOR_SIZE;
 
 	private final RandomAccessFile dat;
+	private final MappedByteBuffer[] chunks;
+	private final long length;
 
 	public DataFile(File file) throws FileNotFoundException
 	{
 		this.dat = new RandomAccessFile(file, "rw");
+		this.chunks = null;
+		this.length = -1L;
+	}
+
+	/**
+	 * Open a data file. In read only mode the file is memory mapped and
+	 * {@link #read(int, int, int, int)} may be called concurrently from
+	 * any number of threads without locking.
+	 *
+	 * @param file data file
+	 * @param readOnly whether to open the file read only
+	 * @throws IOException
+	 */
+	public DataFile(File file, boolean readOnly) throws IOException
+	{
+		if (!readOnly)
+		{
+			this.dat = new RandomAccessFile(file, "rw");
+			this.chunks = null;
+			this.length = -1L;
+			return;
+		}
+
+		this.dat = new RandomAccessFile(file, "r");
+		this.length = dat.length();
+
+		FileChannel channel = dat.getChannel();
+		int numChunks = (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		this.chunks = new MappedByteBuffer[numChunks];
+		for (int i = 0; i < numChunks; ++i)
+		{
+			long offset = i * CHUNK_SIZE;
+			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, length - offset));
+		}
+	}
+
+	public boolean isReadOnly()
+	{
+		return chunks != null;
 	}
 
 	@Override
@@ -54,6 +100,7 @@ public class DataFile implements Closeable
 
 	public void clear() throws IOException
 	{
+		checkWritable();
 		dat.setLength(0L);
 	}
 
@@ -66,7 +113,17 @@ public class DataFile implements Closeable
 	 * @return
 	 * @throws IOException
 	 */
-	public synchronized byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
+	public byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
+	{
+		if (chunks != null)
+		{
+			return readMapped(indexId, archiveId, sector, size);
+		}
+
+		return readFile(indexId, archiveId, sector, size);
+	}
+
+	private synchronized byte[] readFile(int indexId, int archiveId, int sector, int size) throws IOException
 	{
 		if (sector <= 0L || dat.length() / SECTOR_SIZE < (long) sector)
 		{
@@ -169,8 +226,108 @@ public class DataFile implements Closeable
 		return buffer.array();
 	}
 
+	private byte[] readMapped(int indexId, int archiveId, int sector, int size)
+	{
+		if (sector <= 0L || length / SECTOR_SIZE < (long) sector)
+		{
+			logger.warn("bad read, dat length {}, requested sector {}", length, sector);
+			return null;
+		}
+
+		byte[] data = new byte[size];
+		// the chunks themselves are shared, so bulk reads go through a thread-confined view
+		ByteBuffer chunk = null;
+		int chunkId = -1;
+
+		for (int part = 0, readBytesCount = 0, nextSector;
+			size > readBytesCount;
+			sector = nextSector)
+		{
+			if (sector == 0)
+			{
+				logger.warn("Unexpected end of file");
+				return null;
+			}
+
+			int dataBlockSize = size - readBytesCount;
+			int headerSize = archiveId > 0xFFFF ? 10 : 8;
+			if (dataBlockSize > SECTOR_SIZE - headerSize)
+			{
+				dataBlockSize = SECTOR_SIZE - headerSize;
+			}
+
+			if ((long) sector * SECTOR_SIZE + headerSize + dataBlockSize > length)
+			{
+				logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
+				return null;
+			}
+
+			if (sector / SECTORS_PER_CHUNK != chunkId)
+			{
+				chunkId = sector / SECTORS_PER_CHUNK;
+				chunk = chunks[chunkId].duplicate();
+			}
+
+			int pos = (sector % SECTORS_PER_CHUNK) * SECTOR_SIZE;
+			int currentIndex;
+			int currentPart;
+			int currentArchive;
+			if (headerSize == 10)
+			{
+				currentArchive = chunk.getInt(pos);
+				currentPart = chunk.getShort(pos + 4) & 0xFFFF;
+				nextSector = ((chunk.get(pos + 6) & 0xFF) << 16)
+					| ((chunk.get(pos + 7) & 0xFF) << 8)
+					| (chunk.get(pos + 8) & 0xFF);
+				currentIndex = chunk.get(pos + 9) & 0xFF;
+			}
+			else
+			{
+				currentArchive = chunk.getShort(pos) & 0xFFFF;
+				currentPart = chunk.getShort(pos + 2) & 0xFFFF;
+				nextSector = ((chunk.get(pos + 4) & 0xFF) << 16)
+					| ((chunk.get(pos + 5) & 0xFF) << 8)
+					| (chunk.get(pos + 6) & 0xFF);
+				currentIndex = chunk.get(pos + 7) & 0xFF;
+			}
+
+			if (archiveId != currentArchive || currentPart != part || indexId != currentIndex)
+			{
+				logger.warn("data mismatch {} != {}, {} != {}, {} != {}",
+					archiveId, currentArchive,
+					part, currentPart,
+					indexId, currentIndex);
+				return null;
+			}
+
+			if (nextSector < 0 || length / SECTOR_SIZE < (long) nextSector)
+			{
+				logger.warn("Invalid next sector");
+				return null;
+			}
+
+			chunk.position(pos + headerSize);
+			chunk.get(data, readBytesCount, dataBlockSize);
+			readBytesCount += dataBlockSize;
+
+			++part;
+		}
+
+		return data;
+	}
+
+	private void checkWritable() throws IOException
+	{
+		if (chunks != null)
+		{
+			throw new IOException("data file is opened read only");
+		}
+	}
+
 	public synchronized DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
 	{
+		checkWritable();
+
 		int sector;
 		int startSector;
 
@@ -47,17 +47,32 @@ public class DiskStorage implements Storage
 	private static final String MAIN_FILE_CACHE_IDX = "main_file_cache.idx";
 
 	private final File folder;
+	private final boolean readOnly;
 
 	private final DataFile data;
 	private final IndexFile index255;
 	private final List<IndexFile> indexFiles = new ArrayList<>();
 
 	public DiskStorage(File folder) throws IOException
+	{
+		this(folder, false);
+	}
+
+	/**
+	 * Create a disk storage. A read only storage memory maps the cache files,
+	 * and archives may be loaded from it concurrently from many threads.
+	 *
+	 * @param folder cache folder
+	 * @param readOnly whether to open the cache read only
+	 * @throws IOException
+	 */
+	public DiskStorage(File folder, boolean readOnly) throws IOException
 	{
 		this.folder = folder;
+		this.readOnly = readOnly;
 
-		this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT));
-		this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"));
+		this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT), readOnly);
+		this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"), readOnly);
 	}
 
 	@Override
@@ -66,7 +81,7 @@ public class DiskStorage implements Storage
 		for (int i = 0; i < index255.getIndexCount(); ++i)
 		{
 			store.addIndex(i);
-			getIndex(i);
+			openIndex(i);
 		}
 
 		assert store.getIndexes().size() == indexFiles.size();
@@ -83,7 +98,7 @@ public class DiskStorage implements Storage
 		}
 	}
 
-	private IndexFile getIndex(int i) throws FileNotFoundException
+	private IndexFile getIndex(int i) throws IOException
 	{
 		if (i == 255)
 		{
@@ -98,7 +113,18 @@ public class DiskStorage implements Storage
 			}
 		}
 
-		IndexFile indexFile = new IndexFile(i, new File(folder, MAIN_FILE_CACHE_IDX + i));
+		if (readOnly)
+		{
+			// every index is opened by init, so concurrent readers never modify indexFiles
+			throw new FileNotFoundException("index " + i + " does not exist");
+		}
+
+		return openIndex(i);
+	}
+
+	private IndexFile openIndex(int i) throws IOException
+	{
+		IndexFile indexFile = new IndexFile(i, new File(folder, MAIN_FILE_CACHE_IDX + i), readOnly);
 		indexFiles.add(indexFile);
 		return indexFile;
 	}
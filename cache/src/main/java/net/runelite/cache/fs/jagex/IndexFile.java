@@ -29,6 +29,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.slf4j.Logger;
@@ -45,6 +47,7 @@ public class IndexFile implements Closeable
 	private final int indexFileId;
 	private final File file;
 	private final RandomAccessFile idx;
+	private final MappedByteBuffer mapped;
 	private final byte[] buffer = new byte[INDEX_ENTRY_LEN];
 
 	public IndexFile(int indexFileId, File file) throws FileNotFoundException
@@ -52,6 +55,31 @@ public class IndexFile implements Closeable
 		this.indexFileId = indexFileId;
 		this.file = file;
 		this.idx = new RandomAccessFile(file, "rw");
+		this.mapped = null;
+	}
+
+	/**
+	 * Open an index file. In read only mode the file is memory mapped and
+	 * {@link #read(int)} may be called concurrently without locking.
+	 *
+	 * @param indexFileId index id
+	 * @param file index file
+	 * @param readOnly whether to open the file read only
+	 * @throws IOException
+	 */
+	public IndexFile(int indexFileId, File file, boolean readOnly) throws IOException
+	{
+		this.indexFileId = indexFileId;
+		this.file = file;
+		if (!readOnly)
+		{
+			this.idx = new RandomAccessFile(file, "rw");
+			this.mapped = null;
+			return;
+		}
+
+		this.idx = new RandomAccessFile(file, "r");
+		this.mapped = idx.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, idx.length());
 	}
 
 	@Override
@@ -62,11 +90,22 @@ public class IndexFile implements Closeable
 
 	public void clear() throws IOException
 	{
+		checkWritable();
 		idx.setLength(0L);
 	}
 
+	private void checkWritable() throws IOException
+	{
+		if (mapped != null)
+		{
+			throw new IOException("index file " + indexFileId + " is opened read only");
+		}
+	}
+
 	public synchronized void write(IndexEntry entry) throws IOException
 	{
+		checkWritable();
+
 		idx.seek(entry.getId() * INDEX_ENTRY_LEN);
 
 		buffer[0] = (byte) (entry.getLength() >> 16);
@@ -80,7 +119,38 @@ public class IndexFile implements Closeable
 		idx.write(buffer);
 	}
 
-	public synchronized IndexEntry read(int id) throws IOException
+	public IndexEntry read(int id) throws IOException
+	{
+		if (mapped != null)
+		{
+			return readMapped(id);
+		}
+
+		return readFile(id);
+	}
+
+	private IndexEntry readMapped(int id)
+	{
+		int pos = id * INDEX_ENTRY_LEN;
+		if (pos < 0 || pos + INDEX_ENTRY_LEN > mapped.capacity())
+		{
+			logger.debug("short read for id {} on index {}", id, indexFileId);
+			return null;
+		}
+
+		int length = ((mapped.get(pos) & 0xFF) << 16) | ((mapped.get(pos + 1) & 0xFF) << 8) | (mapped.get(pos + 2) & 0xFF);
+		int sector = ((mapped.get(pos + 3) & 0xFF) << 16) | ((mapped.get(pos + 4) & 0xFF) << 8) | (mapped.get(pos + 5) & 0xFF);
+
+		if (length <= 0 || sector <= 0)
+		{
+			logger.debug("invalid length or sector {}/{}", length, sector);
+			return null;
+		}
+
+		return new IndexEntry(this, id, sector, length);
+	}
+
+	private synchronized IndexEntry readFile(int id) throws IOException
 	{
 		idx.seek(id * INDEX_ENTRY_LEN);
 		int i = idx.read(buffer);
@@ -102,7 +172,17 @@ public class IndexFile implements Closeable
 		return new IndexEntry(this, id, sector, length);
 	}
 
-	public synchronized int getIndexCount() throws IOException
+	public int getIndexCount() throws IOException
+	{
+		if (mapped != null)
+		{
+			return mapped.capacity() / INDEX_ENTRY_LEN;
+		}
+
+		return getFileIndexCount();
+	}
+
+	private synchronized int getFileIndexCount() throws IOException
 	{
 		return (int) (idx.length() / INDEX_ENTRY_LEN);
 	}
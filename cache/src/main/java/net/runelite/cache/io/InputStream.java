@@ -46,12 +46,42 @@ public class InputStream extends java.io.InputStream
 		this.buffer = ByteBuffer.wrap(buffer);
 	}
 
+	/**
+	 * Create a stream over the remaining bytes of a buffer, without copying them. The stream
+	 * has its own position, so reading it does not move the buffer's.
+	 */
+	public InputStream(ByteBuffer buffer)
+	{
+		this.buffer = buffer.slice();
+	}
+
 	public byte[] getArray()
 	{
-		assert buffer.hasArray();
+		assert buffer.hasArray() && buffer.arrayOffset() == 0;
 		return buffer.array();
 	}
 
+	/**
+	 * Get a view of the whole stream, from offset 0 to its length, which shares its data
+	 */
+	public ByteBuffer getBuffer()
+	{
+		ByteBuffer view = buffer.duplicate();
+		view.clear();
+		return view;
+	}
+
+	/**
+	 * Read the next length bytes as a new stream sharing this stream's data
+	 */
+	public InputStream slice(int length)
+	{
+		ByteBuffer view = buffer.slice();
+		view.limit(length);
+		skip(length);
+		return new InputStream(view);
+	}
+
 	@Override
 	public String toString()
 	{
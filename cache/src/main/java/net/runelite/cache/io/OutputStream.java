@@ -43,6 +43,15 @@ public final class OutputStream extends java.io.OutputStream
 		this(16);
 	}
 
+	/**
+	 * Create a stream writing into the remaining space of a buffer, such as a pooled or
+	 * direct one. If more space is needed the data is moved to a new, larger heap buffer.
+	 */
+	public OutputStream(ByteBuffer buffer)
+	{
+		this.buffer = buffer.slice();
+	}
+
 	public byte[] getArray()
 	{
 		assert buffer.hasArray();
@@ -53,7 +62,7 @@ public final class OutputStream extends java.io.OutputStream
 	{
 		while (remaining > buffer.remaining())
 		{
-			int newCapacity = buffer.capacity() * 2;
+			int newCapacity = Math.max(buffer.capacity() * 2, 16);
 
 			ByteBuffer old = buffer;
 			old.flip();
@@ -92,6 +101,12 @@ public final class OutputStream extends java.io.OutputStream
 		buffer.put(b, offset, length);
 	}
 
+	public void writeBytes(ByteBuffer b)
+	{
+		ensureRemaining(b.remaining());
+		buffer.put(b.duplicate());
+	}
+
 	public void writeByte(int i)
 	{
 		ensureRemaining(1);
@@ -193,6 +208,16 @@ public final class OutputStream extends java.io.OutputStream
 		return b;
 	}
 
+	/**
+	 * Like {@link #flip()}, but returns the written bytes as a view of the stream's buffer
+	 * instead of copying them
+	 */
+	public ByteBuffer flipBuffer()
+	{
+		buffer.flip();
+		return buffer.slice();
+	}
+
 	@Override
 	public void write(int b) throws IOException
 	{
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.item;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.definitions.providers.ItemProvider;
+import net.runelite.cache.definitions.providers.ModelProvider;
+import net.runelite.cache.definitions.providers.SpriteProvider;
+import net.runelite.cache.definitions.providers.TextureProvider;
+
+/**
+ * A grid of item sprites rendered into one image, along with the position of each item in it.
+ * <p>
+ * Sprites are rendered in parallel, with an {@link ItemSpriteFactory} per thread, and are laid out
+ * left to right and top to bottom in the order the items are given. Items which fail to render
+ * leave their cell empty and are left out of the index.
+ */
+@Slf4j
+public class ItemSpriteAtlas
+{
+	public static final int SPRITE_WIDTH = 36;
+	public static final int SPRITE_HEIGHT = 32;
+	private static final int COLUMNS = 64;
+
+	@Value
+	private static class Entry
+	{
+		private final int id;
+		private final int x;
+		private final int y;
+	}
+
+	@Value
+	private static class Index
+	{
+		private final int spriteWidth;
+		private final int spriteHeight;
+		private final List<Entry> items;
+	}
+
+	@Getter
+	private final BufferedImage image;
+	/**
+	 * item ids in atlas order, or -1 for cells of items which failed to render
+	 */
+	private final int[] cells;
+
+	private ItemSpriteAtlas(BufferedImage image, int[] cells)
+	{
+		this.image = image;
+		this.cells = cells;
+	}
+
+	/**
+	 * Render items into an atlas
+	 *
+	 * @param itemIds items to render
+	 * @param threads number of threads to render with
+	 * @return the atlas
+	 * @throws IOException if rendering is interrupted
+	 */
+	public static ItemSpriteAtlas render(ItemProvider itemProvider, ModelProvider modelProvider,
+		SpriteProvider spriteProvider, TextureProvider textureProvider,
+		int[] itemIds, int quantity, int border, int shadowColor, int threads) throws IOException
+	{
+		final int columns = Math.max(1, Math.min(COLUMNS, itemIds.length));
+		final int rows = Math.max(1, (itemIds.length + columns - 1) / columns);
+		final BufferedImage image = new BufferedImage(columns * SPRITE_WIDTH, rows * SPRITE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		final int[] atlas = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		final int[] cells = Arrays.copyOf(itemIds, itemIds.length);
+
+		final AtomicInteger next = new AtomicInteger();
+		final Callable<Void> worker = () ->
+		{
+			// each thread renders with its own factory, and writes only its own cells
+			final ItemSpriteFactory factory = new ItemSpriteFactory(itemProvider, modelProvider, spriteProvider, textureProvider);
+			for (int i; (i = next.getAndIncrement()) < itemIds.length; )
+			{
+				SpritePixels sprite;
+				try
+				{
+					sprite = factory.createSpritePixels(itemIds[i], quantity, border, shadowColor, false);
+				}
+				catch (IOException | RuntimeException ex)
+				{
+					log.warn("error rendering item {}", itemIds[i], ex);
+					sprite = null;
+				}
+
+				if (sprite == null)
+				{
+					cells[i] = -1;
+					continue;
+				}
+
+				final int[] pixels = sprite.pixels;
+				int offset = (i / columns) * SPRITE_HEIGHT * image.getWidth() + (i % columns) * SPRITE_WIDTH;
+				for (int y = 0, p = 0; y < SPRITE_HEIGHT; ++y, offset += image.getWidth())
+				{
+					for (int x = 0; x < SPRITE_WIDTH; ++x, ++p)
+					{
+						atlas[offset + x] = pixels[p] != 0 ? pixels[p] | 0xff000000 : 0;
+					}
+				}
+			}
+			return null;
+		};
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Future<Void>> futures = executor.invokeAll(Collections.nCopies(threads, worker));
+			for (Future<Void> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while rendering item sprites", ex);
+		}
+		catch (ExecutionException ex)
+		{
+			throw new IOException(ex.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return new ItemSpriteAtlas(image, cells);
+	}
+
+	/**
+	 * Get the position of an item's sprite in the atlas
+	 *
+	 * @param itemId item id
+	 * @return the index of the item's cell, or -1 if the item is not in the atlas
+	 */
+	public int indexOf(int itemId)
+	{
+		if (itemId < 0)
+		{
+			return -1;
+		}
+
+		for (int i = 0; i < cells.length; ++i)
+		{
+			if (cells[i] == itemId)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public int getColumns()
+	{
+		return image.getWidth() / SPRITE_WIDTH;
+	}
+
+	public BufferedImage getSprite(int itemId)
+	{
+		final int idx = indexOf(itemId);
+		if (idx == -1)
+		{
+			return null;
+		}
+
+		final int columns = getColumns();
+		return image.getSubimage((idx % columns) * SPRITE_WIDTH, (idx / columns) * SPRITE_HEIGHT, SPRITE_WIDTH, SPRITE_HEIGHT);
+	}
+
+	/**
+	 * Write the atlas image to {@code name}.png, and the index of item positions to {@code name}.json
+	 */
+	public void write(File directory, String name) throws IOException
+	{
+		final int columns = getColumns();
+		final List<Entry> entries = new ArrayList<>();
+		for (int i = 0; i < cells.length; ++i)
+		{
+			if (cells[i] != -1)
+			{
+				entries.add(new Entry(cells[i], (i % columns) * SPRITE_WIDTH, (i / columns) * SPRITE_HEIGHT));
+			}
+		}
+
+		ImageIO.write(image, "png", new File(directory, name + ".png"));
+
+		final Gson gson = new GsonBuilder().create();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, name + ".json")), StandardCharsets.UTF_8))
+		{
+			gson.toJson(new Index(SPRITE_WIDTH, SPRITE_HEIGHT, entries), writer);
+		}
+	}
+}
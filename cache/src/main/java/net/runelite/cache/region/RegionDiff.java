@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.region;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Djb2;
+
+/**
+ * The set of regions whose map or location archives differ between two stores,
+ * found by comparing archive crcs and revisions from the index data.
+ */
+public class RegionDiff
+{
+	private static final int MAX_REGION = 32768;
+
+	private static final ConfigType[] RENDER_CONFIGS = {
+		ConfigType.UNDERLAY, ConfigType.OVERLAY, ConfigType.OBJECT, ConfigType.AREA
+	};
+	private static final IndexType[] RENDER_INDEXES = {
+		IndexType.SPRITES, IndexType.TEXTURES, IndexType.FONTS, IndexType.WORLDMAP
+	};
+
+	/**
+	 * Regions which were added, removed or modified
+	 */
+	@Getter
+	private final Set<Integer> changedRegions;
+
+	/**
+	 * Whether any of the definitions used when rendering regions changed,
+	 * in which case every region has to be redrawn.
+	 */
+	@Getter
+	private final boolean definitionsChanged;
+
+	/**
+	 * Regions which exist in either store
+	 */
+	private final Set<Integer> regions;
+
+	private RegionDiff(Set<Integer> changedRegions, boolean definitionsChanged, Set<Integer> regions)
+	{
+		this.changedRegions = Collections.unmodifiableSet(changedRegions);
+		this.definitionsChanged = definitionsChanged;
+		this.regions = regions;
+	}
+
+	public static RegionDiff diff(Store from, Store to)
+	{
+		Map<Integer, Archive> fromArchives = archivesByName(from.getIndex(IndexType.MAPS));
+		Map<Integer, Archive> toArchives = archivesByName(to.getIndex(IndexType.MAPS));
+
+		Set<Integer> changed = new HashSet<>();
+		Set<Integer> regions = new HashSet<>();
+		for (int i = 0; i < MAX_REGION; ++i)
+		{
+			int x = i >> 8;
+			int y = i & 0xFF;
+
+			int map = Djb2.hash("m" + x + "_" + y);
+			int land = Djb2.hash("l" + x + "_" + y);
+
+			if (fromArchives.containsKey(map) || toArchives.containsKey(map))
+			{
+				regions.add(i);
+			}
+
+			if (changed(fromArchives.get(map), toArchives.get(map)) || changed(fromArchives.get(land), toArchives.get(land)))
+			{
+				changed.add(i);
+			}
+		}
+
+		boolean definitionsChanged = false;
+		Index fromConfigs = from.getIndex(IndexType.CONFIGS);
+		Index toConfigs = to.getIndex(IndexType.CONFIGS);
+		for (ConfigType type : RENDER_CONFIGS)
+		{
+			definitionsChanged |= changed(getArchive(fromConfigs, type.getId()), getArchive(toConfigs, type.getId()));
+		}
+		for (IndexType type : RENDER_INDEXES)
+		{
+			Index fromIndex = from.getIndex(type);
+			Index toIndex = to.getIndex(type);
+			definitionsChanged |= fromIndex == null || toIndex == null
+				? fromIndex != toIndex
+				: fromIndex.getCrc() != toIndex.getCrc() || fromIndex.getRevision() != toIndex.getRevision();
+		}
+
+		return new RegionDiff(changed, definitionsChanged, regions);
+	}
+
+	/**
+	 * The changed regions and their neighbors. Ground blending and objects
+	 * which overhang region edges reach into the neighboring regions, so
+	 * these also have to be redrawn. Neighbors which exist in neither store
+	 * have nothing to redraw and are left out.
+	 *
+	 * @return region ids
+	 */
+	public Set<Integer> getAffectedRegions()
+	{
+		Set<Integer> affected = new HashSet<>();
+		for (int region : changedRegions)
+		{
+			affected.add(region);
+
+			int x = region >> 8;
+			int y = region & 0xFF;
+			for (int dx = -1; dx <= 1; ++dx)
+			{
+				for (int dy = -1; dy <= 1; ++dy)
+				{
+					int nx = x + dx;
+					int ny = y + dy;
+					if (nx >= 0 && ny >= 0 && ny <= 0xFF && regions.contains((nx << 8) | ny))
+					{
+						affected.add((nx << 8) | ny);
+					}
+				}
+			}
+		}
+		return affected;
+	}
+
+	private static Map<Integer, Archive> archivesByName(Index index)
+	{
+		Map<Integer, Archive> archives = new HashMap<>();
+		if (index != null)
+		{
+			for (Archive archive : index.getArchives())
+			{
+				archives.put(archive.getNameHash(), archive);
+			}
+		}
+		return archives;
+	}
+
+	private static Archive getArchive(Index index, int id)
+	{
+		return index != null ? index.getArchive(id) : null;
+	}
+
+	private static boolean changed(Archive from, Archive to)
+	{
+		if (from == null || to == null)
+		{
+			return from != to;
+		}
+
+		return from.getCrc() != to.getCrc() || from.getRevision() != to.getRevision();
+	}
+}
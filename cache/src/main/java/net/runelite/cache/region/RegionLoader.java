@@ -25,9 +25,17 @@
 package net.runelite.cache.region;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.LocationsDefinition;
@@ -38,56 +46,123 @@ import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Djb2;
 import net.runelite.cache.util.KeyProvider;
 
+/**
+ * Loads the regions of the world map.
+ * <p>
+ * Normally every region is decoded by {@link #loadRegions()} and kept. In lazy mode,
+ * {@link #loadRegions()} only finds which regions exist, and each region is decoded the first
+ * time it is looked up and held by a soft reference, so it can be evicted under memory pressure
+ * and decoded again later. Lookups of several regions, such as {@link #getRegions(int, int, int, int)},
+ * decode them in parallel.
+ */
 @Slf4j
 public class RegionLoader
 {
 	private static final int MAX_REGION = 32768;
+	private static final SoftReference<Region> UNDECODABLE = new SoftReference<>(null);
 
 	private final Store store;
 	private final Index index;
 	private final KeyProvider keyProvider;
+	private final boolean lazy;
 
 	private final Map<Integer, Region> regions = new HashMap<>();
 	private Region lowestX = null, lowestY = null;
 	private Region highestX = null, highestY = null;
 
+	private volatile Map<Integer, Archive> archivesByName;
+	/**
+	 * ascending ids of the regions which exist, in lazy mode
+	 */
+	private int[] regionIds;
+	private final Map<Integer, SoftReference<Region>> lazyRegions = new ConcurrentHashMap<>();
+
 	public RegionLoader(Store store, KeyProvider keyProvider)
+	{
+		this(store, keyProvider, false);
+	}
+
+	public RegionLoader(Store store, KeyProvider keyProvider, boolean lazy)
 	{
 		this.store = store;
 		index = store.getIndex(IndexType.MAPS);
 		this.keyProvider = keyProvider;
+		this.lazy = lazy;
 	}
 
 	public void loadRegions() throws IOException
 	{
+		if (lazy)
+		{
+			if (regionIds == null)
+			{
+				regionIds = IntStream.range(0, MAX_REGION)
+					.filter(i -> findArchive("m", i) != null && findArchive("l", i) != null)
+					.toArray();
+			}
+			return;
+		}
+
 		if (!this.regions.isEmpty())
 		{
 			return;
 		}
 
-		for (int i = 0; i < MAX_REGION; ++i)
+		// decode in parallel, but add the regions in order
+		Region[] loaded = new Region[MAX_REGION];
+		IntStream.range(0, MAX_REGION).parallel().forEach(i -> loaded[i] = tryDecodeRegion(i));
+		for (Region region : loaded)
 		{
-			try
+			if (region != null)
 			{
-				this.loadRegionFromArchive(i);
-			}
-			catch (IOException ex)
-			{
-				log.debug("Can't decrypt region " + i, ex);
+				regions.put(region.getRegionID(), region);
 			}
 		}
 	}
 
 	public Region loadRegionFromArchive(int i) throws IOException
+	{
+		Region region = decodeRegion(i);
+		if (region != null)
+		{
+			regions.put(i, region);
+		}
+		return region;
+	}
+
+	/**
+	 * Decode a region, treating one which fails to decode as missing so that it doesn't stop the
+	 * other regions from loading
+	 */
+	private Region tryDecodeRegion(int i)
+	{
+		try
+		{
+			return decodeRegion(i);
+		}
+		catch (IOException ex)
+		{
+			log.debug("Can't decrypt region " + i, ex);
+			return null;
+		}
+		catch (RuntimeException ex)
+		{
+			log.warn("Can't decode region " + i, ex);
+			return null;
+		}
+	}
+
+	private Region decodeRegion(int i) throws IOException
 	{
 		int x = i >> 8;
 		int y = i & 0xFF;
 
 		Storage storage = store.getStorage();
-		Archive map = index.findArchiveByName("m" + x + "_" + y);
-		Archive land = index.findArchiveByName("l" + x + "_" + y);
+		Archive map = findArchive("m", i);
+		Archive land = findArchive("l", i);
 
 		assert (map == null) == (land == null);
 
@@ -111,8 +186,62 @@ public class RegionLoader
 			region.loadLocations(locDef);
 		}
 
-		regions.put(i, region);
+		return region;
+	}
+
+	private Archive findArchive(String type, int i)
+	{
+		if (archivesByName == null)
+		{
+			synchronized (this)
+			{
+				if (archivesByName == null)
+				{
+					Map<Integer, Archive> byName = new HashMap<>();
+					for (Archive archive : index.getArchives())
+					{
+						byName.putIfAbsent(archive.getNameHash(), archive);
+					}
+					archivesByName = byName;
+				}
+			}
+		}
+		return archivesByName.get(Djb2.hash(type + (i >> 8) + "_" + (i & 0xFF)));
+	}
+
+	/**
+	 * Get a region in lazy mode, decoding it if it isn't loaded
+	 */
+	private Region getLazyRegion(int i)
+	{
+		if (Arrays.binarySearch(regionIds, i) < 0)
+		{
+			return null;
+		}
+
+		SoftReference<Region> ref = lazyRegions.get(i);
+		if (ref == UNDECODABLE)
+		{
+			return null;
+		}
 
+		Region region = ref != null ? ref.get() : null;
+		if (region == null)
+		{
+			// two threads may both decode the region, which is harmless
+			region = tryDecodeRegion(i);
+			lazyRegions.put(i, region != null ? new SoftReference<>(region) : UNDECODABLE);
+		}
+		return region;
+	}
+
+	private Region getRegion(int i)
+	{
+		Region region = regions.get(i);
+		if (region == null && lazy && regionIds != null)
+		{
+			region = getLazyRegion(i);
+		}
 		return region;
 	}
 
@@ -130,7 +259,45 @@ public class RegionLoader
 
 	public void calculateBounds()
 	{
-		for (Region region : regions.values())
+		Collection<Region> all = regions.values();
+		if (lazy && regionIds != null)
+		{
+			// only the regions at the edges need decoding. if some of them fail to decode, the
+			// edges are found again without them
+			int[] ids = regionIds;
+			for (;;)
+			{
+				int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+				for (int i : ids)
+				{
+					minX = Math.min(minX, i >> 8);
+					maxX = Math.max(maxX, i >> 8);
+					minY = Math.min(minY, i & 0xFF);
+					maxY = Math.max(maxY, i & 0xFF);
+				}
+				List<Integer> edges = new ArrayList<>();
+				for (int i : ids)
+				{
+					if (i >> 8 == minX || i >> 8 == maxX || (i & 0xFF) == minY || (i & 0xFF) == maxY)
+					{
+						edges.add(i);
+					}
+				}
+				all = edges.parallelStream()
+					.map(this::getLazyRegion)
+					.filter(Objects::nonNull)
+					.collect(Collectors.toList());
+				if (all.size() == edges.size())
+				{
+					break;
+				}
+				ids = Arrays.stream(ids)
+					.filter(i -> lazyRegions.get(i) != UNDECODABLE)
+					.toArray();
+			}
+		}
+
+		for (Region region : all)
 		{
 			if (lowestX == null || region.getBaseX() < lowestX.getBaseX())
 			{
@@ -154,21 +321,55 @@ public class RegionLoader
 		}
 	}
 
+	/**
+	 * Get all regions. In lazy mode this decodes every region which isn't loaded.
+	 */
 	public Collection<Region> getRegions()
 	{
+		if (lazy)
+		{
+			return regionIds == null ? List.of() : Arrays.stream(regionIds).parallel()
+				.mapToObj(this::getLazyRegion)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+		}
 		return regions.values();
 	}
 
+	/**
+	 * Get the regions overlapping a bounding box, decoding only those in lazy mode
+	 *
+	 * @param minX lowest world x, inclusive
+	 * @param minY lowest world y, inclusive
+	 * @param maxX highest world x, inclusive
+	 * @param maxY highest world y, inclusive
+	 */
+	public List<Region> getRegions(int minX, int minY, int maxX, int maxY)
+	{
+		List<Integer> ids = new ArrayList<>();
+		for (int x = Math.max(minX, 0) >>> 6; x <= Math.min(maxX >> 6, 0xFF); ++x)
+		{
+			for (int y = Math.max(minY, 0) >>> 6; y <= Math.min(maxY >> 6, 0xFF); ++y)
+			{
+				ids.add(x << 8 | y);
+			}
+		}
+		return ids.parallelStream()
+			.map(this::getRegion)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toList());
+	}
+
 	public Region findRegionForWorldCoordinates(int x, int y)
 	{
 		x >>>= 6;
 		y >>>= 6;
-		return regions.get((x << 8) | y);
+		return getRegion((x << 8) | y);
 	}
 
 	public Region findRegionForRegionCoordinates(int x, int y)
 	{
-		return regions.get((x << 8) | y);
+		return getRegion((x << 8) | y);
 	}
 
 	public Region getLowestX()
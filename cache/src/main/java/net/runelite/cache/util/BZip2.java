@@ -30,6 +30,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
 import static net.runelite.cache.util.LibBZip2.BZ_FINISH_OK;
 import static net.runelite.cache.util.LibBZip2.BZ_OK;
@@ -49,6 +50,8 @@ public class BZip2
 		'1'       // block size
 	};
 
+	private static final int BLOCK_SIZE = 100000;
+
 	public static byte[] compress(byte[] bytes) throws IOException
 	{
 		return USE_NATIVE_BZIP2 ? compressLibBZip2(bytes) : compressApache(bytes);
@@ -143,4 +146,49 @@ public class BZip2
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompress headerless bzip2 data directly from a region of an array, into an
+	 * array of the known decompressed length
+	 */
+	public static byte[] decompress(byte[] bytes, int offset, int len, int decompressedLength) throws IOException
+	{
+		checkDecompressedLength(decompressedLength);
+
+		try
+		{
+			return BZip2Decoder.decompress(bytes, offset, len, decompressedLength, BLOCK_SIZE);
+		}
+		catch (BZip2Decoder.UnsupportedStreamException ex)
+		{
+			// commons-compress decodes randomised blocks, which BZip2Decoder doesn't
+			return decompressApache(bytes, offset, len, decompressedLength);
+		}
+	}
+
+	static byte[] decompressApache(byte[] bytes, int offset, int len, int decompressedLength) throws IOException
+	{
+		checkDecompressedLength(decompressedLength);
+
+		byte[] data = new byte[decompressedLength];
+
+		try (InputStream is = new BZip2CompressorInputStream(new SequenceInputStream(
+			new ByteArrayInputStream(BZIP_HEADER), new ByteArrayInputStream(bytes, offset, len))))
+		{
+			if (IOUtils.readFully(is, data) != decompressedLength)
+			{
+				throw new IOException("Truncated bzip2 data");
+			}
+		}
+
+		return data;
+	}
+
+	private static void checkDecompressedLength(int decompressedLength) throws IOException
+	{
+		if (decompressedLength < 0)
+		{
+			throw new IOException("Invalid decompressed length " + decompressedLength);
+		}
+	}
 }
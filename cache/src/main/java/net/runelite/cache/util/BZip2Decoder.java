@@ -0,0 +1,666 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A bzip2 decoder for the headerless streams in containers.
+ * <p>
+ * The blocks of a bzip2 stream are independent, but they aren't byte aligned and their lengths are
+ * only known after decoding them. To decode them in parallel the stream is first scanned for block
+ * magic numbers. A magic number may also occur by chance within a block, so the blocks are only
+ * used if each ends exactly where the next was found and all of the crcs match, otherwise the stream
+ * is decoded one block after another. The tables used to decode a block are kept per thread.
+ */
+class BZip2Decoder
+{
+	private static final long BLOCK_MAGIC = 0x314159265359L;
+	private static final long EOS_MAGIC = 0x177245385090L;
+	private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+
+	private static final int MAX_GROUPS = 6;
+	private static final int MAX_ALPHA_SIZE = 258;
+	private static final int MAX_CODE_LEN = 20;
+	private static final int MAX_SELECTORS = 18002;
+	private static final int GROUP_SIZE = 50;
+	private static final int RUNA = 0;
+	private static final int RUNB = 1;
+
+	private static final int[] CRC_TABLE = new int[256];
+
+	static
+	{
+		for (int i = 0; i < 256; ++i)
+		{
+			int c = i << 24;
+			for (int j = 0; j < 8; ++j)
+			{
+				c = (c & 0x80000000) != 0 ? (c << 1) ^ 0x04c11db7 : c << 1;
+			}
+			CRC_TABLE[i] = c;
+		}
+	}
+
+	/**
+	 * Thrown for streams which are valid but use features this decoder doesn't implement
+	 */
+	static class UnsupportedStreamException extends IOException
+	{
+		UnsupportedStreamException(String message)
+		{
+			super(message);
+		}
+	}
+
+	private static final ThreadLocal<BZip2Decoder> DECODERS = ThreadLocal.withInitial(BZip2Decoder::new);
+
+	// input
+	private byte[] in;
+	private int inPos;
+	private int inEnd;
+	private long bitBuffer;
+	private int bitCount;
+
+	// block state, reused between blocks
+	private int[] tt = new int[0];
+	private byte[] out = new byte[0];
+	private int blockCrc;
+	private final int[] unzftab = new int[256];
+	private final int[] cftab = new int[257];
+	private final byte[] seqToUnseq = new byte[256];
+	private final byte[] mtf = new byte[256];
+	private final byte[] selectors = new byte[MAX_SELECTORS];
+	private final byte[] selectorMtf = new byte[MAX_GROUPS];
+	private final byte[][] lengths = new byte[MAX_GROUPS][MAX_ALPHA_SIZE];
+	private final int[][] limit = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+	private final int[][] base = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+	private final int[][] perm = new int[MAX_GROUPS][MAX_ALPHA_SIZE];
+	private final int[] minLens = new int[MAX_GROUPS];
+	private final int[] maxLens = new int[MAX_GROUPS];
+
+	/**
+	 * Decompress a headerless bzip2 stream
+	 *
+	 * @param bytes the stream
+	 * @param offset offset of the stream in bytes
+	 * @param len length of the stream
+	 * @param decompressedLength the expected decompressed length
+	 * @param blockSize the block size of the stream, in bytes
+	 * @throws UnsupportedStreamException if the stream uses randomised blocks
+	 * @throws IOException if the stream is corrupt, or the decompressed length is negative
+	 */
+	static byte[] decompress(byte[] bytes, int offset, int len, int decompressedLength, int blockSize) throws IOException
+	{
+		if (decompressedLength < 0)
+		{
+			throw new IOException("Invalid decompressed length " + decompressedLength);
+		}
+
+		if (decompressedLength > blockSize / 2)
+		{
+			long[] blocks = findBlocks(bytes, offset, len);
+			if (blocks.length > 1 && blocks.length <= decompressedLength / (blockSize / 2) + 2)
+			{
+				byte[] data = decompressParallel(bytes, offset, len, blocks, decompressedLength, blockSize);
+				if (data != null)
+				{
+					return data;
+				}
+			}
+		}
+
+		return decompressSequential(bytes, offset, len, decompressedLength, blockSize);
+	}
+
+	private static byte[] decompressSequential(byte[] bytes, int offset, int len, int decompressedLength, int blockSize) throws IOException
+	{
+		BZip2Decoder decoder = DECODERS.get();
+		decoder.setInput(bytes, offset, len);
+		try
+		{
+			byte[] data = new byte[decompressedLength];
+			int length = 0;
+			int combinedCrc = 0;
+			long bit = (long) offset << 3;
+
+			for (;;)
+			{
+				decoder.seek(bit);
+				long magic = decoder.readMagic();
+				if (magic == EOS_MAGIC)
+				{
+					if (decoder.bits(32) != combinedCrc)
+					{
+						throw new IOException("Stream crc mismatch");
+					}
+					break;
+				}
+
+				int blockLength = decoder.decodeBlock(bit, blockSize);
+				if (length + blockLength > decompressedLength)
+				{
+					throw new IOException("Decompressed data is longer than expected");
+				}
+				System.arraycopy(decoder.out, 0, data, length, blockLength);
+				length += blockLength;
+				combinedCrc = (combinedCrc << 1 | combinedCrc >>> 31) ^ decoder.blockCrc;
+				bit = decoder.position();
+			}
+
+			if (length != decompressedLength)
+			{
+				throw new IOException("Decompressed data is shorter than expected");
+			}
+			return data;
+		}
+		finally
+		{
+			decoder.setInput(null, 0, 0);
+		}
+	}
+
+	/**
+	 * Decode the blocks at the given bit positions in parallel
+	 *
+	 * @return the decompressed data, or null if the positions weren't exactly the blocks of the stream
+	 */
+	private static byte[] decompressParallel(byte[] bytes, int offset, int len, long[] blocks, int decompressedLength, int blockSize)
+	{
+		int count = blocks.length;
+		byte[][] outputs = new byte[count][];
+		int[] crcs = new int[count];
+		long[] ends = new long[count];
+
+		boolean decoded = IntStream.range(0, count).parallel().allMatch(i ->
+		{
+			BZip2Decoder decoder = DECODERS.get();
+			decoder.setInput(bytes, offset, len);
+			try
+			{
+				int blockLength = decoder.decodeBlock(blocks[i], blockSize);
+				outputs[i] = Arrays.copyOf(decoder.out, blockLength);
+				crcs[i] = decoder.blockCrc;
+				ends[i] = decoder.position();
+				return i + 1 == count || ends[i] == blocks[i + 1];
+			}
+			catch (IOException | RuntimeException ex)
+			{
+				return false;
+			}
+			finally
+			{
+				decoder.setInput(null, 0, 0);
+			}
+		});
+		if (!decoded)
+		{
+			return null;
+		}
+
+		byte[] data = new byte[decompressedLength];
+		int length = 0;
+		int combinedCrc = 0;
+		for (int i = 0; i < count; ++i)
+		{
+			if (length + outputs[i].length > decompressedLength)
+			{
+				return null;
+			}
+			System.arraycopy(outputs[i], 0, data, length, outputs[i].length);
+			length += outputs[i].length;
+			combinedCrc = (combinedCrc << 1 | combinedCrc >>> 31) ^ crcs[i];
+		}
+
+		// the stream must end right after the last block
+		BZip2Decoder decoder = DECODERS.get();
+		decoder.setInput(bytes, offset, len);
+		try
+		{
+			decoder.seek(ends[count - 1]);
+			if (length != decompressedLength || decoder.readMagic() != EOS_MAGIC || decoder.bits(32) != combinedCrc)
+			{
+				return null;
+			}
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			return null;
+		}
+		finally
+		{
+			decoder.setInput(null, 0, 0);
+		}
+		return data;
+	}
+
+	/**
+	 * Find the bit positions of the block magic numbers in a stream
+	 */
+	private static long[] findBlocks(byte[] bytes, int offset, int len)
+	{
+		long[] blocks = new long[8];
+		int count = 0;
+		long window = 0;
+		for (int pos = offset; pos < offset + len; ++pos)
+		{
+			int b = bytes[pos] & 0xFF;
+			for (int i = 7; i >= 0; --i)
+			{
+				window = window << 1 | (b >>> i) & 1;
+				if ((window & MAGIC_MASK) == BLOCK_MAGIC)
+				{
+					if (count == blocks.length)
+					{
+						blocks = Arrays.copyOf(blocks, count * 2);
+					}
+					// the bit after the magic number is at pos * 8 + 8 - i
+					blocks[count++] = ((long) pos << 3) + 8 - i - 48;
+				}
+			}
+		}
+		return Arrays.copyOf(blocks, count);
+	}
+
+	private void setInput(byte[] bytes, int offset, int len)
+	{
+		in = bytes;
+		inEnd = offset + len;
+	}
+
+	private void seek(long bit) throws IOException
+	{
+		inPos = (int) (bit >>> 3);
+		bitBuffer = 0;
+		bitCount = 0;
+		if ((bit & 7) != 0)
+		{
+			bits((int) (bit & 7));
+		}
+	}
+
+	private long position()
+	{
+		return ((long) inPos << 3) - bitCount;
+	}
+
+	private int bits(int n) throws IOException
+	{
+		while (bitCount < n)
+		{
+			if (inPos >= inEnd)
+			{
+				throw new IOException("Unexpected end of bzip2 data");
+			}
+			bitBuffer = bitBuffer << 8 | in[inPos++] & 0xFF;
+			bitCount += 8;
+		}
+		bitCount -= n;
+		return (int) (bitBuffer >>> bitCount) & (int) ((1L << n) - 1);
+	}
+
+	private boolean bit() throws IOException
+	{
+		return bits(1) != 0;
+	}
+
+	private long readMagic() throws IOException
+	{
+		return (long) bits(24) << 24 | bits(24);
+	}
+
+	/**
+	 * Decode the block whose magic number is at the given bit into {@link #out}. Afterwards the
+	 * input is positioned at the end of the block, and {@link #blockCrc} is the block's crc.
+	 *
+	 * @return the decoded length
+	 */
+	private int decodeBlock(long bit, int blockSize) throws IOException
+	{
+		seek(bit);
+		if (readMagic() != BLOCK_MAGIC)
+		{
+			throw new IOException("Bad block magic");
+		}
+
+		int expectedCrc = bits(32);
+		if (bit())
+		{
+			throw new UnsupportedStreamException("Randomised blocks are not supported");
+		}
+		int origPtr = bits(24);
+
+		// the symbol map, in 16 groups of 16 bytes
+		int nInUse = 0;
+		int used = bits(16);
+		for (int i = 0; i < 16; ++i)
+		{
+			if ((used & 0x8000 >>> i) != 0)
+			{
+				int group = bits(16);
+				for (int j = 0; j < 16; ++j)
+				{
+					if ((group & 0x8000 >>> j) != 0)
+					{
+						seqToUnseq[nInUse++] = (byte) (i << 4 | j);
+					}
+				}
+			}
+		}
+		if (nInUse == 0)
+		{
+			throw new IOException("No symbols in use");
+		}
+		int alphaSize = nInUse + 2;
+
+		int nGroups = bits(3);
+		int nSelectors = bits(15);
+		if (nGroups < 2 || nGroups > MAX_GROUPS || nSelectors < 1)
+		{
+			throw new IOException("Bad huffman groups");
+		}
+
+		// the selectors are unary coded mtf indexes
+		for (int i = 0; i < nGroups; ++i)
+		{
+			selectorMtf[i] = (byte) i;
+		}
+		for (int i = 0; i < nSelectors; ++i)
+		{
+			int j = 0;
+			while (bit())
+			{
+				if (++j >= nGroups)
+				{
+					throw new IOException("Bad selector");
+				}
+			}
+			byte v = selectorMtf[j];
+			System.arraycopy(selectorMtf, 0, selectorMtf, 1, j);
+			selectorMtf[0] = v;
+			if (i < MAX_SELECTORS)
+			{
+				selectors[i] = v;
+			}
+		}
+		nSelectors = Math.min(nSelectors, MAX_SELECTORS);
+
+		// the code lengths are delta coded
+		for (int t = 0; t < nGroups; ++t)
+		{
+			int len = bits(5);
+			byte[] length = lengths[t];
+			for (int i = 0; i < alphaSize; ++i)
+			{
+				for (;;)
+				{
+					if (len < 1 || len > MAX_CODE_LEN)
+					{
+						throw new IOException("Bad code length");
+					}
+					if (!bit())
+					{
+						break;
+					}
+					len += bit() ? -1 : 1;
+				}
+				length[i] = (byte) len;
+			}
+			createDecodeTables(t, alphaSize);
+		}
+
+		if (tt.length < blockSize)
+		{
+			tt = new int[blockSize];
+		}
+		final int[] tt = this.tt;
+
+		// huffman decode the mtf values, undoing the mtf and the zero run length coding
+		for (int i = 0; i < 256; ++i)
+		{
+			unzftab[i] = 0;
+			mtf[i] = (byte) i;
+		}
+		final int eob = nInUse + 1;
+		int count = 0;
+		int groupNo = -1;
+		int groupPos = 0;
+		int t = 0;
+		int run = 0;
+		int runWeight = 1;
+		for (;;)
+		{
+			if (groupPos == 0)
+			{
+				if (++groupNo >= nSelectors)
+				{
+					throw new IOException("Ran out of selectors");
+				}
+				groupPos = GROUP_SIZE;
+				t = selectors[groupNo];
+			}
+			--groupPos;
+
+			int sym = decodeSymbol(t);
+			if (sym == RUNA || sym == RUNB)
+			{
+				run += (sym + 1) * runWeight;
+				runWeight <<= 1;
+				if (run > blockSize)
+				{
+					throw new IOException("Run exceeds the block size");
+				}
+				continue;
+			}
+
+			if (run > 0)
+			{
+				if (count + run > blockSize)
+				{
+					throw new IOException("Block is too long");
+				}
+				int b = seqToUnseq[mtf[0] & 0xFF] & 0xFF;
+				unzftab[b] += run;
+				Arrays.fill(tt, count, count + run, b);
+				count += run;
+				run = 0;
+				runWeight = 1;
+			}
+
+			if (sym == eob)
+			{
+				break;
+			}
+			if (sym > eob)
+			{
+				throw new IOException("Bad symbol");
+			}
+
+			if (count >= blockSize)
+			{
+				throw new IOException("Block is too long");
+			}
+			int idx = sym - 1;
+			byte v = mtf[idx];
+			System.arraycopy(mtf, 0, mtf, 1, idx);
+			mtf[0] = v;
+			int b = seqToUnseq[v & 0xFF] & 0xFF;
+			++unzftab[b];
+			tt[count++] = b;
+		}
+
+		if (origPtr >= count)
+		{
+			throw new IOException("Bad origPtr");
+		}
+
+		// undo the bwt, linking each position to the next in the low bits' order
+		cftab[0] = 0;
+		for (int i = 0; i < 256; ++i)
+		{
+			cftab[i + 1] = cftab[i] + unzftab[i];
+		}
+		for (int i = 0; i < count; ++i)
+		{
+			int b = tt[i] & 0xFF;
+			tt[cftab[b]++] |= i << 8;
+		}
+
+		// walk the links, undoing the initial run length coding: 4 equal bytes are followed by a count of more
+		if (out.length < blockSize)
+		{
+			out = new byte[blockSize];
+		}
+		byte[] out = this.out;
+		int o = 0;
+		int crc = -1;
+		int last = -1;
+		int runLength = 0;
+		int tPos = tt[origPtr] >>> 8;
+		for (int i = 0; i < count; ++i)
+		{
+			tPos = tt[tPos];
+			int ch = tPos & 0xFF;
+			tPos >>>= 8;
+
+			if (runLength == 4)
+			{
+				if (o + ch > out.length)
+				{
+					out = this.out = Arrays.copyOf(out, Math.max(o + ch, out.length * 2));
+				}
+				for (int j = 0; j < ch; ++j)
+				{
+					out[o++] = (byte) last;
+					crc = crc << 8 ^ CRC_TABLE[(crc >>> 24 ^ last) & 0xFF];
+				}
+				runLength = 0;
+				continue;
+			}
+
+			if (ch == last)
+			{
+				++runLength;
+			}
+			else
+			{
+				last = ch;
+				runLength = 1;
+			}
+
+			if (o == out.length)
+			{
+				out = this.out = Arrays.copyOf(out, out.length * 2);
+			}
+			out[o++] = (byte) ch;
+			crc = crc << 8 ^ CRC_TABLE[(crc >>> 24 ^ ch) & 0xFF];
+		}
+
+		blockCrc = ~crc;
+		if (blockCrc != expectedCrc)
+		{
+			throw new IOException("Block crc mismatch");
+		}
+		return o;
+	}
+
+	private void createDecodeTables(int t, int alphaSize)
+	{
+		byte[] length = lengths[t];
+		int[] limit = this.limit[t];
+		int[] base = this.base[t];
+		int[] perm = this.perm[t];
+
+		int minLen = MAX_CODE_LEN;
+		int maxLen = 0;
+		for (int i = 0; i < alphaSize; ++i)
+		{
+			minLen = Math.min(minLen, length[i]);
+			maxLen = Math.max(maxLen, length[i]);
+		}
+		minLens[t] = minLen;
+		maxLens[t] = maxLen;
+
+		int pp = 0;
+		for (int len = minLen; len <= maxLen; ++len)
+		{
+			for (int i = 0; i < alphaSize; ++i)
+			{
+				if (length[i] == len)
+				{
+					perm[pp++] = i;
+				}
+			}
+		}
+
+		Arrays.fill(base, 0);
+		for (int i = 0; i < alphaSize; ++i)
+		{
+			++base[length[i] + 1];
+		}
+		for (int i = 1; i < base.length; ++i)
+		{
+			base[i] += base[i - 1];
+		}
+
+		Arrays.fill(limit, 0);
+		int vec = 0;
+		for (int len = minLen; len <= maxLen; ++len)
+		{
+			vec += base[len + 1] - base[len];
+			limit[len] = vec - 1;
+			vec <<= 1;
+		}
+		for (int len = minLen + 1; len <= maxLen; ++len)
+		{
+			base[len] = ((limit[len - 1] + 1) << 1) - base[len];
+		}
+	}
+
+	private int decodeSymbol(int t) throws IOException
+	{
+		final int[] limit = this.limit[t];
+		final int maxLen = maxLens[t];
+		int len = minLens[t];
+		int code = bits(len);
+		while (code > limit[len])
+		{
+			if (++len > maxLen)
+			{
+				throw new IOException("Bad huffman code");
+			}
+			code = code << 1 | bits(1);
+		}
+
+		int idx = code - base[t][len];
+		if (idx < 0 || idx >= MAX_ALPHA_SIZE)
+		{
+			throw new IOException("Bad huffman code");
+		}
+		return perm[t][idx];
+	}
+}
@@ -25,10 +25,13 @@
 
 package net.runelite.cache.util;
 
+import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
 public class Crc32
 {
+	private static final ThreadLocal<CRC32> THREAD_CRC32 = ThreadLocal.withInitial(CRC32::new);
+
 	private final CRC32 crc32 = new CRC32();
 
 	public void update(byte[] data, int offset, int length)
@@ -36,8 +39,27 @@ public class Crc32
 		crc32.update(data, offset, length);
 	}
 
+	/**
+	 * Update the crc with the remaining bytes of a buffer, leaving its position unchanged
+	 */
+	public void update(ByteBuffer data)
+	{
+		crc32.update(data.duplicate());
+	}
+
 	public int getHash()
 	{
 		return (int) crc32.getValue();
 	}
+
+	/**
+	 * Compute the crc of a range of data, with a reused per thread {@link CRC32}
+	 */
+	public static int hash(byte[] data, int offset, int length)
+	{
+		CRC32 crc32 = THREAD_CRC32.get();
+		crc32.reset();
+		crc32.update(data, offset, length);
+		return (int) crc32.getValue();
+	}
 }
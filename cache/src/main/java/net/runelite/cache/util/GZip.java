@@ -64,4 +64,28 @@ public class GZip
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompress gzip data directly from a region of an array, into an array of the
+	 * known decompressed length
+	 */
+	public static byte[] decompress(byte[] bytes, int offset, int len, int decompressedLength) throws IOException
+	{
+		if (decompressedLength < 0)
+		{
+			throw new IOException("Invalid decompressed length " + decompressedLength);
+		}
+
+		byte[] data = new byte[decompressedLength];
+
+		try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(bytes, offset, len)))
+		{
+			if (IOUtils.readFully(is, data) != decompressedLength)
+			{
+				throw new IOException("Truncated gzip data");
+			}
+		}
+
+		return data;
+	}
 }
@@ -24,8 +24,9 @@
  */
 package net.runelite.cache.util;
 
-import net.runelite.cache.io.InputStream;
-import net.runelite.cache.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 
 public class Xtea
 {
@@ -33,6 +34,8 @@ public class Xtea
 
 	private static final int ROUNDS = 32;
 
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
 	private final int[] key;
 
 	public Xtea(int[] key)
@@ -42,13 +45,29 @@ public class Xtea
 
 	public byte[] encrypt(byte[] data, int len)
 	{
-		InputStream in = new InputStream(data);
-		OutputStream out = new OutputStream(len);
-		int numBlocks = len / 8;
-		for (int block = 0; block < numBlocks; ++block)
+		byte[] out = data.clone();
+		encrypt(out, 0, len);
+		return out;
+	}
+
+	public byte[] decrypt(byte[] data, int len)
+	{
+		byte[] out = data.clone();
+		decrypt(out, 0, len);
+		return out;
+	}
+
+	/**
+	 * Encrypt the whole blocks of len bytes of data in place. Trailing bytes which don't
+	 * fill a block are left as they are.
+	 */
+	public void encrypt(byte[] data, int offset, int len)
+	{
+		final int end = offset + (len & ~7);
+		for (int pos = offset; pos < end; pos += 8)
 		{
-			int v0 = in.readInt();
-			int v1 = in.readInt();
+			int v0 = (int) INT.get(data, pos);
+			int v1 = (int) INT.get(data, pos + 4);
 			int sum = 0;
 			for (int i = 0; i < ROUNDS; ++i)
 			{
@@ -56,22 +75,22 @@ public class Xtea
 				sum += GOLDEN_RATIO;
 				v1 += (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + key[(sum >>> 11) & 3]);
 			}
-			out.writeInt(v0);
-			out.writeInt(v1);
+			INT.set(data, pos, v0);
+			INT.set(data, pos + 4, v1);
 		}
-		out.writeBytes(in.getRemaining());
-		return out.flip();
 	}
 
-	public byte[] decrypt(byte[] data, int len)
+	/**
+	 * Decrypt the whole blocks of len bytes of data in place. Trailing bytes which don't
+	 * fill a block are left as they are.
+	 */
+	public void decrypt(byte[] data, int offset, int len)
 	{
-		InputStream in = new InputStream(data);
-		OutputStream out = new OutputStream(len);
-		int numBlocks = len / 8;
-		for (int block = 0; block < numBlocks; ++block)
+		final int end = offset + (len & ~7);
+		for (int pos = offset; pos < end; pos += 8)
 		{
-			int v0 = in.readInt();
-			int v1 = in.readInt();
+			int v0 = (int) INT.get(data, pos);
+			int v1 = (int) INT.get(data, pos + 4);
 			int sum = GOLDEN_RATIO * ROUNDS;
 			for (int i = 0; i < ROUNDS; ++i)
 			{
@@ -79,10 +98,8 @@ public class Xtea
 				sum -= GOLDEN_RATIO;
 				v0 -= (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + key[sum & 3]);
 			}
-			out.writeInt(v0);
-			out.writeInt(v1);
+			INT.set(data, pos, v0);
+			INT.set(data, pos + 4, v1);
 		}
-		out.writeBytes(in.getRemaining());
-		return out.flip();
 	}
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import net.runelite.cache.definitions.DBRowDefinition;
+import net.runelite.cache.definitions.DBTableIndex;
+import net.runelite.cache.definitions.loaders.DBTableIndexLoader;
+import net.runelite.cache.io.OutputStream;
+import net.runelite.cache.util.ScriptVarType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DBQueryTest
+{
+	private static final int TABLE = 5;
+
+	// column 0: (int id, string name), column 1: list of ints, column 2: int (not indexed)
+	private final Map<Integer, DBTableIndex> indexes = new HashMap<>();
+	private DBTableColumns columns;
+
+	@Before
+	public void before()
+	{
+		List<DBRowDefinition> rows = new ArrayList<>();
+		for (int i = 0; i < 100; ++i)
+		{
+			DBRowDefinition row = new DBRowDefinition(1000 + i);
+			row.setTableId(TABLE);
+			row.setColumnTypes(new ScriptVarType[][]{
+				{ScriptVarType.INTEGER, ScriptVarType.STRING},
+				{ScriptVarType.INTEGER},
+				{ScriptVarType.INTEGER},
+			});
+			row.setColumnValues(new Object[][]{
+				{i, "row" + (i % 10)},
+				i % 2 == 0 ? new Object[]{2, i % 3 == 0 ? 3 : 4} : new Object[]{5},
+				{i % 7},
+			});
+			rows.add(row);
+		}
+
+		DBRowDefinition other = new DBRowDefinition(1);
+		other.setTableId(TABLE + 1);
+		rows.add(other);
+
+		columns = DBTableColumns.build(TABLE, rows);
+
+		DBTableIndexLoader loader = new DBTableIndexLoader();
+		indexes.put(0, loader.load(TABLE, 0, buildIndex(rows, 0)));
+		indexes.put(1, loader.load(TABLE, 1, buildIndex(rows, 1)));
+	}
+
+	private static byte[] buildIndex(List<DBRowDefinition> rows, int columnId)
+	{
+		ScriptVarType[] types = rows.get(0).getColumnTypes()[columnId];
+		OutputStream out = new OutputStream();
+		out.writeByte(types.length);
+		for (int field = 0; field < types.length; ++field)
+		{
+			// insertion ordered, so the loader has to sort the values itself
+			Map<Object, List<Integer>> values = new LinkedHashMap<>();
+			for (int r = rows.size() - 1; r >= 0; --r)
+			{
+				DBRowDefinition row = rows.get(r);
+				if (row.getTableId() != TABLE)
+				{
+					continue;
+				}
+				Object[] tuples = row.getColumnValues()[columnId];
+				for (int v = field; v < tuples.length; v += types.length)
+				{
+					values.computeIfAbsent(tuples[v], k -> new ArrayList<>()).add(row.getId());
+				}
+			}
+
+			boolean string = types[field] == ScriptVarType.STRING;
+			out.writeByte(string ? 2 : 0);
+			writeVarInt2(out, values.size());
+			for (Map.Entry<Object, List<Integer>> entry : values.entrySet())
+			{
+				if (string)
+				{
+					out.writeString((String) entry.getKey());
+				}
+				else
+				{
+					out.writeInt((Integer) entry.getKey());
+				}
+				writeVarInt2(out, entry.getValue().size());
+				for (int rowId : entry.getValue())
+				{
+					writeVarInt2(out, rowId);
+				}
+			}
+		}
+		return out.flip();
+	}
+
+	private static void writeVarInt2(OutputStream out, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private DBQuery query()
+	{
+		return new DBQuery((tableId, columnId) -> tableId == TABLE ? indexes.get(columnId) : null, columns);
+	}
+
+	private static int[] expected(IntPredicate predicate)
+	{
+		return IntStream.range(0, 100).filter(predicate).map(i -> 1000 + i).toArray();
+	}
+
+	@Test
+	public void testColumns()
+	{
+		assertEquals(100, columns.getRowCount());
+		assertEquals(1000, columns.getRowIds()[0]);
+		assertEquals(2, columns.getTupleCount(1004, 1));
+		assertEquals(1, columns.getTupleCount(1005, 1));
+		assertEquals(0, columns.getTupleCount(1, 1));
+		assertEquals(42, columns.getInt(1042, 0, 0, 0));
+		assertEquals("row2", columns.getString(1042, 0, 0, 1));
+		assertEquals(3, columns.getInt(1042, 1, 1, 0));
+		assertArrayEquals(expected(i -> i % 7 == 3), columns.find(2, 0, 3));
+	}
+
+	@Test
+	public void testIndex()
+	{
+		DBTableIndex index = indexes.get(0);
+		assertArrayEquals(new int[]{1042}, index.lookup(0, 42));
+		assertArrayEquals(expected(i -> i % 10 == 7), index.lookup(1, "row7"));
+		assertEquals(10, index.count(1, "row7"));
+		assertEquals(0, index.lookup(1, "missing").length);
+		assertEquals(0, index.lookup(1, 7).length);
+	}
+
+	@Test
+	public void testQuery()
+	{
+		assertArrayEquals(columns.getRowIds(), query().execute());
+		assertArrayEquals(expected(i -> i % 10 == 4), query().where(0, 1, "row4").execute());
+		assertArrayEquals(expected(i -> i % 10 == 4 && i % 6 == 0), query().where(0, 1, "row4").where(1, 3).execute());
+		assertArrayEquals(expected(i -> i % 2 == 0 && i % 3 != 0 && i % 7 == 1),
+			query().where(1, 4).where(2, 1).execute());
+		assertArrayEquals(expected(i -> i % 7 == 6 && i % 2 == 1), query().where(2, 6).where(1, 5).execute());
+		assertArrayEquals(new int[]{1042}, query().where(0, 42).where(1, 3).execute());
+		assertEquals(0, query().where(0, 43).where(1, 3).execute().length);
+	}
+
+	@Test
+	public void testIntersect()
+	{
+		int[] large = expected(i -> i % 2 == 0);
+		assertArrayEquals(new int[]{1010, 1020}, DBQuery.intersect(new int[]{1010, 1011, 1020}, large));
+		assertArrayEquals(new int[]{1004}, DBQuery.intersect(new int[]{1004}, large));
+		assertArrayEquals(new int[0], DBQuery.intersect(new int[]{1001, 1099}, large));
+	}
+}
@@ -24,9 +24,13 @@
  */
 package net.runelite.cache;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import javax.imageio.ImageIO;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
@@ -35,6 +39,10 @@ import net.runelite.cache.util.XteaKeyManager;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -104,4 +112,121 @@ public class MapImageDumperTest
 			}
 		}
 	}
+
+	@Test
+	@Ignore
+	public void dumpTiles() throws IOException
+	{
+		File base = StoreLocation.LOCATION,
+			outDir = folder.newFolder();
+
+		try (Store store = new Store(base))
+		{
+			store.load();
+
+			XteaKeyManager keyManager = new XteaKeyManager();
+			keyManager.loadKeys(null);
+
+			MapImageDumper dumper = new MapImageDumper(store, keyManager);
+			dumper.load();
+
+			for (int i = 0; i < Region.Z; ++i)
+			{
+				dumper.drawTiles(i, new File(outDir, String.valueOf(i)), dumper.getTileGrid(-1));
+				logger.info("Wrote tiles for plane {} to {}", i, outDir);
+			}
+		}
+	}
+
+	@Test
+	public void testTileGrid()
+	{
+		// regions 18,19 to 60,62 are 43 regions across, which needs 64 tiles at the deepest zoom level
+		MapImageDumper.TileGrid grid = MapImageDumper.TileGrid.of(18, 19, 60, 62, -1);
+		assertEquals(7, grid.getZoomLevels());
+		assertEquals(0, grid.tileX(18));
+		assertEquals(42, grid.tileX(60));
+		// north is up
+		assertEquals(0, grid.tileY(62));
+		assertEquals(43, grid.tileY(19));
+		assertTrue(grid.contains(18, 62));
+		assertTrue(grid.contains(81, 0));
+		assertFalse(grid.contains(82, 62));
+		assertFalse(grid.contains(17, 62));
+		assertFalse(grid.contains(18, 63));
+
+		assertEquals(1, MapImageDumper.TileGrid.of(50, 50, 50, 50, -1).getZoomLevels());
+		assertEquals(6, MapImageDumper.TileGrid.of(0, 0, 31, 31, -1).getZoomLevels());
+		assertEquals(8, MapImageDumper.TileGrid.of(18, 19, 60, 62, 8).getZoomLevels());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTileGridTooSmall()
+	{
+		MapImageDumper.TileGrid.of(18, 19, 60, 62, 6);
+	}
+
+	@Test
+	public void testDownscaleTile() throws IOException
+	{
+		File outDir = folder.newFolder();
+		int size = 256;
+
+		assertNull(MapImageDumper.downscaleTile(outDir, 1, 0, 0));
+
+		// tiles 2,2 and 3,3 at zoom 2 are the top left and bottom right of tile 1,1 at zoom 1
+		MapImageDumper.writeTile(solid(size, Color.RED), outDir, 2, 2, 2);
+		MapImageDumper.writeTile(solid(size, Color.BLUE), outDir, 2, 3, 3);
+
+		BufferedImage image = MapImageDumper.downscaleTile(outDir, 2, 1, 1);
+		assertEquals(size, image.getWidth());
+		assertEquals(Color.RED.getRGB(), image.getRGB(size / 4, size / 4));
+		assertEquals(Color.BLUE.getRGB(), image.getRGB(size * 3 / 4, size * 3 / 4));
+		// missing tiles are left transparent
+		assertEquals(0, image.getRGB(size * 3 / 4, size / 4));
+		assertEquals(0, image.getRGB(size / 4, size * 3 / 4));
+	}
+
+	private static BufferedImage solid(int size, Color color)
+	{
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, size, size);
+		graphics.dispose();
+		return image;
+	}
+
+	@Test
+	public void testPruneTiles() throws IOException
+	{
+		File outDir = folder.newFolder();
+		MapImageDumper.TileGrid grid = MapImageDumper.TileGrid.of(10, 10, 11, 11, -1);
+		BufferedImage image = solid(256, Color.RED);
+
+		// region 10,11 is tile 0,0 and region 11,10 is tile 1,1
+		MapImageDumper.writeTile(image, outDir, 1, 0, 0);
+		MapImageDumper.writeTile(image, outDir, 1, 1, 1);
+		MapImageDumper.writeTile(image, outDir, 0, 0, 0);
+		// stale tiles of a removed region and of a deeper zoom level
+		MapImageDumper.writeTile(image, outDir, 1, 0, 1);
+		MapImageDumper.writeTile(image, outDir, 2, 3, 3);
+
+		MapImageDumper.pruneTiles(outDir, grid, new HashSet<>(Arrays.asList(10 << 8 | 11, 11 << 8 | 10)));
+
+		assertTrue(MapImageDumper.tileFile(outDir, 1, 0, 0).exists());
+		assertTrue(MapImageDumper.tileFile(outDir, 1, 1, 1).exists());
+		assertTrue(MapImageDumper.tileFile(outDir, 0, 0, 0).exists());
+		assertFalse(MapImageDumper.tileFile(outDir, 1, 0, 1).exists());
+		assertFalse(new File(outDir, "2").exists());
+	}
+
+	@Test
+	public void testTileGridFile() throws IOException
+	{
+		File file = folder.newFile();
+		MapImageDumper.TileGrid grid = MapImageDumper.TileGrid.of(18, 19, 60, 62, 8);
+		grid.write(file);
+		assertEquals(grid, MapImageDumper.TileGrid.read(file));
+	}
 }
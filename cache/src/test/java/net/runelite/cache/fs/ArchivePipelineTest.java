@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.FileData;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.rules.TemporaryFolder;
+
+public class ArchivePipelineTest
+{
+	private static final int NUMBER_OF_ARCHIVES = 64;
+	private static final int NUMBER_OF_FILES = 3;
+
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testLoad() throws IOException
+	{
+		File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			for (int i = 0; i < 2; ++i)
+			{
+				Index index = store.addIndex(i);
+				for (int j = 0; j < NUMBER_OF_ARCHIVES; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					FileData[] fileData = new FileData[NUMBER_OF_FILES];
+					ArchiveFiles files = new ArchiveFiles();
+					for (int k = 0; k < NUMBER_OF_FILES; ++k)
+					{
+						fileData[k] = new FileData();
+						fileData[k].setId(k);
+
+						FSFile file = new FSFile(k);
+						file.setContents(contents(i, j, k));
+						files.addFile(file);
+					}
+					archive.setFileData(fileData);
+
+					Container container = new Container(j % 2 == 0 ? CompressionType.BZ2 : CompressionType.GZ, -1);
+					container.compress(files.saveContents(), null);
+					archive.setCrc(container.crc);
+					store.getStorage().saveArchive(archive, container.data);
+				}
+			}
+
+			store.save();
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try (Store store = new Store(root))
+		{
+			store.load();
+
+			List<Archive> visited = new ArrayList<>();
+			new ArchivePipeline(store.getStorage(), pool, 3).load(store, (archive, files) ->
+			{
+				visited.add(archive);
+				for (FSFile file : files.getFiles())
+				{
+					assertArrayEquals(contents(archive.getIndex().getId(), archive.getArchiveId(), file.getFileId()), file.getContents());
+				}
+			});
+
+			assertEquals(2 * NUMBER_OF_ARCHIVES, visited.size());
+			for (int i = 0; i < visited.size(); ++i)
+			{
+				Index index = store.findIndex(i / NUMBER_OF_ARCHIVES);
+				assertSame(index.getArchive(i % NUMBER_OF_ARCHIVES), visited.get(i));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	private static byte[] contents(int index, int archive, int file)
+	{
+		return ("file " + index + "/" + archive + "/" + file).getBytes();
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.FileData;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.rules.TemporaryFolder;
+
+public class ArchiveSnapshotCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testSnapshot() throws IOException
+	{
+		File snapshots = folder.newFolder();
+
+		try (Store store = new Store(folder.newFolder()))
+		{
+			Index index = store.addIndex(2);
+			Archive archive = index.addArchive(10);
+			archive.setFileData(new FileData[]{new FileData(), new FileData()});
+			archive.getFileData()[1].setId(1);
+			save(store, archive, "one", "two");
+
+			store.setSnapshotCache(new ArchiveSnapshotCache(snapshots));
+
+			ArchiveFiles files = store.getFiles(archive);
+			assertArrayEquals("two".getBytes(), files.findFile(1).getContents());
+			assertEquals(1, snapshots.list().length);
+
+			// served from the snapshot without touching storage
+			ArchiveFiles snapshot = new ArchiveSnapshotCache(snapshots).getFiles(null, archive);
+			assertEquals(files.findFile(0), snapshot.findFile(0));
+			assertEquals(files.findFile(1), snapshot.findFile(1));
+
+			// a new crc invalidates the snapshot
+			save(store, archive, "three", "four");
+			files = store.getFiles(archive);
+			assertArrayEquals("three".getBytes(), files.findFile(0).getContents());
+			assertArrayEquals("four".getBytes(), files.findFile(1).getContents());
+			assertTrue(new File(snapshots, "2-10.snapshot").exists());
+		}
+	}
+
+	@Test
+	public void testDefinitions() throws IOException
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			Index index = store.addIndex(2);
+			Archive archive = index.addArchive(10);
+			archive.setFileData(new FileData[]{new FileData(), new FileData()});
+			archive.getFileData()[1].setId(1);
+			save(store, archive, "one", "two");
+
+			store.setSnapshotCache(new ArchiveSnapshotCache(folder.newFolder()));
+
+			AtomicInteger decodes = new AtomicInteger();
+			ArchiveSnapshotCache.FileDecoder<String> decoder = f ->
+			{
+				decodes.incrementAndGet();
+				return new String(f.getContents());
+			};
+
+			Map<Integer, String> defs = store.getDefinitions(archive, String.class, decoder);
+			assertEquals("one", defs.get(0));
+			assertEquals("two", defs.get(1));
+			assertEquals(2, decodes.get());
+
+			// a second load reuses the decoded definitions
+			assertSame(defs, store.getDefinitions(archive, String.class, decoder));
+			assertEquals(2, decodes.get());
+
+			// a new crc decodes the archive again
+			save(store, archive, "three", "four");
+			defs = store.getDefinitions(archive, String.class, decoder);
+			assertEquals("three", defs.get(0));
+			assertEquals(4, decodes.get());
+		}
+	}
+
+	private static void save(Store store, Archive archive, String file0, String file1) throws IOException
+	{
+		ArchiveFiles files = new ArchiveFiles();
+		FSFile f = new FSFile(0);
+		f.setContents(file0.getBytes());
+		files.addFile(f);
+		f = new FSFile(1);
+		f.setContents(file1.getBytes());
+		files.addFile(f);
+
+		Container container = new Container(CompressionType.GZ, -1);
+		container.compress(files.saveContents(), null);
+		archive.setCrc(container.crc);
+		store.getStorage().saveArchive(archive, container.data);
+	}
+}
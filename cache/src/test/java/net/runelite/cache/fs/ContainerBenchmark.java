@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.util.Crc32;
+import net.runelite.cache.util.Xtea;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the xtea and crc steps of decoding an encrypted container, such as a
+ * map's locations archive, and of the whole decode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ContainerBenchmark
+{
+	private static final int[] KEYS = {
+		0x12345678, 0x9abcdef0, 0x0fedcba9, 0x87654321
+	};
+
+	@Param({"4096", "65536"})
+	private int size;
+
+	private Xtea xtea;
+	private byte[] data;
+	private byte[] encrypted;
+	private byte[] encryptedGzip;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		xtea = new Xtea(KEYS);
+
+		// repetitive, like real archives, so gzip has something to compress
+		Random random = new Random(42L);
+		data = new byte[size];
+		for (int i = 0; i < size; ++i)
+		{
+			data[i] = (byte) random.nextInt(16);
+		}
+
+		Container container = new Container(CompressionType.NONE, 1);
+		container.compress(data, KEYS);
+		encrypted = container.data;
+
+		container = new Container(CompressionType.GZ, 1);
+		container.compress(data, KEYS);
+		encryptedGzip = container.data;
+	}
+
+	@Benchmark
+	public byte[] xteaDecryptCopy()
+	{
+		return xtea.decrypt(data, data.length);
+	}
+
+	@Benchmark
+	public byte[] xteaDecryptInPlace()
+	{
+		xtea.decrypt(data, 0, data.length);
+		return data;
+	}
+
+	@Benchmark
+	public int crc32()
+	{
+		return Crc32.hash(data, 0, data.length);
+	}
+
+	@Benchmark
+	public Container decompressEncrypted() throws IOException
+	{
+		return Container.decompress(encrypted, KEYS);
+	}
+
+	@Benchmark
+	public Container decompressEncryptedGzip() throws IOException
+	{
+		return Container.decompress(encryptedGzip, KEYS);
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(ContainerBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+}
@@ -26,8 +26,12 @@ package net.runelite.cache.fs;
 
 import java.io.IOException;
 import java.util.Random;
+import static net.runelite.cache.fs.jagex.CompressionType.BZ2;
 import static net.runelite.cache.fs.jagex.CompressionType.GZ;
+import static net.runelite.cache.fs.jagex.CompressionType.NONE;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 public class ContainerTest
@@ -52,4 +56,78 @@ public class ContainerTest
 		assertArrayEquals(data, container.data);
 	}
 
+	@Test
+	public void testDecompressWrongKey() throws IOException
+	{
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[]{BZ2, GZ})
+		{
+			Container container = new Container(compression, -1);
+			container.compress(data, new int[]{4, 8, 15, 16});
+
+			int failures = 0;
+			for (int i = 0; i < 100; ++i)
+			{
+				int[] keys = {random.nextInt(), random.nextInt(), random.nextInt(), random.nextInt()};
+				try
+				{
+					Container.decompress(container.data, keys);
+				}
+				catch (IOException ex)
+				{
+					++failures;
+				}
+			}
+			assertEquals(100, failures);
+		}
+	}
+
+	@Test
+	public void testMaxDecompressedLength() throws IOException
+	{
+		byte[] data = new byte[1024];
+		Container container = new Container(BZ2, -1);
+		container.compress(data, null);
+
+		Container.setMaxDecompressedLength(data.length - 1);
+		try
+		{
+			Container.decompress(container.data, null);
+			fail();
+		}
+		catch (IOException ex)
+		{
+			// expected
+		}
+		finally
+		{
+			Container.setMaxDecompressedLength(Container.DEFAULT_MAX_DECOMPRESSED_LENGTH);
+		}
+
+		assertArrayEquals(data, Container.decompress(container.data, null).data);
+	}
+
+	@Test
+	public void testDecompressUnencrypted() throws IOException
+	{
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[]{NONE, BZ2, GZ})
+		{
+			Container container = new Container(compression, 7);
+			container.compress(data, null);
+
+			Container decompressed = Container.decompress(container.data, null);
+			assertArrayEquals(data, decompressed.data);
+			assertEquals(compression, decompressed.compression);
+			assertEquals(7, decompressed.revision);
+			assertEquals(container.crc, decompressed.crc);
+		}
+	}
+
 }
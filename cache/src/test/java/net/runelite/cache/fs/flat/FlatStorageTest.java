@@ -25,6 +25,8 @@
 package net.runelite.cache.fs.flat;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
@@ -100,4 +102,129 @@ public class FlatStorageTest
 			assertEquals(archive2.getRevision(), archive2_2.getRevision());
 		}
 	}
+
+	@Test
+	public void testFormats() throws Exception
+	{
+		for (FlatStorage.Format format : FlatStorage.Format.values())
+		{
+			File file = folder.newFolder();
+			byte[] shared = "shared".getBytes();
+			byte[] unique = "unique".getBytes();
+
+			try (Store store = new Store(new FlatStorage(file, format)))
+			{
+				Index index = store.addIndex(2);
+				index.setRevision(7);
+				index.setNamed(true);
+				for (int i = 0; i < 3; ++i)
+				{
+					Archive archive = index.addArchive(i);
+					archive.setNameHash(100 + i);
+					archive.setCrc(200 + i);
+					FileData fileData = new FileData();
+					fileData.setId(5);
+					fileData.setNameHash(300 + i);
+					archive.setFileData(new FileData[]{fileData});
+					store.getStorage().saveArchive(archive, i == 1 ? unique : shared);
+				}
+				store.save();
+			}
+
+			File blobs = new File(file, "blobs");
+			if (format == FlatStorage.Format.TEXT)
+			{
+				assertFalse(blobs.exists());
+			}
+			else
+			{
+				// the two archives with the same contents share a blob
+				assertEquals(2, countFiles(blobs));
+			}
+
+			try (Store store = new Store(new FlatStorage(file, format)))
+			{
+				store.load();
+				Index index = store.findIndex(2);
+				assertEquals(7, index.getRevision());
+				assertTrue(index.isNamed());
+				assertEquals(3, index.getArchives().size());
+				for (Archive archive : index.getArchives())
+				{
+					int i = archive.getArchiveId();
+					assertEquals(100 + i, archive.getNameHash());
+					assertEquals(200 + i, archive.getCrc());
+					assertEquals(300 + i, archive.getFileData()[0].getNameHash());
+					assertArrayEquals(i == 1 ? unique : shared, store.getStorage().loadArchive(archive));
+				}
+
+				// saving a new revision only adds blobs for the changed contents
+				store.getStorage().saveArchive(index.getArchive(0), "changed".getBytes());
+				store.save();
+			}
+
+			if (format != FlatStorage.Format.TEXT)
+			{
+				assertEquals(3, countFiles(blobs));
+			}
+		}
+	}
+
+	@Test
+	public void testChangeFormat() throws Exception
+	{
+		File file = folder.newFolder();
+		saveArchive(file, FlatStorage.Format.BINARY, "old".getBytes());
+		saveArchive(file, FlatStorage.Format.TEXT, "new".getBytes());
+
+		// the binary manifest is removed, rather than shadowing the newer text one
+		assertFalse(new File(file, "2" + FlatStorage.BINARY_EXTENSION).exists());
+		try (Store store = new Store(new FlatStorage(file)))
+		{
+			store.load();
+			Archive archive = store.findIndex(2).getArchive(0);
+			assertArrayEquals("new".getBytes(), store.getStorage().loadArchive(archive));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptBlob() throws Exception
+	{
+		File file = folder.newFolder();
+		saveArchive(file, FlatStorage.Format.BLOBS, "contents".getBytes());
+
+		File blob = new File(file, "blobs").listFiles()[0].listFiles()[0];
+		Files.write(blob.toPath(), "corrupt".getBytes());
+
+		try (Store store = new Store(new FlatStorage(file, FlatStorage.Format.BLOBS)))
+		{
+			store.load();
+		}
+	}
+
+	private static void saveArchive(File file, FlatStorage.Format format, byte[] contents) throws IOException
+	{
+		try (Store store = new Store(new FlatStorage(file, format)))
+		{
+			store.load();
+			Index index = store.findIndex(2);
+			if (index == null)
+			{
+				index = store.addIndex(2);
+				index.addArchive(0).setFileData(new FileData[]{new FileData()});
+			}
+			store.getStorage().saveArchive(index.getArchive(0), contents);
+			store.save();
+		}
+	}
+
+	private static int countFiles(File dir)
+	{
+		int count = 0;
+		for (File f : dir.listFiles())
+		{
+			count += f.isDirectory() ? countFiles(f) : 1;
+		}
+		return count;
+	}
 }
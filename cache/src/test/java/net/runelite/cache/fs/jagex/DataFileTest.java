@@ -167,4 +167,49 @@ public class DataFileTest
 		Assert.assertEquals("testtesttesttest1", str);
 		Assert.assertEquals(42, res2.revision);
 	}
+
+	@Test
+	public void testReadOnly() throws IOException
+	{
+		File file = folder.newFile();
+
+		byte[] small = new byte[2000];
+		byte[] large = new byte[3000];
+		for (int i = 0; i < large.length; ++i)
+		{
+			large[i] = (byte) (i * 31);
+			if (i < small.length)
+			{
+				small[i] = (byte) i;
+			}
+		}
+
+		DataFileWriteResult res1, res2;
+		try (DataFile df = new DataFile(file))
+		{
+			res1 = df.write(7, 3, small);
+			res2 = df.write(7, 0x1FFFF, large);
+		}
+
+		try (DataFile df = new DataFile(file); DataFile mapped = new DataFile(file, true))
+		{
+			Assert.assertTrue(mapped.isReadOnly());
+			Assert.assertArrayEquals(df.read(7, 3, res1.sector, res1.compressedLength), mapped.read(7, 3, res1.sector, res1.compressedLength));
+			Assert.assertArrayEquals(small, mapped.read(7, 3, res1.sector, res1.compressedLength));
+			Assert.assertArrayEquals(large, mapped.read(7, 0x1FFFF, res2.sector, res2.compressedLength));
+
+			// mismatched archive
+			Assert.assertNull(mapped.read(7, 4, res1.sector, res1.compressedLength));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadOnlyWrite() throws IOException
+	{
+		File file = folder.newFile();
+		try (DataFile df = new DataFile(file, true))
+		{
+			df.write(1, 1, new byte[1]);
+		}
+	}
 }
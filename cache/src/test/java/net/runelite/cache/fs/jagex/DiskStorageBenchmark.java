@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs.jagex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares a full store scan through the {@link java.io.RandomAccessFile} backed
+ * {@link DataFile} against the memory mapped read only one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DiskStorageBenchmark
+{
+	private Store fileStore;
+	private Store mappedStore;
+	private DiskStorage fileStorage;
+	private DiskStorage mappedStorage;
+	private int[] indexIds;
+	private int[] archiveIds;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		// the stores init the storages, which opens every index file up front so the parallel
+		// scans never open one concurrently
+		fileStorage = new DiskStorage(StoreLocation.LOCATION);
+		fileStore = new Store(fileStorage);
+		mappedStorage = new DiskStorage(StoreLocation.LOCATION, true);
+		mappedStore = new Store(mappedStorage);
+		mappedStore.load();
+
+		List<Archive> archives = new ArrayList<>();
+		for (Index index : mappedStore.getIndexes())
+		{
+			archives.addAll(index.getArchives());
+		}
+
+		indexIds = new int[archives.size()];
+		archiveIds = new int[archives.size()];
+		for (int i = 0; i < archives.size(); ++i)
+		{
+			indexIds[i] = archives.get(i).getIndex().getId();
+			archiveIds[i] = archives.get(i).getArchiveId();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		fileStore.close();
+		mappedStore.close();
+	}
+
+	@Benchmark
+	public void scanRandomAccessFile(Blackhole bh) throws IOException
+	{
+		scan(fileStorage, bh);
+	}
+
+	@Benchmark
+	public void scanMapped(Blackhole bh) throws IOException
+	{
+		scan(mappedStorage, bh);
+	}
+
+	@Benchmark
+	public void scanRandomAccessFileParallel(Blackhole bh)
+	{
+		scanParallel(fileStorage, bh);
+	}
+
+	@Benchmark
+	public void scanMappedParallel(Blackhole bh)
+	{
+		scanParallel(mappedStorage, bh);
+	}
+
+	private void scan(DiskStorage storage, Blackhole bh) throws IOException
+	{
+		for (int i = 0; i < indexIds.length; ++i)
+		{
+			bh.consume(storage.load(indexIds[i], archiveIds[i]));
+		}
+	}
+
+	private void scanParallel(DiskStorage storage, Blackhole bh)
+	{
+		IntStream.range(0, indexIds.length).parallel().forEach(i ->
+		{
+			try
+			{
+				bh.consume(storage.load(indexIds[i], archiveIds[i]));
+			}
+			catch (IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(DiskStorageBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -101,4 +101,38 @@ public class DiskStorageTest
 		}
 	}
 
+	@Test
+	public void testReadOnly() throws Exception
+	{
+		File file = folder.newFolder();
+		DiskStorage storage = new DiskStorage(file);
+		Archive archive;
+		try (Store store = new Store(storage))
+		{
+			Index index = store.addIndex(0);
+			archive = index.addArchive(0);
+
+			FileData[] fileData = new FileData[1];
+			archive.setFileData(fileData);
+			fileData[0] = new FileData();
+
+			Container container = new Container(archive.getCompression(), -1);
+			container.compress("test".getBytes(), null);
+			archive.setCrc(container.crc);
+			storage.saveArchive(archive, container.data);
+
+			store.save();
+		}
+
+		storage = new DiskStorage(file, true);
+		try (Store store = new Store(storage))
+		{
+			store.load();
+			Archive archive2 = store.findIndex(0).getArchive(0);
+
+			byte[] data = archive2.decompress(storage.loadArchive(archive2));
+			assertArrayEquals("test".getBytes(), data);
+			assertEquals(archive.getCrc(), archive2.getCrc());
+		}
+	}
 }
@@ -24,6 +24,7 @@
  */
 package net.runelite.cache.io;
 
+import java.nio.ByteBuffer;
 import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
@@ -56,4 +57,32 @@ public class OutputStreamTest
 		assertEquals(3, os.getOffset());
 	}
 
+	@Test
+	public void testBuffer()
+	{
+		ByteBuffer shared = ByteBuffer.allocate(8);
+		shared.position(2);
+
+		OutputStream os = new OutputStream(shared);
+		os.writeShort(1234);
+		os.writeInt(42);
+
+		// the written bytes are a view of the shared buffer
+		ByteBuffer written = os.flipBuffer();
+		assertEquals(6, written.remaining());
+		assertEquals(1234, shared.getShort(2));
+
+		InputStream is = new InputStream(written);
+		InputStream first = is.slice(2);
+		assertEquals(4, is.remaining());
+		assertEquals(1234, first.readUnsignedShort());
+		assertEquals(0, first.remaining());
+		assertEquals(42, is.readInt());
+
+		// growing the stream moves it off the shared buffer
+		os = new OutputStream(shared);
+		os.writeBytes(new byte[16]);
+		assertEquals(16, os.flipBuffer().remaining());
+	}
+
 }
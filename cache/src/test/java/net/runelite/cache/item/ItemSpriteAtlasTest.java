@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.item;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.TextureDefinition;
+import net.runelite.cache.definitions.providers.ItemProvider;
+import net.runelite.cache.definitions.providers.ModelProvider;
+import net.runelite.cache.definitions.providers.SpriteProvider;
+import net.runelite.cache.definitions.providers.TextureProvider;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ItemSpriteAtlasTest
+{
+	private static final int ITEMS = 40;
+	private static final int MISSING_MODEL = 7;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ItemProvider itemProvider = itemId ->
+	{
+		ItemDefinition item = new ItemDefinition(itemId);
+		item.inventoryModel = itemId == MISSING_MODEL ? -1 : 0;
+		item.zoom2d = 600 + itemId * 20;
+		item.xan2d = itemId * 97 % 2048;
+		item.yan2d = itemId * 37 % 2048;
+		item.colorFind = new short[]{100};
+		item.colorReplace = new short[]{(short) (itemId * 1500)};
+		return item;
+	};
+
+	// a new cube each call, as rendering modifies it
+	private final ModelProvider modelProvider = modelId ->
+	{
+		if (modelId != 0)
+		{
+			return null;
+		}
+
+		ModelDefinition model = new ModelDefinition();
+		model.vertexCount = 8;
+		model.vertexX = new int[]{-50, 50, 50, -50, -50, 50, 50, -50};
+		model.vertexY = new int[]{-50, -50, 50, 50, -50, -50, 50, 50};
+		model.vertexZ = new int[]{-50, -50, -50, -50, 50, 50, 50, 50};
+		model.faceCount = 12;
+		model.faceIndices1 = new int[]{0, 0, 4, 4, 0, 0, 3, 3, 0, 0, 1, 1};
+		model.faceIndices2 = new int[]{2, 3, 5, 6, 1, 5, 6, 7, 4, 7, 6, 2};
+		model.faceIndices3 = new int[]{1, 2, 6, 7, 5, 4, 2, 6, 7, 3, 5, 6};
+		model.faceColors = new short[12];
+		for (int i = 0; i < 12; ++i)
+		{
+			model.faceColors[i] = (short) (i % 2 == 0 ? 100 : 30000);
+		}
+		return model;
+	};
+
+	private final SpriteProvider spriteProvider = (spriteId, frameId) -> null;
+	private final TextureProvider textureProvider = () -> new TextureDefinition[0];
+
+	@Test
+	public void testRender() throws IOException
+	{
+		int[] itemIds = new int[ITEMS];
+		for (int i = 0; i < ITEMS; ++i)
+		{
+			itemIds[i] = i;
+		}
+
+		ItemSpriteAtlas atlas = ItemSpriteAtlas.render(itemProvider, modelProvider, spriteProvider, textureProvider,
+			itemIds, 1, 1, 3153952, 4);
+
+		for (int itemId : itemIds)
+		{
+			BufferedImage expected = ItemSpriteFactory.createSprite(itemProvider, modelProvider, spriteProvider, textureProvider,
+				itemId, 1, 1, 3153952, false);
+			BufferedImage actual = atlas.getSprite(itemId);
+			if (itemId == MISSING_MODEL)
+			{
+				assertNull(expected);
+				assertNull(actual);
+				continue;
+			}
+
+			assertNotNull(actual);
+			boolean drawn = false;
+			for (int y = 0; y < ItemSpriteAtlas.SPRITE_HEIGHT; ++y)
+			{
+				for (int x = 0; x < ItemSpriteAtlas.SPRITE_WIDTH; ++x)
+				{
+					assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+					drawn |= actual.getRGB(x, y) != 0;
+				}
+			}
+			assertTrue(drawn);
+		}
+
+		File dir = folder.newFolder();
+		atlas.write(dir, "items");
+		assertTrue(new File(dir, "items.png").length() > 0);
+		assertTrue(new File(dir, "items.json").length() > 0);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.region;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Djb2;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.rules.TemporaryFolder;
+
+public class RegionDiffTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testDiff() throws IOException
+	{
+		try (Store from = new Store(folder.newFolder());
+			Store to = new Store(folder.newFolder()))
+		{
+			Index fromMaps = from.addIndex(IndexType.MAPS.getNumber());
+			Index toMaps = to.addIndex(IndexType.MAPS.getNumber());
+			from.addIndex(IndexType.CONFIGS.getNumber());
+			to.addIndex(IndexType.CONFIGS.getNumber());
+
+			int id = 0;
+			// 50,50 is unchanged, 50,51 has new locations, 51,50 is added
+			addRegion(fromMaps, id++, 50, 50, 1);
+			addRegion(toMaps, id++, 50, 50, 1);
+			addRegion(fromMaps, id++, 50, 51, 1);
+			addRegion(toMaps, id++, 50, 51, 1);
+			toMaps.findArchiveByName("l50_51").setCrc(2);
+			addRegion(toMaps, id++, 51, 50, 1);
+
+			RegionDiff diff = RegionDiff.diff(from, to);
+			assertFalse(diff.isDefinitionsChanged());
+			assertEquals(ImmutableSet.of(50 << 8 | 51, 51 << 8 | 50), diff.getChangedRegions());
+
+			// neighbors which don't exist, such as those west of 50,51, are not affected
+			assertEquals(ImmutableSet.of(50 << 8 | 50, 50 << 8 | 51, 51 << 8 | 50), diff.getAffectedRegions());
+
+			to.getIndex(IndexType.CONFIGS).addArchive(ConfigType.UNDERLAY.getId());
+			assertTrue(RegionDiff.diff(from, to).isDefinitionsChanged());
+		}
+	}
+
+	private static void addRegion(Index index, int archiveId, int x, int y, int crc)
+	{
+		Archive map = index.addArchive(archiveId * 2);
+		map.setNameHash(Djb2.hash("m" + x + "_" + y));
+		map.setCrc(crc);
+
+		Archive land = index.addArchive(archiveId * 2 + 1);
+		land.setNameHash(Djb2.hash("l" + x + "_" + y));
+		land.setCrc(crc);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.region;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.FileData;
+import net.runelite.cache.io.OutputStream;
+import net.runelite.cache.util.Djb2;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RegionLoaderTest
+{
+	private static final int[][] REGIONS = {
+		{50, 50}, {50, 51}, {51, 50}, {60, 60},
+	};
+	/**
+	 * a region whose map data is truncated, which fails to decode
+	 */
+	private static final int[] BROKEN_REGION = {61, 61};
+
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	private File root;
+
+	@Before
+	public void before() throws IOException
+	{
+		root = folder.newFolder();
+		try (Store store = new Store(root))
+		{
+			Index maps = store.addIndex(IndexType.MAPS.getNumber());
+			int id = 0;
+			for (int[] region : REGIONS)
+			{
+				addRegion(store, maps, id, region[0], region[1], mapData(region[0] + region[1]));
+				id += 2;
+			}
+			addRegion(store, maps, id, BROKEN_REGION[0], BROKEN_REGION[1], new byte[]{1});
+			store.save();
+		}
+	}
+
+	private static void addRegion(Store store, Index maps, int id, int x, int y, byte[] mapData) throws IOException
+	{
+		Archive map = maps.addArchive(id);
+		map.setNameHash(Djb2.hash("m" + x + "_" + y));
+		map.setFileData(new FileData[]{new FileData()});
+		Container container = new Container(CompressionType.GZ, -1);
+		container.compress(mapData, null);
+		map.setCrc(container.crc);
+		store.getStorage().saveArchive(map, container.data);
+
+		Archive land = maps.addArchive(id + 1);
+		land.setNameHash(Djb2.hash("l" + x + "_" + y));
+		land.setFileData(new FileData[]{new FileData()});
+	}
+
+	/**
+	 * map data with every tile set to the given height
+	 */
+	private static byte[] mapData(int height)
+	{
+		OutputStream out = new OutputStream();
+		for (int i = 0; i < Region.Z * Region.X * Region.Y; ++i)
+		{
+			out.writeShort(1);
+			out.writeByte(height);
+		}
+		return out.flip();
+	}
+
+	@Test
+	public void testEager() throws IOException
+	{
+		try (Store store = new Store(root))
+		{
+			store.load();
+
+			RegionLoader loader = new RegionLoader(store, i -> null);
+			loader.loadRegions();
+			assertEquals(REGIONS.length, loader.getRegions().size());
+
+			Region region = loader.findRegionForRegionCoordinates(50, 51);
+			assertEquals(-(50 + 51) * 8, region.getTileHeight(0, 10, 10));
+			assertSame(region, loader.findRegionForWorldCoordinates(50 * 64 + 3, 51 * 64 + 63));
+			assertNull(loader.findRegionForRegionCoordinates(52, 52));
+			assertNull(loader.findRegionForRegionCoordinates(BROKEN_REGION[0], BROKEN_REGION[1]));
+
+			loader.calculateBounds();
+			assertEquals(50, loader.getLowestX().getRegionX());
+			assertEquals(60, loader.getHighestY().getRegionY());
+		}
+	}
+
+	@Test
+	public void testLazy() throws IOException
+	{
+		try (Store store = new Store(root))
+		{
+			store.load();
+
+			RegionLoader loader = new RegionLoader(store, i -> null, true);
+			loader.loadRegions();
+
+			List<Integer> ids = loader.getRegions(50 * 64, 50 * 64, 51 * 64 + 10, 50 * 64 + 10).stream()
+				.map(Region::getRegionID)
+				.sorted()
+				.collect(Collectors.toList());
+			assertEquals(List.of(50 << 8 | 50, 51 << 8 | 50), ids);
+
+			Region region = loader.findRegionForRegionCoordinates(60, 60);
+			assertEquals(-(60 + 60) * 8, region.getTileHeight(3, 63, 63) - region.getTileHeight(2, 63, 63));
+			assertNull(loader.findRegionForRegionCoordinates(52, 52));
+			assertNull(loader.findRegionForRegionCoordinates(BROKEN_REGION[0], BROKEN_REGION[1]));
+
+			assertEquals(REGIONS.length, loader.getRegions().size());
+
+			loader.calculateBounds();
+			assertEquals(50, loader.getLowestY().getRegionY());
+			assertEquals(60, loader.getHighestX().getRegionX());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.io.IOException;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.Test;
+
+public class BZip2DecoderTest
+{
+	private static final int BLOCK_SIZE = 100000;
+
+	private static void assertDecodes(byte[] data) throws IOException
+	{
+		byte[] compressed = BZip2.compressApache(data);
+		assertArrayEquals(BZip2.decompressApache(compressed, 0, compressed.length, data.length),
+			BZip2Decoder.decompress(compressed, 0, compressed.length, data.length, BLOCK_SIZE));
+
+		// from the middle of a larger array, as in a container
+		byte[] container = new byte[compressed.length + 13];
+		System.arraycopy(compressed, 0, container, 9, compressed.length);
+		assertArrayEquals(data, BZip2Decoder.decompress(container, 9, compressed.length, data.length, BLOCK_SIZE));
+	}
+
+	@Test
+	public void testEmpty() throws IOException
+	{
+		assertDecodes(new byte[0]);
+	}
+
+	@Test
+	public void testSmall() throws IOException
+	{
+		assertDecodes("runelite runelite runelite".getBytes());
+	}
+
+	@Test
+	public void testRandom() throws IOException
+	{
+		// incompressible, so this is several blocks
+		byte[] data = new byte[350_000];
+		new Random(42L).nextBytes(data);
+		assertDecodes(data);
+	}
+
+	@Test
+	public void testRuns() throws IOException
+	{
+		// long runs exercise both run length codings, over many blocks
+		Random random = new Random(42L);
+		byte[] data = new byte[2_000_000];
+		for (int i = 0; i < data.length; )
+		{
+			int len = Math.min(data.length - i, 1 + random.nextInt(600));
+			byte b = (byte) random.nextInt(8);
+			for (int j = 0; j < len; ++j)
+			{
+				data[i++] = b;
+			}
+		}
+		assertDecodes(data);
+	}
+
+	@Test
+	public void testText() throws IOException
+	{
+		Random random = new Random(42L);
+		String[] words = {"the", "cache", "archive", "index", "container", "block", "huffman", "selector"};
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 500_000)
+		{
+			sb.append(words[random.nextInt(words.length)]).append(random.nextInt(4) == 0 ? '\n' : ' ');
+		}
+		assertDecodes(sb.toString().getBytes());
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorrupt() throws IOException
+	{
+		byte[] data = new byte[200_000];
+		new Random(42L).nextBytes(data);
+		byte[] compressed = BZip2.compressApache(data);
+		compressed[compressed.length / 2] ^= 0x10;
+		BZip2Decoder.decompress(compressed, 0, compressed.length, data.length, BLOCK_SIZE);
+	}
+
+	@Test(expected = IOException.class)
+	public void testNegativeLength() throws IOException
+	{
+		byte[] compressed = BZip2.compressApache("runelite".getBytes());
+		BZip2.decompress(compressed, 0, compressed.length, -8);
+	}
+}
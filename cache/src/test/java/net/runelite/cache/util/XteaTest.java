@@ -53,4 +53,32 @@ public class XteaTest
 
 		assertArrayEquals(data, decData);
 	}
+
+	@Test
+	public void testInPlace()
+	{
+		int[] key = new int[]
+		{
+			4, 8, 15, 16
+		};
+		byte[] encrypted = new byte[]
+		{
+			121, -18, 48, 64, 120, -42, -113, 77, 116, 101, 115, 116, 49
+		};
+
+		// encrypted data in the middle of a larger buffer
+		byte[] buffer = new byte[encrypted.length + 6];
+		System.arraycopy(encrypted, 0, buffer, 3, encrypted.length);
+
+		Xtea xtea = new Xtea(key);
+		xtea.decrypt(buffer, 3, encrypted.length);
+
+		byte[] expected = new byte[buffer.length];
+		System.arraycopy("testtesttest1".getBytes(StandardCharsets.UTF_8), 0, expected, 3, encrypted.length);
+		assertArrayEquals(expected, buffer);
+
+		xtea.encrypt(buffer, 3, encrypted.length);
+		System.arraycopy(encrypted, 0, expected, 3, encrypted.length);
+		assertArrayEquals(expected, buffer);
+	}
 }
@@ -37,6 +37,8 @@ import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ClientShutdown;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.util.RunnableExceptionLogger;
 
 @Singleton
@@ -51,11 +53,11 @@ public class ClientSessionManager
 	private UUID sessionId;
 
 	@Inject
-	ClientSessionManager(ScheduledExecutorService executorService,
+	ClientSessionManager(TaskExecutors taskExecutors,
 		@Nullable Client client,
 		SessionClient sessionClient)
 	{
-		this.executorService = executorService;
+		this.executorService = taskExecutors.executor(TaskTier.TIMER, this);
 		this.client = client;
 		this.sessionClient = sessionClient;
 	}
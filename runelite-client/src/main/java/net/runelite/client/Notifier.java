@@ -71,6 +71,8 @@ import net.runelite.client.config.Notification;
 import net.runelite.client.config.RuneLiteConfig;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.events.NotificationFired;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.ui.ClientUI;
 import net.runelite.client.util.OSType;
 
@@ -129,7 +131,7 @@ public class Notifier
 		final ClientUI clientUI,
 		final Client client,
 		final RuneLiteConfig runeliteConfig,
-		final ScheduledExecutorService executorService,
+		final TaskExecutors taskExecutors,
 		final ChatMessageManager chatMessageManager,
 		final EventBus eventBus,
 		@Named("runelite.title") final String appName
@@ -138,7 +140,7 @@ public class Notifier
 		this.client = client;
 		this.clientUI = clientUI;
 		this.runeLiteConfig = runeliteConfig;
-		this.executorService = executorService;
+		this.executorService = taskExecutors.executor(TaskTier.TIMER, this);
 		this.chatMessageManager = chatMessageManager;
 		this.eventBus = eventBus;
 		this.appName = appName;
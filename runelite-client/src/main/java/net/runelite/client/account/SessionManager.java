@@ -46,6 +46,8 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.events.SessionClose;
 import net.runelite.client.events.SessionOpen;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.util.LinkBrowser;
 import net.runelite.http.api.account.OAuthResponse;
 import okhttp3.HttpUrl;
@@ -73,7 +75,7 @@ public class SessionManager
 		AccountClient accountClient,
 		Gson gson,
 		@Named("runelite.oauth.redirect") String oauthRedirect,
-		ScheduledExecutorService scheduledExecutorService
+		TaskExecutors taskExecutors
 	)
 	{
 		this.eventBus = eventBus;
@@ -81,7 +83,7 @@ public class SessionManager
 		this.accountClient = accountClient;
 		this.gson = gson;
 		this.oauthRedirect = oauthRedirect;
-		this.scheduledExecutorService = scheduledExecutorService;
+		this.scheduledExecutorService = taskExecutors.executor(TaskTier.TIMER, this);
 
 		eventBus.register(this);
 	}
@@ -29,8 +29,10 @@ import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.BooleanSupplier;
 import javax.inject.Singleton;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.client.util.FrameProfiler;
 
 @Singleton
 @Slf4j
@@ -42,13 +44,29 @@ public class ClientThread
 	@Inject
 	private Client client;
 
-	public void invoke(Runnable r)
+	@Inject
+	private FrameProfiler frameProfiler;
+
+	/**
+	 * Adapts a Runnable to a BooleanSupplier while keeping the Runnable around,
+	 * so the profiler can attribute its time to the code which submitted it
+	 */
+	@RequiredArgsConstructor
+	private static class RunnableInvoke implements BooleanSupplier
 	{
-		invoke(() ->
+		private final Runnable runnable;
+
+		@Override
+		public boolean getAsBoolean()
 		{
-			r.run();
+			runnable.run();
 			return true;
-		});
+		}
+	}
+
+	public void invoke(Runnable r)
+	{
+		invoke(new RunnableInvoke(r));
 	}
 
 	/**
@@ -75,11 +93,7 @@ public class ClientThread
 	 */
 	public void invokeLater(Runnable r)
 	{
-		invokeLater(() ->
-		{
-			r.run();
-			return true;
-		});
+		invokeLater(new RunnableInvoke(r));
 	}
 
 	public void invokeLater(BooleanSupplier r)
@@ -89,11 +103,7 @@ public class ClientThread
 
 	public void invokeAtTickEnd(Runnable r)
 	{
-		invokesAtTickEnd.add(() ->
-		{
-			r.run();
-			return true;
-		});
+		invokesAtTickEnd.add(new RunnableInvoke(r));
 	}
 
 	void invoke()
@@ -114,6 +124,7 @@ public class ClientThread
 		{
 			BooleanSupplier r = ir.next();
 			boolean remove = true;
+			final long start = frameProfiler.start();
 			try
 			{
 				remove = r.getAsBoolean();
@@ -126,6 +137,10 @@ public class ClientThread
 			{
 				log.error("Exception in invoke", e);
 			}
+			finally
+			{
+				frameProfiler.stop(start, r instanceof RunnableInvoke ? ((RunnableInvoke) r).runnable : r, FrameProfiler.Source.INVOKE);
+			}
 			if (remove)
 			{
 				ir.remove();
@@ -77,6 +77,7 @@ import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayRenderer;
 import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 import net.runelite.client.util.DeferredEventBus;
+import net.runelite.client.util.FrameProfiler;
 import net.runelite.client.util.LinkBrowser;
 import net.runelite.client.util.RSTimeUnit;
 
@@ -107,6 +108,7 @@ public class Hooks implements Callbacks
 	private final DrawManager drawManager;
 	private final Notifier notifier;
 	private final ClientUI clientUi;
+	private final FrameProfiler frameProfiler;
 	@Nullable
 	private final TelemetryClient telemetryClient;
 	@Nullable
@@ -172,6 +174,7 @@ public class Hooks implements Callbacks
 		DrawManager drawManager,
 		Notifier notifier,
 		ClientUI clientUi,
+		FrameProfiler frameProfiler,
 		@Nullable TelemetryClient telemetryClient,
 		@Nullable RuntimeConfig runtimeConfig,
 		@Named("developerMode") final boolean developerMode
@@ -190,9 +193,11 @@ public class Hooks implements Callbacks
 		this.drawManager = drawManager;
 		this.notifier = notifier;
 		this.clientUi = clientUi;
+		this.frameProfiler = frameProfiler;
 		this.telemetryClient = telemetryClient;
 		this.runtimeConfig = runtimeConfig;
 		this.developerMode = developerMode;
+		eventBus.setFrameProfiler(frameProfiler);
 		eventBus.register(this);
 	}
 
@@ -215,6 +220,8 @@ public class Hooks implements Callbacks
 		{
 			shouldProcessGameTick = false;
 
+			frameProfiler.endTick();
+
 			deferredEventBus.replay();
 
 			eventBus.post(GAME_TICK);
@@ -262,6 +269,7 @@ public class Hooks implements Callbacks
 	@Override
 	public void frame()
 	{
+		frameProfiler.endFrame();
 		eventBus.post(BEFORE_RENDER);
 	}
 
@@ -591,7 +599,10 @@ public class Hooks implements Callbacks
 		{
 			for (RenderableDrawListener renderableDrawListener : renderableDrawListeners)
 			{
-				if (!renderableDrawListener.draw(renderable, drawingUi))
+				final long start = frameProfiler.start();
+				final boolean draw = renderableDrawListener.draw(renderable, drawingUi);
+				frameProfiler.stop(start, renderableDrawListener, FrameProfiler.Source.DRAW_LISTENER);
+				if (!draw)
 				{
 					return false;
 				}
@@ -37,6 +37,8 @@ import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ChatInput;
 import net.runelite.client.events.ChatboxInput;
 import net.runelite.client.events.PrivateMessageInput;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 
 @Singleton
 public class ChatCommandManager
@@ -46,10 +48,10 @@ public class ChatCommandManager
 	private final ScheduledExecutorService scheduledExecutorService;
 
 	@Inject
-	private ChatCommandManager(EventBus eventBus, ChatInputManager chatInputManager, ScheduledExecutorService scheduledExecutorService)
+	private ChatCommandManager(EventBus eventBus, ChatInputManager chatInputManager, TaskExecutors taskExecutors)
 	{
 		// unused chatInputManager parameter must exist to cause it to be instantiated by guice
-		this.scheduledExecutorService = scheduledExecutorService;
+		this.scheduledExecutorService = taskExecutors.executor(TaskTier.TIMER, this);
 		eventBus.register(this);
 	}
 
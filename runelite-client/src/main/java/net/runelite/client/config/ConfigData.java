@@ -24,6 +24,8 @@
  */
 package net.runelite.client.config;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -31,11 +33,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -43,38 +50,60 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * A config properties file plus a write-ahead journal of patches to it.
+ * <p>
+ * Patches are appended to the journal as checksummed records, and the journal is folded into the
+ * properties file once it grows larger than it. Anything reading the config must replay the journal
+ * on top of the properties file, which this class does on load.
+ */
 @Slf4j
 class ConfigData
 {
+	/**
+	 * Don't compact until the journal is at least this big, even if the properties file is smaller
+	 */
+	private static final int MIN_COMPACT_SIZE = 64 * 1024;
+	private static final int RECORD_HEADER_SIZE = 8;
+	private static final int MAX_LOAD_ATTEMPTS = 3;
+
+	@FunctionalInterface
+	private interface LockedAction
+	{
+		void run() throws IOException;
+	}
+
 	private final File configPath;
+	private final File journalPath;
 
 	private final ConcurrentHashMap<String, String> properties;
 	private Map<String, String> patchChanges = new HashMap<>();
 
+	/**
+	 * Valid length of the journal as of the last time this instance read or wrote it. If the journal is
+	 * still this size on the next append then no other client has touched it, and it need not be rescanned.
+	 */
+	private long journalLength;
+
 	ConfigData(File configPath)
 	{
 		this.configPath = configPath;
+		this.journalPath = journalFile(configPath);
 
-		Properties props = new Properties();
-		try (FileInputStream in = new FileInputStream(configPath);
-			InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
-		{
-			props.load(reader);
-		}
-		catch (FileNotFoundException ignored)
-		{
-		}
-		catch (Exception ex)
-		{
-			throw new RuntimeException(ex);
-		}
-
+		Properties props = load();
 		properties = new ConcurrentHashMap<>(props.size());
 		props.forEach((k, v) -> properties.put((String) k, (String) v));
 	}
 
+	static File journalFile(File configPath)
+	{
+		return new File(configPath.getParentFile(), configPath.getName() + ".journal");
+	}
+
 	String getProperty(String key)
 	{
 		return properties.get(key);
@@ -130,75 +159,305 @@ class ConfigData
 
 	void patch(Map<String, String> patch)
 	{
-		// load + patch + store instead of just flushing the in-memory properties to disk so that
-		// multiple clients editing one config data (such as rs profile config) get their data merged
-		// correctly
+		// append the patch to the journal instead of just flushing the in-memory properties to disk so
+		// that multiple clients editing one config data (such as rs profile config) get their data
+		// merged correctly
+
+		locked(configPath, () ->
+		{
+			if (!configPath.exists())
+			{
+				// this probably doesn't happen outside of the very first save (when no file exists)
+				// but to be safe in the event the prop is deleted off disk, flush the entire properties
+				// from memory
+				Properties tempProps = new Properties();
+				tempProps.putAll(properties);
+				writeProperties(configPath, tempProps);
+				Files.deleteIfExists(journalPath.toPath());
+				journalLength = 0;
+				return;
+			}
 
+			journalLength = appendJournal(journalPath, journalLength, patch);
+
+			if (journalLength > Math.max(MIN_COMPACT_SIZE, configPath.length()))
+			{
+				log.debug("compacting config journal {}", journalPath);
+				compactLocked(configPath);
+				journalLength = 0;
+			}
+		});
+	}
+
+	/**
+	 * Fold the journal of the given config file into it, so that the file may be copied or read as
+	 * a plain properties file.
+	 */
+	static void compact(File configPath)
+	{
+		locked(configPath, () -> compactLocked(configPath));
+	}
+
+	private static void compactLocked(File configPath) throws IOException
+	{
+		File journalPath = journalFile(configPath);
+		if (!journalPath.exists())
+		{
+			return;
+		}
+
+		Properties tempProps = loadProperties(configPath);
+		readJournal(journalPath, (k, v) -> apply(tempProps, k, v));
+		writeProperties(configPath, tempProps);
+		// if we die before this the journal is replayed again, which is harmless
+		Files.deleteIfExists(journalPath.toPath());
+	}
+
+	private static void locked(File configPath, LockedAction action)
+	{
 		File lckFile = new File(configPath.getParentFile(), configPath.getName() + ".lck");
 		try (FileOutputStream lockOut = new FileOutputStream(lckFile);
 			FileChannel lckChannel = lockOut.getChannel())
 		{
 			lckChannel.lock();
+			action.run();
+		}
+		catch (IOException ex)
+		{
+			log.error("unable to save configuration file", ex);
+		}
+		lckFile.delete();
+	}
 
-			Properties tempProps = new Properties();
-			try (FileInputStream in = new FileInputStream(configPath);
-				InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
+	/**
+	 * Load the properties file and replay the journal on top of it. The two are read without holding the
+	 * lock, so if another client compacts in between, the properties file will have been replaced and
+	 * the read is retried.
+	 */
+	private Properties load()
+	{
+		for (int attempt = 0; ; ++attempt)
+		{
+			Object before = fileVersion(configPath);
+			Properties props = loadProperties(configPath);
+			try
 			{
-				tempProps.load(reader);
+				journalLength = readJournal(journalPath, (k, v) -> apply(props, k, v));
 			}
-			catch (FileNotFoundException e)
+			catch (IOException ex)
 			{
-				log.debug("config file {} does not exist", configPath);
+				log.warn("unable to read config journal {}", journalPath, ex);
+				journalLength = 0;
 			}
 
-			if (tempProps.isEmpty())
+			if (attempt >= MAX_LOAD_ATTEMPTS || Objects.equals(before, fileVersion(configPath)))
 			{
-				// this probably doesn't happen outside of the very first save (when no file exists)
-				// but to be safe in the event the prop is deleted off disk, flush the entire properties
-				// from memory
-				tempProps.putAll(properties);
+				return props;
+			}
+
+			log.debug("config file {} was compacted during load, retrying", configPath);
+		}
+	}
+
+	private static Object fileVersion(File file)
+	{
+		try
+		{
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+		}
+		catch (IOException ex)
+		{
+			return null;
+		}
+	}
+
+	private static Properties loadProperties(File configPath)
+	{
+		Properties props = new Properties();
+		try (FileInputStream in = new FileInputStream(configPath);
+			InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
+		{
+			props.load(reader);
+		}
+		catch (FileNotFoundException ignored)
+		{
+		}
+		catch (Exception ex)
+		{
+			throw new RuntimeException(ex);
+		}
+		return props;
+	}
+
+	private static void writeProperties(File configPath, Properties props) throws IOException
+	{
+		File tempFile = File.createTempFile("runelite_config", null, configPath.getParentFile());
+		try (FileOutputStream out = new FileOutputStream(tempFile);
+			FileChannel channel = out.getChannel();
+			OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8))
+		{
+			channel.lock();
+			props.store(writer, "RuneLite configuration");
+			writer.flush();
+			channel.force(true);
+		}
+
+		try
+		{
+			Files.move(tempFile.toPath(), configPath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException ex)
+		{
+			log.debug("atomic move not supported", ex);
+			Files.move(tempFile.toPath(), configPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void apply(Properties props, String key, String value)
+	{
+		if (value == null)
+		{
+			props.remove(key);
+		}
+		else
+		{
+			props.put(key, value);
+		}
+	}
+
+	/**
+	 * Append a patch to the journal as a single record of
+	 * {@code length, crc32, count, (keyLength, key, valueLength or -1 if unset, value)*}.
+	 *
+	 * @param knownLength valid length of the journal when this client last read or wrote it
+	 * @return valid length of the journal after the append
+	 */
+	private static long appendJournal(File journalPath, long knownLength, Map<String, String> patch) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeInt(0); // length
+		out.writeInt(0); // crc
+		out.writeInt(patch.size());
+		for (Map.Entry<String, String> entry : patch.entrySet())
+		{
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+
+		ByteBuffer record = ByteBuffer.wrap(bout.toByteArray());
+		int length = record.limit() - RECORD_HEADER_SIZE;
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), RECORD_HEADER_SIZE, length);
+		record.putInt(0, length);
+		record.putInt(4, (int) crc.getValue());
+
+		try (FileChannel channel = FileChannel.open(journalPath.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+		{
+			long valid = knownLength;
+			if (channel.size() != valid)
+			{
+				// another client appended or compacted since, or a crash left a torn record behind, so
+				// find where the valid records end again so that this one is reachable on replay
+				valid = readJournal(journalPath, null);
 			}
-			else
+
+			if (channel.size() > valid)
 			{
-				// apply patches
-				for (Map.Entry<String, String> entry : patch.entrySet())
-				{
-					if (entry.getValue() == null)
-					{
-						tempProps.remove(entry.getKey());
-					}
-					else
-					{
-						tempProps.put(entry.getKey(), entry.getValue());
-					}
-				}
+				log.warn("discarding {} bytes of torn config journal {}", channel.size() - valid, journalPath);
+				channel.truncate(valid);
 			}
 
-			File tempFile = File.createTempFile("runelite_config", null, configPath.getParentFile());
-			try (FileOutputStream out = new FileOutputStream(tempFile);
-				FileChannel channel = out.getChannel();
-				OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8))
+			channel.position(valid);
+			while (record.hasRemaining())
 			{
-				channel.lock();
-				tempProps.store(writer, "RuneLite configuration");
-				writer.flush();
-				channel.force(true);
+				channel.write(record);
 			}
+			channel.force(false);
+			return channel.position();
+		}
+	}
 
-			try
+	/**
+	 * Replay the journal, stopping at the first torn or corrupt record
+	 *
+	 * @param consumer receives each key and value, or null if the key was unset
+	 * @return length of the valid part of the journal
+	 */
+	private static long readJournal(File journalPath, BiConsumer<String, String> consumer) throws IOException
+	{
+		byte[] data;
+		try
+		{
+			data = Files.readAllBytes(journalPath.toPath());
+		}
+		catch (NoSuchFileException ex)
+		{
+			return 0;
+		}
+
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		CRC32 crc = new CRC32();
+		int valid = 0;
+		while (buf.remaining() >= RECORD_HEADER_SIZE)
+		{
+			int length = buf.getInt();
+			int checksum = buf.getInt();
+			if (length < 0 || length > buf.remaining())
+			{
+				break;
+			}
+
+			crc.reset();
+			crc.update(data, buf.position(), length);
+			if ((int) crc.getValue() != checksum)
 			{
-				Files.move(tempFile.toPath(), configPath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				break;
 			}
-			catch (AtomicMoveNotSupportedException ex)
+
+			if (consumer != null)
 			{
-				log.debug("atomic move not supported", ex);
-				Files.move(tempFile.toPath(), configPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				ByteBuffer record = buf.slice();
+				record.limit(length);
+				int count = record.getInt();
+				for (int i = 0; i < count; ++i)
+				{
+					String key = readString(record);
+					String value = readString(record);
+					consumer.accept(key, value);
+				}
 			}
+
+			buf.position(buf.position() + length);
+			valid = buf.position();
 		}
-		catch (IOException ex)
+		return valid;
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException
+	{
+		if (str == null)
 		{
-			log.error("unable to save configuration file", ex);
+			out.writeInt(-1);
+			return;
 		}
-		lckFile.delete();
+
+		byte[] b = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static String readString(ByteBuffer buf)
+	{
+		int length = buf.getInt();
+		if (length == -1)
+		{
+			return null;
+		}
+
+		String str = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+		buf.position(buf.position() + length);
+		return str;
 	}
 }
@@ -206,6 +206,9 @@ public class ProfileManager
 				return;
 			}
 
+			// fold in pending changes so only the properties file needs to be moved
+			ConfigData.compact(oldFile);
+
 			try
 			{
 				Files.move(
@@ -236,4 +239,17 @@ public class ProfileManager
 	{
 		return new File(PROFILES_DIR, profile.getName() + "-" + profile.getId() + ".properties");
 	}
+
+	/**
+	 * Fold pending journaled changes into the profile's config file, so that it can be copied
+	 * as a complete properties file
+	 */
+	public static void compactProfileConfig(ConfigProfile profile)
+	{
+		File file = profileConfigFile(profile);
+		if (file.exists())
+		{
+			ConfigData.compact(file);
+		}
+	}
 }
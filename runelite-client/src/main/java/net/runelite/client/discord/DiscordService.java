@@ -39,6 +39,8 @@ import net.runelite.client.discord.events.DiscordJoinRequest;
 import net.runelite.client.discord.events.DiscordReady;
 import net.runelite.client.discord.events.DiscordSpectateGame;
 import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.discord.DiscordEventHandlers;
 import net.runelite.discord.DiscordRPC;
 import net.runelite.discord.DiscordRichPresence;
@@ -62,14 +64,14 @@ public class DiscordService implements AutoCloseable
 	@Inject
 	private DiscordService(
 		final EventBus eventBus,
-		final ScheduledExecutorService executorService,
+		final TaskExecutors taskExecutors,
 		@Named("runelite.discord.enable") boolean enable,
 		@Named("runelite.discord.appid") final String discordAppId
 	)
 	{
 
 		this.eventBus = eventBus;
-		this.executorService = executorService;
+		this.executorService = taskExecutors.executor(TaskTier.TIMER, this);
 		this.discordAppId = discordAppId;
 
 		if (!enable)
@@ -26,8 +26,10 @@
 package net.runelite.client.eventbus;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableMultimap;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
 import java.lang.invoke.CallSite;
 import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
@@ -35,14 +37,27 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.FrameProfiler;
 import net.runelite.client.util.ReflectUtil;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
@@ -53,6 +68,9 @@ import org.slf4j.MarkerFactory;
 public class EventBus
 {
 	private static final Marker DEDUPLICATE = MarkerFactory.getMarker("DEDUPLICATE");
+	private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+	private static final Comparator<Subscriber> SUBSCRIBER_ORDER = Comparator.comparingDouble(Subscriber::getPriority).reversed()
+		.thenComparing(s -> s.object.getClass().getName());
 
 	@Value
 	public static class Subscriber
@@ -63,6 +81,19 @@ public class EventBus
 		@EqualsAndHashCode.Exclude
 		private final Consumer<Object> lambda;
 
+		@EqualsAndHashCode.Exclude
+		@ToString.Exclude
+		@Getter(AccessLevel.NONE)
+		private final AtomicLong calls = new AtomicLong();
+		@EqualsAndHashCode.Exclude
+		@ToString.Exclude
+		@Getter(AccessLevel.NONE)
+		private final AtomicLong totalNanos = new AtomicLong();
+		@EqualsAndHashCode.Exclude
+		@ToString.Exclude
+		@Getter(AccessLevel.NONE)
+		private final AtomicLong maxNanos = new AtomicLong();
+
 		void invoke(final Object arg) throws Exception
 		{
 			if (lambda != null)
@@ -74,12 +105,68 @@ public class EventBus
 				method.invoke(object, arg);
 			}
 		}
+
+		void record(final long nanos)
+		{
+			calls.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		/**
+		 * @return number of timed invocations since the last reset
+		 */
+		public long getCallCount()
+		{
+			return calls.get();
+		}
+
+		/**
+		 * @return total time spent in timed invocations since the last reset, in nanoseconds
+		 */
+		public long getTotalNanos()
+		{
+			return totalNanos.get();
+		}
+
+		/**
+		 * @return longest single timed invocation since the last reset, in nanoseconds
+		 */
+		public long getMaxNanos()
+		{
+			return maxNanos.get();
+		}
+
+		public void resetTiming()
+		{
+			calls.set(0);
+			totalNanos.set(0);
+			maxNanos.set(0);
+		}
 	}
 
 	private final Consumer<Throwable> exceptionHandler;
 
+	/**
+	 * Subscribers of each event class, already in dispatch order. The map and its arrays are never
+	 * mutated once published; registration builds a new map and swaps it in.
+	 */
 	@Nonnull
-	private ImmutableMultimap<Class<?>, Subscriber> subscribers = ImmutableMultimap.of();
+	private volatile ImmutableMap<Class<?>, Subscriber[]> subscribers = ImmutableMap.of();
+
+	/**
+	 * When enabled, each subscriber invocation is timed and recorded in the subscriber's counters.
+	 */
+	@Getter
+	@Setter
+	private volatile boolean profiling;
+
+	/**
+	 * Profiler which subscriber time is attributed to, when it is enabled
+	 */
+	@Setter
+	@Nullable
+	private volatile FrameProfiler frameProfiler;
 
 	/**
 	 * Instantiates EventBus with default exception handler
@@ -98,10 +185,7 @@ public class EventBus
 	 */
 	public synchronized void register(@Nonnull final Object object)
 	{
-		final ImmutableMultimap.Builder<Class<?>, Subscriber> builder = ImmutableMultimap.builder();
-		builder.putAll(subscribers);
-		builder.orderValuesBy(Comparator.comparingDouble(Subscriber::getPriority).reversed()
-			.thenComparing(s -> s.object.getClass().getName()));
+		final Multimap<Class<?>, Subscriber> added = ArrayListMultimap.create();
 
 		for (Class<?> clazz = object.getClass(); clazz != null; clazz = clazz.getSuperclass())
 		{
@@ -159,26 +243,18 @@ public class EventBus
 				}
 
 				final Subscriber subscriber = new Subscriber(object, method, sub.priority(), lambda);
-				builder.put(parameterClazz, subscriber);
+				added.put(parameterClazz, subscriber);
 				log.debug("Registering {} - {}", parameterClazz, subscriber);
 			}
 		}
 
-		subscribers = builder.build();
+		add(added.asMap());
 	}
 
 	public synchronized <T> Subscriber register(Class<T> clazz, Consumer<T> subFn, float priority)
 	{
-		final ImmutableMultimap.Builder<Class<?>, Subscriber> builder = ImmutableMultimap.builder();
-		builder.putAll(subscribers);
-		builder.orderValuesBy(Comparator.comparingDouble(Subscriber::getPriority).reversed()
-			.thenComparing(s -> s.object.getClass().getName()));
-
 		Subscriber sub = new Subscriber(subFn, null, priority, (Consumer<Object>) subFn);
-		builder.put(clazz, sub);
-
-		subscribers = builder.build();
-
+		add(ImmutableMap.of(clazz, ImmutableList.of(sub)));
 		return sub;
 	}
 
@@ -189,10 +265,7 @@ public class EventBus
 	 */
 	public synchronized void unregister(@Nonnull final Object object)
 	{
-		subscribers = ImmutableMultimap.copyOf(Iterables.filter(
-			subscribers.entries(),
-			e -> e.getValue().getObject() != object
-		));
+		remove(s -> s.getObject() == object);
 	}
 
 	public synchronized void unregister(Subscriber sub)
@@ -202,10 +275,90 @@ public class EventBus
 			return;
 		}
 
-		subscribers = ImmutableMultimap.copyOf(Iterables.filter(
-			subscribers.entries(),
-			e -> sub != e.getValue()
-		));
+		remove(s -> s == sub);
+	}
+
+	/**
+	 * Get a snapshot of all registered subscribers, eg. to inspect their timing counters
+	 *
+	 * @return all subscribers, grouped by event class in dispatch order
+	 */
+	public List<Subscriber> getSubscribers()
+	{
+		final ImmutableList.Builder<Subscriber> builder = ImmutableList.builder();
+		for (Subscriber[] subs : subscribers.values())
+		{
+			builder.add(subs);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Reset the timing counters of all registered subscribers
+	 */
+	public void resetTiming()
+	{
+		for (Subscriber[] subs : subscribers.values())
+		{
+			for (Subscriber sub : subs)
+			{
+				sub.resetTiming();
+			}
+		}
+	}
+
+	private void add(Map<? extends Class<?>, ? extends Collection<Subscriber>> added)
+	{
+		if (added.isEmpty())
+		{
+			return;
+		}
+
+		final Map<Class<?>, Subscriber[]> map = new HashMap<>(subscribers);
+		for (Map.Entry<? extends Class<?>, ? extends Collection<Subscriber>> entry : added.entrySet())
+		{
+			final Subscriber[] existing = map.getOrDefault(entry.getKey(), NO_SUBSCRIBERS);
+			final Collection<Subscriber> subs = entry.getValue();
+			final Subscriber[] merged = Arrays.copyOf(existing, existing.length + subs.size());
+			int i = existing.length;
+			for (Subscriber sub : subs)
+			{
+				merged[i++] = sub;
+			}
+			// stable, so subscribers with equal order keep their registration order
+			Arrays.sort(merged, SUBSCRIBER_ORDER);
+			map.put(entry.getKey(), merged);
+		}
+
+		subscribers = ImmutableMap.copyOf(map);
+	}
+
+	private void remove(Predicate<Subscriber> filter)
+	{
+		final ImmutableMap.Builder<Class<?>, Subscriber[]> builder = ImmutableMap.builder();
+		boolean changed = false;
+		for (Map.Entry<Class<?>, Subscriber[]> entry : subscribers.entrySet())
+		{
+			final Subscriber[] subs = entry.getValue();
+			final Subscriber[] kept = Arrays.stream(subs)
+				.filter(filter.negate())
+				.toArray(Subscriber[]::new);
+
+			if (kept.length != subs.length)
+			{
+				changed = true;
+			}
+
+			if (kept.length > 0)
+			{
+				builder.put(entry.getKey(), kept.length == subs.length ? subs : kept);
+			}
+		}
+
+		if (changed)
+		{
+			subscribers = builder.build();
+		}
 	}
 
 	/**
@@ -216,8 +369,18 @@ public class EventBus
 	 */
 	public void post(@Nonnull final Object event)
 	{
-		for (final Subscriber subscriber : subscribers.get(event.getClass()))
+		final Subscriber[] subs = subscribers.get(event.getClass());
+		if (subs == null)
 		{
+			return;
+		}
+
+		final boolean profiling = this.profiling;
+		final FrameProfiler frameProfiler = this.frameProfiler;
+		final boolean timed = profiling || frameProfiler != null && frameProfiler.isEnabled();
+		for (final Subscriber subscriber : subs)
+		{
+			final long start = timed ? System.nanoTime() : 0L;
 			try
 			{
 				subscriber.invoke(event);
@@ -226,6 +389,21 @@ public class EventBus
 			{
 				exceptionHandler.accept(e);
 			}
+			finally
+			{
+				if (timed)
+				{
+					final long nanos = System.nanoTime() - start;
+					if (profiling)
+					{
+						subscriber.record(nanos);
+					}
+					if (frameProfiler != null)
+					{
+						frameProfiler.record(subscriber.getObject(), FrameProfiler.Source.EVENT, nanos);
+					}
+				}
+			}
 		}
 	}
 }
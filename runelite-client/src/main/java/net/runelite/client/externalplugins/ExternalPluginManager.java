@@ -65,6 +65,8 @@ import net.runelite.client.events.ProfileChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginInstantiationException;
 import net.runelite.client.plugins.PluginManager;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.ui.SplashScreen;
 import net.runelite.client.util.CountingInputStream;
 import net.runelite.client.util.Text;
@@ -97,7 +99,7 @@ public class ExternalPluginManager
 	private ExternalPluginManager(
 		ConfigManager configManager,
 		ExternalPluginClient externalPluginClient,
-		ScheduledExecutorService executor,
+		TaskExecutors taskExecutors,
 		PluginManager pluginManager,
 		EventBus eventBus,
 		OkHttpClient okHttpClient,
@@ -106,13 +108,13 @@ public class ExternalPluginManager
 	{
 		this.configManager = configManager;
 		this.externalPluginClient = externalPluginClient;
-		this.executor = executor;
+		this.executor = taskExecutors.executor(TaskTier.TIMER, this);
 		this.pluginManager = pluginManager;
 		this.eventBus = eventBus;
 		this.okHttpClient = okHttpClient;
 		this.gson = gson;
 
-		executor.scheduleWithFixedDelay(() -> externalPluginClient.submitPlugins(getInstalledExternalPlugins()),
+		this.executor.scheduleWithFixedDelay(() -> externalPluginClient.submitPlugins(getInstalledExternalPlugins()),
 			new Random().nextInt(60), 180, TimeUnit.MINUTES);
 	}
 
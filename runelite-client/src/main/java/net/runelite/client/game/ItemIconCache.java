@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ItemComposition;
+
+/**
+ * Size bounded disk cache of rendered item images, so they don't have to be rasterized on the
+ * client thread again after a restart.
+ * <p>
+ * Images are keyed by the item id, quantity, stackable flag and zoom, along with a fingerprint of
+ * the client revision, the item's definition and the models it is drawn from, so changes to an
+ * item's appearance miss the cache.
+ * Once the cache is over its maximum size the least recently used images are evicted.
+ */
+@Slf4j
+class ItemIconCache
+{
+	private static final String SUFFIX = ".png";
+
+	private final File directory;
+	private final long maxSize;
+	private final AtomicLong size = new AtomicLong();
+
+	ItemIconCache(File directory, long maxSize)
+	{
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Compute the cache key for an item image
+	 *
+	 * @param revision client revision
+	 * @param itemComposition the definition of the item
+	 * @param models the data of the models the image is drawn from
+	 */
+	static String key(int revision, ItemComposition itemComposition, int quantity, boolean stackable, int zoom, byte[]... models)
+	{
+		final Hasher hasher = Hashing.murmur3_128().newHasher()
+			.putInt(revision)
+			.putInt(itemComposition.getInventoryModel())
+			.putInt(itemComposition.getNote())
+			.putInt(itemComposition.getLinkedNoteId())
+			.putInt(itemComposition.getPlaceholderTemplateId())
+			.putInt(itemComposition.getPlaceholderId())
+			.putInt(itemComposition.getXan2d())
+			.putInt(itemComposition.getYan2d())
+			.putInt(itemComposition.getZan2d())
+			.putInt(itemComposition.getAmbient())
+			.putInt(itemComposition.getContrast());
+		putShorts(hasher, itemComposition.getColorToReplace());
+		putShorts(hasher, itemComposition.getColorToReplaceWith());
+		putShorts(hasher, itemComposition.getTextureToReplace());
+		putShorts(hasher, itemComposition.getTextureToReplaceWith());
+		hasher.putInt(models.length);
+		for (byte[] model : models)
+		{
+			hasher.putInt(model.length);
+			hasher.putBytes(model);
+		}
+
+		return itemComposition.getId() + "_" + quantity + "_" + (stackable ? 1 : 0) + "_" + zoom + "_" + hasher.hash();
+	}
+
+	private static void putShorts(Hasher hasher, short[] s)
+	{
+		if (s == null)
+		{
+			hasher.putInt(-1);
+			return;
+		}
+
+		hasher.putInt(s.length);
+		for (short v : s)
+		{
+			hasher.putShort(v);
+		}
+	}
+
+	/**
+	 * Read a cached image
+	 *
+	 * @param key image key
+	 * @param image image to copy the cached image into
+	 * @return true if the image was cached
+	 */
+	boolean read(String key, BufferedImage image)
+	{
+		final File file = new File(directory, key + SUFFIX);
+		if (!file.exists())
+		{
+			return false;
+		}
+
+		try
+		{
+			final BufferedImage cached = ImageIO.read(file);
+			if (cached == null || cached.getWidth() != image.getWidth() || cached.getHeight() != image.getHeight())
+			{
+				log.debug("Discarding unreadable cached item image {}", file.getName());
+				delete(file);
+				return false;
+			}
+
+			final int width = image.getWidth();
+			final int height = image.getHeight();
+			image.setRGB(0, 0, width, height, cached.getRGB(0, 0, width, height, null, 0, width), 0, width);
+
+			// the modification time orders eviction
+			Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+			return true;
+		}
+		catch (IOException ex)
+		{
+			log.debug("unable to read cached item image {}", file.getName(), ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Write an image to the cache
+	 *
+	 * @param key image key
+	 * @param image image
+	 */
+	synchronized void write(String key, BufferedImage image)
+	{
+		if (!directory.exists() && !directory.mkdirs())
+		{
+			log.debug("unable to create item image cache directory {}", directory);
+			return;
+		}
+
+		final File file = new File(directory, key + SUFFIX);
+		File tempFile = null;
+		try
+		{
+			tempFile = File.createTempFile(key, ".tmp", directory);
+			ImageIO.write(image, "png", tempFile);
+			final long length = tempFile.length();
+			try
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex)
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			if (size.addAndGet(length) > maxSize)
+			{
+				trim();
+			}
+		}
+		catch (IOException ex)
+		{
+			log.debug("unable to cache item image {}", key, ex);
+			if (tempFile != null)
+			{
+				delete(tempFile);
+			}
+		}
+	}
+
+	/**
+	 * Evict the least recently used images until the cache is under three quarters of its maximum size
+	 */
+	synchronized void trim()
+	{
+		final File[] files = directory.listFiles();
+		if (files == null)
+		{
+			return;
+		}
+
+		long total = 0;
+		for (File file : files)
+		{
+			total += file.length();
+		}
+
+		if (total > maxSize)
+		{
+			final long target = maxSize / 4 * 3;
+			final long[] lastModified = new long[files.length];
+			final Integer[] order = new Integer[files.length];
+			for (int i = 0; i < files.length; ++i)
+			{
+				lastModified[i] = files[i].lastModified();
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+
+			int evicted = 0;
+			for (int i = 0; i < order.length && total > target; ++i)
+			{
+				final File file = files[order[i]];
+				final long length = file.length();
+				if (delete(file))
+				{
+					total -= length;
+					++evicted;
+				}
+			}
+			log.debug("Evicted {} cached item images", evicted);
+		}
+
+		size.set(total);
+	}
+
+	private static boolean delete(File file)
+	{
+		try
+		{
+			return Files.deleteIfExists(file.toPath());
+		}
+		catch (IOException ex)
+		{
+			log.debug("unable to delete {}", file, ex);
+			return false;
+		}
+	}
+}
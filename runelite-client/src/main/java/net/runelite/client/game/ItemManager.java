@@ -31,10 +31,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -50,12 +49,16 @@ import net.runelite.api.Client;
 import net.runelite.api.Constants;
 import static net.runelite.api.Constants.CLIENT_DEFAULT_ZOOM;
 import net.runelite.api.GameState;
+import net.runelite.api.IndexDataBase;
 import net.runelite.api.ItemComposition;
 import static net.runelite.api.ItemID.*;
 import net.runelite.api.SpritePixels;
 import net.runelite.api.widgets.ItemQuantityMode;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.RuneLiteConfig;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.util.AsyncBufferedImage;
 import net.runelite.http.api.item.ItemPrice;
 
@@ -79,7 +82,12 @@ public class ItemManager
 		private final Color outlineColor;
 	}
 
+	private static final File ICON_CACHE_DIR = new File(RuneLite.CACHE_DIR, "items");
+	private static final long MAX_ICON_CACHE_SIZE = 32 * 1024 * 1024;
+	private static final int MODELS_INDEX = 7;
+
 	private final Client client;
+	private final ScheduledExecutorService scheduledExecutorService;
 	private final ClientThread clientThread;
 	private final ItemClient itemClient;
 	private final RuneLiteConfig runeLiteConfig;
@@ -94,10 +102,15 @@ public class ItemManager
 	@SuppressWarnings("PMD.ImmutableField")
 	private int lowPriceThreshold = 1000;
 
-	private Map<Integer, ItemPrice> itemPrices = Collections.emptyMap();
-	private Map<Integer, ItemStats> itemStats = Collections.emptyMap();
+	private volatile ItemPriceIndex itemPrices = ItemPriceIndex.EMPTY;
+	private volatile int pricesVersion;
+	/**
+	 * item stats, indexed by item id
+	 */
+	private volatile ItemStats[] itemStats = new ItemStats[0];
 	private final LoadingCache<ImageKey, AsyncBufferedImage> itemImages;
 	private final LoadingCache<OutlineKey, BufferedImage> itemOutlines;
+	private final ItemIconCache itemIconCache = new ItemIconCache(ICON_CACHE_DIR, MAX_ICON_CACHE_SIZE);
 
 	// Worn items with weight reducing property have a different worn and inventory ItemID
 	private static final ImmutableMap<Integer, Integer> WORN_ITEMS = ImmutableMap.<Integer, Integer>builder().
@@ -187,16 +200,18 @@ public class ItemManager
 		build();
 
 	@Inject
-	public ItemManager(Client client, ScheduledExecutorService scheduledExecutorService, ClientThread clientThread,
+	public ItemManager(Client client, TaskExecutors taskExecutors, ClientThread clientThread,
 		ItemClient itemClient, RuneLiteConfig runeLiteConfig)
 	{
 		this.client = client;
+		this.scheduledExecutorService = taskExecutors.executor(TaskTier.IO, this);
 		this.clientThread = clientThread;
 		this.itemClient = itemClient;
 		this.runeLiteConfig = runeLiteConfig;
 
 		scheduledExecutorService.scheduleWithFixedDelay(this::loadPrices, 0, 30, TimeUnit.MINUTES);
 		scheduledExecutorService.submit(this::loadStats);
+		scheduledExecutorService.submit(itemIconCache::trim);
 
 		itemImages = CacheBuilder.newBuilder()
 			.maximumSize(128L)
@@ -230,12 +245,8 @@ public class ItemManager
 			ItemPrice[] prices = itemClient.getPrices();
 			if (prices != null)
 			{
-				ImmutableMap.Builder<Integer, ItemPrice> map = ImmutableMap.builderWithExpectedSize(prices.length);
-				for (ItemPrice price : prices)
-				{
-					map.put(price.getId(), price);
-				}
-				itemPrices = map.build();
+				itemPrices = new ItemPriceIndex(prices);
+				++pricesVersion;
 			}
 
 			log.debug("Loaded {} prices", itemPrices.size());
@@ -253,10 +264,24 @@ public class ItemManager
 			final Map<Integer, ItemStats> stats = itemClient.getStats();
 			if (stats != null)
 			{
-				itemStats = ImmutableMap.copyOf(stats);
+				int maxId = -1;
+				for (int id : stats.keySet())
+				{
+					maxId = Math.max(maxId, id);
+				}
+
+				final ItemStats[] statsById = new ItemStats[maxId + 1];
+				stats.forEach((id, s) ->
+				{
+					if (id >= 0)
+					{
+						statsById[id] = s;
+					}
+				});
+				itemStats = statsById;
 			}
 
-			log.debug("Loaded {} stats", itemStats.size());
+			log.debug("Loaded {} stats", stats != null ? stats.size() : 0);
 		}
 		catch (IOException e)
 		{
@@ -264,6 +289,17 @@ public class ItemManager
 		}
 	}
 
+	/**
+	 * Get the version of the loaded item prices. This changes each time prices are reloaded,
+	 * and can be used to tell if prices previously looked up may be out of date.
+	 *
+	 * @return prices version
+	 */
+	public int getPricesVersion()
+	{
+		return pricesVersion;
+	}
+
 	/**
 	 * Look up an item's price
 	 *
@@ -306,12 +342,9 @@ public class ItemManager
 
 		if (mappedItems == null)
 		{
-			final ItemPrice ip = itemPrices.get(itemID);
-
-			if (ip != null)
-			{
-				price = useWikiPrice ? getWikiPrice(ip) : ip.getPrice();
-			}
+			final ItemPriceIndex prices = itemPrices;
+			final int jagPrice = prices.getPrice(itemID);
+			price = useWikiPrice ? getWikiPrice(prices.getWikiPrice(itemID), jagPrice) : jagPrice;
 		}
 		else
 		{
@@ -331,8 +364,11 @@ public class ItemManager
 	 */
 	public int getWikiPrice(ItemPrice itemPrice)
 	{
-		final int wikiPrice = itemPrice.getWikiPrice();
-		final int jagPrice = itemPrice.getPrice();
+		return getWikiPrice(itemPrice.getWikiPrice(), itemPrice.getPrice());
+	}
+
+	private int getWikiPrice(int wikiPrice, int jagPrice)
+	{
 		if (wikiPrice <= 0)
 		{
 			return jagPrice;
@@ -359,7 +395,7 @@ public class ItemManager
 			return null;
 		}
 
-		return itemStats.get(canonicalize(itemId));
+		return getStats(canonicalize(itemId));
 	}
 
 	/**
@@ -380,30 +416,41 @@ public class ItemManager
 			return null;
 		}
 
-		var stats = itemStats.get(canonicalize(itemId));
+		var stats = getStats(canonicalize(itemId));
 		return stats != null ? stats.toHttpApiFormat() : null;
 	}
 
+	@Nullable
+	private ItemStats getStats(int itemId)
+	{
+		final ItemStats[] stats = itemStats;
+		return itemId >= 0 && itemId < stats.length ? stats[itemId] : null;
+	}
+
 	/**
-	 * Search for tradeable items based on item name
+	 * Search for tradeable items whose name contains the given name. Exact matches are first, followed by
+	 * items whose name starts with it, and then the rest.
 	 *
 	 * @param itemName item name
 	 * @return
 	 */
 	public List<ItemPrice> search(String itemName)
 	{
-		itemName = itemName.toLowerCase();
+		return itemPrices.search(itemName, false, 0, Integer.MAX_VALUE);
+	}
 
-		List<ItemPrice> result = new ArrayList<>();
-		for (ItemPrice itemPrice : itemPrices.values())
-		{
-			final String name = itemPrice.getName();
-			if (name.toLowerCase().contains(itemName))
-			{
-				result.add(itemPrice);
-			}
-		}
-		return result;
+	/**
+	 * Search for tradeable items based on item name. Results are ordered as in {@link #search(String)},
+	 * followed by items whose name starts with a close misspelling of the given name.
+	 *
+	 * @param itemName item name
+	 * @param offset number of results to skip
+	 * @param limit maximum number of results
+	 * @return
+	 */
+	public List<ItemPrice> search(String itemName, int offset, int limit)
+	{
+		return itemPrices.search(itemName, true, offset, limit);
 	}
 
 	/**
@@ -439,7 +486,7 @@ public class ItemManager
 	}
 
 	/**
-	 * Loads item sprite from game, makes transparent, and generates image
+	 * Loads item sprite from the icon cache, or from game if it isn't cached, and generates image
 	 *
 	 * @param itemId
 	 * @return
@@ -447,25 +494,105 @@ public class ItemManager
 	private AsyncBufferedImage loadImage(int itemId, int quantity, boolean stackable)
 	{
 		AsyncBufferedImage img = new AsyncBufferedImage(clientThread, Constants.ITEM_SPRITE_WIDTH, Constants.ITEM_SPRITE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		if (client.isClientThread())
+		{
+			// callers on the client thread may use the image right away, so it is rendered now
+			clientThread.invoke(() -> renderImage(img, itemId, quantity, stackable));
+			return img;
+		}
+
 		clientThread.invoke(() ->
 		{
 			if (client.getGameState().ordinal() < GameState.LOGIN_SCREEN.ordinal())
 			{
 				return false;
 			}
-			SpritePixels sprite = client.createItemSprite(itemId, quantity, 1, SpritePixels.DEFAULT_SHADOW_COLOR,
-				stackable ? ItemQuantityMode.ALWAYS : ItemQuantityMode.NEVER, false, CLIENT_DEFAULT_ZOOM);
-			if (sprite == null)
+			final String key = iconKey(itemId, quantity, stackable);
+			if (key == null)
 			{
-				return false;
+				return renderImage(img, itemId, quantity, stackable);
 			}
-			sprite.toBufferedImage(img);
-			img.loaded();
+
+			scheduledExecutorService.execute(() ->
+			{
+				if (itemIconCache.read(key, img))
+				{
+					// onLoaded listeners expect to run on the client thread
+					clientThread.invoke(img::loaded);
+				}
+				else
+				{
+					clientThread.invoke(() -> renderImage(img, itemId, quantity, stackable));
+				}
+			});
 			return true;
 		});
 		return img;
 	}
 
+	private boolean renderImage(AsyncBufferedImage img, int itemId, int quantity, boolean stackable)
+	{
+		if (client.getGameState().ordinal() < GameState.LOGIN_SCREEN.ordinal())
+		{
+			return false;
+		}
+		SpritePixels sprite = client.createItemSprite(itemId, quantity, 1, SpritePixels.DEFAULT_SHADOW_COLOR,
+			stackable ? ItemQuantityMode.ALWAYS : ItemQuantityMode.NEVER, false, CLIENT_DEFAULT_ZOOM);
+		if (sprite == null)
+		{
+			return false;
+		}
+		sprite.toBufferedImage(img);
+		img.loaded();
+
+		final String key = iconKey(itemId, quantity, stackable);
+		if (key != null)
+		{
+			scheduledExecutorService.execute(() -> itemIconCache.write(key, img));
+		}
+		return true;
+	}
+
+	/**
+	 * Compute the icon cache key of an item image. Must be called on the client thread.
+	 *
+	 * @return the key, or null if a model of the item isn't loaded
+	 */
+	@Nullable
+	private String iconKey(int itemId, int quantity, boolean stackable)
+	{
+		final ItemComposition itemComposition = getItemComposition(itemId);
+		final IndexDataBase models = client.getIndex(MODELS_INDEX);
+		final byte[] model = models.loadData(itemComposition.getInventoryModel(), 0);
+		if (model == null)
+		{
+			return null;
+		}
+
+		// notes and placeholders are also drawn from the model of the item they link to
+		int linkedId = -1;
+		if (itemComposition.getNote() != -1)
+		{
+			linkedId = itemComposition.getLinkedNoteId();
+		}
+		else if (itemComposition.getPlaceholderTemplateId() != -1)
+		{
+			linkedId = itemComposition.getPlaceholderId();
+		}
+
+		if (linkedId == -1)
+		{
+			return ItemIconCache.key(client.getRevision(), itemComposition, quantity, stackable, CLIENT_DEFAULT_ZOOM, model);
+		}
+
+		final byte[] linkedModel = models.loadData(getItemComposition(linkedId).getInventoryModel(), 0);
+		if (linkedModel == null)
+		{
+			return null;
+		}
+		return ItemIconCache.key(client.getRevision(), itemComposition, quantity, stackable, CLIENT_DEFAULT_ZOOM, model, linkedModel);
+	}
+
 	/**
 	 * Get item sprite image as BufferedImage.
 	 * <p>
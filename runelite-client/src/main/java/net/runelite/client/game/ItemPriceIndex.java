@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.http.api.item.ItemPrice;
+
+/**
+ * Item prices indexed by item id, and a name index over them for searching. Instances are immutable,
+ * {@link ItemManager} builds a new one each time the prices are loaded.
+ */
+final class ItemPriceIndex
+{
+	static final ItemPriceIndex EMPTY = new ItemPriceIndex(new ItemPrice[0]);
+
+	// match ranks, lowest first
+	private static final int RANK_EXACT = 0;
+	private static final int RANK_PREFIX = 1;
+	private static final int RANK_WORD_PREFIX = 2;
+	private static final int RANK_SUBSTRING = 3;
+	// fuzzy matches are ranked RANK_FUZZY + edit distance
+	private static final int RANK_FUZZY = 3;
+
+	private static final int RANK_SHIFT = 28;
+	private static final int INDEX_MASK = (1 << RANK_SHIFT) - 1;
+
+	private static final int[] NO_POSTINGS = new int[0];
+
+	/**
+	 * prices, indexed by item id
+	 */
+	private final int[] prices;
+	private final int[] wikiPrices;
+	private final int size;
+
+	/**
+	 * items, sorted by name
+	 */
+	private final ItemPrice[] items;
+	/**
+	 * lowercase item names, parallel to {@link #items}
+	 */
+	private final String[] names;
+
+	/**
+	 * open addressed table of name trigrams to the (ascending) indexes of the names containing them
+	 */
+	private final long[] trigrams;
+	private final int[][] postings;
+
+	ItemPriceIndex(ItemPrice[] prices)
+	{
+		int maxId = -1;
+		for (ItemPrice price : prices)
+		{
+			maxId = Math.max(maxId, price.getId());
+		}
+
+		this.prices = new int[maxId + 1];
+		this.wikiPrices = new int[maxId + 1];
+		for (ItemPrice price : prices)
+		{
+			if (price.getId() >= 0)
+			{
+				this.prices[price.getId()] = price.getPrice();
+				this.wikiPrices[price.getId()] = price.getWikiPrice();
+			}
+		}
+		this.size = prices.length;
+
+		final String[] lowerNames = new String[prices.length];
+		final Integer[] order = new Integer[prices.length];
+		for (int i = 0; i < prices.length; ++i)
+		{
+			final String name = prices[i].getName();
+			lowerNames[i] = name == null ? "" : name.toLowerCase();
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> lowerNames[i]));
+
+		items = new ItemPrice[prices.length];
+		names = new String[prices.length];
+		for (int i = 0; i < order.length; ++i)
+		{
+			items[i] = prices[order[i]];
+			names[i] = lowerNames[order[i]];
+		}
+
+		final Map<Long, List<Integer>> trigramNames = new HashMap<>();
+		for (int i = 0; i < names.length; ++i)
+		{
+			final String name = names[i];
+			for (int j = 0; j + 3 <= name.length(); ++j)
+			{
+				final List<Integer> list = trigramNames.computeIfAbsent(trigram(name, j), k -> new ArrayList<>());
+				// names are visited in order, so a duplicate trigram within a name is always the last entry
+				if (list.isEmpty() || list.get(list.size() - 1) != i)
+				{
+					list.add(i);
+				}
+			}
+		}
+
+		int tableSize = Integer.highestOneBit(Math.max(1, trigramNames.size() * 2 - 1)) << 1;
+		trigrams = new long[tableSize];
+		postings = new int[tableSize][];
+		for (Map.Entry<Long, List<Integer>> entry : trigramNames.entrySet())
+		{
+			final long key = entry.getKey();
+			int slot = hash(key) & (tableSize - 1);
+			while (postings[slot] != null)
+			{
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			trigrams[slot] = key;
+			postings[slot] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the price of an item
+	 *
+	 * @param itemId item id
+	 * @return the price, or 0 if the item has no price
+	 */
+	int getPrice(int itemId)
+	{
+		return itemId >= 0 && itemId < prices.length ? prices[itemId] : 0;
+	}
+
+	/**
+	 * Get the unadjusted wiki price of an item
+	 *
+	 * @param itemId item id
+	 * @return the price, or 0 if the item has no price
+	 */
+	int getWikiPrice(int itemId)
+	{
+		return itemId >= 0 && itemId < wikiPrices.length ? wikiPrices[itemId] : 0;
+	}
+
+	/**
+	 * Search for items by name. Items whose name is the query come first, followed by items whose name
+	 * starts with it, then items with a word starting with it, and then any other items containing it.
+	 * Items with the same rank are ordered by name.
+	 *
+	 * @param query item name
+	 * @param fuzzy if items whose name starts with a close misspelling of the query should be included
+	 *              after the other matches
+	 * @param offset number of matches to skip
+	 * @param limit maximum number of matches to return
+	 * @return matching items
+	 */
+	List<ItemPrice> search(String query, boolean fuzzy, int offset, int limit)
+	{
+		if (offset < 0 || limit <= 0)
+		{
+			return Collections.emptyList();
+		}
+
+		query = query.toLowerCase();
+
+		final int[] candidates = candidates(query);
+		final int count = candidates == null ? names.length : candidates.length;
+		final int[] ranked = new int[count];
+		int matches = 0;
+		for (int i = 0; i < count; ++i)
+		{
+			final int idx = candidates == null ? i : candidates[i];
+			final int rank = rank(names[idx], query);
+			if (rank != -1)
+			{
+				ranked[matches++] = rank << RANK_SHIFT | idx;
+			}
+		}
+		// names are sorted, so this sorts by rank and then name
+		Arrays.sort(ranked, 0, matches);
+
+		final List<ItemPrice> result = new ArrayList<>(Math.min(limit, Math.max(0, matches - offset)));
+		for (int i = offset; i < matches && result.size() < limit; ++i)
+		{
+			result.add(items[ranked[i] & INDEX_MASK]);
+		}
+
+		if (fuzzy && result.size() < limit && query.length() >= 3)
+		{
+			fuzzy(query, Math.max(0, offset - matches), limit, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get the indexes of the names which might contain the query, or null if every name might
+	 */
+	private int[] candidates(String query)
+	{
+		if (query.length() < 3)
+		{
+			return null;
+		}
+
+		// the rarest trigram of the query gives the fewest names to check
+		int[] best = null;
+		for (int j = 0; j + 3 <= query.length(); ++j)
+		{
+			final int[] p = postings(trigram(query, j));
+			if (best == null || p.length < best.length)
+			{
+				best = p;
+				if (p.length == 0)
+				{
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	private int[] postings(long trigram)
+	{
+		final int mask = postings.length - 1;
+		for (int slot = hash(trigram) & mask; postings[slot] != null; slot = (slot + 1) & mask)
+		{
+			if (trigrams[slot] == trigram)
+			{
+				return postings[slot];
+			}
+		}
+		return NO_POSTINGS;
+	}
+
+	private static int rank(String name, String query)
+	{
+		int idx = name.indexOf(query);
+		if (idx == -1)
+		{
+			return -1;
+		}
+		if (idx == 0)
+		{
+			return name.length() == query.length() ? RANK_EXACT : RANK_PREFIX;
+		}
+		for (; idx != -1; idx = name.indexOf(query, idx + 1))
+		{
+			if (!Character.isLetterOrDigit(name.charAt(idx - 1)))
+			{
+				return RANK_WORD_PREFIX;
+			}
+		}
+		return RANK_SUBSTRING;
+	}
+
+	/**
+	 * Add items not containing the query, but whose names start with something within a small edit distance of it
+	 */
+	private void fuzzy(String query, int offset, int limit, List<ItemPrice> result)
+	{
+		final int maxDistance = query.length() <= 5 ? 1 : 2;
+		final int[] row = new int[query.length() + 1];
+		int matches = 0;
+		int[] ranked = new int[16];
+		for (int i = 0; i < names.length; ++i)
+		{
+			final String name = names[i];
+			if (name.contains(query))
+			{
+				// already matched
+				continue;
+			}
+
+			final int distance = prefixDistance(name, query, maxDistance, row);
+			if (distance <= maxDistance)
+			{
+				if (matches == ranked.length)
+				{
+					ranked = Arrays.copyOf(ranked, matches * 2);
+				}
+				ranked[matches++] = (RANK_FUZZY + distance) << RANK_SHIFT | i;
+			}
+		}
+		Arrays.sort(ranked, 0, matches);
+
+		for (int i = offset; i < matches && result.size() < limit; ++i)
+		{
+			result.add(items[ranked[i] & INDEX_MASK]);
+		}
+	}
+
+	/**
+	 * Compute the smallest edit distance between the query and a prefix of the name, giving up once
+	 * it exceeds maxDistance
+	 */
+	private static int prefixDistance(String name, String query, int maxDistance, int[] row)
+	{
+		final int n = query.length();
+		for (int j = 0; j <= n; ++j)
+		{
+			row[j] = j;
+		}
+
+		int best = row[n];
+		for (int i = 1; i <= name.length(); ++i)
+		{
+			final char c = name.charAt(i - 1);
+			int diagonal = row[0];
+			row[0] = i;
+			int rowMin = row[0];
+			for (int j = 1; j <= n; ++j)
+			{
+				final int above = row[j];
+				row[j] = Math.min(Math.min(above, row[j - 1]) + 1, diagonal + (c == query.charAt(j - 1) ? 0 : 1));
+				diagonal = above;
+				rowMin = Math.min(rowMin, row[j]);
+			}
+
+			best = Math.min(best, row[n]);
+			if (rowMin > maxDistance)
+			{
+				// every longer prefix is at least this far away
+				break;
+			}
+		}
+		return best;
+	}
+
+	private static long trigram(String s, int off)
+	{
+		return (long) s.charAt(off) << 32 | (long) s.charAt(off + 1) << 16 | s.charAt(off + 2);
+	}
+
+	private static int hash(long key)
+	{
+		return (int) (key * 0x9E3779B97F4A7C15L >>> 32);
+	}
+}
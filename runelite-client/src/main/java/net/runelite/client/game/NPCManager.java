@@ -27,24 +27,25 @@ package net.runelite.client.game;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 
 @Singleton
 @Slf4j
 public class NPCManager
 {
 	private final NpcInfoClient npcInfoClient;
-	private Map<Integer, NpcInfo> npcMap = Collections.emptyMap();
+	private volatile Map<Integer, NpcInfo> npcMap = Collections.emptyMap();
 
 	@Inject
-	private NPCManager(NpcInfoClient npcInfoClient, ScheduledExecutorService scheduledExecutorService)
+	private NPCManager(NpcInfoClient npcInfoClient, TaskExecutors taskExecutors)
 	{
 		this.npcInfoClient = npcInfoClient;
-		scheduledExecutorService.execute(this::loadNpcs);
+		taskExecutors.executor(TaskTier.IO, this).execute(this::loadNpcs);
 	}
 
 	@Nullable
@@ -40,7 +40,8 @@ import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.events.WorldsFetch;
-import net.runelite.client.util.RunnableExceptionLogger;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.http.api.worlds.World;
 import net.runelite.http.api.worlds.WorldResult;
 import okhttp3.HttpUrl;
@@ -58,18 +59,19 @@ public class WorldService
 	private final EventBus eventBus;
 	private final CompletableFuture<WorldResult> firstRunFuture = new CompletableFuture<>();
 
-	private WorldResult worlds;
+	// written by fetch on the io pool, read by getWorlds from any thread
+	private volatile WorldResult worlds;
 
 	@Inject
-	private WorldService(Client client, ScheduledExecutorService scheduledExecutorService, OkHttpClient okHttpClient,
+	private WorldService(Client client, TaskExecutors taskExecutors, OkHttpClient okHttpClient,
 		@Named("runelite.api.base") HttpUrl apiBase, EventBus eventBus)
 	{
 		this.client = client;
-		this.scheduledExecutorService = scheduledExecutorService;
+		this.scheduledExecutorService = taskExecutors.executor(TaskTier.IO, this);
 		this.worldClient = new WorldClient(okHttpClient, apiBase);
 		this.eventBus = eventBus;
 
-		scheduledExecutorService.scheduleWithFixedDelay(RunnableExceptionLogger.wrap(this::tick), 0, WORLD_FETCH_TIMER, TimeUnit.MINUTES);
+		scheduledExecutorService.scheduleWithFixedDelay(this::tick, 0, WORLD_FETCH_TIMER, TimeUnit.MINUTES);
 	}
 
 	private void tick()
@@ -87,7 +89,11 @@ public class WorldService
 		}
 	}
 
-	private void fetch()
+	/**
+	 * Fetch and post the worlds. Ticks and refreshes run on the io pool, which may run them at the
+	 * same time, so fetches are serialized to never post an older result after a newer one.
+	 */
+	private synchronized void fetch()
 	{
 		log.debug("Fetching worlds");
 
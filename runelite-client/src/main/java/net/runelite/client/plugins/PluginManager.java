@@ -37,8 +37,10 @@ import com.google.inject.CreationException;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.invoke.CallSite;
 import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
@@ -46,17 +48,34 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -75,6 +94,8 @@ import net.runelite.client.events.ProfileChanged;
 import net.runelite.client.task.Schedule;
 import net.runelite.client.task.ScheduledMethod;
 import net.runelite.client.task.Scheduler;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.ui.SplashScreen;
 import net.runelite.client.util.GameEventManager;
 import net.runelite.client.util.ReflectUtil;
@@ -88,15 +109,23 @@ public class PluginManager
 	 */
 	private static final String PLUGIN_PACKAGE = "net.runelite.client.plugins";
 	private static final File SIDELOADED_PLUGINS = new File(RuneLite.RUNELITE_DIR, "sideloaded-plugins");
+	/**
+	 * Index of the core plugins, written by the build
+	 */
+	private static final String PLUGIN_INDEX = "plugins.idx";
+	private static final int TIMELINE_SLOWEST = 10;
 
 	private final boolean developerMode;
 	private final boolean safeMode;
 	private final EventBus eventBus;
 	private final Scheduler scheduler;
+	private final TaskExecutors taskExecutors;
 	private final ConfigManager configManager;
 	private final Provider<GameEventManager> sceneTileManager;
 	private final List<Plugin> plugins = new CopyOnWriteArrayList<>();
 	private final List<Plugin> activePlugins = new CopyOnWriteArrayList<>();
+	private final Map<Class<?>, Long> loadTimes = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Long> startTimes = new ConcurrentHashMap<>();
 
 	@Setter
 	boolean isOutdated;
@@ -108,6 +137,7 @@ public class PluginManager
 		@Named("safeMode") final boolean safeMode,
 		final EventBus eventBus,
 		final Scheduler scheduler,
+		final TaskExecutors taskExecutors,
 		final ConfigManager configManager,
 		final Provider<GameEventManager> sceneTileManager)
 	{
@@ -115,6 +145,7 @@ public class PluginManager
 		this.safeMode = safeMode;
 		this.eventBus = eventBus;
 		this.scheduler = scheduler;
+		this.taskExecutors = taskExecutors;
 		this.configManager = configManager;
 		this.sceneTileManager = sceneTileManager;
 	}
@@ -228,6 +259,7 @@ public class PluginManager
 
 	public void startPlugins()
 	{
+		final long start = System.nanoTime();
 		List<Plugin> scannedPlugins = new ArrayList<>(plugins);
 		int loaded = 0;
 		for (Plugin plugin : scannedPlugins)
@@ -236,6 +268,7 @@ public class PluginManager
 			{
 				SwingUtilities.invokeAndWait(() ->
 				{
+					final long pluginStart = System.nanoTime();
 					try
 					{
 						startPlugin(plugin);
@@ -245,6 +278,7 @@ public class PluginManager
 						log.error("Unable to start plugin {}", plugin.getClass().getSimpleName(), ex);
 						plugins.remove(plugin);
 					}
+					startTimes.put(plugin.getClass(), System.nanoTime() - pluginStart);
 				});
 			}
 			catch (InterruptedException | InvocationTargetException e)
@@ -260,21 +294,134 @@ public class PluginManager
 		{
 			ReflectUtil.queueInjectorAnnotationCacheInvalidation(plugin.injector);
 		}
+
+		logTimeline(scannedPlugins, System.nanoTime() - start);
+	}
+
+	/**
+	 * Log how long each plugin took to instantiate and start up, slowest first
+	 */
+	private void logTimeline(List<Plugin> startedPlugins, long startNanos)
+	{
+		final List<Class<?>> classes = startedPlugins.stream()
+			.map(Plugin::getClass)
+			.sorted(Comparator.comparingLong((Class<?> c) -> loadTimes.getOrDefault(c, 0L) + startTimes.getOrDefault(c, 0L)).reversed())
+			.limit(TIMELINE_SLOWEST)
+			.collect(Collectors.toList());
+
+		final StringBuilder sb = new StringBuilder();
+		for (Class<?> clazz : classes)
+		{
+			sb.append(String.format("%n  %-32s load %5d ms  start %5d ms", clazz.getSimpleName(),
+				TimeUnit.NANOSECONDS.toMillis(loadTimes.getOrDefault(clazz, 0L)),
+				TimeUnit.NANOSECONDS.toMillis(startTimes.getOrDefault(clazz, 0L))));
+		}
+
+		log.info("Started {} plugins in {} ms, slowest:{}", startedPlugins.size(), TimeUnit.NANOSECONDS.toMillis(startNanos), sb);
 	}
 
 	public void loadCorePlugins() throws IOException, PluginInstantiationException
 	{
 		SplashScreen.stage(.59, null, "Loading plugins");
-		ClassPath classPath = ClassPath.from(getClass().getClassLoader());
 
-		List<Class<?>> plugins = classPath.getTopLevelClassesRecursive(PLUGIN_PACKAGE).stream()
-			.map(ClassInfo::load)
-			.collect(Collectors.toList());
+		// developer mode always scans the classpath, so plugin classes from anywhere on it are picked up
+		List<Class<?>> plugins = developerMode ? null : readPluginIndex();
+		if (plugins == null)
+		{
+			// the index is missing or stale when running from an ide which did not run the build
+			log.debug("No usable plugin index, scanning the classpath for plugins");
+			ClassPath classPath = ClassPath.from(getClass().getClassLoader());
+
+			plugins = classPath.getTopLevelClassesRecursive(PLUGIN_PACKAGE).stream()
+				.map(ClassInfo::load)
+				.collect(Collectors.toList());
+		}
 
 		loadPlugins(plugins, (loaded, total) ->
 			SplashScreen.stage(.60, .70, null, "Loading plugins", loaded, total, false));
 	}
 
+	/**
+	 * Read the core plugin classes from the plugin index. Plugins which would not be loaded outside
+	 * of developer mode are skipped without loading their classes.
+	 *
+	 * @return the plugin classes, or null if there is no usable index
+	 */
+	@Nullable
+	@VisibleForTesting
+	List<Class<?>> readPluginIndex() throws IOException
+	{
+		final URL url = PluginManager.class.getResource(PLUGIN_INDEX);
+		if (url == null)
+		{
+			return null;
+		}
+
+		if ("file".equals(url.getProtocol()) && isIndexStale(url))
+		{
+			log.debug("Plugin index is older than the plugin classes");
+			return null;
+		}
+
+		final List<Class<?>> plugins = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				// class, name, developerPlugin, loadWhenOutdated, loadInSafeMode, dependencies
+				final String[] fields = line.split("\t", -1);
+				if (fields.length < 6)
+				{
+					log.warn("Malformed plugin index entry: {}", line);
+					return null;
+				}
+
+				final boolean developerPlugin = Boolean.parseBoolean(fields[2]);
+				final boolean loadWhenOutdated = Boolean.parseBoolean(fields[3]);
+				if (developerPlugin || (!loadWhenOutdated && isOutdated))
+				{
+					continue;
+				}
+
+				try
+				{
+					plugins.add(Class.forName(fields[0], false, getClass().getClassLoader()));
+				}
+				catch (ClassNotFoundException ex)
+				{
+					log.warn("Plugin index is out of date", ex);
+					return null;
+				}
+			}
+		}
+		return plugins;
+	}
+
+	/**
+	 * Check if an index in a classes directory was written before any of the classes beside it. An ide
+	 * compiles into the same directory as the build without rewriting the index, which would then miss
+	 * plugins added since. A jar is built as a whole, so its index always matches its classes.
+	 */
+	private static boolean isIndexStale(URL url) throws IOException
+	{
+		final File index;
+		try
+		{
+			index = new File(url.toURI());
+		}
+		catch (URISyntaxException ex)
+		{
+			return true;
+		}
+
+		final long indexed = index.lastModified();
+		try (Stream<Path> files = Files.walk(index.getParentFile().toPath()))
+		{
+			return files.anyMatch(f -> f.toString().endsWith(".class") && f.toFile().lastModified() > indexed);
+		}
+	}
+
 	public void loadSideLoadPlugins()
 	{
 		if (!developerMode)
@@ -381,33 +528,102 @@ public class PluginManager
 		}
 
 		List<Class<? extends Plugin>> sortedPlugins = topologicalSort(graph);
+		List<Plugin> newPlugins = instantiate(graph, sortedPlugins, onPluginLoaded);
+		this.plugins.addAll(newPlugins);
+		return newPlugins;
+	}
 
-		int loaded = 0;
-		List<Plugin> newPlugins = new ArrayList<>();
+	/**
+	 * Instantiate plugins in parallel. Each plugin is instantiated once all of the plugins it
+	 * depends on have been, since its injector is a child of theirs.
+	 */
+	private List<Plugin> instantiate(Graph<Class<? extends Plugin>> graph, List<Class<? extends Plugin>> sortedPlugins,
+		BiConsumer<Integer, Integer> onPluginLoaded) throws PluginInstantiationException
+	{
+		final List<Plugin> available = new CopyOnWriteArrayList<>(this.plugins);
+		final Map<Class<? extends Plugin>, Plugin> instances = new ConcurrentHashMap<>();
+		final Map<Class<? extends Plugin>, Integer> waiting = new HashMap<>();
+		final CompletionService<Class<? extends Plugin>> completionService =
+			new ExecutorCompletionService<>(taskExecutors.executor(TaskTier.CPU, this));
+
+		int submitted = 0;
 		for (Class<? extends Plugin> pluginClazz : sortedPlugins)
 		{
-			Plugin plugin;
-			try
+			int dependencies = graph.inDegree(pluginClazz);
+			if (dependencies == 0)
 			{
-				plugin = instantiate(this.plugins, (Class<Plugin>) pluginClazz);
-				newPlugins.add(plugin);
-				this.plugins.add(plugin);
+				completionService.submit(() -> instantiate(available, instances, pluginClazz));
+				++submitted;
 			}
-			catch (PluginInstantiationException ex)
+			else
 			{
-				log.error("Error instantiating plugin!", ex);
+				waiting.put(pluginClazz, dependencies);
 			}
+		}
 
-			loaded++;
-			if (onPluginLoaded != null)
+		try
+		{
+			int loaded = 0;
+			while (loaded < submitted)
 			{
-				onPluginLoaded.accept(loaded, sortedPlugins.size());
+				Class<? extends Plugin> pluginClazz = completionService.take().get();
+
+				loaded++;
+				if (onPluginLoaded != null)
+				{
+					onPluginLoaded.accept(loaded, sortedPlugins.size());
+				}
+
+				for (Class<? extends Plugin> dependant : graph.successors(pluginClazz))
+				{
+					if (waiting.merge(dependant, -1, Integer::sum) == 0)
+					{
+						completionService.submit(() -> instantiate(available, instances, dependant));
+						++submitted;
+					}
+				}
 			}
 		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new PluginInstantiationException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			throw new PluginInstantiationException(ex.getCause());
+		}
 
+		List<Plugin> newPlugins = new ArrayList<>(instances.size());
+		for (Class<? extends Plugin> pluginClazz : sortedPlugins)
+		{
+			Plugin plugin = instances.get(pluginClazz);
+			if (plugin != null)
+			{
+				newPlugins.add(plugin);
+			}
+		}
 		return newPlugins;
 	}
 
+	private Class<? extends Plugin> instantiate(List<Plugin> available, Map<Class<? extends Plugin>, Plugin> instances,
+		Class<? extends Plugin> pluginClazz)
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			Plugin plugin = instantiate(available, (Class<Plugin>) pluginClazz);
+			instances.put(pluginClazz, plugin);
+			available.add(plugin);
+		}
+		catch (PluginInstantiationException ex)
+		{
+			log.error("Error instantiating plugin!", ex);
+		}
+		loadTimes.put(pluginClazz, System.nanoTime() - start);
+		return pluginClazz;
+	}
+
 	public boolean startPlugin(Plugin plugin) throws PluginInstantiationException
 	{
 		// plugins always start in the EDT
@@ -475,6 +691,8 @@ public class PluginManager
 
 		unschedule(plugin);
 		eventBus.unregister(plugin);
+		// before shutDown, so tasks submitted by shutDown itself still run
+		taskExecutors.cancel(plugin);
 
 		try
 		{
@@ -550,27 +768,34 @@ public class PluginManager
 		{
 			Injector parent = RuneLite.getInjector();
 
-			if (deps.size() > 1)
+			if (!deps.isEmpty())
 			{
-				List<Module> modules = new ArrayList<>(deps.size());
-				for (Plugin p : deps)
+				// Each plugin injector binds its own executor, which a child injector can't bind again, so
+				// rather than using the injectors of the dependencies as the parent, the parent delegates to them
+				final Injector root = parent;
+				Module dependencyModule = (Binder binder) ->
 				{
-					// Create a module for each dependency
-					Module module = (Binder binder) ->
+					// skip the keys which every injector binds itself, such as Injector, and the plugin's executor
+					Set<Key<?>> keys = new HashSet<>(root.createChildInjector().getBindings().keySet());
+					keys.add(Key.get(ScheduledExecutorService.class));
+					keys.add(Key.get(ExecutorService.class));
+					for (Plugin p : deps)
 					{
-						binder.bind((Class<Plugin>) p.getClass()).toInstance(p);
-						binder.install(p);
-					};
-					modules.add(module);
-				}
+						for (Injector injector = p.injector; injector != root; injector = injector.getParent())
+						{
+							for (Key<?> key : injector.getBindings().keySet())
+							{
+								if (keys.add(key))
+								{
+									delegate(binder, injector, key);
+								}
+							}
+						}
+					}
+				};
 
 				// Create a parent injector containing all of the dependencies
-				parent = parent.createChildInjector(modules);
-			}
-			else if (!deps.isEmpty())
-			{
-				// With only one dependency we can simply use its injector
-				parent = deps.get(0).injector;
+				parent = parent.createChildInjector(dependencyModule);
 			}
 
 			// Create injector for the module
@@ -579,9 +804,13 @@ public class PluginManager
 				// Since the plugin itself is a module, it won't bind itself, so we'll bind it here
 				binder.bind(clazz).toInstance(plugin);
 				binder.install(plugin);
+
+				// Tasks run on the plugin's executor are cancelled when the plugin stops
+				ScheduledExecutorService executor = taskExecutors.executor(TaskTier.TIMER, plugin);
+				binder.bind(ScheduledExecutorService.class).toInstance(executor);
+				binder.bind(ExecutorService.class).toInstance(executor);
 			};
-			Injector pluginInjector = parent.createChildInjector(pluginModule);
-			plugin.injector = pluginInjector;
+			plugin.injector = parent.createChildInjector(pluginModule);
 		}
 		catch (CreationException ex)
 		{
@@ -592,6 +821,11 @@ public class PluginManager
 		return plugin;
 	}
 
+	private static <T> void delegate(Binder binder, Injector injector, Key<T> key)
+	{
+		binder.bind(key).toProvider(injector.getProvider(key));
+	}
+
 	public void add(Plugin plugin)
 	{
 		plugins.add(plugin);
@@ -833,6 +833,7 @@ class ProfilePanel extends PluginPanel
 		{
 			// save config to disk so the export copies the full config
 			configManager.sendConfig();
+			ProfileManager.compactProfileConfig(profile);
 
 			File source = ProfileManager.profileConfigFile(profile);
 			if (!source.exists())
@@ -909,6 +910,7 @@ class ProfilePanel extends PluginPanel
 
 				if (from.exists())
 				{
+					ProfileManager.compactProfileConfig(profile);
 					try
 					{
 						Files.copy(
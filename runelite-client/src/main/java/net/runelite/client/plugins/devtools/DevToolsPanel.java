@@ -61,6 +61,7 @@ class DevToolsPanel extends PluginPanel
 	private final VarInspector varInspector;
 	private final ScriptInspector scriptInspector;
 	private final InventoryInspector inventoryInspector;
+	private final FrameProfilerInspector frameProfilerInspector;
 	private final InfoBoxManager infoBoxManager;
 	private final ScheduledExecutorService scheduledExecutorService;
 
@@ -73,6 +74,7 @@ class DevToolsPanel extends PluginPanel
 		VarInspector varInspector,
 		ScriptInspector scriptInspector,
 		InventoryInspector inventoryInspector,
+		FrameProfilerInspector frameProfilerInspector,
 		Notifier notifier,
 		InfoBoxManager infoBoxManager,
 		ScheduledExecutorService scheduledExecutorService)
@@ -84,6 +86,7 @@ class DevToolsPanel extends PluginPanel
 		this.widgetInspector = widgetInspector;
 		this.varInspector = varInspector;
 		this.inventoryInspector = inventoryInspector;
+		this.frameProfilerInspector = frameProfilerInspector;
 		this.scriptInspector = scriptInspector;
 		this.notifier = notifier;
 		this.infoBoxManager = infoBoxManager;
@@ -204,6 +207,9 @@ class DevToolsPanel extends PluginPanel
 
 		container.add(plugin.getMenus());
 
+		container.add(plugin.getFrameProfiler());
+		plugin.getFrameProfiler().addFrame(frameProfilerInspector);
+
 		try
 		{
 			FlatUIDefaultsInspector.class.getName();
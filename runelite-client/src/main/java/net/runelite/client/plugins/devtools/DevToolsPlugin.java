@@ -168,6 +168,7 @@ public class DevToolsPlugin extends Plugin
 	private DevToolsButton tileFlags;
 	private DevToolsButton shell;
 	private DevToolsButton menus;
+	private DevToolsButton frameProfiler;
 	private DevToolsButton uiDefaultsInspector;
 	private NavigationButton navButton;
 
@@ -269,6 +270,7 @@ public class DevToolsPlugin extends Plugin
 		tileFlags = new DevToolsButton("Tile flags");
 		shell = new DevToolsButton("Shell");
 		menus = new DevToolsButton("Menus");
+		frameProfiler = new DevToolsButton("Frame Profiler");
 
 		uiDefaultsInspector = new DevToolsButton("Swing Defaults");
 
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.devtools;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Inject;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+import net.runelite.client.util.FrameProfiler;
+
+@Slf4j
+class FrameProfilerInspector extends DevToolsFrame
+{
+	private static final int REFRESH_MS = 1000;
+	private static final String[] COLUMNS = {
+		"Plugin", "Frame p50", "Frame p95", "Frame p99", "Frame max", "Tick p50", "Tick p99", "Total ms"
+	};
+	private static final DateTimeFormatter DUMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+	private final FrameProfiler frameProfiler;
+	private final StatsTableModel model = new StatsTableModel();
+	private final JLabel status = new JLabel();
+	private final Timer timer;
+
+	@Inject
+	FrameProfilerInspector(FrameProfiler frameProfiler)
+	{
+		this.frameProfiler = frameProfiler;
+
+		setTitle("RuneLite Frame Profiler");
+		setLayout(new BorderLayout());
+
+		final JTable table = new JTable(model);
+		table.setAutoCreateRowSorter(true);
+		final JScrollPane scrollPane = new JScrollPane(table);
+		scrollPane.setPreferredSize(new Dimension(720, 400));
+		add(scrollPane, BorderLayout.CENTER);
+
+		final JButton resetBtn = new JButton("Reset");
+		resetBtn.addActionListener(e -> frameProfiler.reset());
+
+		final JButton dumpBtn = new JButton("Dump");
+		dumpBtn.addActionListener(e -> dump());
+
+		final JPanel bottomRow = new JPanel();
+		bottomRow.add(resetBtn);
+		bottomRow.add(dumpBtn);
+		bottomRow.add(status);
+		add(bottomRow, BorderLayout.SOUTH);
+
+		timer = new Timer(REFRESH_MS, e -> model.setStats(frameProfiler.getStats()));
+
+		pack();
+	}
+
+	@Override
+	public void open()
+	{
+		frameProfiler.setEnabled(true);
+		timer.start();
+		super.open();
+	}
+
+	@Override
+	public void close()
+	{
+		timer.stop();
+		frameProfiler.setEnabled(false);
+		super.close();
+	}
+
+	private void dump()
+	{
+		final File file = new File(RuneLite.LOGS_DIR, "profile-" + LocalDateTime.now().format(DUMP_FORMAT) + ".folded");
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+		{
+			frameProfiler.dump(writer);
+			status.setText("Wrote " + file.getName());
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to write profile", ex);
+			status.setText("Unable to write profile");
+		}
+	}
+
+	private static class StatsTableModel extends AbstractTableModel
+	{
+		private List<FrameProfiler.Stats> stats = Collections.emptyList();
+
+		void setStats(List<FrameProfiler.Stats> stats)
+		{
+			this.stats = stats;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public String getColumnName(int col)
+		{
+			return COLUMNS[col];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int col)
+		{
+			return col == 0 ? String.class : Double.class;
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return stats.size();
+		}
+
+		@Override
+		public int getColumnCount()
+		{
+			return COLUMNS.length;
+		}
+
+		@Override
+		public Object getValueAt(int row, int col)
+		{
+			final FrameProfiler.Stats s = stats.get(row);
+			switch (col)
+			{
+				case 0:
+					return s.getOwner();
+				case 1:
+					return millis(s.getFrameP50());
+				case 2:
+					return millis(s.getFrameP95());
+				case 3:
+					return millis(s.getFrameP99());
+				case 4:
+					return millis(s.getFrameMax());
+				case 5:
+					return millis(s.getTickP50());
+				case 6:
+					return millis(s.getTickP99());
+				case 7:
+					return millis(s.getTotalNanos());
+				default:
+					return null;
+			}
+		}
+
+		private static double millis(long nanos)
+		{
+			return nanos / 1_000_000.0;
+		}
+	}
+}
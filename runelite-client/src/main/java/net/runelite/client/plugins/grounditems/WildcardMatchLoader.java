@@ -26,6 +26,7 @@ package net.runelite.client.plugins.grounditems;
 
 import com.google.common.base.Strings;
 import com.google.common.cache.CacheLoader;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -35,6 +36,9 @@ import net.runelite.client.util.WildcardMatcher;
 class WildcardMatchLoader extends CacheLoader<NamedQuantity, Boolean>
 {
 	private final List<ItemThreshold> itemThresholds;
+	private final WildcardMatcher[] thresholdMatchers;
+	// all of the item names, to reject items which aren't in the list without checking each threshold
+	private final WildcardMatcher anyMatcher;
 
 	WildcardMatchLoader(List<String> configEntries)
 	{
@@ -42,6 +46,12 @@ class WildcardMatchLoader extends CacheLoader<NamedQuantity, Boolean>
 			.map(ItemThreshold::fromConfigEntry)
 			.filter(Objects::nonNull)
 			.collect(Collectors.toList());
+		this.thresholdMatchers = itemThresholds.stream()
+			.map(entry -> WildcardMatcher.compile(Collections.singletonList(entry.getItemName())))
+			.toArray(WildcardMatcher[]::new);
+		this.anyMatcher = WildcardMatcher.compile(itemThresholds.stream()
+			.map(ItemThreshold::getItemName)
+			.collect(Collectors.toList()));
 	}
 
 	@Override
@@ -53,11 +63,15 @@ class WildcardMatchLoader extends CacheLoader<NamedQuantity, Boolean>
 		}
 
 		final String filteredName = key.getName().trim();
+		if (!anyMatcher.matchesAny(filteredName))
+		{
+			return false;
+		}
 
-		for (final ItemThreshold entry : itemThresholds)
+		for (int i = 0; i < thresholdMatchers.length; ++i)
 		{
-			if (WildcardMatcher.matches(entry.getItemName(), filteredName)
-				&& entry.quantityHolds(key.getQuantity()))
+			if (thresholdMatchers[i].matchesAny(filteredName)
+				&& itemThresholds.get(i).quantityHolds(key.getQuantity()))
 			{
 				return true;
 			}
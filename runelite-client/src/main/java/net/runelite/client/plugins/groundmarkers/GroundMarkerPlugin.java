@@ -66,6 +66,7 @@ import net.runelite.client.ui.components.colorpicker.ColorPickerManager;
 import net.runelite.client.ui.components.colorpicker.RuneliteColorPicker;
 import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.ColorUtil;
+import net.runelite.client.util.MarkerIndex;
 
 @Slf4j
 @PluginDescriptor(
@@ -81,6 +82,9 @@ public class GroundMarkerPlugin extends Plugin
 
 	@Getter(AccessLevel.PACKAGE)
 	private final List<ColorTileMarker> points = new ArrayList<>();
+	// parsed region config, kept until the region's config or the profile changes
+	private final MarkerIndex<GroundMarkerPoint> markers = new MarkerIndex<>(p ->
+		MarkerIndex.packRegion(p.getRegionId(), p.getRegionX(), p.getRegionY(), p.getZ(), 0));
 
 	@Inject
 	private Client client;
@@ -120,24 +124,34 @@ public class GroundMarkerPlugin extends Plugin
 		if (points == null || points.isEmpty())
 		{
 			configManager.unsetConfiguration(CONFIG_GROUP, REGION_PREFIX + regionId);
+			markers.putRegion(regionId, Collections.emptyList());
 			return;
 		}
 
 		String json = gson.toJson(points);
 		configManager.setConfiguration(CONFIG_GROUP, REGION_PREFIX + regionId, json);
+		markers.putRegion(regionId, points);
 	}
 
 	Collection<GroundMarkerPoint> getPoints(int regionId)
 	{
+		if (markers.isLoaded(regionId))
+		{
+			return markers.getRegion(regionId);
+		}
+
 		String json = configManager.getConfiguration(CONFIG_GROUP, REGION_PREFIX + regionId);
 		if (Strings.isNullOrEmpty(json))
 		{
+			markers.putRegion(regionId, Collections.emptyList());
 			return Collections.emptyList();
 		}
 
 		// CHECKSTYLE:OFF
-		return gson.fromJson(json, new TypeToken<List<GroundMarkerPoint>>(){}.getType());
+		final List<GroundMarkerPoint> points = gson.fromJson(json, new TypeToken<List<GroundMarkerPoint>>(){}.getType());
 		// CHECKSTYLE:ON
+		markers.putRegion(regionId, points);
+		return markers.getRegion(regionId);
 	}
 
 	@Provides
@@ -215,11 +229,13 @@ public class GroundMarkerPlugin extends Plugin
 		overlayManager.remove(minimapOverlay);
 		sharingManager.removeMenuOptions();
 		points.clear();
+		markers.clear();
 	}
 
 	@Subscribe
 	public void onProfileChanged(ProfileChanged profileChanged)
 	{
+		markers.clear();
 		loadPoints();
 	}
 
@@ -251,9 +267,7 @@ public class GroundMarkerPlugin extends Plugin
 			final WorldPoint worldPoint = WorldPoint.fromLocalInstance(client, selectedSceneTile.getLocalLocation());
 			final int regionId = worldPoint.getRegionID();
 			var regionPoints = getPoints(regionId);
-			var existingOpt = regionPoints.stream()
-				.filter(p -> p.getRegionX() == worldPoint.getRegionX() && p.getRegionY() == worldPoint.getRegionY() && p.getZ() == worldPoint.getPlane())
-				.findFirst();
+			var existingOpt = Optional.ofNullable(markers.get(MarkerIndex.pack(worldPoint.getX(), worldPoint.getY(), worldPoint.getPlane(), 0)));
 
 			client.createMenuEntry(-1)
 				.setOption(existingOpt.isPresent() ? "Unmark" : "Mark")
@@ -339,8 +353,24 @@ public class GroundMarkerPlugin extends Plugin
 	@Subscribe
 	public void onConfigChanged(ConfigChanged event)
 	{
-		if (event.getGroup().equals(GroundMarkerConfig.GROUND_MARKER_CONFIG_GROUP)
-			&& event.getKey().equals(GroundMarkerConfig.SHOW_IMPORT_EXPORT_KEY_NAME))
+		if (!event.getGroup().equals(GroundMarkerConfig.GROUND_MARKER_CONFIG_GROUP))
+		{
+			return;
+		}
+
+		if (event.getKey().startsWith(REGION_PREFIX))
+		{
+			// the region was changed, possibly outside of the plugin, so parse it again when next needed
+			try
+			{
+				markers.removeRegion(Integer.parseInt(event.getKey().substring(REGION_PREFIX.length())));
+			}
+			catch (NumberFormatException ex)
+			{
+				log.debug("invalid ground marker region key {}", event.getKey());
+			}
+		}
+		else if (event.getKey().equals(GroundMarkerConfig.SHOW_IMPORT_EXPORT_KEY_NAME))
 		{
 			sharingManager.removeMenuOptions();
 
@@ -0,0 +1,745 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.loottracker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.http.api.loottracker.LootRecordType;
+
+/**
+ * Local, per profile loot storage. Loot is appended to a binary event log, and an aggregate
+ * per (type, name) is kept in memory. A snapshot of the aggregates is written to an index
+ * file on close, so opening the store only has to replay the tail of the log written since.
+ * <p>
+ * Log layout: a header of magic, version and generation, followed by records of a one byte
+ * tag and a tag specific body. Sources are assigned an id by a DEFINE record the first time
+ * they are seen, so a kill costs one small KILL record.
+ */
+@Slf4j
+class LootStore implements Closeable
+{
+	private static final int LOG_MAGIC = 0x4c4f4f54; // LOOT
+	private static final int INDEX_MAGIC = 0x4c4f4958; // LOIX
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 1 + 8;
+
+	private static final byte DEFINE = 1;
+	private static final byte KILL = 2;
+	private static final byte AGGREGATE = 3;
+	private static final byte REMOVE = 4;
+	private static final byte CLEAR = 5;
+
+	// compact the log on close once it is this large and mostly made up of superseded records
+	private static final long COMPACT_SIZE = 256 * 1024;
+	private static final Comparator<ConfigLoot> NEWEST_FIRST = Comparator.comparing(ConfigLoot::getLast).reversed();
+
+	private final File logFile;
+	private final File indexFile;
+	private FileChannel channel;
+	private long generation;
+	private long records;
+	private int nextId;
+	private boolean indexDirty;
+
+	private final Map<ConfigLoot, Integer> ids = new HashMap<>();
+	private final Map<Integer, ConfigLoot> aggregates = new HashMap<>();
+	private ConfigLoot[] sorted;
+
+	private LootStore(File dir, String name)
+	{
+		logFile = new File(dir, name + ".log");
+		indexFile = new File(dir, name + ".idx");
+	}
+
+	static LootStore open(File dir, String profile) throws IOException
+	{
+		if (!dir.exists() && !dir.mkdirs())
+		{
+			throw new IOException("unable to create directory " + dir);
+		}
+
+		LootStore store = new LootStore(dir, profile.replaceAll("[^A-Za-z0-9._-]", "_"));
+		store.load();
+		return store;
+	}
+
+	private void load() throws IOException
+	{
+		channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		long size = channel.size();
+		if (size < HEADER_SIZE || !readHeader())
+		{
+			if (size > 0)
+			{
+				log.warn("Loot log {} has an invalid header, starting a new log", logFile);
+			}
+
+			channel.truncate(0);
+			writeHeader(channel, ThreadLocalRandom.current().nextLong());
+			readHeader();
+			indexDirty = true;
+			return;
+		}
+
+		long start = readIndex(size);
+		replay(start, size);
+	}
+
+	private boolean readHeader() throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != LOG_MAGIC || header.get() != VERSION)
+		{
+			return false;
+		}
+
+		generation = header.getLong();
+		return true;
+	}
+
+	private static void writeHeader(FileChannel channel, long generation) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(LOG_MAGIC);
+		header.put((byte) VERSION);
+		header.putLong(generation);
+		header.flip();
+		channel.write(header, 0);
+	}
+
+	/**
+	 * Load the aggregate snapshot, if it matches the log.
+	 *
+	 * @return the log offset to replay from
+	 */
+	private long readIndex(long logSize)
+	{
+		if (!indexFile.exists())
+		{
+			return HEADER_SIZE;
+		}
+
+		try
+		{
+			ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath()));
+			if (buf.getInt() != INDEX_MAGIC || buf.get() != VERSION || buf.getLong() != generation)
+			{
+				return HEADER_SIZE;
+			}
+
+			long offset = buf.getLong();
+			if (offset < HEADER_SIZE || offset > logSize)
+			{
+				return HEADER_SIZE;
+			}
+
+			records = buf.getLong();
+			nextId = readVarInt(buf);
+			int count = readVarInt(buf);
+			for (int i = 0; i < count; ++i)
+			{
+				int id = readVarInt(buf);
+				LootRecordType type = parseType(readString(buf));
+				ConfigLoot loot = new ConfigLoot(type, readString(buf));
+				loot.kills = readVarInt(buf);
+				loot.first = Instant.ofEpochMilli(buf.getLong());
+				loot.last = Instant.ofEpochMilli(buf.getLong());
+				loot.drops = readDrops(buf);
+				if (type != null)
+				{
+					ids.put(loot, id);
+					aggregates.put(id, loot);
+				}
+			}
+			return offset;
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			log.warn("Unable to read loot index {}, replaying log", indexFile, ex);
+			ids.clear();
+			aggregates.clear();
+			records = 0;
+			nextId = 0;
+			return HEADER_SIZE;
+		}
+	}
+
+	private void replay(long start, long size) throws IOException
+	{
+		if (start == size)
+		{
+			return;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate((int) (size - start));
+		while (buf.hasRemaining())
+		{
+			if (channel.read(buf, start + buf.position()) < 0)
+			{
+				throw new EOFException();
+			}
+		}
+		buf.flip();
+
+		int good = 0;
+		try
+		{
+			while (buf.hasRemaining())
+			{
+				apply(buf);
+				good = buf.position();
+				++records;
+			}
+		}
+		catch (BufferUnderflowException | IllegalArgumentException ex)
+		{
+			// a partially written record from a crash, drop it and everything after it
+			log.warn("Truncating loot log {} at {}", logFile, start + good, ex);
+			channel.truncate(start + good);
+		}
+
+		removeUnused();
+		indexDirty = true;
+	}
+
+	/**
+	 * Remove sources which were defined, but never had loot recorded, due to a failed write.
+	 */
+	private void removeUnused()
+	{
+		aggregates.values().removeIf(loot -> loot.last == null && ids.remove(loot) != null);
+	}
+
+	private void apply(ByteBuffer buf)
+	{
+		byte tag = buf.get();
+		switch (tag)
+		{
+			case DEFINE:
+			{
+				int id = readVarInt(buf);
+				String type = readString(buf);
+				String name = readString(buf);
+				nextId = Math.max(nextId, id + 1);
+				LootRecordType lootRecordType = parseType(type);
+				if (lootRecordType == null)
+				{
+					// loot for this source is read, but discarded
+					log.debug("Skipping loot for {} with unknown type {}", name, type);
+					break;
+				}
+
+				ConfigLoot loot = new ConfigLoot(lootRecordType, name);
+				loot.first = null;
+				ids.put(loot, id);
+				aggregates.put(id, loot);
+				break;
+			}
+			case KILL:
+			{
+				// the whole record is read before applying it, so a torn record changes nothing
+				ConfigLoot loot = source(readVarInt(buf));
+				Instant when = Instant.ofEpochMilli(buf.getLong());
+				int kills = readVarInt(buf);
+				int[] drops = readDrops(buf);
+				loot.kills += kills;
+				for (int i = 0; i < drops.length; i += 2)
+				{
+					loot.add(drops[i], drops[i + 1]);
+				}
+				touch(loot, when, when);
+				break;
+			}
+			case AGGREGATE:
+			{
+				ConfigLoot loot = source(readVarInt(buf));
+				int kills = readVarInt(buf);
+				Instant first = Instant.ofEpochMilli(buf.getLong());
+				Instant last = Instant.ofEpochMilli(buf.getLong());
+				int[] drops = readDrops(buf);
+				loot.kills = kills;
+				loot.first = null;
+				loot.last = null;
+				touch(loot, first, last);
+				loot.drops = drops;
+				break;
+			}
+			case REMOVE:
+				ids.remove(aggregates.remove(readVarInt(buf)));
+				break;
+			case CLEAR:
+				ids.clear();
+				aggregates.clear();
+				break;
+			default:
+				throw new IllegalArgumentException("unknown record " + tag);
+		}
+	}
+
+	private ConfigLoot source(int id)
+	{
+		ConfigLoot loot = aggregates.get(id);
+		return loot != null ? loot : new ConfigLoot(null, null);
+	}
+
+	private static LootRecordType parseType(String type)
+	{
+		try
+		{
+			return LootRecordType.valueOf(type);
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return null;
+		}
+	}
+
+	private static void touch(ConfigLoot loot, Instant first, Instant last)
+	{
+		if (loot.first == null || first.isBefore(loot.first))
+		{
+			loot.first = first;
+		}
+		if (loot.last == null || last.isAfter(loot.last))
+		{
+			loot.last = last;
+		}
+	}
+
+	/**
+	 * Record kills. Each loot holds the kill count and drops to add to its source's aggregate.
+	 * All records are written with a single append.
+	 */
+	synchronized void append(Collection<ConfigLoot> loots, Instant when) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(64);
+		DataOutputStream out = new DataOutputStream(bout);
+		for (ConfigLoot loot : loots)
+		{
+			int id = define(out, loot);
+			out.writeByte(KILL);
+			writeVarInt(out, id);
+			out.writeLong(when.toEpochMilli());
+			writeVarInt(out, loot.kills);
+			writeDrops(out, loot.drops);
+		}
+
+		try
+		{
+			write(bout, loots.size());
+		}
+		catch (IOException ex)
+		{
+			removeUnused();
+			throw ex;
+		}
+
+		for (ConfigLoot loot : loots)
+		{
+			ConfigLoot aggregate = aggregates.get(ids.get(loot));
+			aggregate.kills += loot.kills;
+			for (int i = 0; i < loot.drops.length; i += 2)
+			{
+				aggregate.add(loot.drops[i], loot.drops[i + 1]);
+			}
+			touch(aggregate, when, when);
+		}
+	}
+
+	/**
+	 * Replace the aggregates of the given sources, eg. when migrating loot saved elsewhere.
+	 */
+	synchronized void putAll(Collection<ConfigLoot> loots) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		for (ConfigLoot loot : loots)
+		{
+			int id = define(out, loot);
+			writeAggregate(out, id, loot);
+		}
+
+		try
+		{
+			write(bout, loots.size());
+		}
+		catch (IOException ex)
+		{
+			removeUnused();
+			throw ex;
+		}
+
+		for (ConfigLoot loot : loots)
+		{
+			aggregates.put(ids.get(loot), copy(loot));
+		}
+	}
+
+	synchronized void remove(LootRecordType type, String name) throws IOException
+	{
+		Integer id = ids.get(new ConfigLoot(type, name));
+		if (id == null)
+		{
+			return;
+		}
+
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(8);
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeByte(REMOVE);
+		writeVarInt(out, id);
+		write(bout, 1);
+
+		ids.remove(aggregates.remove(id));
+	}
+
+	/**
+	 * Remove all sources which have not had loot since the given time.
+	 */
+	synchronized void removeBefore(Instant time) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		List<Integer> old = new ArrayList<>();
+		for (Map.Entry<Integer, ConfigLoot> entry : aggregates.entrySet())
+		{
+			if (entry.getValue().last.isBefore(time))
+			{
+				out.writeByte(REMOVE);
+				writeVarInt(out, entry.getKey());
+				old.add(entry.getKey());
+			}
+		}
+
+		if (old.isEmpty())
+		{
+			return;
+		}
+
+		write(bout, old.size());
+		for (Integer id : old)
+		{
+			ids.remove(aggregates.remove(id));
+		}
+	}
+
+	synchronized void clear() throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(1);
+		bout.write(CLEAR);
+		write(bout, 1);
+
+		ids.clear();
+		aggregates.clear();
+	}
+
+	synchronized ConfigLoot get(LootRecordType type, String name)
+	{
+		Integer id = ids.get(new ConfigLoot(type, name));
+		return id == null ? null : copy(aggregates.get(id));
+	}
+
+	synchronized int size()
+	{
+		return aggregates.size();
+	}
+
+	/**
+	 * Get a page of aggregates, ordered by most recent loot first.
+	 */
+	synchronized List<ConfigLoot> page(int offset, int limit)
+	{
+		if (sorted == null)
+		{
+			sorted = aggregates.values().toArray(new ConfigLoot[0]);
+			Arrays.sort(sorted, NEWEST_FIRST);
+		}
+
+		if (offset >= sorted.length)
+		{
+			return Collections.emptyList();
+		}
+
+		int end = Math.min(sorted.length, offset + limit);
+		List<ConfigLoot> page = new ArrayList<>(end - offset);
+		for (int i = offset; i < end; ++i)
+		{
+			page.add(copy(sorted[i]));
+		}
+		return page;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			if (channel.size() >= COMPACT_SIZE && records > aggregates.size() * 2L)
+			{
+				compact();
+			}
+
+			if (indexDirty)
+			{
+				writeIndex();
+			}
+		}
+		finally
+		{
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private int define(DataOutputStream out, ConfigLoot loot) throws IOException
+	{
+		Integer id = ids.get(loot);
+		if (id != null)
+		{
+			return id;
+		}
+
+		id = nextId++;
+		out.writeByte(DEFINE);
+		writeVarInt(out, id);
+		writeString(out, loot.type.name());
+		writeString(out, loot.name);
+
+		ConfigLoot aggregate = new ConfigLoot(loot.type, loot.name);
+		aggregate.first = null;
+		ids.put(aggregate, id);
+		aggregates.put(id, aggregate);
+		return id;
+	}
+
+	private void write(ByteArrayOutputStream bout, int count) throws IOException
+	{
+		if (channel == null)
+		{
+			throw new IOException("loot store is closed");
+		}
+
+		ByteBuffer buf = ByteBuffer.wrap(bout.toByteArray());
+		long position = channel.size();
+		while (buf.hasRemaining())
+		{
+			position += channel.write(buf, position);
+		}
+
+		records += count;
+		sorted = null;
+		indexDirty = true;
+	}
+
+	private static void writeAggregate(DataOutputStream out, int id, ConfigLoot loot) throws IOException
+	{
+		out.writeByte(AGGREGATE);
+		writeVarInt(out, id);
+		writeVarInt(out, loot.kills);
+		out.writeLong(loot.first.toEpochMilli());
+		out.writeLong(loot.last.toEpochMilli());
+		writeDrops(out, loot.drops);
+	}
+
+	/**
+	 * Rewrite the log as one record per source.
+	 */
+	private void compact() throws IOException
+	{
+		long newGeneration = ThreadLocalRandom.current().nextLong();
+		File tmp = new File(logFile.getParentFile(), logFile.getName() + ".tmp");
+		try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			writeHeader(out, newGeneration);
+
+			ByteArrayOutputStream bout = new ByteArrayOutputStream();
+			DataOutputStream dout = new DataOutputStream(bout);
+			for (Map.Entry<Integer, ConfigLoot> entry : aggregates.entrySet())
+			{
+				ConfigLoot loot = entry.getValue();
+				dout.writeByte(DEFINE);
+				writeVarInt(dout, entry.getKey());
+				writeString(dout, loot.type.name());
+				writeString(dout, loot.name);
+				writeAggregate(dout, entry.getKey(), loot);
+			}
+
+			ByteBuffer buf = ByteBuffer.wrap(bout.toByteArray());
+			long position = HEADER_SIZE;
+			while (buf.hasRemaining())
+			{
+				position += out.write(buf, position);
+			}
+			out.force(false);
+		}
+
+		channel.close();
+		Files.move(tmp.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		log.debug("Compacted loot log {} from {} records to {}", logFile, records, aggregates.size() * 2);
+		generation = newGeneration;
+		records = aggregates.size() * 2L;
+		indexDirty = true;
+	}
+
+	private void writeIndex() throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeInt(INDEX_MAGIC);
+		out.writeByte(VERSION);
+		out.writeLong(generation);
+		out.writeLong(channel.size());
+		out.writeLong(records);
+		writeVarInt(out, nextId);
+		writeVarInt(out, aggregates.size());
+		for (Map.Entry<Integer, ConfigLoot> entry : aggregates.entrySet())
+		{
+			ConfigLoot loot = entry.getValue();
+			writeVarInt(out, entry.getKey());
+			writeString(out, loot.type.name());
+			writeString(out, loot.name);
+			writeVarInt(out, loot.kills);
+			out.writeLong(loot.first.toEpochMilli());
+			out.writeLong(loot.last.toEpochMilli());
+			writeDrops(out, loot.drops);
+		}
+
+		File tmp = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+		Files.write(tmp.toPath(), bout.toByteArray());
+		Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		indexDirty = false;
+	}
+
+	private static ConfigLoot copy(ConfigLoot loot)
+	{
+		ConfigLoot copy = new ConfigLoot(loot.type, loot.name);
+		copy.kills = loot.kills;
+		copy.first = loot.first;
+		copy.last = loot.last;
+		copy.drops = loot.drops.clone();
+		return copy;
+	}
+
+	private static void writeDrops(DataOutputStream out, int[] drops) throws IOException
+	{
+		writeVarInt(out, drops.length / 2);
+		for (int drop : drops)
+		{
+			writeVarInt(out, drop);
+		}
+	}
+
+	private static int[] readDrops(ByteBuffer buf)
+	{
+		int count = readVarInt(buf);
+		if (count < 0 || count > buf.remaining())
+		{
+			throw new IllegalArgumentException("bad drop count " + count);
+		}
+
+		int[] drops = new int[count * 2];
+		for (int i = 0; i < drops.length; ++i)
+		{
+			drops[i] = readVarInt(buf);
+		}
+		return drops;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException
+	{
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, b.length);
+		out.write(b);
+	}
+
+	private static String readString(ByteBuffer buf)
+	{
+		int len = readVarInt(buf);
+		if (len < 0 || len > buf.remaining())
+		{
+			throw new BufferUnderflowException();
+		}
+
+		String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+		buf.position(buf.position() + len);
+		return s;
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7f) != 0)
+		{
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(ByteBuffer buf)
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			byte b = buf.get();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("malformed varint");
+	}
+}
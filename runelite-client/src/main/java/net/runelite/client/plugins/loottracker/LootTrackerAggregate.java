@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.loottracker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import net.runelite.http.api.loottracker.LootRecordType;
+
+/**
+ * Running totals of the loot from a source, a single kill, or every kill shown in the panel.
+ * Adding a record only updates the totals by the record's items, and prices are recomputed
+ * only when item prices are reloaded.
+ */
+class LootTrackerAggregate
+{
+	@Getter(AccessLevel.PACKAGE)
+	private final String title;
+	@Getter(AccessLevel.PACKAGE)
+	private final String subTitle;
+	@Getter(AccessLevel.PACKAGE)
+	private final LootRecordType type;
+
+	private int kills;
+	// kills which had any loot
+	private int lootedKills;
+	// kills which had any loot that is not ignored
+	private int visibleKills;
+
+	private final Map<Integer, LootTrackerItem> items = new LinkedHashMap<>();
+	private int visibleItems;
+
+	private long gePrice;
+	private long haPrice;
+	private long visibleGePrice;
+	private long visibleHaPrice;
+
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private boolean collapsed;
+
+	LootTrackerAggregate(String title, String subTitle, LootRecordType type)
+	{
+		this.title = title;
+		this.subTitle = subTitle;
+		this.type = type;
+	}
+
+	static LootTrackerAggregate of(LootTrackerRecord record)
+	{
+		LootTrackerAggregate aggregate = new LootTrackerAggregate(record.getTitle(), record.getSubTitle(), record.getType());
+		aggregate.add(record);
+		return aggregate;
+	}
+
+	boolean matches(final String id, LootRecordType type)
+	{
+		if (id == null)
+		{
+			return true;
+		}
+
+		return title.equals(id) && this.type == type;
+	}
+
+	void add(LootTrackerRecord record)
+	{
+		boolean visible = false;
+		for (LootTrackerItem item : record.getItems())
+		{
+			final int mappedItemId = LootTrackerMapping.map(item.getId(), item.getName());
+			final LootTrackerItem existing = items.get(mappedItemId);
+			// keep pricing items consistently with the price they were first added at
+			final LootTrackerItem added = existing == null
+				? new LootTrackerItem(mappedItemId, item.getName(), item.getQuantity(), item.getGePrice(), item.getHaPrice(), item.isIgnored())
+				: new LootTrackerItem(mappedItemId, existing.getName(), item.getQuantity(), existing.getGePrice(), existing.getHaPrice(), existing.isIgnored());
+
+			if (existing == null)
+			{
+				items.put(mappedItemId, added);
+				if (!added.isIgnored())
+				{
+					++visibleItems;
+				}
+			}
+			else
+			{
+				items.put(mappedItemId, new LootTrackerItem(mappedItemId, existing.getName(), existing.getQuantity() + added.getQuantity(),
+					existing.getGePrice(), existing.getHaPrice(), existing.isIgnored()));
+			}
+
+			gePrice += added.getTotalGePrice();
+			haPrice += added.getTotalHaPrice();
+			if (!added.isIgnored())
+			{
+				visibleGePrice += added.getTotalGePrice();
+				visibleHaPrice += added.getTotalHaPrice();
+				visible = true;
+			}
+		}
+
+		kills += record.getKills();
+		if (record.getItems().length > 0)
+		{
+			lootedKills += record.getKills();
+		}
+		if (visible)
+		{
+			visibleKills += record.getKills();
+		}
+	}
+
+	/**
+	 * Update the GE price of the items from the given prices, keyed by item id
+	 */
+	void reprice(Map<Integer, Integer> prices)
+	{
+		gePrice = 0;
+		visibleGePrice = 0;
+		for (Map.Entry<Integer, LootTrackerItem> entry : items.entrySet())
+		{
+			LootTrackerItem item = entry.getValue();
+			Integer price = prices.get(item.getId());
+			if (price != null && price != item.getGePrice())
+			{
+				item = new LootTrackerItem(item.getId(), item.getName(), item.getQuantity(), price, item.getHaPrice(), item.isIgnored());
+				entry.setValue(item);
+			}
+
+			gePrice += item.getTotalGePrice();
+			if (!item.isIgnored())
+			{
+				visibleGePrice += item.getTotalGePrice();
+			}
+		}
+	}
+
+	/**
+	 * Price the items of a record which was added to this aggregate at the prices this aggregate
+	 * has for them, so a box built from the record agrees with the aggregate's totals
+	 */
+	LootTrackerRecord priced(LootTrackerRecord record)
+	{
+		final LootTrackerItem[] priced = new LootTrackerItem[record.getItems().length];
+		for (int i = 0; i < priced.length; ++i)
+		{
+			final LootTrackerItem item = record.getItems()[i];
+			final LootTrackerItem existing = items.get(LootTrackerMapping.map(item.getId(), item.getName()));
+			priced[i] = existing == null
+				? item
+				: new LootTrackerItem(item.getId(), item.getName(), item.getQuantity(), existing.getGePrice(), existing.getHaPrice(), existing.isIgnored());
+		}
+		return new LootTrackerRecord(record.getTitle(), record.getSubTitle(), record.getType(), priced, record.getKills());
+	}
+
+	Iterable<Integer> getItemIds()
+	{
+		return items.keySet();
+	}
+
+	int getKills(boolean hideIgnored)
+	{
+		return hideIgnored ? visibleKills : lootedKills;
+	}
+
+	long getGePrice(boolean hideIgnored)
+	{
+		return hideIgnored ? visibleGePrice : gePrice;
+	}
+
+	long getHaPrice(boolean hideIgnored)
+	{
+		return hideIgnored ? visibleHaPrice : haPrice;
+	}
+
+	/**
+	 * If a box for this aggregate would show any items
+	 */
+	boolean hasItems(boolean hideIgnored)
+	{
+		return hideIgnored ? visibleItems > 0 : !items.isEmpty();
+	}
+
+	/**
+	 * Build a record of all the kills, for display in a loot box
+	 */
+	LootTrackerRecord toRecord()
+	{
+		final LootTrackerItem[] copy = items.values().stream()
+			.map(i -> new LootTrackerItem(i.getId(), i.getName(), i.getQuantity(), i.getGePrice(), i.getHaPrice(), i.isIgnored()))
+			.toArray(LootTrackerItem[]::new);
+		return new LootTrackerRecord(title, subTitle, type, copy, kills);
+	}
+}
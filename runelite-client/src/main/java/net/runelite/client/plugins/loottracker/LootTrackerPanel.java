@@ -26,7 +26,6 @@
 package net.runelite.client.plugins.loottracker;
 
 import static com.google.common.collect.Iterables.concat;
-import com.google.common.collect.Lists;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -34,12 +33,15 @@ import java.awt.GridLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
@@ -51,7 +53,9 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JRadioButton;
+import javax.swing.JScrollBar;
 import javax.swing.JToggleButton;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.basic.BasicButtonUI;
 import javax.swing.plaf.basic.BasicToggleButtonUI;
@@ -68,7 +72,10 @@ import net.runelite.http.api.loottracker.LootRecordType;
 
 class LootTrackerPanel extends PluginPanel
 {
-	private static final int MAX_LOOT_BOXES = 500;
+	// Number of boxes to build at a time, boxes are only built as they are scrolled into view
+	private static final int RENDER_ROWS = 25;
+	// Distance from the end of the built boxes at which more are built
+	private static final int RENDER_AHEAD = 300;
 
 	private static final ImageIcon SINGLE_LOOT_VIEW;
 	private static final ImageIcon SINGLE_LOOT_VIEW_FADED;
@@ -119,7 +126,24 @@ class LootTrackerPanel extends PluginPanel
 	private final List<LootTrackerRecord> aggregateRecords = new ArrayList<>();
 	// Individual records for the individual kills this session
 	private final List<LootTrackerRecord> sessionRecords = new ArrayList<>();
-	private final List<LootTrackerBox> boxes = new ArrayList<>();
+
+	// Running totals per loot source, with the most recently looted source last
+	private final Map<String, LootTrackerAggregate> sources = new LinkedHashMap<>();
+	// Running totals per kill this session, in the same order as sessionRecords
+	private final List<LootTrackerAggregate> sessionKills = new ArrayList<>();
+	// Running totals of all loot, and of loot from events which aren't ignored
+	private LootTrackerAggregate groupedTotal = new LootTrackerAggregate(null, null, null);
+	private LootTrackerAggregate groupedShownTotal = new LootTrackerAggregate(null, null, null);
+	private LootTrackerAggregate sessionTotal = new LootTrackerAggregate(null, null, null);
+	private LootTrackerAggregate sessionShownTotal = new LootTrackerAggregate(null, null, null);
+	// Most recently looked up item prices
+	private Map<Integer, Integer> prices = Collections.emptyMap();
+	private int pricesVersion;
+
+	// Rows of the current view, most recent first. Only the first renderedRows rows have had a box built.
+	private final List<LootTrackerAggregate> rows = new ArrayList<>();
+	private final Map<LootTrackerAggregate, LootTrackerBox> boxes = new HashMap<>();
+	private int renderedRows;
 
 	private final ItemManager itemManager;
 	private final LootTrackerPlugin plugin;
@@ -167,6 +191,7 @@ class LootTrackerPanel extends PluginPanel
 		this.plugin = plugin;
 		this.config = config;
 		this.hideIgnoredItems = true;
+		this.pricesVersion = itemManager.getPricesVersion();
 
 		setBorder(new EmptyBorder(6, 6, 6, 6));
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -189,6 +214,14 @@ class LootTrackerPanel extends PluginPanel
 		// Add error pane
 		errorPanel.setContent("Loot tracker", "You have not received any loot yet.");
 		add(errorPanel);
+
+		getScrollPane().getVerticalScrollBar().addAdjustmentListener(e -> renderVisibleRows());
+	}
+
+	@Override
+	public void onActivate()
+	{
+		checkPrices();
 	}
 
 	/**
@@ -320,10 +353,8 @@ class LootTrackerPanel extends PluginPanel
 			// If not in detailed view, remove all, otherwise only remove for the currently detailed title
 			sessionRecords.removeIf(r -> r.matches(currentView, currentType));
 			aggregateRecords.removeIf(r -> r.matches(currentView, currentType));
-			boxes.removeIf(b -> b.matches(currentView, currentType));
-			updateOverall();
-			logsContainer.removeAll();
-			logsContainer.revalidate();
+			recomputeTotals();
+			rebuild();
 
 			// Delete all loot, or loot matching the current view
 			if (currentView != null)
@@ -353,9 +384,14 @@ class LootTrackerPanel extends PluginPanel
 
 	private boolean isAllCollapsed()
 	{
-		return boxes.stream()
-			.filter(LootTrackerBox::isCollapsed)
-			.count() == boxes.size();
+		for (LootTrackerAggregate row : rows)
+		{
+			if (!row.isCollapsed())
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 
 	void loadHeaderIcon(BufferedImage img)
@@ -382,17 +418,38 @@ class LootTrackerPanel extends PluginPanel
 		final LootTrackerRecord record = new LootTrackerRecord(eventName, subTitle, type, items, kills);
 		sessionRecords.add(record);
 
-		if (hideIgnoredItems && plugin.isEventIgnored(eventName))
-		{
-			return;
-		}
+		final LootTrackerAggregate source = addToTotals(record, true);
+		final LootTrackerAggregate kill = LootTrackerAggregate.of(record);
+		sessionKills.add(kill);
 
-		LootTrackerBox box = buildBox(record);
-		if (box != null)
+		final LootTrackerAggregate row = groupLoot ? source : kill;
+		if (isShown(row))
 		{
+			// Move the row to the top
+			final int idx = groupLoot ? rows.indexOf(row) : -1;
+			if (idx >= 0)
+			{
+				rows.remove(idx);
+			}
+			rows.add(0, row);
+
+			LootTrackerBox box = boxes.get(row);
+			if (box != null)
+			{
+				// float the matched box to the top of the UI list
+				logsContainer.setComponentZOrder(box, 0);
+				box.addKill(row.priced(record));
+			}
+			else
+			{
+				box = buildBox(row);
+				logsContainer.add(box, 0);
+				++renderedRows;
+			}
 			box.rebuild();
-			updateOverall();
 		}
+
+		updateOverall();
 	}
 
 	/**
@@ -402,6 +459,7 @@ class LootTrackerPanel extends PluginPanel
 	{
 		aggregateRecords.clear();
 		sessionRecords.clear();
+		resetTotals();
 	}
 
 	/**
@@ -410,9 +468,128 @@ class LootTrackerPanel extends PluginPanel
 	void addRecords(Collection<LootTrackerRecord> recs)
 	{
 		aggregateRecords.addAll(recs);
+		for (LootTrackerRecord record : recs)
+		{
+			addToTotals(record, false);
+		}
+		applyPrices();
 		rebuild();
 	}
 
+	private static String sourceKey(LootRecordType type, String title)
+	{
+		return type + "_" + title;
+	}
+
+	private void resetTotals()
+	{
+		sources.clear();
+		sessionKills.clear();
+		groupedTotal = new LootTrackerAggregate(null, null, null);
+		groupedShownTotal = new LootTrackerAggregate(null, null, null);
+		sessionTotal = new LootTrackerAggregate(null, null, null);
+		sessionShownTotal = new LootTrackerAggregate(null, null, null);
+	}
+
+	/**
+	 * Adds a record to the running totals
+	 *
+	 * @return the totals for the record's source
+	 */
+	private LootTrackerAggregate addToTotals(LootTrackerRecord record, boolean session)
+	{
+		// Reinsert the source to keep the most recently looted source last
+		final String key = sourceKey(record.getType(), record.getTitle());
+		LootTrackerAggregate source = sources.remove(key);
+		if (source == null)
+		{
+			source = new LootTrackerAggregate(record.getTitle(), record.getSubTitle(), record.getType());
+		}
+		sources.put(key, source);
+		source.add(record);
+
+		final boolean shown = !plugin.isEventIgnored(record.getTitle());
+		groupedTotal.add(record);
+		if (shown)
+		{
+			groupedShownTotal.add(record);
+		}
+
+		if (session)
+		{
+			sessionTotal.add(record);
+			if (shown)
+			{
+				sessionShownTotal.add(record);
+			}
+		}
+		return source;
+	}
+
+	/**
+	 * Recomputes all running totals from the records, after records have been removed
+	 * or events or items have been ignored
+	 */
+	private void recomputeTotals()
+	{
+		resetTotals();
+		for (LootTrackerRecord record : aggregateRecords)
+		{
+			addToTotals(record, false);
+		}
+		for (LootTrackerRecord record : sessionRecords)
+		{
+			addToTotals(record, true);
+			sessionKills.add(LootTrackerAggregate.of(record));
+		}
+		applyPrices();
+	}
+
+	private void applyPrices()
+	{
+		if (prices.isEmpty())
+		{
+			return;
+		}
+
+		sources.values().forEach(a -> a.reprice(prices));
+		sessionKills.forEach(a -> a.reprice(prices));
+		groupedTotal.reprice(prices);
+		groupedShownTotal.reprice(prices);
+		sessionTotal.reprice(prices);
+		sessionShownTotal.reprice(prices);
+	}
+
+	/**
+	 * Reprices the loot if item prices have been reloaded since the loot was priced. The prices are looked up
+	 * on the client thread, and the panel is rebuilt once they are available.
+	 */
+	private void checkPrices()
+	{
+		final int version = itemManager.getPricesVersion();
+		if (version == pricesVersion)
+		{
+			return;
+		}
+
+		pricesVersion = version;
+
+		// every item is in the grouped total
+		final Set<Integer> itemIds = new HashSet<>();
+		groupedTotal.getItemIds().forEach(itemIds::add);
+		if (itemIds.isEmpty())
+		{
+			return;
+		}
+
+		plugin.lookupPrices(itemIds, p ->
+		{
+			prices = p;
+			applyPrices();
+			rebuild();
+		});
+	}
+
 	/**
 	 * Changes grouping mode of panel
 	 *
@@ -442,17 +619,22 @@ class LootTrackerPanel extends PluginPanel
 	 */
 	private void changeCollapse()
 	{
-		boolean isAllCollapsed = isAllCollapsed();
+		final boolean collapse = !isAllCollapsed();
 
-		for (LootTrackerBox box : boxes)
+		for (LootTrackerAggregate row : rows)
 		{
-			if (isAllCollapsed)
+			row.setCollapsed(collapse);
+		}
+
+		for (LootTrackerBox box : boxes.values())
+		{
+			if (collapse)
 			{
-				box.expand();
+				box.collapse();
 			}
-			else if (!box.isCollapsed())
+			else
 			{
-				box.collapse();
+				box.expand();
 			}
 		}
 
@@ -473,6 +655,7 @@ class LootTrackerPanel extends PluginPanel
 			}
 		}
 
+		recomputeTotals();
 		rebuild();
 	}
 
@@ -485,80 +668,117 @@ class LootTrackerPanel extends PluginPanel
 	}
 
 	/**
-	 * Rebuilds all the boxes from scratch using existing listed records, depending on the grouping mode.
+	 * Rebuilds the rows of the current view, and the boxes of the first rows. Boxes of later rows are built
+	 * when they are scrolled into view.
 	 */
 	private void rebuild()
 	{
 		SwingUtil.fastRemoveAll(logsContainer);
 		boxes.clear();
+		rows.clear();
+		renderedRows = 0;
 
 		if (groupLoot)
 		{
-			aggregateRecords.forEach(this::buildBox);
-			sessionRecords.forEach(this::buildBox);
+			final List<LootTrackerAggregate> grouped = new ArrayList<>(sources.values());
+			for (int i = grouped.size() - 1; i >= 0; --i)
+			{
+				addRow(grouped.get(i));
+			}
 		}
 		else
 		{
-			// Loop in reverse insertion order so limiting includes most recent data
-			Lists.reverse(sessionRecords).stream()
-				// filter records prior to limiting so that it is limited to the correct amount
-				.filter(r -> !hideIgnoredItems || !plugin.isEventIgnored(r.getTitle()))
-				.limit(MAX_LOOT_BOXES)
-				// The box that is built last is first inside the UI.
-				// since we are looping in reverse order we need to use a data type that support reverse iterating
-				.collect(Collectors.toCollection(ArrayDeque::new))
-				.descendingIterator()
-				.forEachRemaining(this::buildBox);
+			for (int i = sessionKills.size() - 1; i >= 0; --i)
+			{
+				addRow(sessionKills.get(i));
+			}
 		}
 
-		boxes.forEach(LootTrackerBox::rebuild);
+		renderRows(RENDER_ROWS);
 		updateOverall();
 		logsContainer.revalidate();
+
+		// Fill the view if the built boxes don't
+		SwingUtilities.invokeLater(this::renderVisibleRows);
+	}
+
+	private void addRow(LootTrackerAggregate row)
+	{
+		if (isShown(row))
+		{
+			rows.add(row);
+		}
+	}
+
+	private boolean isShown(LootTrackerAggregate row)
+	{
+		if (!row.matches(currentView, currentType))
+		{
+			return false;
+		}
+
+		if (hideIgnoredItems && plugin.isEventIgnored(row.getTitle()))
+		{
+			return false;
+		}
+
+		// Boxes without any items are hidden
+		return row.hasItems(hideIgnoredItems);
 	}
 
 	/**
-	 * This method decides what to do with a new record, if a similar log exists, it will
-	 * add its items to it, updating the log's overall price and kills. If not, a new log will be created
-	 * to hold this entry's information.
+	 * Builds the boxes for up to count more rows
 	 */
-	private LootTrackerBox buildBox(LootTrackerRecord record)
+	private void renderRows(int count)
 	{
-		// If this record is not part of current view, return
-		if (!record.matches(currentView, currentType))
+		final int end = Math.min(rows.size(), renderedRows + count);
+		for (; renderedRows < end; ++renderedRows)
 		{
-			return null;
+			final LootTrackerBox box = buildBox(rows.get(renderedRows));
+			box.rebuild();
+			logsContainer.add(box);
 		}
+	}
 
-		final boolean isIgnored = plugin.isEventIgnored(record.getTitle());
-		if (hideIgnoredItems && isIgnored)
+	/**
+	 * Builds more boxes when the view is scrolled near the last built box
+	 */
+	private void renderVisibleRows()
+	{
+		if (renderedRows >= rows.size())
 		{
-			return null;
+			return;
 		}
 
-		// Group all similar loot together
-		if (groupLoot)
+		final JScrollBar scrollBar = getScrollPane().getVerticalScrollBar();
+		if (scrollBar.getValue() + scrollBar.getVisibleAmount() < scrollBar.getMaximum() - RENDER_AHEAD)
 		{
-			for (LootTrackerBox box : boxes)
-			{
-				if (box.matches(record))
-				{
-					// float the matched box to the top of the UI list if it's not already first
-					logsContainer.setComponentZOrder(box, 0);
-					box.addKill(record);
-					return box;
-				}
-			}
+			return;
 		}
 
+		renderRows(RENDER_ROWS);
+		logsContainer.revalidate();
+	}
+
+	/**
+	 * Builds the box for a row. The box is not added to the panel.
+	 */
+	private LootTrackerBox buildBox(LootTrackerAggregate row)
+	{
 		// Show main view
 		remove(errorPanel);
 		actionsPanel.setVisible(true);
 		overallPanel.setVisible(true);
 
 		// Create box
-		final LootTrackerBox box = new LootTrackerBox(itemManager, record.getTitle(), record.getType(), record.getSubTitle(),
+		final boolean isIgnored = plugin.isEventIgnored(row.getTitle());
+		final LootTrackerBox box = new LootTrackerBox(itemManager, row.getTitle(), row.getType(), row.getSubTitle(),
 			hideIgnoredItems, config.priceType(), config.showPriceType(), plugin::toggleItem, plugin::toggleEvent, isIgnored);
-		box.addKill(record);
+		box.addKill(row.toRecord());
+		if (row.isCollapsed())
+		{
+			box.collapse();
+		}
 
 		// Use the existing popup menu or create a new one
 		JPopupMenu popupMenu = box.getComponentPopupMenu();
@@ -585,17 +805,19 @@ class LootTrackerPanel extends PluginPanel
 					{
 						box.collapse();
 					}
+					row.setCollapsed(box.isCollapsed());
 					updateCollapseText();
 				}
 			}
 		});
 
 		// Create reset menu
+		final boolean grouped = groupLoot;
 		final JMenuItem reset = new JMenuItem("Reset");
 		reset.addActionListener(e ->
 		{
 			final int result = JOptionPane.showOptionDialog(box,
-				groupLoot ? String.format(RESET_CURRENT_WARNING_TEXT, box.getId()) : RESET_ONE_WARNING_TEXT,
+				grouped ? String.format(RESET_CURRENT_WARNING_TEXT, box.getId()) : RESET_ONE_WARNING_TEXT,
 				"Are you sure?", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE,
 				null, new String[]{"Yes", "No"}, "No");
 
@@ -604,20 +826,27 @@ class LootTrackerPanel extends PluginPanel
 				return;
 			}
 
-			Predicate<LootTrackerRecord> match = groupLoot
+			if (grouped)
+			{
 				// With grouped loot, remove any record with this title
-				? r -> r.matches(record.getTitle(), record.getType())
+				sessionRecords.removeIf(r -> r.matches(row.getTitle(), row.getType()));
+				aggregateRecords.removeIf(r -> r.matches(row.getTitle(), row.getType()));
+			}
+			else
+			{
 				// Otherwise remove specifically this entry
-				: r -> r.equals(record);
-			sessionRecords.removeIf(match);
-			aggregateRecords.removeIf(match);
-			boxes.remove(box);
-			updateOverall();
-			logsContainer.remove(box);
-			logsContainer.revalidate();
+				final int idx = sessionKills.indexOf(row);
+				if (idx >= 0)
+				{
+					sessionRecords.remove(idx);
+				}
+			}
+
+			recomputeTotals();
+			rebuild();
 
 			// Without loot being grouped we have no way to identify single kills to be deleted
-			if (groupLoot)
+			if (grouped)
 			{
 				plugin.removeLootConfig(box.getLootRecordType(), box.getId());
 			}
@@ -629,8 +858,8 @@ class LootTrackerPanel extends PluginPanel
 		final JMenuItem details = new JMenuItem("View details");
 		details.addActionListener(e ->
 		{
-			currentView = record.getTitle();
-			currentType = record.getType();
+			currentView = row.getTitle();
+			currentType = row.getType();
 			detailsTitle.setText(currentView);
 			backBtn.setVisible(true);
 			rebuild();
@@ -638,59 +867,35 @@ class LootTrackerPanel extends PluginPanel
 
 		popupMenu.add(details);
 
-		// Add box to panel
-		boxes.add(box);
-		logsContainer.add(box, 0);
-
-		if (!groupLoot && boxes.size() > MAX_LOOT_BOXES)
-		{
-			logsContainer.remove(boxes.remove(0));
-		}
-
+		boxes.put(row, box);
 		return box;
 	}
 
 	private void updateOverall()
 	{
+		checkPrices();
+
 		long overallKills = 0;
 		long overallGe = 0;
 		long overallHa = 0;
 
-		Iterable<LootTrackerRecord> records = sessionRecords;
-		if (groupLoot)
+		if (currentView == null)
 		{
-			records = concat(aggregateRecords, sessionRecords);
+			final LootTrackerAggregate total = groupLoot
+				? (hideIgnoredItems ? groupedShownTotal : groupedTotal)
+				: (hideIgnoredItems ? sessionShownTotal : sessionTotal);
+			overallKills = total.getKills(hideIgnoredItems);
+			overallGe = total.getGePrice(hideIgnoredItems);
+			overallHa = total.getHaPrice(hideIgnoredItems);
 		}
-
-		for (LootTrackerRecord record : records)
+		else
 		{
-			if (!record.matches(currentView, currentType))
-			{
-				continue;
-			}
-
-			if (hideIgnoredItems && plugin.isEventIgnored(record.getTitle()))
-			{
-				continue;
-			}
-
-			int present = record.getItems().length;
-
-			for (LootTrackerItem item : record.getItems())
-			{
-				if (hideIgnoredItems && item.isIgnored())
-				{
-					present--;
-					continue;
-				}
-
-				overallGe += item.getTotalGePrice();
-				overallHa += item.getTotalHaPrice();
-			}
-
-			if (present > 0)
+			// The details view is of a single source, so has either its totals or its kills this session
+			for (LootTrackerAggregate row : rows)
 			{
-				overallKills += record.getKills();
+				overallKills += row.getKills(hideIgnoredItems);
+				overallGe += row.getGePrice(hideIgnoredItems);
+				overallHa += row.getHaPrice(hideIgnoredItems);
 			}
 		}
 
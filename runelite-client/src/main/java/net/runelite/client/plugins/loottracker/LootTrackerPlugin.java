@@ -26,7 +26,6 @@
 package net.runelite.client.plugins.loottracker;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Strings;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -38,13 +37,14 @@ import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.google.inject.Provides;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -54,6 +54,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -95,6 +96,7 @@ import net.runelite.api.events.NpcDespawned;
 import net.runelite.api.events.PostClientTick;
 import net.runelite.api.events.WidgetLoaded;
 import net.runelite.api.widgets.InterfaceID;
+import net.runelite.client.RuneLite;
 import net.runelite.client.account.AccountSession;
 import net.runelite.client.account.SessionManager;
 import net.runelite.client.callback.ClientThread;
@@ -139,6 +141,8 @@ public class LootTrackerPlugin extends Plugin
 {
 	private static final int MAX_DROPS = 1024;
 	private static final Duration MAX_AGE = Duration.ofDays(365L);
+	private static final int LOAD_PAGE_SIZE = 128;
+	private static final File LOOT_DIR = new File(RuneLite.RUNELITE_DIR, "loots");
 	private static final int INVCHANGE_TIMEOUT = 10; // server ticks
 
 	// Activity/Event loot handling
@@ -393,6 +397,7 @@ public class LootTrackerPlugin extends Plugin
 
 	private final List<LootRecord> queuedLoots = new ArrayList<>();
 	private String profileKey;
+	private volatile LootStore lootStore;
 
 	private static Collection<ItemStack> stack(Collection<ItemStack> items)
 	{
@@ -486,52 +491,34 @@ public class LootTrackerPlugin extends Plugin
 
 			log.debug("Switched to profile {}", profileKey);
 
-			if (!config.syncPanel())
+			LootStore store = openStore(profileKey);
+			if (store == null || !config.syncPanel())
 			{
 				return;
 			}
 
+			// pages are newest first, load until the drop limit is reached
 			int drops = 0;
 			List<ConfigLoot> loots = new ArrayList<>();
-			Instant old = Instant.now().minus(MAX_AGE);
-			for (String key : configManager.getRSProfileConfigurationKeys(LootTrackerConfig.GROUP, profileKey, "drops_"))
+			for (int offset = 0; drops < MAX_DROPS; offset += LOAD_PAGE_SIZE)
 			{
-				String json = configManager.getConfiguration(LootTrackerConfig.GROUP, profileKey, key);
-				ConfigLoot configLoot;
-
-				try
-				{
-					configLoot = gson.fromJson(json, ConfigLoot.class);
-				}
-				catch (JsonSyntaxException ex)
-				{
-					log.warn("Removing loot with malformed json: {}", json, ex);
-					configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, key);
-					continue;
-				}
-
-				if (configLoot.last.isBefore(old))
-				{
-					log.debug("Removing old loot for {} {}", configLoot.type, configLoot.name);
-					configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, key);
-					continue;
-				}
-
-				if (drops >= MAX_DROPS && !loots.isEmpty() && loots.get(0).last.isAfter(configLoot.last))
+				List<ConfigLoot> page = store.page(offset, LOAD_PAGE_SIZE);
+				if (page.isEmpty())
 				{
-					// fast drop
-					continue;
+					break;
 				}
 
-				sortedInsert(loots, configLoot, Comparator.comparing(ConfigLoot::getLast));
-				drops += configLoot.numDrops();
-
-				if (drops >= MAX_DROPS)
+				for (ConfigLoot loot : page)
 				{
-					ConfigLoot top = loots.remove(0);
-					drops -= top.numDrops();
+					drops += loot.numDrops();
+					if (drops >= MAX_DROPS)
+					{
+						break;
+					}
+					loots.add(loot);
 				}
 			}
+			Collections.reverse(loots);
 
 			log.debug("Loaded {} records", loots.size());
 
@@ -559,10 +546,120 @@ public class LootTrackerPlugin extends Plugin
 		});
 	}
 
-	private static <T> void sortedInsert(List<T> list, T value, Comparator<? super T> c)
+	private LootStore openStore(String profileKey)
 	{
-		int idx = Collections.binarySearch(list, value, c);
-		list.add(idx < 0 ? -idx - 1 : idx, value);
+		closeStore();
+
+		LootStore store;
+		try
+		{
+			store = LootStore.open(LOOT_DIR, profileKey);
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to open loot store for profile {}", profileKey, ex);
+			return null;
+		}
+
+		lootStore = store;
+
+		try
+		{
+			syncConfigLoot(store, profileKey);
+			store.removeBefore(Instant.now().minus(MAX_AGE));
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to update loot store for profile {}", profileKey, ex);
+		}
+		return store;
+	}
+
+	private void closeStore()
+	{
+		LootStore store = lootStore;
+		lootStore = null;
+		if (store == null)
+		{
+			return;
+		}
+
+		try
+		{
+			store.close();
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to close loot store", ex);
+		}
+	}
+
+	/**
+	 * Copy loot from the profile config into the loot store. The config is synced with the account,
+	 * so it also carries loot recorded on other machines, and is kept up to date by {@link #saveLoot(List)}.
+	 * Config loot replaces the store's when it is newer.
+	 */
+	private void syncConfigLoot(LootStore store, String profileKey) throws IOException
+	{
+		List<String> keys = configManager.getRSProfileConfigurationKeys(LootTrackerConfig.GROUP, profileKey, "drops_");
+		if (keys.isEmpty())
+		{
+			return;
+		}
+
+		List<ConfigLoot> loots = new ArrayList<>();
+		Instant old = Instant.now().minus(MAX_AGE);
+		for (String key : keys)
+		{
+			String json = configManager.getConfiguration(LootTrackerConfig.GROUP, profileKey, key);
+			ConfigLoot configLoot;
+
+			try
+			{
+				configLoot = gson.fromJson(json, ConfigLoot.class);
+			}
+			catch (JsonSyntaxException ex)
+			{
+				log.warn("Removing loot with malformed json: {}", json, ex);
+				configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, key);
+				continue;
+			}
+
+			if (configLoot == null || configLoot.type == null || configLoot.name == null || configLoot.last == null)
+			{
+				continue;
+			}
+
+			if (configLoot.last.isBefore(old))
+			{
+				log.debug("Removing old loot for {} {}", configLoot.type, configLoot.name);
+				configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, key);
+				continue;
+			}
+
+			ConfigLoot stored = store.get(configLoot.type, configLoot.name);
+			if (stored != null && !configLoot.last.isAfter(stored.last))
+			{
+				continue;
+			}
+
+			if (configLoot.first == null)
+			{
+				configLoot.first = configLoot.last;
+			}
+			if (configLoot.drops == null)
+			{
+				configLoot.drops = new int[0];
+			}
+			loots.add(configLoot);
+		}
+
+		if (!loots.isEmpty())
+		{
+			store.putAll(loots);
+		}
+
+		log.debug("Synced {} loot records from config", loots.size());
 	}
 
 	@Subscribe
@@ -620,6 +717,7 @@ public class LootTrackerPlugin extends Plugin
 	protected void shutDown()
 	{
 		submitLoot();
+		executor.execute(this::closeStore);
 		clientToolbar.removeNavigation(navButton);
 		lootTrackerClient.setUuid(null);
 		chestLooted = false;
@@ -629,6 +727,7 @@ public class LootTrackerPlugin extends Plugin
 	public void onClientShutdown(ClientShutdown event)
 	{
 		Future<Void> future = submitLoot();
+		closeStore();
 		if (future != null)
 		{
 			event.waitFor(future);
@@ -1399,25 +1498,32 @@ public class LootTrackerPlugin extends Plugin
 
 	private void saveLoot(List<LootRecord> records)
 	{
-		Instant now = Instant.now();
-		Collection<ConfigLoot> combinedRecords = combine(records);
-		for (ConfigLoot record : combinedRecords)
+		LootStore store = lootStore;
+		if (store == null)
 		{
-			ConfigLoot lootConfig = getLootConfig(record.type, record.name);
-			if (lootConfig == null)
-			{
-				lootConfig = record;
-			}
-			else
+			log.debug("Trying to save loot with no profile!");
+			return;
+		}
+
+		Collection<ConfigLoot> loots = combine(records);
+		try
+		{
+			store.append(loots, Instant.now());
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to save loot", ex);
+			return;
+		}
+
+		// the config copy syncs the loot to the account's other machines
+		for (ConfigLoot loot : loots)
+		{
+			ConfigLoot aggregate = store.get(loot.type, loot.name);
+			if (aggregate != null)
 			{
-				lootConfig.kills += record.kills;
-				for (int i = 0; i < record.drops.length; i += 2)
-				{
-					lootConfig.add(record.drops[i], record.drops[i + 1]);
-				}
+				configManager.setConfiguration(LootTrackerConfig.GROUP, profileKey, "drops_" + loot.type + "_" + loot.name, gson.toJson(aggregate));
 			}
-			lootConfig.last = now;
-			setLootConfig(lootConfig.type, lootConfig.name, lootConfig);
 		}
 	}
 
@@ -1573,6 +1679,22 @@ public class LootTrackerPlugin extends Plugin
 		return ignoredEvents.contains(name);
 	}
 
+	/**
+	 * Look up the current GE prices of items, and pass them to the callback on the Swing thread
+	 */
+	void lookupPrices(Collection<Integer> itemIds, Consumer<Map<Integer, Integer>> callback)
+	{
+		clientThread.invokeLater(() ->
+		{
+			final Map<Integer, Integer> prices = new HashMap<>(itemIds.size());
+			for (int itemId : itemIds)
+			{
+				prices.put(itemId, itemManager.getItemPrice(itemId));
+			}
+			SwingUtilities.invokeLater(() -> callback.accept(prices));
+		});
+	}
+
 	private LootTrackerItem buildLootTrackerItem(int itemId, int quantity)
 	{
 		final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
@@ -1657,61 +1779,46 @@ public class LootTrackerPlugin extends Plugin
 				.build());
 	}
 
-	ConfigLoot getLootConfig(LootRecordType type, String name)
+	void removeLootConfig(LootRecordType type, String name)
 	{
-		String profile = profileKey;
-		if (Strings.isNullOrEmpty(profile))
+		LootStore store = lootStore;
+		if (store == null)
 		{
-			log.debug("Trying to get loot with no profile!");
-			return null;
-		}
-
-		String json = configManager.getConfiguration(LootTrackerConfig.GROUP, profile, "drops_" + type + "_" + name);
-		if (json == null)
-		{
-			return null;
+			log.debug("Trying to remove loot with no profile!");
+			return;
 		}
 
-		return gson.fromJson(json, ConfigLoot.class);
-	}
-
-	void setLootConfig(LootRecordType type, String name, ConfigLoot loot)
-	{
-		String profile = profileKey;
-		if (Strings.isNullOrEmpty(profile))
+		try
 		{
-			log.debug("Trying to set loot with no profile!");
-			return;
+			store.remove(type, name);
 		}
-
-		String json = gson.toJson(loot);
-		configManager.setConfiguration(LootTrackerConfig.GROUP, profile, "drops_" + type + "_" + name, json);
-	}
-
-	void removeLootConfig(LootRecordType type, String name)
-	{
-		String profile = profileKey;
-		if (Strings.isNullOrEmpty(profile))
+		catch (IOException ex)
 		{
-			log.debug("Trying to remove loot with no profile!");
-			return;
+			log.warn("Unable to remove loot", ex);
 		}
-
-		configManager.unsetConfiguration(LootTrackerConfig.GROUP, profile, "drops_" + type + "_" + name);
+		configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, "drops_" + type + "_" + name);
 	}
 
 	void removeAllLoot()
 	{
-		String profile = profileKey;
-		if (Strings.isNullOrEmpty(profile))
+		LootStore store = lootStore;
+		if (store == null)
 		{
 			log.debug("Trying to clear loot with no profile!");
 			return;
 		}
 
-		for (String key : configManager.getRSProfileConfigurationKeys(LootTrackerConfig.GROUP, profile, "drops_"))
+		try
+		{
+			store.clear();
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to clear loot", ex);
+		}
+		for (String key : configManager.getRSProfileConfigurationKeys(LootTrackerConfig.GROUP, profileKey, "drops_"))
 		{
-			configManager.unsetConfiguration(LootTrackerConfig.GROUP, profile, key);
+			configManager.unsetConfiguration(LootTrackerConfig.GROUP, profileKey, key);
 		}
 	}
 }
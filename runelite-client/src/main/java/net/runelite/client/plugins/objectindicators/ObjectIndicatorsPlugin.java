@@ -33,10 +33,10 @@ import com.google.inject.Provides;
 import java.applet.Applet;
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -49,6 +49,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import static net.runelite.api.Constants.CHUNK_SIZE;
 import net.runelite.api.DecorativeObject;
 import net.runelite.api.GameObject;
 import net.runelite.api.GameState;
@@ -58,10 +59,12 @@ import net.runelite.api.Menu;
 import net.runelite.api.MenuAction;
 import net.runelite.api.MenuEntry;
 import net.runelite.api.ObjectComposition;
+import net.runelite.api.Perspective;
 import net.runelite.api.Scene;
 import net.runelite.api.Tile;
 import net.runelite.api.TileObject;
 import net.runelite.api.WallObject;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.DecorativeObjectDespawned;
 import net.runelite.api.events.DecorativeObjectSpawned;
@@ -76,6 +79,7 @@ import net.runelite.api.events.WallObjectSpawned;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.events.ProfileChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -87,6 +91,7 @@ import net.runelite.client.ui.components.colorpicker.ColorPickerManager;
 import net.runelite.client.ui.components.colorpicker.RuneliteColorPicker;
 import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.ColorUtil;
+import net.runelite.client.util.MarkerIndex;
 
 @PluginDescriptor(
 	name = "Object Markers",
@@ -100,10 +105,12 @@ public class ObjectIndicatorsPlugin extends Plugin
 	private static final String CONFIG_GROUP = "objectindicators";
 	private static final String MARK = "Mark object";
 	private static final String UNMARK = "Unmark object";
+	private static final String REGION_PREFIX = "region_";
 
 	@Getter(AccessLevel.PACKAGE)
 	private final List<ColorTileObject> objects = new ArrayList<>();
-	private final Map<Integer, Set<ObjectPoint>> points = new HashMap<>();
+	private final MarkerIndex<ObjectPoint> points = new MarkerIndex<>(p ->
+		MarkerIndex.packRegion(p.getRegionId(), p.getRegionX(), p.getRegionY(), p.getZ(), p.getId()));
 
 	@Inject
 	private Client client;
@@ -153,7 +160,36 @@ public class ObjectIndicatorsPlugin extends Plugin
 	@Subscribe
 	public void onProfileChanged(ProfileChanged e)
 	{
-		clientThread.invokeLater(this::reloadPoints);
+		clientThread.invokeLater(() ->
+		{
+			points.clear();
+			reloadPoints();
+		});
+	}
+
+	@Subscribe
+	public void onConfigChanged(ConfigChanged event)
+	{
+		if (!CONFIG_GROUP.equals(event.getGroup()) || !event.getKey().startsWith(REGION_PREFIX))
+		{
+			return;
+		}
+
+		// pick up changes made outside of the plugin, such as from config sync
+		final int regionId;
+		try
+		{
+			regionId = Integer.parseInt(event.getKey().substring(REGION_PREFIX.length()));
+		}
+		catch (NumberFormatException ex)
+		{
+			return;
+		}
+
+		if (points.isLoaded(regionId))
+		{
+			points.putRegion(regionId, loadPoints(regionId));
+		}
 	}
 
 	@Subscribe
@@ -206,16 +242,14 @@ public class ObjectIndicatorsPlugin extends Plugin
 
 	private void reloadPoints()
 	{
-		points.clear();
 		if (client.getMapRegions() != null)
 		{
 			for (int regionId : client.getMapRegions())
 			{
-				// load points for region
-				final Set<ObjectPoint> regionPoints = loadPoints(regionId);
-				if (regionPoints != null)
+				// regions are kept once loaded, and are updated when marked or when their config changes
+				if (!points.isLoaded(regionId))
 				{
-					points.put(regionId, regionPoints);
+					points.putRegion(regionId, loadPoints(regionId));
 				}
 			}
 		}
@@ -428,7 +462,7 @@ public class ObjectIndicatorsPlugin extends Plugin
 	{
 		final WorldPoint worldPoint = WorldPoint.fromLocalInstance(client, object.getLocalLocation());
 		final int regionId = worldPoint.getRegionID();
-		Set<ObjectPoint> objectPoints = points.get(regionId);
+		final List<ObjectPoint> objectPoints = points.getRegion(regionId);
 		if (objectPoints.isEmpty())
 		{
 			return;
@@ -460,10 +494,8 @@ public class ObjectIndicatorsPlugin extends Plugin
 			return;
 		}
 
-		final WorldPoint worldPoint = WorldPoint.fromLocalInstance(client, object.getLocalLocation(), object.getPlane());
-		final Set<ObjectPoint> objectPoints = points.get(worldPoint.getRegionID());
-
-		if (objectPoints == null)
+		final ObjectPoint objectPoint = points.get(objectKey(object));
+		if (objectPoint == null)
 		{
 			return;
 		}
@@ -480,27 +512,57 @@ public class ObjectIndicatorsPlugin extends Plugin
 			}
 		}
 
-		for (ObjectPoint objectPoint : objectPoints)
+		log.debug("Marking object {} due to matching {}", object, objectPoint);
+		var flags =
+			(objectPoint.getHull() == Boolean.TRUE ? HF_HULL : 0) |
+			(objectPoint.getOutline() == Boolean.TRUE ? HF_OUTLINE : 0) |
+			(objectPoint.getClickbox() == Boolean.TRUE ? HF_CLICKBOX : 0) |
+			(objectPoint.getTile() == Boolean.TRUE ? HF_TILE : 0);
+		objects.add(new ColorTileObject(object,
+			objectComposition,
+			objectPoint.getName(),
+			objectPoint.getBorderColor(),
+			objectPoint.getFillColor(),
+			(byte) flags));
+	}
+
+	/**
+	 * Compute the marker index key of an object. This is the same as packing the object's
+	 * instance world point and id, but does not allocate since it is called for every object
+	 * spawned on scene load.
+	 */
+	private long objectKey(TileObject object)
+	{
+		final WorldView wv = object.getWorldView();
+		final int sceneX = object.getX() >> Perspective.LOCAL_COORD_BITS;
+		final int sceneY = object.getY() >> Perspective.LOCAL_COORD_BITS;
+		final int plane = object.getPlane();
+
+		if (!wv.isInstance())
 		{
-			if (worldPoint.getRegionX() == objectPoint.getRegionX()
-					&& worldPoint.getRegionY() == objectPoint.getRegionY()
-					&& worldPoint.getPlane() == objectPoint.getZ()
-					&& objectPoint.getId() == object.getId())
-			{
-				log.debug("Marking object {} due to matching {}", object, objectPoint);
-				var flags =
-					(objectPoint.getHull() == Boolean.TRUE ? HF_HULL : 0) |
-					(objectPoint.getOutline() == Boolean.TRUE ? HF_OUTLINE : 0) |
-					(objectPoint.getClickbox() == Boolean.TRUE ? HF_CLICKBOX : 0) |
-					(objectPoint.getTile() == Boolean.TRUE ? HF_TILE : 0);
-				objects.add(new ColorTileObject(object,
-					objectComposition,
-					objectPoint.getName(),
-					objectPoint.getBorderColor(),
-					objectPoint.getFillColor(),
-					(byte) flags));
-				break;
-			}
+			final WorldView topLevel = client.getTopLevelWorldView();
+			return MarkerIndex.pack(sceneX + topLevel.getBaseX(), sceneY + topLevel.getBaseY(), plane, object.getId());
+		}
+
+		final int templateChunk = wv.getInstanceTemplateChunks()[plane][sceneX / CHUNK_SIZE][sceneY / CHUNK_SIZE];
+		final int rotation = templateChunk >> 1 & 0x3;
+		final int chunkY = (templateChunk >> 3 & 0x7FF) * CHUNK_SIZE;
+		final int chunkX = (templateChunk >> 14 & 0x3FF) * CHUNK_SIZE;
+		final int templatePlane = templateChunk >> 24 & 0x3;
+		final int x = sceneX & (CHUNK_SIZE - 1);
+		final int y = sceneY & (CHUNK_SIZE - 1);
+
+		// rotate back to 0 to match the template, see WorldPoint.rotate
+		switch (4 - rotation)
+		{
+			case 1:
+				return MarkerIndex.pack(chunkX + y, chunkY + (CHUNK_SIZE - 1 - x), templatePlane, object.getId());
+			case 2:
+				return MarkerIndex.pack(chunkX + (CHUNK_SIZE - 1 - x), chunkY + (CHUNK_SIZE - 1 - y), templatePlane, object.getId());
+			case 3:
+				return MarkerIndex.pack(chunkX + (CHUNK_SIZE - 1 - y), chunkY + x, templatePlane, object.getId());
+			default:
+				return MarkerIndex.pack(chunkX + x, chunkY + y, templatePlane, object.getId());
 		}
 	}
 
@@ -599,7 +661,7 @@ public class ObjectIndicatorsPlugin extends Plugin
 			// use the default config values
 			null, null, null, null);
 
-		Set<ObjectPoint> objectPoints = points.computeIfAbsent(regionId, k -> new HashSet<>());
+		final Set<ObjectPoint> objectPoints = new HashSet<>(points.getRegion(regionId));
 
 		if (objects.removeIf(o -> o.getTileObject() == object))
 		{
@@ -622,6 +684,7 @@ public class ObjectIndicatorsPlugin extends Plugin
 			log.debug("Marking object: {}", point);
 		}
 
+		points.putRegion(regionId, objectPoints);
 		savePoints(regionId, objectPoints);
 	}
 
@@ -637,26 +700,26 @@ public class ObjectIndicatorsPlugin extends Plugin
 			&& op.getZ() == worldPoint.getPlane();
 	}
 
-	private void savePoints(final int id, final Set<ObjectPoint> points)
+	private void savePoints(final int id, final Collection<ObjectPoint> points)
 	{
 		if (points.isEmpty())
 		{
-			configManager.unsetConfiguration(CONFIG_GROUP, "region_" + id);
+			configManager.unsetConfiguration(CONFIG_GROUP, REGION_PREFIX + id);
 		}
 		else
 		{
 			final String json = gson.toJson(points);
-			configManager.setConfiguration(CONFIG_GROUP, "region_" + id, json);
+			configManager.setConfiguration(CONFIG_GROUP, REGION_PREFIX + id, json);
 		}
 	}
 
 	private Set<ObjectPoint> loadPoints(final int id)
 	{
-		final String json = configManager.getConfiguration(CONFIG_GROUP, "region_" + id);
+		final String json = configManager.getConfiguration(CONFIG_GROUP, REGION_PREFIX + id);
 
 		if (Strings.isNullOrEmpty(json))
 		{
-			return null;
+			return Collections.emptySet();
 		}
 
 		Set<ObjectPoint> points = gson.fromJson(json, new TypeToken<Set<ObjectPoint>>()
@@ -682,19 +745,15 @@ public class ObjectIndicatorsPlugin extends Plugin
 		List<Color> colors = new ArrayList<>();
 		for (int region : client.getMapRegions())
 		{
-			var points = this.points.get(region);
-			if (points != null)
+			for (var p : points.getRegion(region))
 			{
-				for (var p : points)
+				Color c = getColor.apply(p);
+				if (c != null & !colors.contains(c))
 				{
-					Color c = getColor.apply(p);
-					if (c != null & !colors.contains(c))
+					colors.add(c);
+					if (colors.size() >= 5)
 					{
-						colors.add(c);
-						if (colors.size() >= 5)
-						{
-							return colors;
-						}
+						return colors;
 					}
 				}
 			}
@@ -29,7 +29,6 @@ package net.runelite.client.rs;
 import com.google.common.base.Strings;
 import java.applet.Applet;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Map;
@@ -38,6 +37,7 @@ import javax.annotation.Nonnull;
 import javax.swing.SwingUtilities;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.client.RuneLite;
 import net.runelite.client.RuneLiteProperties;
 import net.runelite.client.RuntimeConfig;
 import net.runelite.client.RuntimeConfigLoader;
@@ -46,8 +46,6 @@ import net.runelite.client.ui.SplashScreen;
 import net.runelite.http.api.worlds.World;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 @Slf4j
 @SuppressWarnings({"deprecation"})
@@ -61,6 +59,7 @@ public class ClientLoader implements Supplier<Client>
 	private static final String RSPS_WORLD_ID = "0";
 	private static final String OVERRIDE_JAV_CONFIG_URL = "https://client.blurite.io/jav_local_228.ws";
 	private static final String GITHUB_OSRS_228_GAMEPACK_URL = "https://github.com/runetech/osrs-gamepacks/raw/master/gamepacks/osrs-228.jar";
+	private static final File GAMEPACK_CACHE_DIR = new File(RuneLite.CACHE_DIR, "gamepack");
 	private static final String RSPS_RSA_MODULUS = "d48583219eb5bafdd5dbf2f3561c84b83c5966e8f6ba546adba42437acc6e42402052e704261a549a7cfad45dd77cb9eb32e830202dfd6b60b5551d8b040f0bbc4c9f564ae711d4335696f6427f60767c6dfcb586355b3a1170e4c0be30235abc5659f183d98d0171ad5f234e3429c178b0bc4ac6b4149484720abde9a39b07f";
 
 	private final ClientConfigLoader clientConfigLoader;
@@ -68,6 +67,7 @@ public class ClientLoader implements Supplier<Client>
 	private final RuntimeConfigLoader runtimeConfigLoader;
 	private final String javConfigUrl;
 	private final OkHttpClient okHttpClient;
+	private final GamepackCache gamepackCache;
 
 	private Object client;
 
@@ -81,6 +81,7 @@ public class ClientLoader implements Supplier<Client>
 		this.worldSupplier = new WorldSupplier(okHttpClient);
 		this.runtimeConfigLoader = runtimeConfigLoader;
 		this.javConfigUrl = javConfigUrl;
+		this.gamepackCache = new GamepackCache(okHttpClient, GAMEPACK_CACHE_DIR);
 	}
 
 	@Override
@@ -147,36 +148,8 @@ public class ClientLoader implements Supplier<Client>
 					log.debug("  RSPS Source Param: '{}' = '{}'", entry.getKey(), entry.getValue());
 				}
 
-				// Regardless of where applet params came from, download the specific GitHub rev 228 gamepack
-				String gamepackDownloadUrl = GITHUB_OSRS_228_GAMEPACK_URL;
-				log.info("Downloading specific rev 228 gamepack from: {}", gamepackDownloadUrl);
-
-				Request gamepackRequest = new Request.Builder().url(gamepackDownloadUrl).build();
-				byte[] originalGamepackBytes;
-				try (Response gamepackResponse = this.okHttpClient.newCall(gamepackRequest).execute()) {
-					if (!gamepackResponse.isSuccessful() || gamepackResponse.body() == null) {
-						throw new IOException("Failed to download specific gamepack from " + gamepackDownloadUrl + ": " + gamepackResponse.message());
-					}
-					originalGamepackBytes = gamepackResponse.body().bytes();
-				}
-				log.info("Downloaded specific rev 228 gamepack ({} bytes) from {}", originalGamepackBytes.length, gamepackDownloadUrl);
-
-				// Patch the downloaded gamepack
-				GnomePatcher gamepackPatcher = new GnomePatcher(RSPS_HOST, RSPS_RSA_MODULUS);
-				byte[] patchedGamepackBytes = gamepackPatcher.patchGamepack(originalGamepackBytes);
-				log.info("Patched gamepack size: {} bytes", patchedGamepackBytes.length);
-
-				// Save patched gamepack to a temporary file
-				File tempDir = new File(System.getProperty("java.io.tmpdir"), "runelite-rsps-patch");
-				if (!tempDir.exists() && !tempDir.mkdirs()) {
-					throw new IOException("Failed to create temp directory for patched gamepack: " + tempDir.getAbsolutePath());
-				}
-				File patchedJarFile = new File(tempDir, "rsps_patched_github_228_gamepack_" + System.currentTimeMillis() + ".jar");
-				patchedJarFile.deleteOnExit();
-				try (FileOutputStream fos = new FileOutputStream(patchedJarFile)) {
-					fos.write(patchedGamepackBytes);
-				}
-				log.info("Saved patched gamepack to: {}", patchedJarFile.getAbsolutePath());
+				// Regardless of where applet params came from, use the specific GitHub rev 228 gamepack
+				File patchedJarFile = gamepackCache.getPatchedGamepack(HttpUrl.get(GITHUB_OSRS_228_GAMEPACK_URL), RSPS_HOST, RSPS_RSA_MODULUS);
 				String patchedJarParentUrl = patchedJarFile.getParentFile().toURI().toURL().toString();
 
 				// Apply RSPS specific parameters using configFromRspsSource as the base
@@ -208,33 +181,7 @@ public class ClientLoader implements Supplier<Client>
 			RSConfig fallbackAppletParamsConfig = downloadFallbackConfig();
 			log.info("Fetched Jagex fallback config for applet parameters base.");
 
-			String gamepackDownloadUrl = GITHUB_OSRS_228_GAMEPACK_URL;
-			log.info("Downloading specific rev 228 gamepack from: {} (for fallback path)", gamepackDownloadUrl);
-
-			Request gamepackRequest = new Request.Builder().url(gamepackDownloadUrl).build();
-			byte[] originalGamepackBytes;
-			try (Response gamepackResponse = this.okHttpClient.newCall(gamepackRequest).execute()) {
-				if (!gamepackResponse.isSuccessful() || gamepackResponse.body() == null) {
-					throw new IOException("Failed to download specific gamepack from " + gamepackDownloadUrl + " (for fallback path): " + gamepackResponse.message());
-				}
-				originalGamepackBytes = gamepackResponse.body().bytes();
-			}
-			log.info("Downloaded specific rev 228 gamepack ({} bytes) from {} (for fallback path)", originalGamepackBytes.length, gamepackDownloadUrl);
-
-			GnomePatcher gamepackPatcher = new GnomePatcher(RSPS_HOST, RSPS_RSA_MODULUS);
-			byte[] patchedGamepackBytes = gamepackPatcher.patchGamepack(originalGamepackBytes);
-			log.info("Patched gamepack (fallback path using GitHub gamepack) size: {} bytes", patchedGamepackBytes.length);
-
-			File tempDir = new File(System.getProperty("java.io.tmpdir"), "runelite-rsps-patch");
-			if (!tempDir.exists() && !tempDir.mkdirs()) {
-				throw new IOException("Failed to create temp directory for patched gamepack (fallback path): " + tempDir.getAbsolutePath());
-			}
-			File patchedJarFile = new File(tempDir, "rsps_patched_github_228_fallback_gamepack_" + System.currentTimeMillis() + ".jar");
-			patchedJarFile.deleteOnExit();
-			try (FileOutputStream fos = new FileOutputStream(patchedJarFile)) {
-				fos.write(patchedGamepackBytes);
-			}
-			log.info("Saved patched gamepack (fallback path using GitHub gamepack) to: {}", patchedJarFile.getAbsolutePath());
+			File patchedJarFile = gamepackCache.getPatchedGamepack(HttpUrl.get(GITHUB_OSRS_228_GAMEPACK_URL), RSPS_HOST, RSPS_RSA_MODULUS);
 			String patchedJarParentUrl = patchedJarFile.getParentFile().toURI().toURL().toString();
 
 			applyRspsAppletParameters(fallbackAppletParamsConfig, patchedJarParentUrl, patchedJarFile.getName());
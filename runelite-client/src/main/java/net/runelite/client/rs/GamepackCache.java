@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.rs;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Persistent cache of downloaded and patched gamepacks.
+ * <p>
+ * The source jar is kept along with its ETag, Last-Modified and SHA-256, and is revalidated
+ * with a conditional GET on each start. Patched jars are keyed by the SHA-256 of the source jar
+ * and the patch parameters, so a warm start skips both the download and the patch.
+ */
+@Slf4j
+class GamepackCache
+{
+	/**
+	 * Bump when the output of {@link GnomePatcher} changes for the same inputs
+	 */
+	private static final int PATCH_VERSION = 1;
+
+	private static final String SOURCE_JAR = "source.jar";
+	private static final String SOURCE_META = "source.properties";
+	private static final String PATCHED_PREFIX = "patched-";
+	/**
+	 * Prefix of jars being patched, which must not match {@link #PATCHED_PREFIX} so that
+	 * another client cleaning up stale jars never deletes one still being written
+	 */
+	private static final String PATCHING_PREFIX = "patching-";
+	private static final String JAR_SUFFIX = ".jar";
+
+	private static final String META_URL = "url";
+	private static final String META_ETAG = "etag";
+	private static final String META_LAST_MODIFIED = "lastModified";
+	private static final String META_SHA256 = "sha256";
+
+	private final OkHttpClient okHttpClient;
+	private final File directory;
+
+	GamepackCache(OkHttpClient okHttpClient, File directory)
+	{
+		this.okHttpClient = okHttpClient;
+		this.directory = directory;
+	}
+
+	/**
+	 * Get the gamepack at the given url, patched for the given host and RSA modulus
+	 *
+	 * @return the patched jar, which stays valid until the source jar or patch parameters change
+	 * @throws IOException if the gamepack can't be downloaded and there is no cached copy
+	 */
+	File getPatchedGamepack(HttpUrl url, String host, String rsaModulus) throws IOException
+	{
+		if (!directory.exists() && !directory.mkdirs())
+		{
+			throw new IOException("unable to create gamepack cache directory " + directory);
+		}
+
+		final String sourceHash = fetchSource(url);
+
+		final Hasher hasher = Hashing.sha256().newHasher()
+			.putInt(PATCH_VERSION)
+			.putString(sourceHash, StandardCharsets.UTF_8)
+			.putByte((byte) 0)
+			.putString(host, StandardCharsets.UTF_8)
+			.putByte((byte) 0)
+			.putString(rsaModulus, StandardCharsets.UTF_8);
+		final File patched = new File(directory, PATCHED_PREFIX + hasher.hash() + JAR_SUFFIX);
+
+		if (patched.exists())
+		{
+			log.info("Using cached patched gamepack {}", patched.getName());
+			return patched;
+		}
+
+		final GnomePatcher patcher = new GnomePatcher(host, rsaModulus);
+		final File tempFile = File.createTempFile(PATCHING_PREFIX, JAR_SUFFIX, directory);
+		try
+		{
+			try (InputStream in = new BufferedInputStream(Files.newInputStream(new File(directory, SOURCE_JAR).toPath()));
+				OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))
+			{
+				patcher.patchGamepack(in, out);
+			}
+			move(tempFile, patched);
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+
+		log.info("Patched gamepack ({} bytes) and cached it as {}", patched.length(), patched.getName());
+		deleteStale(patched);
+		return patched;
+	}
+
+	/**
+	 * Revalidate or download the source jar
+	 *
+	 * @return SHA-256 of the source jar
+	 */
+	private String fetchSource(HttpUrl url) throws IOException
+	{
+		final File sourceJar = new File(directory, SOURCE_JAR);
+		final File metaFile = new File(directory, SOURCE_META);
+
+		final Properties meta = new Properties();
+		if (sourceJar.exists() && metaFile.exists())
+		{
+			try (Reader reader = Files.newBufferedReader(metaFile.toPath(), StandardCharsets.UTF_8))
+			{
+				meta.load(reader);
+			}
+			catch (IOException ex)
+			{
+				log.warn("unable to read gamepack cache metadata", ex);
+				meta.clear();
+			}
+
+			if (!url.toString().equals(meta.getProperty(META_URL)) || meta.getProperty(META_SHA256) == null)
+			{
+				meta.clear();
+			}
+		}
+
+		final Request.Builder request = new Request.Builder()
+			.url(url);
+		if (meta.getProperty(META_ETAG) != null)
+		{
+			request.header("If-None-Match", meta.getProperty(META_ETAG));
+		}
+		if (meta.getProperty(META_LAST_MODIFIED) != null)
+		{
+			request.header("If-Modified-Since", meta.getProperty(META_LAST_MODIFIED));
+		}
+
+		try (Response response = okHttpClient.newCall(request.build()).execute())
+		{
+			if (response.code() == 304 && !meta.isEmpty())
+			{
+				log.info("Cached gamepack from {} is up to date", url);
+				return meta.getProperty(META_SHA256);
+			}
+
+			if (!response.isSuccessful() || response.body() == null)
+			{
+				throw new IOException("Failed to download gamepack from " + url + ": " + response.message());
+			}
+
+			final File tempFile = File.createTempFile("source", JAR_SUFFIX, directory);
+			final HashCode hash;
+			try
+			{
+				try (InputStream in = response.body().byteStream();
+					HashingOutputStream out = new HashingOutputStream(Hashing.sha256(), Files.newOutputStream(tempFile.toPath())))
+				{
+					ByteStreams.copy(in, out);
+					hash = out.hash();
+				}
+				move(tempFile, sourceJar);
+			}
+			finally
+			{
+				Files.deleteIfExists(tempFile.toPath());
+			}
+
+			log.info("Downloaded gamepack ({} bytes) from {}", sourceJar.length(), url);
+
+			final Properties newMeta = new Properties();
+			newMeta.setProperty(META_URL, url.toString());
+			newMeta.setProperty(META_SHA256, hash.toString());
+			if (response.header("ETag") != null)
+			{
+				newMeta.setProperty(META_ETAG, response.header("ETag"));
+			}
+			if (response.header("Last-Modified") != null)
+			{
+				newMeta.setProperty(META_LAST_MODIFIED, response.header("Last-Modified"));
+			}
+			writeMeta(metaFile, newMeta);
+			return hash.toString();
+		}
+		catch (IOException ex)
+		{
+			if (meta.isEmpty())
+			{
+				throw ex;
+			}
+
+			// the cached copy is still usable when offline
+			log.warn("Unable to revalidate gamepack from {}, using cached copy", url, ex);
+			return meta.getProperty(META_SHA256);
+		}
+	}
+
+	private void writeMeta(File metaFile, Properties meta) throws IOException
+	{
+		final File tempFile = File.createTempFile("source", ".properties", directory);
+		try
+		{
+			try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8))
+			{
+				meta.store(writer, "RuneLite gamepack cache");
+			}
+			move(tempFile, metaFile);
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	private void deleteStale(File current)
+	{
+		final File[] files = directory.listFiles((dir, name) -> name.startsWith(PATCHED_PREFIX) && name.endsWith(JAR_SUFFIX));
+		if (files == null)
+		{
+			return;
+		}
+
+		for (File file : files)
+		{
+			if (!file.equals(current) && !file.delete())
+			{
+				log.debug("unable to delete stale gamepack {}", file);
+			}
+		}
+	}
+
+	private static void move(File from, File to) throws IOException
+	{
+		try
+		{
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException ex)
+		{
+			log.debug("atomic move not supported", ex);
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
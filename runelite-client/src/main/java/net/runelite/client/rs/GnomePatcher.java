@@ -6,8 +6,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.jar.JarOutputStream;
@@ -18,12 +23,28 @@ import lombok.extern.slf4j.Slf4j;
 public class GnomePatcher {
     // Original RSA modulus.. edu says not needed,,.. idk tho
     private static final String ORIGINAL_JAGEX_RSA_MODULUS_HEX = "86e8427690ebc5e5cc9b6b3336a1f7af648af5bcf44a8057b13a05934a356697924662f3dc12214aa0ddcb0030e0e53c3fc937e50424a85a5ae1ddfa7712e2971cbc0c6a7c1ed5a6602c4d838b3ec9cd663b6e065923456bc76ea9974bef518ddf4caac9e9cf6ae8090345598fd2f8c55ef7a2e8f01770582bf8cfcc4e668ae9";
+    private static final byte[] ORIGINAL_JAGEX_RSA_MODULUS_BYTES = ORIGINAL_JAGEX_RSA_MODULUS_HEX.getBytes(StandardCharsets.UTF_8);
+    // Constant pool tags, see JVMS 4.4
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
     private final String targetRspsHost;
     private final String targetRspsRsaModulusHex;
+    private final ForkJoinPool pool;
+    private final int window;
 
     public GnomePatcher(String rspsHost, String rspsRsaModulusHex) {
+        this(rspsHost, rspsRsaModulusHex, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool classes are patched on
+     */
+    public GnomePatcher(String rspsHost, String rspsRsaModulusHex, ForkJoinPool pool) {
         this.targetRspsHost = rspsHost;
         this.targetRspsRsaModulusHex = rspsRsaModulusHex;
+        this.pool = pool;
+        // enough classes in flight to keep the pool busy while entries are read and written in order
+        this.window = pool.getParallelism() * 4;
         log.info("GnomePatcher initialized. Target Host: {}, Target RSPS RSA Modulus (prefix): {}...",
                 rspsHost,
                 rspsRsaModulusHex.substring(0, Math.min(10, rspsRsaModulusHex.length())));
@@ -33,81 +54,151 @@ public class GnomePatcher {
             throw new IllegalArgumentException("Original gamepack bytes cannot be null or empty.");
         }
 
-        JarInputStream jis = new JarInputStream(new ByteArrayInputStream(originalGamepackBytes));
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        JarOutputStream jos = new JarOutputStream(baos);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(originalGamepackBytes.length);
+        patchGamepack(new ByteArrayInputStream(originalGamepackBytes), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Streams a gamepack from in to out, patching classes in parallel. Entries are
+     * written in their original order. Neither stream is closed.
+     */
+    public void patchGamepack(InputStream in, OutputStream out) throws IOException {
+        JarInputStream jis = new JarInputStream(in);
+        JarOutputStream jos = new JarOutputStream(out);
+        ArrayDeque<PendingEntry> pending = new ArrayDeque<>();
+        AtomicInteger patchedClasses = new AtomicInteger();
+        int classes = 0;
         JarEntry entry;
 
         log.debug("Starting gamepack patching process...");
-        int patchedClasses = 0;
-
-        while ((entry = jis.getNextJarEntry()) != null) {
-            jos.putNextEntry(new JarEntry(entry.getName()));
-            byte[] currentEntryBytes = readEntry(jis);
-
-            if (entry.getName().endsWith(".class")) {
-                // Patch Jagex domain... shjambles
-                byte[] patchedBytes = replaceDomains(currentEntryBytes);
-                patchedBytes = patchRsaModulus(patchedBytes);
-                
-                jos.write(patchedBytes);
-                patchedClasses++;
-            } else {
-                jos.write(currentEntryBytes);
+
+        try {
+            while ((entry = jis.getNextJarEntry()) != null) {
+                String name = entry.getName();
+                byte[] entryBytes = readEntry(jis);
+
+                CompletableFuture<byte[]> result;
+                if (name.endsWith(".class")) {
+                    result = CompletableFuture.supplyAsync(() -> {
+                        byte[] patched = patchClass(entryBytes);
+                        if (patched != entryBytes) {
+                            patchedClasses.incrementAndGet();
+                        }
+                        return patched;
+                    }, pool);
+                    classes++;
+                } else {
+                    result = CompletableFuture.completedFuture(entryBytes);
+                }
+
+                pending.add(new PendingEntry(name, result));
+                while (pending.size() > window) {
+                    writeEntry(jos, pending.poll());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                writeEntry(jos, pending.poll());
+            }
+        } finally {
+            for (PendingEntry p : pending) {
+                p.result.cancel(false);
             }
-            jos.closeEntry();
         }
-        
-        log.debug("Gamepack patching complete. Processed {} class files.", patchedClasses);
-        
-        jis.close();
-        jos.close();
-        return baos.toByteArray();
+
+        jos.finish();
+        jos.flush();
+
+        log.debug("Gamepack patching complete. Processed {} class files, {} modified.", classes, patchedClasses.get());
+    }
+
+    private static void writeEntry(JarOutputStream jos, PendingEntry entry) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = entry.result.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to patch " + entry.name, e.getCause());
+        }
+
+        jos.putNextEntry(new JarEntry(entry.name));
+        jos.write(bytes);
+        jos.closeEntry();
+    }
+
+    private static class PendingEntry {
+        private final String name;
+        private final CompletableFuture<byte[]> result;
+
+        private PendingEntry(String name, CompletableFuture<byte[]> result) {
+            this.name = name;
+            this.result = result;
+        }
     }
-    private byte[] replaceDomains(byte[] classBytes) {
+
+    /**
+     * Patches Jagex domains and the RSA modulus in a single class.
+     *
+     * @return the patched class, or classBytes itself if nothing needed patching
+     */
+    byte[] patchClass(byte[] classBytes) {
         ClassReader cr = new ClassReader(classBytes);
-        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-        
-        // Domain name patching class visitor
-        cr.accept(new ClassVisitor(Opcodes.ASM9, cw) {
-            @Override
-            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-                MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
-                return new MethodVisitor(Opcodes.ASM9, mv) {
-                    @Override
-                    public void visitLdcInsn(Object value) {
-                        if (value instanceof String) {
-                            String str = (String) value;
-                            if (str.contains("runescape.com") || str.contains("jagex.com")) {
-                                super.visitLdcInsn(targetRspsHost);
-                                return;
-                            }
-                        }
-                        super.visitLdcInsn(value);
-                    }
-                };
+        String className = cr.getClassName();
+
+        // Cheap scan of the constant pool so most classes skip the visitor entirely
+        boolean domains = false;
+        boolean exactModulus = false;
+        boolean hexModulus = false;
+        boolean bigInteger = false;
+        char[] buf = new char[cr.getMaxStringLength()];
+        for (int i = 1; i < cr.getItemCount(); i++) {
+            int offset = cr.getItem(i);
+            if (offset == 0) {
+                // second slot of a long or double
+                continue;
             }
-        }, ClassReader.EXPAND_FRAMES);
-        
-        return cw.toByteArray();
+
+            int tag = cr.readByte(offset - 1);
+            if (tag == CONSTANT_STRING) {
+                String str = cr.readUTF8(offset, buf);
+                if (str.contains("runescape.com") || str.contains("jagex.com")) {
+                    domains = true;
+                } else if (str.equals(ORIGINAL_JAGEX_RSA_MODULUS_HEX)) {
+                    exactModulus = true;
+                } else if (str.length() > 200 && isHexString(str)) {
+                    hexModulus = true;
+                }
+            } else if (tag == CONSTANT_CLASS && "java/math/BigInteger".equals(cr.readUTF8(offset, buf))) {
+                bigInteger = true;
+            }
+        }
+
+        bigInteger &= className.equals("client") || className.contains("login");
+
+        byte[] patched = classBytes;
+        if (exactModulus) {
+            // Same length replacement, the constant pool stays valid
+            patched = findAndReplaceExactModulus(classBytes);
+            cr = new ClassReader(patched);
+        }
+
+        // The visitor only needs to handle the modulus if the direct replacement didn't
+        boolean rsa = !exactModulus && (hexModulus || bigInteger);
+        if (!domains && !rsa) {
+            return patched;
+        }
+
+        return transform(cr, domains, rsa);
     }
 
     /**
-     * Patches RSA modulus for connection encryption.
+     * Replaces Jagex domains and, if rsa is set, the RSA modulus in one visitor pass.
      */
-    private byte[] patchRsaModulus(byte[] classBytes) {
-        // Try direct string replacement first
-        byte[] exactPatched = findAndReplaceExactModulus(classBytes);
-        if (!Arrays.equals(exactPatched, classBytes)) {
-            return exactPatched;
-        }
+    private byte[] transform(ClassReader cr, boolean domains, boolean rsa) {
+        ClassWriter cw = new ClassWriter(cr, ClassWriter.COMPUTE_MAXS);
+        String className = cr.getClassName();
+        boolean[] patched = {false};
 
-        // If direct replacement failed, use ASM to find and patch modulus
-        ClassReader cr = new ClassReader(classBytes);
-        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-        
-        final boolean[] patched = {false};
-        
         cr.accept(new ClassVisitor(Opcodes.ASM9, cw) {
             @Override
             public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
@@ -115,35 +206,41 @@ public class GnomePatcher {
                 return new MethodVisitor(Opcodes.ASM9, mv) {
                     @Override
                     public void visitLdcInsn(Object value) {
-                        // Check for RSA modulus string
                         if (value instanceof String) {
                             String str = (String) value;
-                            // Match exact modulus
-                            if (str.equals(ORIGINAL_JAGEX_RSA_MODULUS_HEX)) {
-                                log.info("RSA PATCH: Found and replaced exact RSA modulus");
-                                super.visitLdcInsn(targetRspsRsaModulusHex);
-                                patched[0] = true;
+                            // Patch Jagex domain... shjambles
+                            if (domains && (str.contains("runescape.com") || str.contains("jagex.com"))) {
+                                super.visitLdcInsn(targetRspsHost);
                                 return;
                             }
-                            
-                            // Aggressive matching for longer hex strings
-                            if (str.length() > 200 && isHexString(str)) {
-                                log.info("RSA PATCH: Found potential RSA modulus string (length={})", str.length());
-                                super.visitLdcInsn(targetRspsRsaModulusHex);
-                                patched[0] = true;
-                                return;
+
+                            if (rsa) {
+                                // Match exact modulus
+                                if (str.equals(ORIGINAL_JAGEX_RSA_MODULUS_HEX)) {
+                                    log.info("RSA PATCH: Found and replaced exact RSA modulus");
+                                    super.visitLdcInsn(targetRspsRsaModulusHex);
+                                    patched[0] = true;
+                                    return;
+                                }
+
+                                // Aggressive matching for longer hex strings
+                                if (str.length() > 200 && isHexString(str)) {
+                                    log.info("RSA PATCH: Found potential RSA modulus string (length={})", str.length());
+                                    super.visitLdcInsn(targetRspsRsaModulusHex);
+                                    patched[0] = true;
+                                    return;
+                                }
                             }
                         }
                         super.visitLdcInsn(value);
                     }
-                    
+
                     @Override
                     public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
                         // Target BigInteger constructors in client class
-                        if (owner.equals("java/math/BigInteger") && name.equals("<init>") && 
+                        if (rsa && owner.equals("java/math/BigInteger") && name.equals("<init>") &&
                             descriptor.equals("(Ljava/lang/String;)V")) {
                             // Only patch in client class and login methods
-                            String className = cr.getClassName();
                             if (className.equals("client") || className.contains("login")) {
                                 // Pop original argument and replace with our modulus
                                 super.visitInsn(Opcodes.POP);
@@ -157,20 +254,20 @@ public class GnomePatcher {
                     }
                 };
             }
-        }, ClassReader.EXPAND_FRAMES);
-        
+        }, 0);
+
         if (patched[0]) {
             log.info("RSA patched via ASM");
         }
-        
+
         return cw.toByteArray();
     }
-    
+
     /**
      * Finds and replaces RSA modulus directly in byte array.
      */
     private byte[] findAndReplaceExactModulus(byte[] bytes) {
-        byte[] modBytes = ORIGINAL_JAGEX_RSA_MODULUS_HEX.getBytes(StandardCharsets.UTF_8);
+        byte[] modBytes = ORIGINAL_JAGEX_RSA_MODULUS_BYTES;
         int index = indexOf(bytes, modBytes);
         if (index != -1) {
             byte[] patched = bytes.clone();
@@ -35,6 +35,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.FrameProfiler;
 
 @Singleton
 @Slf4j
@@ -42,8 +43,16 @@ public class Scheduler
 {
 	private final List<ScheduledMethod> scheduledMethods = new CopyOnWriteArrayList<>();
 
+	private final ScheduledExecutorService executor;
+
+	@Inject
+	FrameProfiler frameProfiler;
+
 	@Inject
-	ScheduledExecutorService executor;
+	Scheduler(TaskExecutors taskExecutors)
+	{
+		executor = taskExecutors.executor(TaskTier.TIMER, this);
+	}
 
 	public void addScheduledMethod(ScheduledMethod method)
 	{
@@ -85,7 +94,9 @@ public class Scheduler
 				}
 				else
 				{
+					final long start = frameProfiler.start();
 					run(scheduledMethod);
+					frameProfiler.stop(start, scheduledMethod.getObject(), FrameProfiler.Source.SCHEDULER);
 				}
 			}
 		}
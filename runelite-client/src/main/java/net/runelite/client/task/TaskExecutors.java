@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.task;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the client's background thread pools. Work is submitted through per-owner views of a
+ * {@link TaskTier}, which log uncaught exceptions, record queue wait and run time, and can be
+ * cancelled as a group when the owner, such as a plugin, stops.
+ */
+@Singleton
+@Slf4j
+public class TaskExecutors
+{
+	private static final int IO_THREADS = 32;
+	private static final int PRUNE_INTERVAL = 64;
+
+	private final Map<TaskTier, ScheduledThreadPoolExecutor> pools = new EnumMap<>(TaskTier.class);
+	// weakly keyed by identity so that an owner, such as an unloaded plugin, can still be collected
+	private final Map<Object, TrackedExecutor[]> owners = new MapMaker().weakKeys().makeMap();
+
+	public TaskExecutors()
+	{
+		// leave a core free for the client thread
+		final int cpuThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		pools.put(TaskTier.CPU, pool("task-cpu-%d", cpuThreads, true));
+		// Java 11 has no virtual threads, so blocking work gets a wide pool. Its threads are only started as work arrives.
+		pools.put(TaskTier.IO, pool("task-io-%d", IO_THREADS, true));
+		pools.put(TaskTier.TIMER, pool("task-timer-%d", 1, false));
+	}
+
+	private static ScheduledThreadPoolExecutor pool(String nameFormat, int threads, boolean daemon)
+	{
+		final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(threads, new ThreadFactoryBuilder()
+			.setNameFormat(nameFormat)
+			.setDaemon(daemon)
+			.build());
+		pool.setRemoveOnCancelPolicy(true);
+		return pool;
+	}
+
+	/**
+	 * Get an executor which runs tasks on the given tier on behalf of an owner. The same owner
+	 * always gets the same executor for a tier.
+	 *
+	 * @param tier the pool to run tasks on
+	 * @param owner the owner, which tags the tasks in {@link #getStats()} and is passed to {@link #cancel(Object)}
+	 * @return the executor
+	 */
+	public ScheduledExecutorService executor(TaskTier tier, Object owner)
+	{
+		final TrackedExecutor[] views = owners.computeIfAbsent(owner, k -> new TrackedExecutor[TaskTier.values().length]);
+		synchronized (views)
+		{
+			TrackedExecutor view = views[tier.ordinal()];
+			if (view == null)
+			{
+				view = views[tier.ordinal()] = new TrackedExecutor(tier, tag(owner), pools.get(tier));
+			}
+			return view;
+		}
+	}
+
+	/**
+	 * Cancel the queued and periodic tasks of an owner on every tier. Tasks which are already
+	 * running are left to finish. The owner's executors remain usable afterward, and are
+	 * dropped once the owner is garbage collected.
+	 *
+	 * @param owner the owner
+	 */
+	public void cancel(Object owner)
+	{
+		final TrackedExecutor[] views = owners.get(owner);
+		if (views == null)
+		{
+			return;
+		}
+
+		synchronized (views)
+		{
+			for (TrackedExecutor view : views)
+			{
+				if (view != null)
+				{
+					int cancelled = view.cancelAll(false);
+					if (cancelled > 0)
+					{
+						log.debug("Cancelled {} {} tasks of {}", cancelled, view.tier, view.owner);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get a snapshot of the task statistics of every owner and tier which has been used
+	 *
+	 * @return the statistics
+	 */
+	public List<TaskStats> getStats()
+	{
+		final List<TaskStats> stats = new ArrayList<>();
+		for (TrackedExecutor[] views : owners.values())
+		{
+			synchronized (views)
+			{
+				for (TrackedExecutor view : views)
+				{
+					if (view != null)
+					{
+						stats.add(view.snapshot());
+					}
+				}
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Get the number of tasks of a tier which are waiting for a thread or for their delay to elapse
+	 *
+	 * @param tier the tier
+	 * @return the queue depth
+	 */
+	public int getQueueDepth(TaskTier tier)
+	{
+		return pools.get(tier).getQueue().size();
+	}
+
+	/**
+	 * Get the number of threads of a tier which are running a task
+	 *
+	 * @param tier the tier
+	 * @return the number of busy threads
+	 */
+	public int getActiveCount(TaskTier tier)
+	{
+		return pools.get(tier).getActiveCount();
+	}
+
+	private static String tag(Object owner)
+	{
+		if (owner instanceof String)
+		{
+			return (String) owner;
+		}
+		if (owner instanceof Class)
+		{
+			return ((Class<?>) owner).getSimpleName();
+		}
+		return owner.getClass().getSimpleName();
+	}
+
+	private static void max(AtomicLong max, long value)
+	{
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	private static final class TrackedExecutor implements ScheduledExecutorService
+	{
+		private final TaskTier tier;
+		private final String owner;
+		private final ScheduledThreadPoolExecutor pool;
+		private final Set<Future<?>> pending = ConcurrentHashMap.newKeySet();
+
+		private final AtomicLong submitted = new AtomicLong();
+		private final AtomicLong completed = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong();
+		private final LongAdder totalWait = new LongAdder();
+		private final AtomicLong maxWait = new AtomicLong();
+		private final LongAdder totalRun = new LongAdder();
+		private final AtomicLong maxRun = new AtomicLong();
+
+		private TrackedExecutor(TaskTier tier, String owner, ScheduledThreadPoolExecutor pool)
+		{
+			this.tier = tier;
+			this.owner = owner;
+			this.pool = pool;
+		}
+
+		/**
+		 * A task wrapper which records metrics and logs uncaught exceptions.
+		 * The period follows {@link java.util.concurrent.ScheduledThreadPoolExecutor}: positive
+		 * for fixed rate, negative for fixed delay, and zero for one-shot tasks.
+		 */
+		private final class Task<V> implements Runnable, Callable<V>
+		{
+			private final Object source;
+			private final Callable<V> callable;
+			private final long period;
+			// the time the next run is due to start, only accessed by the running thread after construction
+			private long due;
+			private volatile Future<?> future;
+			private volatile boolean finished;
+
+			private Task(Object source, Callable<V> callable, long delayNanos, long period)
+			{
+				this.source = source;
+				this.callable = callable;
+				this.period = period;
+				this.due = System.nanoTime() + delayNanos;
+				submitted.incrementAndGet();
+			}
+
+			@Override
+			public V call() throws Exception
+			{
+				final long start = System.nanoTime();
+				final long wait = Math.max(0, start - due);
+				totalWait.add(wait);
+				max(maxWait, wait);
+
+				boolean ok = false;
+				try
+				{
+					final V result = callable.call();
+					ok = true;
+					return result;
+				}
+				catch (Throwable ex)
+				{
+					log.error("Uncaught exception in {} task {} of {}", tier, source, owner, ex);
+					throw ex;
+				}
+				finally
+				{
+					final long end = System.nanoTime();
+					totalRun.add(end - start);
+					max(maxRun, end - start);
+					(ok ? completed : failed).incrementAndGet();
+
+					if (period > 0)
+					{
+						due += period;
+					}
+					else if (period < 0)
+					{
+						due = end - period;
+					}
+
+					// a periodic task which throws is not run again
+					if (period == 0 || !ok)
+					{
+						finished = true;
+						final Future<?> f = future;
+						if (f != null)
+						{
+							pending.remove(f);
+						}
+					}
+				}
+			}
+
+			@Override
+			public void run()
+			{
+				try
+				{
+					call();
+				}
+				catch (RuntimeException | Error ex)
+				{
+					throw ex;
+				}
+				catch (Exception ex)
+				{
+					throw new RuntimeException(ex);
+				}
+			}
+		}
+
+		private <F extends Future<?>> F track(Task<?> task, F future)
+		{
+			// the order here pairs with the finished check in Task.call so a completed task is never left pending
+			pending.add(future);
+			task.future = future;
+			if (task.finished)
+			{
+				pending.remove(future);
+			}
+
+			if (submitted.get() % PRUNE_INTERVAL == 0)
+			{
+				// drop futures which were cancelled by their caller
+				pending.removeIf(Future::isDone);
+			}
+			return future;
+		}
+
+		private int cancelAll(boolean mayInterruptIfRunning)
+		{
+			int cancelled = 0;
+			for (Future<?> future : pending)
+			{
+				if (future.cancel(mayInterruptIfRunning))
+				{
+					++cancelled;
+				}
+			}
+			pending.removeIf(Future::isDone);
+			return cancelled;
+		}
+
+		private TaskStats snapshot()
+		{
+			pending.removeIf(Future::isDone);
+			return new TaskStats(owner, tier, submitted.get(), completed.get(), failed.get(), pending.size(),
+				totalWait.sum(), maxWait.get(), totalRun.sum(), maxRun.get());
+		}
+
+		private <V> List<Callable<V>> wrap(Collection<? extends Callable<V>> tasks)
+		{
+			final List<Callable<V>> wrapped = new ArrayList<>(tasks.size());
+			for (Callable<V> task : tasks)
+			{
+				wrapped.add(new Task<>(task, task, 0, 0));
+			}
+			return wrapped;
+		}
+
+		@Override
+		public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit)
+		{
+			final Task<V> task = new Task<>(callable, callable, unit.toNanos(delay), 0);
+			return track(task, pool.schedule((Callable<V>) task, delay, unit));
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+		{
+			final Task<Object> task = new Task<>(command, Executors.callable(command), unit.toNanos(delay), 0);
+			return track(task, pool.schedule((Callable<Object>) task, delay, unit));
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit)
+		{
+			final Task<Object> task = new Task<>(command, Executors.callable(command), unit.toNanos(initialDelay), unit.toNanos(period));
+			return track(task, pool.scheduleAtFixedRate(task, initialDelay, period, unit));
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit)
+		{
+			final Task<Object> task = new Task<>(command, Executors.callable(command), unit.toNanos(initialDelay), -unit.toNanos(delay));
+			return track(task, pool.scheduleWithFixedDelay(task, initialDelay, delay, unit));
+		}
+
+		@Override
+		public void execute(Runnable command)
+		{
+			schedule(command, 0, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public <T> Future<T> submit(Callable<T> task)
+		{
+			return schedule(task, 0, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public <T> Future<T> submit(Runnable task, T result)
+		{
+			return schedule(Executors.callable(task, result), 0, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public Future<?> submit(Runnable task)
+		{
+			return schedule(task, 0, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException
+		{
+			return pool.invokeAll(wrap(tasks));
+		}
+
+		@Override
+		public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException
+		{
+			return pool.invokeAll(wrap(tasks), timeout, unit);
+		}
+
+		@Override
+		public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException
+		{
+			return pool.invokeAny(wrap(tasks));
+		}
+
+		@Override
+		public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+		{
+			return pool.invokeAny(wrap(tasks), timeout, unit);
+		}
+
+		// The pool is shared with other owners, so shutting down a view only cancels this owner's tasks
+
+		@Override
+		public void shutdown()
+		{
+			cancelAll(false);
+		}
+
+		@Override
+		public List<Runnable> shutdownNow()
+		{
+			cancelAll(true);
+			return Collections.emptyList();
+		}
+
+		@Override
+		public boolean isShutdown()
+		{
+			return pool.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated()
+		{
+			return pool.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+		{
+			return pool.awaitTermination(timeout, unit);
+		}
+	}
+}
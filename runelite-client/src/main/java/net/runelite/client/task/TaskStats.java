@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.task;
+
+import lombok.Value;
+
+/**
+ * A snapshot of the tasks one owner has submitted to one {@link TaskTier}
+ */
+@Value
+public class TaskStats
+{
+	String owner;
+	TaskTier tier;
+	/**
+	 * tasks submitted
+	 */
+	long submitted;
+	/**
+	 * task runs which completed normally
+	 */
+	long completed;
+	/**
+	 * task runs which threw
+	 */
+	long failed;
+	/**
+	 * tasks which are queued, running, or periodic
+	 */
+	int pending;
+	/**
+	 * total and maximum time between a task becoming due and starting
+	 */
+	long totalWaitNanos;
+	long maxWaitNanos;
+	/**
+	 * total and maximum time a task spent running
+	 */
+	long totalRunNanos;
+	long maxRunNanos;
+
+	public long getRuns()
+	{
+		return completed + failed;
+	}
+}
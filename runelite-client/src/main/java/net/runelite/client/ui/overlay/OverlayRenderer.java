@@ -68,6 +68,7 @@ import net.runelite.client.input.MouseManager;
 import net.runelite.client.ui.ClientUI;
 import net.runelite.client.ui.JagexColors;
 import net.runelite.client.util.ColorUtil;
+import net.runelite.client.util.FrameProfiler;
 import net.runelite.client.util.HotkeyListener;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
@@ -95,6 +96,7 @@ public class OverlayRenderer extends MouseAdapter
 	private final ClientUI clientUI;
 	private final EventBus eventBus;
 	private final ChatMessageManager chatMessageManager;
+	private final FrameProfiler frameProfiler;
 
 	// Overlay movement variables
 	private final Point overlayOffset = new Point();
@@ -126,7 +128,8 @@ public class OverlayRenderer extends MouseAdapter
 		final KeyManager keyManager,
 		final ClientUI clientUI,
 		final EventBus eventBus,
-		final ChatMessageManager chatMessageManager
+		final ChatMessageManager chatMessageManager,
+		final FrameProfiler frameProfiler
 	)
 	{
 		this.client = client;
@@ -135,6 +138,7 @@ public class OverlayRenderer extends MouseAdapter
 		this.clientUI = clientUI;
 		this.eventBus = eventBus;
 		this.chatMessageManager = chatMessageManager;
+		this.frameProfiler = frameProfiler;
 
 		HotkeyListener hotkeyListener = new HotkeyListener(runeLiteConfig::dragHotkey)
 		{
@@ -729,6 +733,7 @@ public class OverlayRenderer extends MouseAdapter
 		overlay.getBounds().setLocation(point);
 
 		final Dimension overlayDimension;
+		final long start = frameProfiler.start();
 		try
 		{
 			overlayDimension = overlay.render(graphics);
@@ -738,6 +743,10 @@ public class OverlayRenderer extends MouseAdapter
 			log.warn(DEDUPLICATE, "Error during overlay rendering", ex);
 			return;
 		}
+		finally
+		{
+			frameProfiler.stop(start, overlay.getPlugin() != null ? overlay.getPlugin() : overlay, FrameProfiler.Source.OVERLAY);
+		}
 
 		final Dimension dimension = MoreObjects.firstNonNull(overlayDimension, new Dimension());
 		overlay.getBounds().setSize(dimension);
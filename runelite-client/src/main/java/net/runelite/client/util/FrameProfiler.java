@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Singleton;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * Low overhead profiler which attributes time spent in the client's hot paths (overlay rendering,
+ * event subscribers, client thread invokes, scheduled tasks and renderable draw listeners) to the
+ * plugin which owns the code, and keeps a rolling window of the per frame and per game tick cost
+ * of each plugin.
+ * <p>
+ * When disabled, instrumented call sites only pay for a volatile read. Samples are accumulated
+ * with atomics and rolled into fixed size ring buffers by the client thread at frame and tick
+ * boundaries, so recording never blocks.
+ */
+@Singleton
+public class FrameProfiler
+{
+	/**
+	 * Returned from {@link #start()} when the profiler is disabled
+	 */
+	public static final long DISABLED = Long.MIN_VALUE;
+
+	private static final int FRAME_SAMPLES = 256;
+	private static final int TICK_SAMPLES = 64;
+	private static final String PLUGIN_PACKAGE = "net.runelite.client.plugins.";
+	private static final String CLIENT_PACKAGE = "net.runelite.client";
+
+	public enum Source
+	{
+		OVERLAY,
+		EVENT,
+		INVOKE,
+		SCHEDULER,
+		DRAW_LISTENER,
+	}
+
+	@Value
+	public static class Stats
+	{
+		private final String owner;
+		private final long frameP50;
+		private final long frameP95;
+		private final long frameP99;
+		private final long frameMax;
+		private final long tickP50;
+		private final long tickP99;
+		private final long totalNanos;
+	}
+
+	private static class Section
+	{
+		private final String owner;
+		private final AtomicLong frameNanos = new AtomicLong();
+		private final AtomicLong tickNanos = new AtomicLong();
+		private final AtomicLongArray sourceNanos = new AtomicLongArray(Source.values().length);
+		// written only by the client thread
+		private final long[] frames = new long[FRAME_SAMPLES];
+		private final long[] ticks = new long[TICK_SAMPLES];
+		private volatile int frameCount;
+		private volatile int tickCount;
+
+		private Section(String owner)
+		{
+			this.owner = owner;
+		}
+
+		private void reset()
+		{
+			frameNanos.set(0);
+			tickNanos.set(0);
+			for (int i = 0; i < sourceNanos.length(); ++i)
+			{
+				sourceNanos.set(i, 0);
+			}
+			Arrays.fill(frames, 0);
+			Arrays.fill(ticks, 0);
+			frameCount = 0;
+			tickCount = 0;
+		}
+	}
+
+	private final ClassValue<Section> sectionByClass = new ClassValue<>()
+	{
+		@Override
+		protected Section computeValue(Class<?> type)
+		{
+			return section(ownerOf(type));
+		}
+	};
+
+	private volatile Section[] sections = new Section[0];
+
+	@Getter
+	private volatile boolean enabled;
+
+	public void setEnabled(boolean enabled)
+	{
+		if (enabled && !this.enabled)
+		{
+			reset();
+		}
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Begin timing a section of code
+	 *
+	 * @return the start time, or {@link #DISABLED} if the profiler is not running
+	 */
+	public long start()
+	{
+		return enabled ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * Finish timing a section of code started with {@link #start()}
+	 *
+	 * @param start the value returned from {@link #start()}
+	 * @param owner the object which owns the code which was run, used to find the owning plugin
+	 * @param source the hot path the code was run from
+	 */
+	public void stop(long start, Object owner, Source source)
+	{
+		if (start != DISABLED)
+		{
+			record(owner, source, System.nanoTime() - start);
+		}
+	}
+
+	public void record(Object owner, Source source, long nanos)
+	{
+		if (!enabled || owner == null)
+		{
+			return;
+		}
+
+		final Section section = sectionByClass.get(owner.getClass());
+		section.frameNanos.addAndGet(nanos);
+		section.tickNanos.addAndGet(nanos);
+		section.sourceNanos.addAndGet(source.ordinal(), nanos);
+	}
+
+	/**
+	 * Close the current frame. Must be called from the client thread.
+	 */
+	public void endFrame()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		for (Section section : sections)
+		{
+			final int count = section.frameCount;
+			section.frames[count % FRAME_SAMPLES] = section.frameNanos.getAndSet(0);
+			section.frameCount = count + 1;
+		}
+	}
+
+	/**
+	 * Close the current game tick. Must be called from the client thread.
+	 */
+	public void endTick()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		for (Section section : sections)
+		{
+			final int count = section.tickCount;
+			section.ticks[count % TICK_SAMPLES] = section.tickNanos.getAndSet(0);
+			section.tickCount = count + 1;
+		}
+	}
+
+	public void reset()
+	{
+		for (Section section : sections)
+		{
+			section.reset();
+		}
+	}
+
+	/**
+	 * Compute rolling percentiles over the recent frames and ticks of each plugin
+	 *
+	 * @return stats for each plugin, most expensive per frame first
+	 */
+	public List<Stats> getStats()
+	{
+		final Section[] sections = this.sections;
+		final Stats[] stats = new Stats[sections.length];
+		for (int i = 0; i < sections.length; ++i)
+		{
+			final Section section = sections[i];
+			final long[] frames = samples(section.frames, section.frameCount);
+			final long[] ticks = samples(section.ticks, section.tickCount);
+			long total = 0;
+			for (int j = 0; j < Source.values().length; ++j)
+			{
+				total += section.sourceNanos.get(j);
+			}
+
+			stats[i] = new Stats(section.owner,
+				percentile(frames, 50), percentile(frames, 95), percentile(frames, 99), percentile(frames, 100),
+				percentile(ticks, 50), percentile(ticks, 99),
+				total);
+		}
+
+		Arrays.sort(stats, Comparator.comparingLong(Stats::getFrameP95)
+			.thenComparingLong(Stats::getTotalNanos)
+			.reversed());
+		return ImmutableList.copyOf(stats);
+	}
+
+	/**
+	 * Write the total time recorded for each plugin and source in the collapsed stack format
+	 * understood by flame graph tools, eg. {@code client;Ground Items;OVERLAY 123456}
+	 *
+	 * @param writer output
+	 * @throws IOException
+	 */
+	public void dump(Writer writer) throws IOException
+	{
+		final Source[] sources = Source.values();
+		for (Section section : sections)
+		{
+			for (Source source : sources)
+			{
+				final long nanos = section.sourceNanos.get(source.ordinal());
+				if (nanos > 0)
+				{
+					writer.write("client;" + section.owner.replace(';', '_') + ";" + source.name() + " " + nanos + "\n");
+				}
+			}
+		}
+		writer.flush();
+	}
+
+	private synchronized Section section(String owner)
+	{
+		for (Section section : sections)
+		{
+			if (section.owner.equals(owner))
+			{
+				return section;
+			}
+		}
+
+		final Section section = new Section(owner);
+		final Section[] newSections = Arrays.copyOf(sections, sections.length + 1);
+		newSections[sections.length] = section;
+		sections = newSections;
+		return section;
+	}
+
+	static String ownerOf(Class<?> type)
+	{
+		final String pkg = type.getPackageName();
+		if (pkg.startsWith(PLUGIN_PACKAGE))
+		{
+			final int end = pkg.indexOf('.', PLUGIN_PACKAGE.length());
+			return end == -1 ? pkg.substring(PLUGIN_PACKAGE.length()) : pkg.substring(PLUGIN_PACKAGE.length(), end);
+		}
+		else if (pkg.equals(CLIENT_PACKAGE) || pkg.startsWith(CLIENT_PACKAGE + "."))
+		{
+			return "client";
+		}
+		// external plugins are identified by their package
+		return pkg.isEmpty() ? type.getName() : pkg;
+	}
+
+	private static long[] samples(long[] ring, int count)
+	{
+		return Arrays.copyOf(ring, Math.min(count, ring.length));
+	}
+
+	private static long percentile(long[] samples, int percentile)
+	{
+		if (samples.length == 0)
+		{
+			return 0;
+		}
+
+		Arrays.sort(samples);
+		final int idx = (int) Math.ceil(percentile / 100.0 * samples.length) - 1;
+		return samples[Math.max(0, idx)];
+	}
+}
@@ -41,7 +41,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.concurrent.ScheduledExecutorService;
 import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
 import javax.inject.Inject;
@@ -56,6 +55,8 @@ import static net.runelite.client.RuneLite.SCREENSHOT_DIR;
 import net.runelite.client.config.RuneScapeProfileType;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.events.ScreenshotTaken;
+import net.runelite.client.task.TaskExecutors;
+import net.runelite.client.task.TaskTier;
 import net.runelite.client.ui.ClientUI;
 import net.runelite.client.ui.DrawManager;
 
@@ -70,7 +71,7 @@ public class ImageCapture
 	private final Notifier notifier;
 	private final ClientUI clientUi;
 	private final DrawManager drawManager;
-	private final ScheduledExecutorService executor;
+	private final TaskExecutors taskExecutors;
 	private final EventBus eventBus;
 
 	/**
@@ -87,7 +88,7 @@ public class ImageCapture
 		drawManager.requestNextFrameListener((img) ->
 		{
 			// This callback is on the client thread, move to executor thread now that we have the screenshot
-			executor.submit(() ->
+			taskExecutors.executor(TaskTier.IO, this).submit(() ->
 			{
 				final BufferedImage screenshot;
 				if (includeClientFrame)
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nullable;
+
+/**
+ * An index of markers, such as marked tiles or objects, keyed by a packed world coordinate,
+ * plane and id. Markers are added a region at a time and kept until the region is replaced or
+ * cleared, so scene loads in an area which has already been visited do not need to load them
+ * again. Lookups are constant time and do not allocate.
+ *
+ * @param <T> the marker type
+ */
+public class MarkerIndex<T>
+{
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final ToLongFunction<? super T> keyFunction;
+	private final Map<Integer, List<T>> regions = new HashMap<>();
+
+	// open addressing with linear probing, a slot is empty if its value is null
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * @param keyFunction computes the key of a marker, see {@link #pack(int, int, int, int)}
+	 */
+	public MarkerIndex(ToLongFunction<? super T> keyFunction)
+	{
+		this.keyFunction = keyFunction;
+	}
+
+	/**
+	 * Pack a world coordinate, plane, and id into a key. The low 32 bits are a Jagex coordinate.
+	 *
+	 * @param x world x
+	 * @param y world y
+	 * @param plane plane
+	 * @param id id, such as an object id, or 0 if markers have no id
+	 * @return the key
+	 */
+	public static long pack(int x, int y, int plane, int id)
+	{
+		return (long) id << 32 | (plane & 0x3) << 28 | (x & 0x3FFF) << 14 | (y & 0x3FFF);
+	}
+
+	/**
+	 * Pack a region coordinate, plane, and id into a key
+	 *
+	 * @see #pack(int, int, int, int)
+	 */
+	public static long packRegion(int regionId, int regionX, int regionY, int plane, int id)
+	{
+		return pack(((regionId >>> 8) << 6) + regionX, ((regionId & 0xff) << 6) + regionY, plane, id);
+	}
+
+	/**
+	 * Check if the markers for a region have been added, even if there were none
+	 */
+	public synchronized boolean isLoaded(int regionId)
+	{
+		return regions.containsKey(regionId);
+	}
+
+	/**
+	 * Get the markers of a region
+	 *
+	 * @return the markers, or an empty list if the region has not been loaded
+	 */
+	public synchronized List<T> getRegion(int regionId)
+	{
+		return regions.getOrDefault(regionId, Collections.emptyList());
+	}
+
+	/**
+	 * Set the markers of a region, replacing any it had. If two markers have the same key,
+	 * the first is indexed.
+	 */
+	public synchronized void putRegion(int regionId, Collection<? extends T> markers)
+	{
+		removeRegion(regionId);
+
+		final List<T> list = Collections.unmodifiableList(new ArrayList<>(markers));
+		regions.put(regionId, list);
+		for (T marker : list)
+		{
+			put(keyFunction.applyAsLong(marker), marker);
+		}
+	}
+
+	/**
+	 * Forget the markers of a region, so they are loaded again
+	 */
+	public synchronized void removeRegion(int regionId)
+	{
+		final List<T> old = regions.remove(regionId);
+		if (old != null)
+		{
+			for (T marker : old)
+			{
+				remove(keyFunction.applyAsLong(marker));
+			}
+		}
+	}
+
+	public synchronized void clear()
+	{
+		regions.clear();
+		keys = new long[INITIAL_CAPACITY];
+		values = new Object[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/**
+	 * Look up a marker by key
+	 *
+	 * @param key the key, see {@link #pack(int, int, int, int)}
+	 * @return the marker, or null
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public synchronized T get(long key)
+	{
+		final int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				return (T) values[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of indexed markers
+	 */
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	private void put(long key, T value)
+	{
+		if ((size + 1) * 2 > keys.length)
+		{
+			resize(keys.length * 2);
+		}
+
+		final int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				return;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		++size;
+	}
+
+	private void remove(long key)
+	{
+		final int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				break;
+			}
+		}
+
+		if (values[i] == null)
+		{
+			return;
+		}
+
+		// shift later entries of the probe sequence back into the gap
+		int gap = i;
+		for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask)
+		{
+			final int home = slot(keys[j], mask);
+			// move the entry if its home slot is not cyclically within (gap, j]
+			if (((j - home) & mask) >= ((j - gap) & mask))
+			{
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		values[gap] = null;
+		--size;
+	}
+
+	private void resize(int capacity)
+	{
+		final long[] oldKeys = keys;
+		final Object[] oldValues = values;
+		keys = new long[capacity];
+		values = new Object[capacity];
+
+		final int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; ++i)
+		{
+			if (oldValues[i] != null)
+			{
+				int j = slot(oldKeys[i], mask);
+				while (values[j] != null)
+				{
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	private static int slot(long key, int mask)
+	{
+		// spread the id and coordinate bits
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32) & mask;
+	}
+}
@@ -24,34 +24,250 @@
  */
 package net.runelite.client.util;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Matches text against patterns where {@code *} matches any run of characters. Matching is
+ * case insensitive for ASCII letters.
+ * <p>
+ * For matching against a list of patterns, such as a highlight list from config, {@link #compile(Collection)}
+ * the list once and use {@link #matchesAny(String)}, which does not allocate.
+ */
 public class WildcardMatcher
 {
-	private static final Pattern WILDCARD_PATTERN = Pattern.compile("(?i)[^*]+|(\\*)");
+	private static final char WILDCARD = '*';
+	private static final char[][] NO_PATTERNS = new char[0][];
+
+	/**
+	 * Open addressed hash table of the patterns without wildcards
+	 */
+	private final char[][] exact;
+	/**
+	 * Patterns with wildcards which start with a literal, indexed by their (folded) first character
+	 * modulo the table size
+	 */
+	private final char[][][] byFirstChar;
+	/**
+	 * Patterns which start with a wildcard
+	 */
+	private final char[][] leadingWildcard;
+
+	private WildcardMatcher(char[][] exact, char[][][] byFirstChar, char[][] leadingWildcard)
+	{
+		this.exact = exact;
+		this.byFirstChar = byFirstChar;
+		this.leadingWildcard = leadingWildcard;
+	}
 
 	public static boolean matches(String pattern, String text)
 	{
-		final Matcher matcher = WILDCARD_PATTERN.matcher(pattern);
-		final StringBuffer buffer = new StringBuffer();
+		return glob(fold(pattern), text);
+	}
+
+	/**
+	 * Compile a set of patterns
+	 *
+	 * @param patterns patterns, null patterns are ignored
+	 * @return a matcher which matches text matching any of the patterns
+	 */
+	public static WildcardMatcher compile(Collection<String> patterns)
+	{
+		final List<char[]> exact = new ArrayList<>();
+		final List<char[]> wildcard = new ArrayList<>();
+		final List<char[]> leadingWildcard = new ArrayList<>();
+		for (String pattern : patterns)
+		{
+			if (pattern == null)
+			{
+				continue;
+			}
+
+			final char[] p = fold(pattern);
+			if (pattern.indexOf(WILDCARD) == -1)
+			{
+				exact.add(p);
+			}
+			else if (p[0] == WILDCARD)
+			{
+				leadingWildcard.add(p);
+			}
+			else
+			{
+				wildcard.add(p);
+			}
+		}
+
+		// load factor <= 0.5
+		final char[][] exactTable = new char[tableSize(exact.size() * 2)][];
+		for (char[] p : exact)
+		{
+			int slot = hash(p) & (exactTable.length - 1);
+			while (exactTable[slot] != null)
+			{
+				if (Arrays.equals(exactTable[slot], p))
+				{
+					break;
+				}
+				slot = (slot + 1) & (exactTable.length - 1);
+			}
+			exactTable[slot] = p;
+		}
+
+		final int buckets = tableSize(wildcard.size());
+		final List<List<char[]>> byFirstChar = new ArrayList<>(buckets);
+		for (int i = 0; i < buckets; ++i)
+		{
+			byFirstChar.add(new ArrayList<>());
+		}
+		for (char[] p : wildcard)
+		{
+			byFirstChar.get(p[0] & (buckets - 1)).add(p);
+		}
+
+		final char[][][] byFirstCharTable = new char[buckets][][];
+		for (int i = 0; i < buckets; ++i)
+		{
+			final List<char[]> bucket = byFirstChar.get(i);
+			byFirstCharTable[i] = bucket.isEmpty() ? NO_PATTERNS : bucket.toArray(new char[0][]);
+		}
+
+		return new WildcardMatcher(exactTable, byFirstCharTable, leadingWildcard.toArray(new char[0][]));
+	}
+
+	/**
+	 * Test if the text matches any of the compiled patterns
+	 */
+	public boolean matchesAny(String text)
+	{
+		final int length = text.length();
+		if (exact.length > 0)
+		{
+			int h = 0;
+			for (int i = 0; i < length; ++i)
+			{
+				h = 31 * h + fold(text.charAt(i));
+			}
+
+			for (int slot = h & (exact.length - 1); exact[slot] != null; slot = (slot + 1) & (exact.length - 1))
+			{
+				if (equalsFolded(exact[slot], text))
+				{
+					return true;
+				}
+			}
+		}
 
-		buffer.append("(?i)");
-		while (matcher.find())
+		if (length > 0)
 		{
-			if (matcher.group(1) != null)
+			for (char[] p : byFirstChar[fold(text.charAt(0)) & (byFirstChar.length - 1)])
 			{
-				matcher.appendReplacement(buffer, ".*");
+				if (glob(p, text))
+				{
+					return true;
+				}
+			}
+		}
+
+		for (char[] p : leadingWildcard)
+		{
+			if (glob(p, text))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Match folded pattern p against text. On a mismatch the last wildcard is extended by one
+	 * character and matching resumes after it, so this runs without recursion or allocation.
+	 */
+	private static boolean glob(char[] p, String text)
+	{
+		final int length = text.length();
+		int pi = 0;
+		int ti = 0;
+		int star = -1;
+		int mark = 0;
+		while (ti < length)
+		{
+			if (pi < p.length && p[pi] == WILDCARD)
+			{
+				star = pi++;
+				mark = ti;
+			}
+			else if (pi < p.length && p[pi] == fold(text.charAt(ti)))
+			{
+				++pi;
+				++ti;
+			}
+			else if (star != -1)
+			{
+				pi = star + 1;
+				ti = ++mark;
 			}
 			else
 			{
-				matcher.appendReplacement(buffer, Matcher.quoteReplacement(Pattern.quote(matcher.group(0))));
+				return false;
+			}
+		}
+
+		while (pi < p.length && p[pi] == WILDCARD)
+		{
+			++pi;
+		}
+		return pi == p.length;
+	}
+
+	private static boolean equalsFolded(char[] p, String text)
+	{
+		if (p.length != text.length())
+		{
+			return false;
+		}
+
+		for (int i = 0; i < p.length; ++i)
+		{
+			if (p[i] != fold(text.charAt(i)))
+			{
+				return false;
 			}
 		}
+		return true;
+	}
+
+	private static int hash(char[] p)
+	{
+		int h = 0;
+		for (char c : p)
+		{
+			h = 31 * h + c;
+		}
+		return h;
+	}
 
-		matcher.appendTail(buffer);
-		final String replaced = buffer.toString();
+	private static int tableSize(int n)
+	{
+		return Math.max(1, Integer.highestOneBit(Math.max(1, n) - 1) << 1);
+	}
 
-		return text.matches(replaced);
+	private static char[] fold(String s)
+	{
+		final char[] c = new char[s.length()];
+		for (int i = 0; i < c.length; ++i)
+		{
+			c[i] = fold(s.charAt(i));
+		}
+		return c;
+	}
+
+	// (?i) without UNICODE_CASE, which this replaced, only folded ASCII
+	private static char fold(char c)
+	{
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
 	}
 }
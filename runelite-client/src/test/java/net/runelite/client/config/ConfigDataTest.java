@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConfigDataTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File configFile;
+	private File journalFile;
+
+	@Before
+	public void before() throws IOException
+	{
+		configFile = new File(folder.getRoot(), "test.properties");
+		journalFile = ConfigData.journalFile(configFile);
+	}
+
+	@Test
+	public void testJournal() throws IOException
+	{
+		ConfigData data = new ConfigData(configFile);
+		data.setProperty("a", "1");
+		data.setProperty("b", "2");
+		save(data);
+
+		// first save writes the properties file
+		assertTrue(configFile.exists());
+		assertFalse(journalFile.exists());
+
+		data.setProperty("a", "3");
+		data.unset("b");
+		data.setProperty("c", "4");
+		save(data);
+
+		// later saves only append to the journal
+		assertTrue(journalFile.exists());
+		Properties props = readProperties();
+		assertEquals("1", props.getProperty("a"));
+		assertEquals("2", props.getProperty("b"));
+
+		ConfigData reloaded = new ConfigData(configFile);
+		assertEquals(Map.of("a", "3", "c", "4"), reloaded.get());
+
+		ConfigData.compact(configFile);
+		assertFalse(journalFile.exists());
+		props = readProperties();
+		assertEquals("3", props.getProperty("a"));
+		assertNull(props.getProperty("b"));
+		assertEquals("4", props.getProperty("c"));
+	}
+
+	@Test
+	public void testMerge()
+	{
+		ConfigData first = new ConfigData(configFile);
+		first.setProperty("a", "1");
+		save(first);
+
+		ConfigData second = new ConfigData(configFile);
+		first.setProperty("b", "2");
+		second.setProperty("c", "3");
+		save(first);
+		save(second);
+
+		assertEquals(Map.of("a", "1", "b", "2", "c", "3"), new ConfigData(configFile).get());
+	}
+
+	@Test
+	public void testTornRecord() throws IOException
+	{
+		ConfigData data = new ConfigData(configFile);
+		data.setProperty("a", "1");
+		save(data);
+		data.setProperty("a", "2");
+		save(data);
+		data.setProperty("a", "3");
+		save(data);
+
+		// simulate a crash part way through writing the last record
+		try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw"))
+		{
+			raf.setLength(raf.length() - 1);
+		}
+		assertEquals("2", new ConfigData(configFile).getProperty("a"));
+
+		data.setProperty("b", "4");
+		save(data);
+		assertEquals(Map.of("a", "2", "b", "4"), new ConfigData(configFile).get());
+	}
+
+	@Test
+	public void testCompaction()
+	{
+		ConfigData data = new ConfigData(configFile);
+		data.setProperty("a", "0");
+		save(data);
+
+		// a value large enough that the journal outgrows the properties file quickly
+		String large = "x".repeat(16 * 1024);
+		for (int i = 0; i < 8; ++i)
+		{
+			data.setProperty("a", large + i);
+			save(data);
+		}
+
+		assertTrue(journalFile.length() < 64 * 1024);
+		assertEquals(large + 7, new ConfigData(configFile).getProperty("a"));
+	}
+
+	private static void save(ConfigData data)
+	{
+		data.patch(data.swapChanges());
+	}
+
+	private Properties readProperties() throws IOException
+	{
+		Properties props = new Properties();
+		try (InputStreamReader reader = new InputStreamReader(new FileInputStream(configFile), StandardCharsets.UTF_8))
+		{
+			props.load(reader);
+		}
+		return props;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class EventBusTest
+{
+	private static class TestEvent
+	{
+	}
+
+	private static class OtherEvent
+	{
+	}
+
+	private static class TestSubscriber
+	{
+		private final List<String> calls;
+		private final String name;
+
+		TestSubscriber(List<String> calls, String name)
+		{
+			this.calls = calls;
+			this.name = name;
+		}
+
+		@Subscribe
+		public void onTestEvent(TestEvent event)
+		{
+			calls.add(name);
+		}
+	}
+
+	private static class HighPrioritySubscriber
+	{
+		private final List<String> calls;
+
+		HighPrioritySubscriber(List<String> calls)
+		{
+			this.calls = calls;
+		}
+
+		@Subscribe(priority = 1)
+		public void onTestEvent(TestEvent event)
+		{
+			calls.add("high");
+		}
+	}
+
+	@Test
+	public void testPriority()
+	{
+		final List<String> calls = new ArrayList<>();
+		final EventBus eventBus = new EventBus();
+		eventBus.register(new TestSubscriber(calls, "a"));
+		eventBus.register(new HighPrioritySubscriber(calls));
+		eventBus.register(TestEvent.class, e -> calls.add("low"), -1);
+
+		eventBus.post(new TestEvent());
+		assertEquals(List.of("high", "a", "low"), calls);
+	}
+
+	@Test
+	public void testUnregister()
+	{
+		final List<String> calls = new ArrayList<>();
+		final EventBus eventBus = new EventBus();
+		final TestSubscriber a = new TestSubscriber(calls, "a");
+		final TestSubscriber b = new TestSubscriber(calls, "b");
+		eventBus.register(a);
+		eventBus.register(b);
+		final EventBus.Subscriber other = eventBus.register(OtherEvent.class, e -> calls.add("other"), 0);
+
+		eventBus.unregister(a);
+		eventBus.post(new TestEvent());
+		assertEquals(List.of("b"), calls);
+
+		eventBus.unregister(other);
+		eventBus.post(new OtherEvent());
+		assertEquals(List.of("b"), calls);
+		assertEquals(1, eventBus.getSubscribers().size());
+	}
+
+	@Test
+	public void testProfiling()
+	{
+		final List<String> calls = new ArrayList<>();
+		final EventBus eventBus = new EventBus(e ->
+		{
+		});
+		final EventBus.Subscriber sub = eventBus.register(TestEvent.class, e ->
+		{
+			throw new IllegalStateException();
+		}, 0);
+		eventBus.register(new TestSubscriber(calls, "a"));
+
+		eventBus.post(new TestEvent());
+		assertEquals(0, sub.getCallCount());
+
+		eventBus.setProfiling(true);
+		eventBus.post(new TestEvent());
+		eventBus.post(new TestEvent());
+		assertEquals(2, sub.getCallCount());
+		assertTrue(sub.getTotalNanos() >= sub.getMaxNanos());
+		assertEquals(3, calls.size());
+
+		eventBus.resetTiming();
+		assertEquals(0, sub.getCallCount());
+		assertEquals(0, sub.getMaxNanos());
+	}
+}
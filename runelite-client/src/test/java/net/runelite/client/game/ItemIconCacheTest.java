@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ItemID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemIconCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+
+	@Before
+	public void before() throws IOException
+	{
+		directory = folder.newFolder();
+	}
+
+	private static BufferedImage image(int argb)
+	{
+		BufferedImage image = new BufferedImage(36, 32, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < image.getHeight(); ++y)
+		{
+			// leave half transparent
+			for (int x = 0; x < image.getWidth() / 2; ++x)
+			{
+				image.setRGB(x, y, argb + x + y);
+			}
+		}
+		return image;
+	}
+
+	@Test
+	public void testReadWrite()
+	{
+		ItemIconCache cache = new ItemIconCache(directory, 1024 * 1024);
+		BufferedImage image = image(0xFF102030);
+		BufferedImage read = new BufferedImage(36, 32, BufferedImage.TYPE_INT_ARGB);
+
+		assertFalse(cache.read("4151_1_0_512_0", read));
+
+		cache.write("4151_1_0_512_0", image);
+		assertTrue(cache.read("4151_1_0_512_0", read));
+		for (int y = 0; y < image.getHeight(); ++y)
+		{
+			for (int x = 0; x < image.getWidth(); ++x)
+			{
+				assertEquals(image.getRGB(x, y), read.getRGB(x, y));
+			}
+		}
+
+		// wrong size
+		assertFalse(cache.read("4151_1_0_512_0", new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB)));
+		assertFalse(new File(directory, "4151_1_0_512_0.png").exists());
+	}
+
+	@Test
+	public void testTrim()
+	{
+		ItemIconCache cache = new ItemIconCache(directory, Long.MAX_VALUE);
+		cache.write("old", image(0xFF000000));
+		cache.write("new", image(0xFF000001));
+		long length = new File(directory, "old.png").length();
+		assertTrue(new File(directory, "old.png").setLastModified(1000L));
+
+		cache = new ItemIconCache(directory, length * 2 - 1);
+		cache.trim();
+		assertFalse(new File(directory, "old.png").exists());
+		assertTrue(new File(directory, "new.png").exists());
+	}
+
+	@Test
+	public void testKey()
+	{
+		ItemComposition itemComposition = mock(ItemComposition.class);
+		when(itemComposition.getId()).thenReturn(ItemID.ABYSSAL_WHIP);
+		when(itemComposition.getInventoryModel()).thenReturn(5412);
+
+		String key = ItemIconCache.key(228, itemComposition, 1, false, 512);
+		assertTrue(key.startsWith("4151_1_0_512_"));
+		assertEquals(key, ItemIconCache.key(228, itemComposition, 1, false, 512));
+		assertNotEquals(key, ItemIconCache.key(229, itemComposition, 1, false, 512));
+		assertNotEquals(key, ItemIconCache.key(228, itemComposition, 1, true, 512));
+
+		assertNotEquals(key, ItemIconCache.key(228, itemComposition, 1, false, 512, new byte[]{1}));
+		assertNotEquals(ItemIconCache.key(228, itemComposition, 1, false, 512, new byte[]{1}),
+			ItemIconCache.key(228, itemComposition, 1, false, 512, new byte[]{2}));
+
+		when(itemComposition.getColorToReplaceWith()).thenReturn(new short[]{1});
+		assertNotEquals(key, ItemIconCache.key(228, itemComposition, 1, false, 512));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import net.runelite.api.ItemID;
+import net.runelite.http.api.item.ItemPrice;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ItemPriceIndexTest
+{
+	private static final ItemPriceIndex INDEX = new ItemPriceIndex(new ItemPrice[]{
+		price(ItemID.RUNE_SCIMITAR, "Rune scimitar", 15_000, 14_800),
+		price(ItemID.RUNE_POUCH, "Rune pouch", 1_000_000, 0),
+		price(ItemID.DRAGON_SCIMITAR, "Dragon scimitar", 60_000, 59_000),
+		price(ItemID.RUNITE_ORE, "Runite ore", 11_000, 10_900),
+		price(1, "Rune", 0, 0),
+		price(ItemID.NATURE_RUNE, "Nature rune", 200, 190),
+		price(2, "Prune", 5, 5),
+	});
+
+	private static ItemPrice price(int id, String name, int price, int wikiPrice)
+	{
+		ItemPrice itemPrice = new ItemPrice();
+		itemPrice.setId(id);
+		itemPrice.setName(name);
+		itemPrice.setPrice(price);
+		itemPrice.setWikiPrice(wikiPrice);
+		return itemPrice;
+	}
+
+	private static List<String> names(List<ItemPrice> prices)
+	{
+		return prices.stream().map(ItemPrice::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testPrices()
+	{
+		assertEquals(7, INDEX.size());
+		assertEquals(60_000, INDEX.getPrice(ItemID.DRAGON_SCIMITAR));
+		assertEquals(59_000, INDEX.getWikiPrice(ItemID.DRAGON_SCIMITAR));
+		assertEquals(0, INDEX.getPrice(ItemID.ABYSSAL_WHIP));
+		assertEquals(0, INDEX.getPrice(-1));
+		assertEquals(0, INDEX.getPrice(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testSearch()
+	{
+		assertEquals(List.of("Rune", "Rune pouch", "Rune scimitar", "Nature rune", "Prune"),
+			names(INDEX.search("RUNE", false, 0, Integer.MAX_VALUE)));
+		assertEquals(List.of("Dragon scimitar", "Rune scimitar"),
+			names(INDEX.search("scim", false, 0, Integer.MAX_VALUE)));
+		assertEquals(7, INDEX.search("", false, 0, Integer.MAX_VALUE).size());
+		assertEquals(List.of("Rune", "Rune pouch", "Rune scimitar", "Runite ore", "Nature rune", "Prune"),
+			names(INDEX.search("ru", false, 0, Integer.MAX_VALUE)));
+		assertTrue(INDEX.search("whip", true, 0, Integer.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	public void testPaging()
+	{
+		assertEquals(List.of("Rune pouch", "Rune scimitar"), names(INDEX.search("rune", false, 1, 2)));
+		assertEquals(List.of("Prune"), names(INDEX.search("rune", false, 4, 2)));
+		assertTrue(INDEX.search("rune", false, 5, 2).isEmpty());
+	}
+
+	@Test
+	public void testFuzzy()
+	{
+		assertEquals(List.of("Dragon scimitar"), names(INDEX.search("dragn scim", true, 0, 10)));
+		assertEquals(List.of("Rune scimitar"), names(INDEX.search("rune scimtar", true, 0, 10)));
+		assertEquals(List.of("Rune", "Rune pouch", "Rune scimitar"), names(INDEX.search("rine", true, 0, 10)));
+		assertEquals(List.of("Rune pouch"), names(INDEX.search("rine", true, 1, 1)));
+		assertTrue(INDEX.search("rine", false, 0, 10).isEmpty());
+
+		// fuzzy matches follow the exact ones
+		assertEquals(List.of("Rune", "Rune pouch", "Rune scimitar", "Nature rune", "Prune", "Runite ore"),
+			names(INDEX.search("rune", true, 0, 10)));
+		assertEquals(List.of("Prune", "Runite ore"), names(INDEX.search("rune", true, 4, 2)));
+		assertEquals(List.of("Runite ore"), names(INDEX.search("rune", true, 5, 2)));
+	}
+}
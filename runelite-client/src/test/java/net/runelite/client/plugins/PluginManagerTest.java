@@ -45,6 +45,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.swing.SwingUtilities;
 import net.runelite.api.Client;
 import net.runelite.client.RuneLite;
 import net.runelite.client.RuneLiteModule;
@@ -54,10 +60,16 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.task.Scheduler;
+import net.runelite.client.task.TaskExecutors;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -89,6 +101,7 @@ public class PluginManagerTest
 	@Bind
 	private ConfigManager configManager;
 
+	private TaskExecutors taskExecutors;
 	private Set<Class<?>> pluginClasses;
 	private Set<Class<?>> configClasses;
 
@@ -117,6 +130,7 @@ public class PluginManagerTest
 			.with(BoundFieldModule.of(this)));
 
 		RuneLite.setInjector(injector);
+		taskExecutors = injector.getInstance(TaskExecutors.class);
 
 		// Find plugins and configs we expect to have
 		pluginClasses = new HashSet<>();
@@ -142,7 +156,7 @@ public class PluginManagerTest
 	@Test
 	public void testLoadPlugins() throws Exception
 	{
-		PluginManager pluginManager = new PluginManager(false, false, null, null, null, null);
+		PluginManager pluginManager = new PluginManager(false, false, null, null, taskExecutors, null, null);
 		pluginManager.setOutdated(true);
 		pluginManager.loadCorePlugins();
 		Collection<Plugin> plugins = pluginManager.getPlugins();
@@ -153,7 +167,7 @@ public class PluginManagerTest
 			.count();
 		assertEquals(expected, plugins.size());
 
-		pluginManager = new PluginManager(false, false, null, null, null, null);
+		pluginManager = new PluginManager(false, false, null, null, taskExecutors, null, null);
 		pluginManager.loadCorePlugins();
 		plugins = pluginManager.getPlugins();
 
@@ -169,10 +183,24 @@ public class PluginManagerTest
 		assertEquals(expected, plugins.size());
 	}
 
+	@Test
+	public void testPluginIndex() throws Exception
+	{
+		PluginManager pluginManager = new PluginManager(false, false, null, null, taskExecutors, null, null);
+		List<Class<?>> indexed = pluginManager.readPluginIndex();
+		// the index is written by the build, and is not usable after the plugins are compiled elsewhere
+		assumeNotNull(indexed);
+
+		Set<Class<?>> expected = pluginClasses.stream()
+			.filter(cl -> !cl.getAnnotation(PluginDescriptor.class).developerPlugin())
+			.collect(Collectors.toSet());
+		assertEquals(expected, new HashSet<>(indexed));
+	}
+
 	@Test
 	public void dumpGraph() throws Exception
 	{
-		PluginManager pluginManager = new PluginManager(true, false, null, null, null, null);
+		PluginManager pluginManager = new PluginManager(true, false, null, null, taskExecutors, null, null);
 		pluginManager.loadCorePlugins();
 
 		Injector graphvizInjector = Guice.createInjector(new GraphvizModule());
@@ -230,6 +258,71 @@ public class PluginManagerTest
 		}
 	}
 
+	@Test
+	public void testStopPluginCancelsTasks() throws Exception
+	{
+		PluginManager pluginManager = new PluginManager(false, false, new EventBus(),
+			RuneLite.getInjector().getInstance(Scheduler.class), taskExecutors, configManager, null);
+		TaskPlugin plugin = (TaskPlugin) pluginManager.loadPlugins(List.of(TaskPlugin.class), null).get(0);
+
+		SwingUtilities.invokeAndWait(() ->
+		{
+			try
+			{
+				pluginManager.startPlugin(plugin);
+				assertFalse(plugin.task.isDone());
+				pluginManager.stopPlugin(plugin);
+			}
+			catch (PluginInstantiationException ex)
+			{
+				throw new RuntimeException(ex);
+			}
+		});
+
+		assertTrue(plugin.task.isCancelled());
+	}
+
+	@PluginDescriptor(name = "Task test")
+	public static class TaskPlugin extends Plugin
+	{
+		@Inject
+		private ScheduledExecutorService executor;
+
+		private ScheduledFuture<?> task;
+		private int runs;
+
+		@Override
+		protected void startUp()
+		{
+			task = executor.scheduleWithFixedDelay(() -> ++runs, 1, 1, TimeUnit.HOURS);
+		}
+	}
+
+	@Test
+	public void testLoadPluginsAfterDependencies() throws Exception
+	{
+		PluginManager pluginManager = new PluginManager(false, false, null, null, taskExecutors, null, null);
+		List<Plugin> plugins = pluginManager.loadPlugins(List.of(DependentPlugin.class, TaskPlugin.class), null);
+
+		assertEquals(2, plugins.size());
+		TaskPlugin dependency = (TaskPlugin) plugins.get(0);
+		DependentPlugin dependent = (DependentPlugin) plugins.get(1);
+		assertSame(dependency, dependent.dependency);
+		// each plugin still has its own executor
+		assertNotSame(dependency.executor, dependent.executor);
+	}
+
+	@PluginDescriptor(name = "Dependent test")
+	@PluginDependency(TaskPlugin.class)
+	public static class DependentPlugin extends Plugin
+	{
+		@Inject
+		private TaskPlugin dependency;
+
+		@Inject
+		private ScheduledExecutorService executor;
+	}
+
 	@Test
 	public void testTopologicalSort()
 	{
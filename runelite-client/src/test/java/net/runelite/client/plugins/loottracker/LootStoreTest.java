@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.loottracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.http.api.loottracker.LootRecordType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LootStoreTest
+{
+	private static final String PROFILE = "$rsprofile--1";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static ConfigLoot kill(LootRecordType type, String name, int kills, int... drops)
+	{
+		ConfigLoot loot = new ConfigLoot(type, name);
+		loot.kills = kills;
+		loot.drops = drops;
+		return loot;
+	}
+
+	private LootStore open() throws IOException
+	{
+		return LootStore.open(folder.getRoot(), PROFILE);
+	}
+
+	@Test
+	public void testAppend() throws IOException
+	{
+		Instant t1 = Instant.ofEpochMilli(1000);
+		Instant t2 = Instant.ofEpochMilli(2000);
+
+		try (LootStore store = open())
+		{
+			store.append(Arrays.asList(kill(LootRecordType.NPC, "Goblin", 1, 995, 5), kill(LootRecordType.EVENT, "Barrows", 1, 4708, 1)), t1);
+			store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 2, 995, 10, 526, 2)), t2);
+
+			ConfigLoot goblin = store.get(LootRecordType.NPC, "Goblin");
+			assertEquals(3, goblin.kills);
+			assertEquals(t1, goblin.first);
+			assertEquals(t2, goblin.last);
+			assertArrayEquals(new int[]{995, 15, 526, 2}, goblin.drops);
+		}
+
+		// reopen from the index
+		try (LootStore store = open())
+		{
+			assertEquals(2, store.size());
+			ConfigLoot goblin = store.get(LootRecordType.NPC, "Goblin");
+			assertEquals(3, goblin.kills);
+			assertArrayEquals(new int[]{995, 15, 526, 2}, goblin.drops);
+			assertEquals(1, store.get(LootRecordType.EVENT, "Barrows").kills);
+			assertNull(store.get(LootRecordType.EVENT, "Goblin"));
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException
+	{
+		LootStore first = open();
+		first.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1, 995, 5)), Instant.ofEpochMilli(1000));
+		first.close();
+
+		// simulate a crash, the index is behind the log
+		LootStore crashed = open();
+		crashed.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1, 995, 5)), Instant.ofEpochMilli(2000));
+		crashed.append(Collections.singletonList(kill(LootRecordType.NPC, "Cow", 1, 1739, 1)), Instant.ofEpochMilli(3000));
+
+		try (LootStore store = open())
+		{
+			assertEquals(2, store.size());
+			ConfigLoot goblin = store.get(LootRecordType.NPC, "Goblin");
+			assertEquals(2, goblin.kills);
+			assertArrayEquals(new int[]{995, 10}, goblin.drops);
+			assertEquals(Instant.ofEpochMilli(2000), goblin.last);
+			assertEquals(1, store.get(LootRecordType.NPC, "Cow").kills);
+		}
+
+		crashed.close();
+	}
+
+	@Test
+	public void testTruncatedRecord() throws IOException
+	{
+		try (LootStore store = open())
+		{
+			store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1, 995, 5)), Instant.ofEpochMilli(1000));
+		}
+
+		File log = new File(folder.getRoot(), "_rsprofile--1.log");
+		new File(folder.getRoot(), "_rsprofile--1.idx").delete();
+		long size = log.length();
+		try (RandomAccessFile raf = new RandomAccessFile(log, "rw"))
+		{
+			// the start of a kill record
+			raf.seek(size);
+			raf.write(new byte[]{2, 0, 0, 0});
+		}
+
+		try (LootStore store = open())
+		{
+			assertEquals(size, log.length());
+			assertEquals(1, store.get(LootRecordType.NPC, "Goblin").kills);
+
+			store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1)), Instant.ofEpochMilli(2000));
+			assertEquals(2, store.get(LootRecordType.NPC, "Goblin").kills);
+		}
+	}
+
+	@Test
+	public void testTornKillRecord() throws IOException
+	{
+		try (LootStore store = open())
+		{
+			store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1, 995, 5)), Instant.ofEpochMilli(1000));
+		}
+
+		File log = new File(folder.getRoot(), "_rsprofile--1.log");
+		new File(folder.getRoot(), "_rsprofile--1.idx").delete();
+		long size = log.length();
+		try (RandomAccessFile raf = new RandomAccessFile(log, "rw"))
+		{
+			// a kill record of 3 kills cut off in its drops
+			raf.seek(size);
+			raf.write(new byte[]{2, 0, 0, 0, 0, 0, 0, 0, 7, (byte) 0xd0, 3, 2, 1});
+		}
+
+		try (LootStore store = open())
+		{
+			assertEquals(size, log.length());
+			assertEquals(1, store.get(LootRecordType.NPC, "Goblin").kills);
+		}
+
+		// the index snapshot written on close has the same count
+		try (LootStore store = open())
+		{
+			assertEquals(1, store.get(LootRecordType.NPC, "Goblin").kills);
+		}
+	}
+
+	@Test
+	public void testRemove() throws IOException
+	{
+		try (LootStore store = open())
+		{
+			store.append(Arrays.asList(kill(LootRecordType.NPC, "Goblin", 1), kill(LootRecordType.NPC, "Cow", 1)), Instant.ofEpochMilli(1000));
+			store.remove(LootRecordType.NPC, "Goblin");
+			assertNull(store.get(LootRecordType.NPC, "Goblin"));
+
+			store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1)), Instant.ofEpochMilli(2000));
+			store.removeBefore(Instant.ofEpochMilli(1500));
+			assertNull(store.get(LootRecordType.NPC, "Cow"));
+		}
+
+		new File(folder.getRoot(), "_rsprofile--1.idx").delete();
+		try (LootStore store = open())
+		{
+			assertEquals(1, store.size());
+			assertEquals(1, store.get(LootRecordType.NPC, "Goblin").kills);
+
+			store.clear();
+			assertEquals(0, store.size());
+		}
+
+		try (LootStore store = open())
+		{
+			assertEquals(0, store.size());
+		}
+	}
+
+	@Test
+	public void testPage() throws IOException
+	{
+		try (LootStore store = open())
+		{
+			for (int i = 0; i < 10; ++i)
+			{
+				store.append(Collections.singletonList(kill(LootRecordType.NPC, "npc" + i, 1)), Instant.ofEpochMilli(i * 1000L));
+			}
+
+			List<ConfigLoot> page = store.page(0, 4);
+			assertEquals(4, page.size());
+			assertEquals("npc9", page.get(0).name);
+			assertEquals("npc6", page.get(3).name);
+
+			page = store.page(8, 4);
+			assertEquals(2, page.size());
+			assertEquals("npc0", page.get(1).name);
+			assertTrue(store.page(10, 4).isEmpty());
+		}
+	}
+
+	@Test
+	public void testPutAll() throws IOException
+	{
+		ConfigLoot migrated = kill(LootRecordType.EVENT, "Barrows", 50, 4708, 2);
+		migrated.first = Instant.ofEpochMilli(1000);
+		migrated.last = Instant.ofEpochMilli(5000);
+
+		try (LootStore store = open())
+		{
+			store.putAll(Collections.singletonList(migrated));
+			store.append(Collections.singletonList(kill(LootRecordType.EVENT, "Barrows", 1, 4708, 1)), Instant.ofEpochMilli(6000));
+		}
+
+		new File(folder.getRoot(), "_rsprofile--1.idx").delete();
+		try (LootStore store = open())
+		{
+			ConfigLoot barrows = store.get(LootRecordType.EVENT, "Barrows");
+			assertEquals(51, barrows.kills);
+			assertEquals(Instant.ofEpochMilli(1000), barrows.first);
+			assertEquals(Instant.ofEpochMilli(6000), barrows.last);
+			assertArrayEquals(new int[]{4708, 3}, barrows.drops);
+		}
+	}
+
+	@Test
+	public void testCompact() throws IOException
+	{
+		File log = new File(folder.getRoot(), "_rsprofile--1.log");
+		try (LootStore store = open())
+		{
+			for (int i = 0; i < 20_000; ++i)
+			{
+				store.append(Collections.singletonList(kill(LootRecordType.NPC, "Goblin", 1, 995, 1, 526, 1)), Instant.ofEpochMilli(i));
+			}
+			assertTrue(log.length() > 256 * 1024);
+		}
+
+		assertTrue(log.length() < 1024);
+
+		new File(folder.getRoot(), "_rsprofile--1.idx").delete();
+		try (LootStore store = open())
+		{
+			ConfigLoot goblin = store.get(LootRecordType.NPC, "Goblin");
+			assertEquals(20_000, goblin.kills);
+			assertArrayEquals(new int[]{995, 20_000, 526, 20_000}, goblin.drops);
+			assertEquals(Instant.ofEpochMilli(0), goblin.first);
+			assertEquals(Instant.ofEpochMilli(19_999), goblin.last);
+		}
+	}
+}
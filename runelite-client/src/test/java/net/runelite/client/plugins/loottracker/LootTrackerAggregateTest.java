@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.loottracker;
+
+import com.google.common.collect.ImmutableMap;
+import net.runelite.api.ItemID;
+import net.runelite.http.api.loottracker.LootRecordType;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LootTrackerAggregateTest
+{
+	private static LootTrackerRecord record(int kills, LootTrackerItem... items)
+	{
+		return new LootTrackerRecord("Goblin", "(lvl-2)", LootRecordType.NPC, items, kills);
+	}
+
+	@Test
+	public void testAdd()
+	{
+		LootTrackerAggregate aggregate = new LootTrackerAggregate("Goblin", "(lvl-2)", LootRecordType.NPC);
+		aggregate.add(record(1,
+			new LootTrackerItem(ItemID.COINS_995, "Coins", 10, 1, 1, false),
+			new LootTrackerItem(ItemID.BONES, "Bones", 1, 100, 5, true)));
+		aggregate.add(record(2,
+			new LootTrackerItem(ItemID.BONES, "Bones", 2, 150, 5, true)));
+		aggregate.add(record(1));
+
+		assertEquals(3, aggregate.getKills(false));
+		assertEquals(1, aggregate.getKills(true));
+		// bones keep the price they were first added at
+		assertEquals(10 + 300, aggregate.getGePrice(false));
+		assertEquals(10, aggregate.getGePrice(true));
+		assertEquals(10 + 15, aggregate.getHaPrice(false));
+		assertEquals(10, aggregate.getHaPrice(true));
+		assertTrue(aggregate.hasItems(true));
+
+		LootTrackerRecord record = aggregate.toRecord();
+		assertEquals(4, record.getKills());
+		assertArrayEquals(new LootTrackerItem[]{
+			new LootTrackerItem(ItemID.COINS_995, "Coins", 10, 1, 1, false),
+			new LootTrackerItem(ItemID.BONES, "Bones", 3, 100, 5, true),
+		}, record.getItems());
+	}
+
+	@Test
+	public void testPriced()
+	{
+		LootTrackerAggregate aggregate = LootTrackerAggregate.of(record(1,
+			new LootTrackerItem(ItemID.BONES, "Bones", 1, 100, 5, false)));
+		LootTrackerRecord record = record(1,
+			new LootTrackerItem(ItemID.BONES, "Bones", 2, 150, 5, false),
+			new LootTrackerItem(ItemID.COINS_995, "Coins", 10, 1, 1, false));
+		aggregate.add(record);
+
+		// priced like the aggregate, which keeps the price bones were first added at
+		assertArrayEquals(new LootTrackerItem[]{
+			new LootTrackerItem(ItemID.BONES, "Bones", 2, 100, 5, false),
+			new LootTrackerItem(ItemID.COINS_995, "Coins", 10, 1, 1, false),
+		}, aggregate.priced(record).getItems());
+	}
+
+	@Test
+	public void testMapping()
+	{
+		LootTrackerAggregate aggregate = LootTrackerAggregate.of(record(1,
+			new LootTrackerItem(ItemID.CLUE_SCROLL_MEDIUM_3602, "Clue scroll (medium)", 1, 0, 0, true)));
+		aggregate.add(record(1,
+			new LootTrackerItem(ItemID.CLUE_SCROLL_MEDIUM_3604, "Clue scroll (medium)", 1, 0, 0, true)));
+
+		assertFalse(aggregate.hasItems(true));
+		assertTrue(aggregate.hasItems(false));
+		assertArrayEquals(new LootTrackerItem[]{
+			new LootTrackerItem(ItemID.CLUE_SCROLL_MEDIUM, "Clue scroll (medium)", 2, 0, 0, true),
+		}, aggregate.toRecord().getItems());
+	}
+
+	@Test
+	public void testReprice()
+	{
+		LootTrackerAggregate aggregate = LootTrackerAggregate.of(record(1,
+			new LootTrackerItem(ItemID.COINS_995, "Coins", 10, 1, 1, false),
+			new LootTrackerItem(ItemID.BONES, "Bones", 2, 100, 5, true)));
+
+		aggregate.reprice(ImmutableMap.of(ItemID.BONES, 120));
+
+		assertEquals(10 + 240, aggregate.getGePrice(false));
+		assertEquals(10, aggregate.getGePrice(true));
+		assertEquals(10 + 10, aggregate.getHaPrice(false));
+		assertEquals(120, aggregate.toRecord().getItems()[1].getGePrice());
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.rs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GamepackCacheTest
+{
+	private static final String MODULUS = "abcdef";
+
+	@Rule
+	public final MockWebServer server = new MockWebServer();
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+	private GamepackCache cache;
+	private byte[] jar;
+
+	@Before
+	public void before() throws IOException
+	{
+		directory = folder.newFolder();
+		cache = new GamepackCache(new OkHttpClient(), directory);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JarOutputStream jos = new JarOutputStream(out))
+		{
+			jos.putNextEntry(new JarEntry("test.txt"));
+			jos.write("test".getBytes(StandardCharsets.UTF_8));
+			jos.closeEntry();
+		}
+		jar = out.toByteArray();
+	}
+
+	@Test
+	public void testRevalidate() throws Exception
+	{
+		server.enqueue(new MockResponse()
+			.setBody(new Buffer().write(jar))
+			.setHeader("ETag", "\"1\""));
+		server.enqueue(new MockResponse().setResponseCode(304));
+
+		File first = cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		assertTrue(first.exists());
+
+		RecordedRequest request = server.takeRequest();
+		assertNull(request.getHeader("If-None-Match"));
+
+		File second = cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		assertEquals(first, second);
+		assertEquals(first.lastModified(), second.lastModified());
+
+		request = server.takeRequest();
+		assertEquals("\"1\"", request.getHeader("If-None-Match"));
+	}
+
+	@Test
+	public void testPatchParameters() throws Exception
+	{
+		server.enqueue(new MockResponse()
+			.setBody(new Buffer().write(jar))
+			.setHeader("ETag", "\"1\""));
+		server.enqueue(new MockResponse().setResponseCode(304));
+
+		File first = cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		File second = cache.getPatchedGamepack(server.url("/gamepack.jar"), "localhost", MODULUS);
+		assertNotEquals(first, second);
+		assertFalse(first.exists());
+		assertTrue(second.exists());
+	}
+
+	@Test
+	public void testKeepPartialJars() throws Exception
+	{
+		server.enqueue(new MockResponse()
+			.setBody(new Buffer().write(jar))
+			.setHeader("ETag", "\"1\""));
+
+		// a jar another client is still patching
+		File partial = File.createTempFile("patching-", ".jar", directory);
+		cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		assertTrue(partial.exists());
+	}
+
+	@Test
+	public void testOffline() throws Exception
+	{
+		server.enqueue(new MockResponse()
+			.setBody(new Buffer().write(jar))
+			.setHeader("ETag", "\"1\""));
+		server.enqueue(new MockResponse().setResponseCode(503));
+
+		File first = cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		File second = cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+		assertEquals(first, second);
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoCache() throws Exception
+	{
+		server.enqueue(new MockResponse().setResponseCode(503));
+		cache.getPatchedGamepack(server.url("/gamepack.jar"), "127.0.0.1", MODULUS);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.rs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Patches a real gamepack, given with -Dgamepack=/path/to/gamepack.jar, on one thread
+ * and on the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GnomePatcherBenchmark
+{
+	private static final String HOST = "127.0.0.1";
+	private static final String MODULUS = "d48583219eb5bafdd5dbf2f3561c84b83c5966e8f6ba546adba42437acc6e42402052e704261a549a7cfad45dd77cb9eb32e830202dfd6b60b5551d8b040f0bbc4c9f564ae711d4335696f6427f60767c6dfcb586355b3a1170e4c0be30235abc5659f183d98d0171ad5f234e3429c178b0bc4ac6b4149484720abde9a39b07f";
+
+	private byte[] gamepack;
+	private ForkJoinPool singleThread;
+	private GnomePatcher serialPatcher;
+	private GnomePatcher parallelPatcher;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		final String path = System.getProperty("gamepack");
+		if (path == null)
+		{
+			throw new IllegalStateException("-Dgamepack=<path to gamepack jar> is required");
+		}
+
+		gamepack = Files.readAllBytes(new File(path).toPath());
+		singleThread = new ForkJoinPool(1);
+		serialPatcher = new GnomePatcher(HOST, MODULUS, singleThread);
+		parallelPatcher = new GnomePatcher(HOST, MODULUS);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		singleThread.shutdown();
+	}
+
+	@Benchmark
+	public byte[] serial() throws IOException
+	{
+		return serialPatcher.patchGamepack(gamepack);
+	}
+
+	@Benchmark
+	public byte[] parallel() throws IOException
+	{
+		return parallelPatcher.patchGamepack(gamepack);
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(GnomePatcherBenchmark.class.getSimpleName())
+			.jvmArgsAppend("-Dgamepack=" + System.getProperty("gamepack"))
+			.build()).run();
+	}
+}
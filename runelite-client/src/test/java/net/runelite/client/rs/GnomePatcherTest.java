@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.rs;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class GnomePatcherTest
+{
+	private static final String HOST = "127.0.0.1";
+	private static final String MODULUS = "ab";
+
+	private final GnomePatcher patcher = new GnomePatcher(HOST, MODULUS);
+
+	@Test
+	public void testUnmodified()
+	{
+		byte[] clazz = createClass("test", "hello");
+		assertSame(clazz, patcher.patchClass(clazz));
+	}
+
+	@Test
+	public void testDomains()
+	{
+		byte[] clazz = createClass("test", "hello", "http://oldschool.runescape.com/", "https://auth.jagex.com/");
+		assertEquals(List.of("hello", HOST, HOST), readLdcs(patcher.patchClass(clazz)));
+	}
+
+	@Test
+	public void testHexModulus()
+	{
+		String hex = "0123456789abcdef".repeat(16);
+		byte[] clazz = createClass("test", hex, "jagex.com");
+		assertEquals(List.of(MODULUS, HOST), readLdcs(patcher.patchClass(clazz)));
+	}
+
+	private static byte[] createClass(String name, String... constants)
+	{
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "test", "()V", null, null);
+		mv.visitCode();
+		for (String constant : constants)
+		{
+			mv.visitLdcInsn(constant);
+			mv.visitInsn(Opcodes.POP);
+		}
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static List<Object> readLdcs(byte[] clazz)
+	{
+		List<Object> ldcs = new ArrayList<>();
+		new ClassReader(clazz).accept(new ClassVisitor(Opcodes.ASM9)
+		{
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions)
+			{
+				return new MethodVisitor(Opcodes.ASM9)
+				{
+					@Override
+					public void visitLdcInsn(Object value)
+					{
+						ldcs.add(value);
+					}
+				};
+			}
+		}, 0);
+		return ldcs;
+	}
+}
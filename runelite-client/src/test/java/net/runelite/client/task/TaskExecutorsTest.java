@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.task;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TaskExecutorsTest
+{
+	private TaskExecutors taskExecutors;
+
+	@Before
+	public void before()
+	{
+		taskExecutors = new TaskExecutors();
+	}
+
+	@Test
+	public void testExecutorPerOwnerAndTier()
+	{
+		Object owner = new Object();
+		assertSame(taskExecutors.executor(TaskTier.IO, owner), taskExecutors.executor(TaskTier.IO, owner));
+		assertNotSame(taskExecutors.executor(TaskTier.IO, owner), taskExecutors.executor(TaskTier.CPU, owner));
+		assertNotSame(taskExecutors.executor(TaskTier.IO, owner), taskExecutors.executor(TaskTier.IO, new Object()));
+	}
+
+	@Test
+	public void testStats() throws Exception
+	{
+		ScheduledExecutorService executor = taskExecutors.executor(TaskTier.IO, "test");
+		Future<Integer> ok = executor.submit(() -> 42);
+		Future<?> ok2 = executor.submit(() ->
+		{
+		});
+		Future<?> bad = executor.submit(() ->
+		{
+			throw new IllegalStateException("expected");
+		});
+
+		assertEquals(42, (int) ok.get());
+		ok2.get();
+		try
+		{
+			bad.get();
+			fail();
+		}
+		catch (ExecutionException ex)
+		{
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+
+		TaskStats stats = stats("test", TaskTier.IO);
+		assertEquals(3, stats.getSubmitted());
+		assertEquals(2, stats.getCompleted());
+		assertEquals(1, stats.getFailed());
+		assertEquals(0, stats.getPending());
+		assertTrue(stats.getMaxRunNanos() <= stats.getTotalRunNanos());
+	}
+
+	@Test
+	public void testCancel() throws Exception
+	{
+		Object owner = new Object();
+		ScheduledExecutorService executor = taskExecutors.executor(TaskTier.TIMER, owner);
+		CountDownLatch ran = new CountDownLatch(2);
+		ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(ran::countDown, 0, 1, TimeUnit.MILLISECONDS);
+		ScheduledFuture<?> delayed = executor.schedule(() -> fail("should have been cancelled"), 1, TimeUnit.HOURS);
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+
+		TaskStats before = stats("Object", TaskTier.TIMER);
+		assertEquals(2, before.getPending());
+
+		taskExecutors.cancel(owner);
+		assertTrue(periodic.isCancelled());
+		assertTrue(delayed.isCancelled());
+		assertEquals(0, stats("Object", TaskTier.TIMER).getPending());
+
+		// the executor is still usable after cancellation
+		assertEquals("ok", executor.submit(() -> "ok").get());
+	}
+
+	private TaskStats stats(String owner, TaskTier tier)
+	{
+		List<TaskStats> all = taskExecutors.getStats();
+		for (TaskStats stats : all)
+		{
+			if (stats.getOwner().equals(owner) && stats.getTier() == tier)
+			{
+				return stats;
+			}
+		}
+		throw new AssertionError("no stats for " + owner);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import java.io.StringWriter;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class FrameProfilerTest
+{
+	@Test
+	public void testDisabled()
+	{
+		final FrameProfiler profiler = new FrameProfiler();
+		assertEquals(FrameProfiler.DISABLED, profiler.start());
+
+		profiler.record(this, FrameProfiler.Source.EVENT, 1000);
+		profiler.endFrame();
+		assertTrue(profiler.getStats().isEmpty());
+	}
+
+	@Test
+	public void testPercentiles()
+	{
+		final FrameProfiler profiler = new FrameProfiler();
+		profiler.setEnabled(true);
+
+		for (int i = 1; i <= 100; ++i)
+		{
+			profiler.record(this, FrameProfiler.Source.OVERLAY, i);
+			profiler.endFrame();
+		}
+		profiler.endTick();
+
+		final List<FrameProfiler.Stats> stats = profiler.getStats();
+		assertEquals(1, stats.size());
+
+		final FrameProfiler.Stats s = stats.get(0);
+		assertEquals("client", s.getOwner());
+		assertEquals(50, s.getFrameP50());
+		assertEquals(95, s.getFrameP95());
+		assertEquals(100, s.getFrameMax());
+		assertEquals(5050, s.getTickP50());
+		assertEquals(5050, s.getTotalNanos());
+	}
+
+	@Test
+	public void testDump() throws Exception
+	{
+		final FrameProfiler profiler = new FrameProfiler();
+		profiler.setEnabled(true);
+		profiler.record(this, FrameProfiler.Source.EVENT, 42);
+
+		final StringWriter writer = new StringWriter();
+		profiler.dump(writer);
+		assertEquals("client;client;EVENT 42\n", writer.toString());
+	}
+
+	@Test
+	public void testOwner()
+	{
+		assertEquals("client", FrameProfiler.ownerOf(FrameProfiler.class));
+		assertEquals("devtools", FrameProfiler.ownerOf(net.runelite.client.plugins.devtools.DevToolsPlugin.class));
+		assertEquals("org.junit", FrameProfiler.ownerOf(Test.class));
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class MarkerIndexTest
+{
+	@Test
+	public void testPack()
+	{
+		// region 12850 is lumbridge, world 3200,3200
+		assertEquals(MarkerIndex.pack(3200, 3200, 0, 0), MarkerIndex.packRegion(12850, 0, 0, 0, 0));
+		assertEquals(MarkerIndex.pack(3263, 3263, 3, 1234), MarkerIndex.packRegion(12850, 63, 63, 3, 1234));
+		assertEquals(3 << 28 | 3263 << 14 | 3263, MarkerIndex.pack(3263, 3263, 3, 0));
+		assertEquals(1234L, MarkerIndex.pack(3263, 3263, 3, 1234) >>> 32);
+	}
+
+	@Test
+	public void testRegions()
+	{
+		MarkerIndex<long[]> index = new MarkerIndex<>(m -> m[0]);
+		long[] a = {MarkerIndex.packRegion(12850, 1, 2, 0, 10)};
+		long[] b = {MarkerIndex.packRegion(12850, 1, 2, 0, 11)};
+		long[] c = {MarkerIndex.packRegion(12851, 1, 2, 0, 10)};
+
+		assertFalse(index.isLoaded(12850));
+		index.putRegion(12850, Arrays.asList(a, b));
+		index.putRegion(12851, Collections.singletonList(c));
+		index.putRegion(12852, Collections.emptyList());
+
+		assertTrue(index.isLoaded(12852));
+		assertEquals(3, index.size());
+		assertSame(a, index.get(a[0]));
+		assertSame(b, index.get(b[0]));
+		assertSame(c, index.get(c[0]));
+		assertNull(index.get(MarkerIndex.packRegion(12850, 1, 2, 1, 10)));
+
+		index.putRegion(12850, Collections.singletonList(b));
+		assertEquals(2, index.size());
+		assertNull(index.get(a[0]));
+		assertSame(b, index.get(b[0]));
+
+		index.removeRegion(12851);
+		assertFalse(index.isLoaded(12851));
+		assertNull(index.get(c[0]));
+		assertEquals(Collections.emptyList(), index.getRegion(12851));
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertNull(index.get(b[0]));
+	}
+
+	@Test
+	public void testManyMarkers()
+	{
+		MarkerIndex<long[]> index = new MarkerIndex<>(m -> m[0]);
+		List<long[]> markers = new ArrayList<>();
+		for (int x = 0; x < 64; ++x)
+		{
+			for (int y = 0; y < 64; ++y)
+			{
+				markers.add(new long[]{MarkerIndex.packRegion(12850, x, y, x & 3, y)});
+			}
+		}
+		index.putRegion(12850, markers);
+		assertEquals(markers.size(), index.size());
+
+		for (long[] m : markers)
+		{
+			assertSame(m, index.get(m[0]));
+		}
+
+		// replace the region with half of the markers and check the rest are still found
+		index.putRegion(12850, markers.subList(2048, markers.size()));
+		assertEquals(markers.size() - 2048, index.size());
+		for (int i = 0; i < markers.size(); ++i)
+		{
+			long[] m = markers.get(i);
+			if (i < 2048)
+			{
+				assertNull(index.get(m[0]));
+			}
+			else
+			{
+				assertSame(m, index.get(m[0]));
+			}
+		}
+	}
+}
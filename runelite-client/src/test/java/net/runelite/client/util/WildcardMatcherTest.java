@@ -27,6 +27,8 @@ package net.runelite.client.util;
 import static junit.framework.TestCase.assertTrue;
 import static net.runelite.client.util.WildcardMatcher.matches;
 import static org.junit.Assert.assertFalse;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
 import org.junit.Test;
 
 public class WildcardMatcherTest
@@ -41,4 +43,41 @@ public class WildcardMatcherTest
 		assertTrue(matches("Abyssal whip", "Abyssal whip"));
 		assertTrue(matches("string $ with special character", "string $ with special character"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testMatchesWildcards()
+	{
+		assertTrue(matches("*", ""));
+		assertTrue(matches("*pouch", "Rune pouch"));
+		assertTrue(matches("r*e*h", "rune pouch"));
+		assertTrue(matches("a*a*a", "aaaaa"));
+		assertTrue(matches("**", "abc"));
+		assertFalse(matches("r*e*x", "rune pouch"));
+		assertFalse(matches("rune", "rune pouch"));
+		assertFalse(matches("a*a*a", "aa"));
+		assertFalse(matches("rune*", ""));
+		assertTrue(matches("item (p++)", "Item (P++)"));
+		assertFalse(matches("item (p++)", "item (pp)"));
+	}
+
+	@Test
+	public void testCompile()
+	{
+		final WildcardMatcher matcher = WildcardMatcher.compile(ImmutableList.of(
+			"Abyssal whip", "rune*", "*pouch", "dragon*axe", "GOBLIN"));
+
+		assertTrue(matcher.matchesAny("abyssal WHIP"));
+		assertTrue(matcher.matchesAny("Goblin"));
+		assertTrue(matcher.matchesAny("Rune scimitar"));
+		assertTrue(matcher.matchesAny("Small pouch"));
+		assertTrue(matcher.matchesAny("Dragon battleaxe"));
+		assertFalse(matcher.matchesAny("Abyssal whip (or)"));
+		assertFalse(matcher.matchesAny("Dragon axe (or)"));
+		assertFalse(matcher.matchesAny("Adamant dagger"));
+		assertFalse(matcher.matchesAny(""));
+
+		final WildcardMatcher empty = WildcardMatcher.compile(Collections.emptyList());
+		assertFalse(empty.matchesAny("rune"));
+		assertFalse(empty.matchesAny(""));
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.mvn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Writes an index of the plugins in the compiled classes, so the client does not need to scan
+ * the classpath at startup. Each line has the plugin class, its descriptor name, its
+ * developerPlugin, loadWhenOutdated and loadInSafeMode flags, and a comma separated list of
+ * the plugins it depends on, separated by tabs. Plugins are written in dependency order.
+ */
+@Mojo(
+	name = "plugin-index",
+	defaultPhase = LifecyclePhase.PROCESS_CLASSES
+)
+public class PluginIndexMojo extends AbstractMojo
+{
+	private static final String PLUGIN = "net/runelite/client/plugins/Plugin";
+	private static final String PLUGIN_DESCRIPTOR = "Lnet/runelite/client/plugins/PluginDescriptor;";
+	private static final String PLUGIN_DEPENDENCY = "Lnet/runelite/client/plugins/PluginDependency;";
+	private static final String PLUGIN_DEPENDENCIES = "Lnet/runelite/client/plugins/PluginDependencies;";
+
+	@Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+	private File classesDirectory;
+
+	@Parameter(defaultValue = "net.runelite.client.plugins", required = true)
+	private String pluginPackage;
+
+	@Parameter(required = true)
+	private File indexFile;
+
+	private static class PluginInfo
+	{
+		String className;
+		String superName;
+		String name;
+		boolean developerPlugin;
+		boolean loadWhenOutdated;
+		boolean loadInSafeMode = true;
+		boolean descriptor;
+		final List<String> dependencies = new ArrayList<>();
+	}
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException
+	{
+		File packageDirectory = new File(classesDirectory, pluginPackage.replace('.', '/'));
+		Map<String, PluginInfo> plugins = new TreeMap<>();
+		try
+		{
+			scan(packageDirectory, plugins);
+		}
+		catch (IOException ex)
+		{
+			throw new MojoExecutionException("error reading plugin classes", ex);
+		}
+
+		List<PluginInfo> sorted = sort(plugins);
+
+		indexFile.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(indexFile.toPath(), StandardCharsets.UTF_8)))
+		{
+			for (PluginInfo plugin : sorted)
+			{
+				out.print(plugin.className);
+				out.print('\t');
+				out.print(plugin.name);
+				out.print('\t');
+				out.print(plugin.developerPlugin);
+				out.print('\t');
+				out.print(plugin.loadWhenOutdated);
+				out.print('\t');
+				out.print(plugin.loadInSafeMode);
+				out.print('\t');
+				out.print(String.join(",", plugin.dependencies));
+				out.print('\n');
+			}
+		}
+		catch (IOException ex)
+		{
+			throw new MojoExecutionException("error writing plugin index", ex);
+		}
+
+		getLog().info("Indexed " + sorted.size() + " plugins");
+	}
+
+	private void scan(File directory, Map<String, PluginInfo> plugins) throws IOException
+	{
+		File[] files = directory.listFiles();
+		if (files == null)
+		{
+			return;
+		}
+
+		for (File file : files)
+		{
+			if (file.isDirectory())
+			{
+				scan(file, plugins);
+			}
+			// only top level classes can be plugins
+			else if (file.getName().endsWith(".class") && file.getName().indexOf('$') == -1)
+			{
+				PluginInfo plugin = read(file);
+				if (plugin.descriptor)
+				{
+					plugins.put(plugin.className, plugin);
+				}
+				else if (PLUGIN.equals(plugin.superName))
+				{
+					getLog().warn("Class " + plugin.className + " is a plugin, but has no plugin descriptor");
+				}
+			}
+		}
+	}
+
+	private static PluginInfo read(File file) throws IOException
+	{
+		PluginInfo plugin = new PluginInfo();
+		try (InputStream in = Files.newInputStream(file.toPath()))
+		{
+			new ClassReader(in).accept(new ClassVisitor(Opcodes.ASM9)
+			{
+				@Override
+				public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
+				{
+					plugin.className = Type.getObjectType(name).getClassName();
+					plugin.superName = superName;
+				}
+
+				@Override
+				public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
+				{
+					switch (descriptor)
+					{
+						case PLUGIN_DESCRIPTOR:
+							plugin.descriptor = true;
+							return new DescriptorVisitor(plugin);
+						case PLUGIN_DEPENDENCY:
+							return new DependencyVisitor(plugin);
+						case PLUGIN_DEPENDENCIES:
+							return new AnnotationVisitor(Opcodes.ASM9)
+							{
+								@Override
+								public AnnotationVisitor visitArray(String name)
+								{
+									return new AnnotationVisitor(Opcodes.ASM9)
+									{
+										@Override
+										public AnnotationVisitor visitAnnotation(String name, String descriptor)
+										{
+											return new DependencyVisitor(plugin);
+										}
+									};
+								}
+							};
+						default:
+							return null;
+					}
+				}
+			}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		}
+		return plugin;
+	}
+
+	private static class DescriptorVisitor extends AnnotationVisitor
+	{
+		private final PluginInfo plugin;
+
+		DescriptorVisitor(PluginInfo plugin)
+		{
+			super(Opcodes.ASM9);
+			this.plugin = plugin;
+		}
+
+		@Override
+		public void visit(String name, Object value)
+		{
+			switch (name)
+			{
+				case "name":
+					plugin.name = (String) value;
+					break;
+				case "developerPlugin":
+					plugin.developerPlugin = (Boolean) value;
+					break;
+				case "loadWhenOutdated":
+					plugin.loadWhenOutdated = (Boolean) value;
+					break;
+				case "loadInSafeMode":
+					plugin.loadInSafeMode = (Boolean) value;
+					break;
+			}
+		}
+	}
+
+	private static class DependencyVisitor extends AnnotationVisitor
+	{
+		private final PluginInfo plugin;
+
+		DependencyVisitor(PluginInfo plugin)
+		{
+			super(Opcodes.ASM9);
+			this.plugin = plugin;
+		}
+
+		@Override
+		public void visit(String name, Object value)
+		{
+			if ("value".equals(name))
+			{
+				plugin.dependencies.add(((Type) value).getClassName());
+			}
+		}
+	}
+
+	/**
+	 * Order the plugins so each comes after the plugins it depends on
+	 */
+	private static List<PluginInfo> sort(Map<String, PluginInfo> plugins) throws MojoFailureException
+	{
+		Map<String, Integer> inDegree = new HashMap<>();
+		Map<String, List<PluginInfo>> dependants = new HashMap<>();
+		for (PluginInfo plugin : plugins.values())
+		{
+			int degree = 0;
+			for (String dependency : plugin.dependencies)
+			{
+				// dependencies outside of the indexed classes are resolved by the client
+				if (plugins.containsKey(dependency))
+				{
+					dependants.computeIfAbsent(dependency, k -> new ArrayList<>()).add(plugin);
+					++degree;
+				}
+			}
+			inDegree.put(plugin.className, degree);
+		}
+
+		Deque<PluginInfo> ready = new ArrayDeque<>();
+		for (PluginInfo plugin : plugins.values())
+		{
+			if (inDegree.get(plugin.className) == 0)
+			{
+				ready.add(plugin);
+			}
+		}
+
+		List<PluginInfo> sorted = new ArrayList<>(plugins.size());
+		while (!ready.isEmpty())
+		{
+			PluginInfo plugin = ready.poll();
+			sorted.add(plugin);
+			for (PluginInfo dependant : dependants.getOrDefault(plugin.className, Collections.emptyList()))
+			{
+				if (inDegree.merge(dependant.className, -1, Integer::sum) == 0)
+				{
+					ready.add(dependant);
+				}
+			}
+		}
+
+		if (sorted.size() != plugins.size())
+		{
+			throw new MojoFailureException("Plugin dependency graph contains a cycle!");
+		}
+		return sorted;
+	}
+}